@@ -0,0 +1,35 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.service.AdmissionRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps admission-control outcomes of the guarded range endpoints to HTTP: a rejected request gets {@code 429} with
+ * {@code Retry-After}, a query cancelled by its class's statement timeout gets {@code 503}.
+ */
+@RestControllerAdvice
+public class AdmissionExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionExceptionHandler.class);
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Void> onRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<Void> onStatementTimeout(RuntimeException e) {
+        log.warn("Query cancelled by its statement timeout: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
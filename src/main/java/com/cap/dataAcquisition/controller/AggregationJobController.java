@@ -0,0 +1,69 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.AggregationJobStatus;
+import com.cap.dataAcquisition.service.ChunkedAggregationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/acquisition/aggregate/jobs")
+public class AggregationJobController {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregationJobController.class);
+
+    private final ChunkedAggregationService chunkedAggregationService;
+
+    @Autowired
+    public AggregationJobController(ChunkedAggregationService chunkedAggregationService) {
+        this.chunkedAggregationService = chunkedAggregationService;
+    }
+
+    // --- Background metrics overview of a long window, computed chunk by chunk ---
+    @PostMapping
+    public ResponseEntity<AggregationJobStatus> submit(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime) { // Unix epoch seconds
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(chunkedAggregationService.submit(startTime, endTime));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected aggregation job: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejected aggregation job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // --- Progress (with the partial overview), resume and cancel ---
+    @GetMapping("/{jobId}")
+    public ResponseEntity<AggregationJobStatus> status(@PathVariable String jobId) {
+        return control(() -> chunkedAggregationService.status(jobId));
+    }
+
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<AggregationJobStatus> resume(@PathVariable String jobId) {
+        return control(() -> chunkedAggregationService.resume(jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<AggregationJobStatus> cancel(@PathVariable String jobId) {
+        return control(() -> chunkedAggregationService.cancel(jobId));
+    }
+
+    private ResponseEntity<AggregationJobStatus> control(Supplier<Optional<AggregationJobStatus>> action) {
+        return action.get().map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
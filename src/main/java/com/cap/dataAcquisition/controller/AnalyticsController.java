@@ -0,0 +1,125 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.BatchAggregationRequest;
+import com.cap.dataAcquisition.dto.DistinctEntityCounts;
+import com.cap.dataAcquisition.dto.PduRateSeries;
+import com.cap.dataAcquisition.dto.RateDistributionResponse;
+import com.cap.dataAcquisition.dto.TopEntitiesResponse;
+import com.cap.dataAcquisition.model.CustomRangeAggregation;
+import com.cap.dataAcquisition.model.TopEntityRole;
+import com.cap.dataAcquisition.service.BatchAggregationService;
+import com.cap.dataAcquisition.service.DistinctEntityService;
+import com.cap.dataAcquisition.service.RateDistributionService;
+import com.cap.dataAcquisition.service.TimeSeriesService;
+import com.cap.dataAcquisition.service.TopEntitiesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/acquisition")
+public class AnalyticsController {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private final TimeSeriesService timeSeriesService;
+    private final BatchAggregationService batchAggregationService;
+    private final DistinctEntityService distinctEntityService;
+    private final TopEntitiesService topEntitiesService;
+    private final RateDistributionService rateDistributionService;
+
+    @Autowired
+    public AnalyticsController(TimeSeriesService timeSeriesService, BatchAggregationService batchAggregationService,
+                               DistinctEntityService distinctEntityService, TopEntitiesService topEntitiesService,
+                               RateDistributionService rateDistributionService) {
+        this.timeSeriesService = timeSeriesService;
+        this.batchAggregationService = batchAggregationService;
+        this.distinctEntityService = distinctEntityService;
+        this.topEntitiesService = topEntitiesService;
+        this.rateDistributionService = rateDistributionService;
+    }
+
+    // --- Per-type PDU counts over time, bucket size chosen to stay under maxPoints ---
+    @GetMapping("/metrics/series")
+    public ResponseEntity<PduRateSeries> getPduRateSeries(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false, defaultValue = "1000") int maxPoints) {
+        try {
+            return ResponseEntity.ok(timeSeriesService.getSeries(startTime, endTime, maxPoints));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected series query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // --- Approximate distinct active / firing entities, optionally per bucket ---
+    @GetMapping("/metrics/distinct-entities")
+    public ResponseEntity<DistinctEntityCounts> getDistinctEntities(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false) Long bucketSeconds) {
+        try {
+            return ResponseEntity.ok(distinctEntityService.getDistinctEntities(startTime, endTime, bucketSeconds));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected distinct-entity query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // --- p50/p95/p99 of PDUs per second, merged from hourly histograms where available ---
+    @GetMapping("/metrics/rate-distribution")
+    public ResponseEntity<RateDistributionResponse> getRateDistribution(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime) { // Unix epoch seconds
+        try {
+            return ResponseEntity.ok(rateDistributionService.getDistribution(startTime, endTime));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected rate-distribution query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // --- Top-K shooters / targeted / hit entities, live (lastMinutes) or for an explicit window ---
+    @GetMapping("/metrics/top-entities")
+    public ResponseEntity<TopEntitiesResponse> getTopEntities(
+            @RequestParam String role, // firing, targeted or hit
+            @RequestParam(required = false, defaultValue = "10") int k,
+            @RequestParam(required = false) Integer lastMinutes,
+            @RequestParam(required = false) Long startTime, // Unix epoch seconds
+            @RequestParam(required = false) Long endTime) { // Unix epoch seconds
+        try {
+            TopEntityRole entityRole = TopEntityRole.fromName(role);
+            if (lastMinutes != null) {
+                return ResponseEntity.ok(topEntitiesService.getTopEntities(entityRole, k, lastMinutes));
+            }
+            if (startTime == null || endTime == null) {
+                throw new IllegalArgumentException("Either lastMinutes or startTime and endTime are required");
+            }
+            return ResponseEntity.ok(topEntitiesService.getTopEntities(entityRole, k, startTime, endTime));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected top-entities query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // --- Many /aggregate windows in one call and one database pass ---
+    @PostMapping("/aggregate/batch")
+    public ResponseEntity<List<CustomRangeAggregation>> getBatchAggregatedData(@RequestBody BatchAggregationRequest request) {
+        try {
+            return ResponseEntity.ok(batchAggregationService.aggregate(request.getWindows()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected batch aggregation: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.diagnostics.RequestDiagnosticsStore;
+import com.cap.dataAcquisition.dto.RequestDiagnostics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/acquisition/diagnostics")
+@ConditionalOnProperty(name = "diagnostics.server-timing.enabled", havingValue = "true")
+public class DiagnosticsController {
+
+    private final RequestDiagnosticsStore diagnosticsStore;
+
+    @Autowired
+    public DiagnosticsController(RequestDiagnosticsStore diagnosticsStore) {
+        this.diagnosticsStore = diagnosticsStore;
+    }
+
+    @GetMapping("/{diagnosticsId}")
+    public ResponseEntity<RequestDiagnostics> getDiagnostics(@PathVariable String diagnosticsId) {
+        RequestDiagnostics diagnostics = diagnosticsStore.get(diagnosticsId);
+        if (diagnostics == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(diagnostics);
+    }
+}
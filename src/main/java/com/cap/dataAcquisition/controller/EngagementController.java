@@ -0,0 +1,41 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.EngagementReport;
+import com.cap.dataAcquisition.service.EngagementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/acquisition/engagements")
+public class EngagementController {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementController.class);
+
+    private final EngagementService engagementService;
+
+    @Autowired
+    public EngagementController(EngagementService engagementService) {
+        this.engagementService = engagementService;
+    }
+
+    // --- Fire -> detonation pairs with time of flight and hit location ---
+    @GetMapping
+    public ResponseEntity<EngagementReport> getEngagements(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false, defaultValue = "60") long maxTimeOfFlight, // seconds
+            @RequestParam(required = false, defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(engagementService.getEngagements(startTime, endTime, maxTimeOfFlight, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected engagement query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.EntitySnapshotResponse;
+import com.cap.dataAcquisition.dto.HeartbeatGapReport;
+import com.cap.dataAcquisition.dto.TrajectoryResponse;
+import com.cap.dataAcquisition.service.HeartbeatGapService;
+import com.cap.dataAcquisition.service.LatestEntityStateService;
+import com.cap.dataAcquisition.service.TrajectoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/acquisition/entities")
+public class EntityController {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityController.class);
+
+    private final TrajectoryService trajectoryService;
+    private final LatestEntityStateService latestEntityStateService;
+    private final HeartbeatGapService heartbeatGapService;
+
+    @Autowired
+    public EntityController(TrajectoryService trajectoryService,
+                            @Autowired(required = false) LatestEntityStateService latestEntityStateService,
+                            HeartbeatGapService heartbeatGapService) {
+        this.trajectoryService = trajectoryService;
+        this.latestEntityStateService = latestEntityStateService;
+        this.heartbeatGapService = heartbeatGapService;
+    }
+
+    // --- Current tactical picture, served from memory ---
+    @GetMapping("/latest")
+    public ResponseEntity<EntitySnapshotResponse> getLatestEntityStates(
+            @RequestParam(required = false) Long maxAgeSeconds) {
+        if (latestEntityStateService == null) {
+            log.warn("/entities/latest called but the latest-state table is disabled.");
+            return ResponseEntity.status(503).build();
+        }
+        if (maxAgeSeconds != null && maxAgeSeconds < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(latestEntityStateService.snapshot(maxAgeSeconds));
+    }
+
+    // --- Entities whose EntityState heartbeat stalled for longer than gapSeconds ---
+    @GetMapping("/heartbeat-gaps")
+    public ResponseEntity<HeartbeatGapReport> getHeartbeatGaps(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false, defaultValue = "12") long gapSeconds, // 5 s DIS heartbeat x 2.4 timeout multiplier
+            @RequestParam(required = false, defaultValue = "true") boolean onlyWithGaps,
+            @RequestParam(required = false, defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(heartbeatGapService.getHeartbeatGaps(startTime, endTime, gapSeconds, onlyWithGaps, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected heartbeat-gap query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // --- Trajectory of one entity, downsampled to maxPoints ---
+    @GetMapping("/{site}/{application}/{entity}/trajectory")
+    public ResponseEntity<TrajectoryResponse> getTrajectory(
+            @PathVariable int site,
+            @PathVariable int application,
+            @PathVariable int entity,
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false, defaultValue = "1000") int maxPoints) {
+        try {
+            return ResponseEntity.ok(trajectoryService.getTrajectory(site, application, entity, startTime, endTime, maxPoints));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected trajectory query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.service.DisExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+
+@RestController
+@RequestMapping("/api/acquisition/export")
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+    private final DisExportService disExportService;
+
+    @Autowired
+    public ExportController(DisExportService disExportService) {
+        this.disExportService = disExportService;
+    }
+
+    // --- All PDUs of a window as a raw DIS PDU file, in timestamp order ---
+    @GetMapping("/dis")
+    public ResponseEntity<StreamingResponseBody> exportDis(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime) { // Unix epoch seconds
+        try {
+            disExportService.validateWindow(startTime, endTime);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected DIS export: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> disExportService.export(startTime, endTime, Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pdus-" + startTime + "-" + endTime + ".pdu\"")
+                .body(body);
+    }
+}
@@ -14,6 +14,8 @@ import com.cap.dataAcquisition.model.RealTimeMetrics;
 import com.cap.dataAcquisition.model.MonthlyAggregation;
 import com.cap.dataAcquisition.model.CustomRangeAggregation;
 import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.DisEntityId;
 import com.cap.dataAcquisition.dto.PduLogResponse;
 import com.cap.dataAcquisition.repository.CollisionRepository;
 import com.cap.dataAcquisition.repository.DetonationRepository;
@@ -25,8 +27,12 @@ import com.cap.dataAcquisition.repository.StartResumePduRepository;
 import com.cap.dataAcquisition.repository.SetDataPduRepository;
 import com.cap.dataAcquisition.repository.DesignatorPduRepository;
 import com.cap.dataAcquisition.repository.ElectromagneticEmissionsPduRepository;
+import com.cap.dataAcquisition.service.AdmissionControl;
 import com.cap.dataAcquisition.service.MetricsService;
+import com.cap.dataAcquisition.service.PduIdIndexService;
 import com.cap.dataAcquisition.service.RealTimeMetricsService;
+import com.cap.dataAcquisition.service.RecordRangeCache;
+import com.cap.dataAcquisition.service.SparseFieldService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,7 +49,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId; // Keep ZoneId if used by original methods
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @RestController
 @RequestMapping("/api/acquisition")
@@ -63,6 +75,9 @@ public class HistoricalDataController {
     private final ElectromagneticEmissionsPduRepository electromagneticEmissionsPduRepository;
     private final RealTimeMetricsService realTimeMetricsService;
     private final MetricsService metricsService;
+    private final AdmissionControl admissionControl;
+    private final RecordRangeCache recordRangeCache;
+    private final SparseFieldService sparseFieldService;
 
     @Autowired
     public HistoricalDataController(EntityStateRepository entityStateRepository,
@@ -76,7 +91,10 @@ public class HistoricalDataController {
                                     DesignatorPduRepository designatorPduRepository,
                                     ElectromagneticEmissionsPduRepository electromagneticEmissionsPduRepository,
                                     @Autowired(required = false) RealTimeMetricsService realTimeMetricsService,
-                                    MetricsService metricsService) {
+                                    MetricsService metricsService,
+                                    @Autowired(required = false) AdmissionControl admissionControl,
+                                    @Autowired(required = false) RecordRangeCache recordRangeCache,
+                                    SparseFieldService sparseFieldService) {
         this.entityStateRepository = entityStateRepository;
         this.fireEventRepository = fireEventRepository;
         this.collisionRepository = collisionRepository;
@@ -89,21 +107,30 @@ public class HistoricalDataController {
         this.electromagneticEmissionsPduRepository = electromagneticEmissionsPduRepository;
         this.realTimeMetricsService = realTimeMetricsService;
         this.metricsService = metricsService;
+        this.admissionControl = admissionControl;
+        this.recordRangeCache = recordRangeCache;
+        this.sparseFieldService = sparseFieldService;
     }
 
     @GetMapping("/entity-states")
-    public List<EntityStateRecord> getEntityStates(
+    public ResponseEntity<List<?>> getEntityStates(
             @RequestParam(required = false) Long startTime, // Expecting DIS Absolute Timestamp
-            @RequestParam(required = false) Long endTime) { // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) Long endTime, // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return sparseRecords("/entity-states", PduType.ENTITY_STATE, startTime, endTime, fields);
+        }
         List<EntityStateRecord> records;
         if (startTime != null && endTime != null) {
             log.info("Fetching entity states between DIS TS: {} ({}) and {} ({})",
                 startTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(startTime))),
                 endTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(endTime))));
-            records = entityStateRepository.findByTimestampBetween(startTime, endTime);
+            records = cachedRange("/entity-states", PduType.ENTITY_STATE, startTime, endTime,
+                    EntityStateRecord::getId, EntityStateRecord::getTimestamp);
         } else {
             log.info("Fetching all entity states.");
-            records = entityStateRepository.findAll();
+            records = admitted("/entity-states", EnumSet.of(PduType.ENTITY_STATE), AdmissionControl.UNBOUNDED_WINDOW,
+                    entityStateRepository::findAll);
         }
         if (records != null && !records.isEmpty()) {
             log.info("Returning {} entity state records. First record raw DIS timestamp: {}, Decoded: {}",
@@ -111,22 +138,28 @@ public class HistoricalDataController {
                     records.get(0).getTimestamp(),
                     MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(records.get(0).getTimestamp()))));
         }
-        return records;
+        return ResponseEntity.ok(records);
     }
 
     @GetMapping("/fire-events")
-    public List<FireEventRecord> getFireEvents(
+    public ResponseEntity<List<?>> getFireEvents(
             @RequestParam(required = false) Long startTime, // Expecting DIS Absolute Timestamp
-            @RequestParam(required = false) Long endTime) { // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) Long endTime, // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return sparseRecords("/fire-events", PduType.FIRE_EVENT, startTime, endTime, fields);
+        }
         List<FireEventRecord> records;
         if (startTime != null && endTime != null) {
              log.info("Fetching fire events between DIS TS: {} ({}) and {} ({})",
                 startTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(startTime))),
                 endTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(endTime))));
-            records = fireEventRepository.findByTimestampBetween(startTime, endTime);
+            records = cachedRange("/fire-events", PduType.FIRE_EVENT, startTime, endTime,
+                    FireEventRecord::getId, FireEventRecord::getTimestamp);
         } else {
             log.info("Fetching all fire events.");
-            records = fireEventRepository.findAll();
+            records = admitted("/fire-events", EnumSet.of(PduType.FIRE_EVENT), AdmissionControl.UNBOUNDED_WINDOW,
+                    fireEventRepository::findAll);
         }
         if (records != null && !records.isEmpty()) {
             log.info("Returning {} fire event records. First record raw DIS timestamp: {}, Decoded: {}",
@@ -134,22 +167,28 @@ public class HistoricalDataController {
                     records.get(0).getTimestamp(),
                     MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(records.get(0).getTimestamp()))));
         }
-        return records;
+        return ResponseEntity.ok(records);
     }
 
     @GetMapping("/collision-events")
-    public List<CollisionRecord> getCollisionEvents(
+    public ResponseEntity<List<?>> getCollisionEvents(
             @RequestParam(required = false) Long startTime, // Expecting DIS Absolute Timestamp
-            @RequestParam(required = false) Long endTime) { // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) Long endTime, // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return sparseRecords("/collision-events", PduType.COLLISION, startTime, endTime, fields);
+        }
         List<CollisionRecord> records;
         if (startTime != null && endTime != null) {
              log.info("Fetching collision events between DIS TS: {} ({}) and {} ({})",
                 startTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(startTime))),
                 endTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(endTime))));
-            records = collisionRepository.findByTimestampBetween(startTime, endTime);
+            records = cachedRange("/collision-events", PduType.COLLISION, startTime, endTime,
+                    CollisionRecord::getId, CollisionRecord::getTimestamp);
         } else {
             log.info("Fetching all collision events.");
-            records = collisionRepository.findAll();
+            records = admitted("/collision-events", EnumSet.of(PduType.COLLISION), AdmissionControl.UNBOUNDED_WINDOW,
+                    collisionRepository::findAll);
         }
         if (records != null && !records.isEmpty()) {
             log.info("Returning {} collision event records. First record raw DIS timestamp: {}, Decoded: {}",
@@ -157,22 +196,28 @@ public class HistoricalDataController {
                     records.get(0).getTimestamp(),
                     MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(records.get(0).getTimestamp()))));
         }
-        return records;
+        return ResponseEntity.ok(records);
     }
 
     @GetMapping("/detonation-events")
-    public List<DetonationRecord> getDetonationEvents(
+    public ResponseEntity<List<?>> getDetonationEvents(
             @RequestParam(required = false) Long startTime, // Expecting DIS Absolute Timestamp
-            @RequestParam(required = false) Long endTime) { // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) Long endTime, // Expecting DIS Absolute Timestamp
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return sparseRecords("/detonation-events", PduType.DETONATION, startTime, endTime, fields);
+        }
         List<DetonationRecord> records;
         if (startTime != null && endTime != null) {
              log.info("Fetching detonation events between DIS TS: {} ({}) and {} ({})",
                 startTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(startTime))),
                 endTime, MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(endTime))));
-            records = detonationRepository.findByTimestampBetween(startTime, endTime);
+            records = cachedRange("/detonation-events", PduType.DETONATION, startTime, endTime,
+                    DetonationRecord::getId, DetonationRecord::getTimestamp);
         } else {
             log.info("Fetching all detonation events.");
-            records = detonationRepository.findAll();
+            records = admitted("/detonation-events", EnumSet.of(PduType.DETONATION), AdmissionControl.UNBOUNDED_WINDOW,
+                    detonationRepository::findAll);
         }
         if (records != null && !records.isEmpty()) {
             log.info("Returning {} detonation event records. First record raw DIS timestamp: {}, Decoded: {}",
@@ -180,7 +225,7 @@ public class HistoricalDataController {
                     records.get(0).getTimestamp(),
                     MetricsService.formatInstant(Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(records.get(0).getTimestamp()))));
         }
-        return records;
+        return ResponseEntity.ok(records);
     }
 
     @GetMapping("/health")
@@ -224,30 +269,22 @@ public class HistoricalDataController {
         log.info("Fetching monthly aggregation for Year: {}, Month: {} (DIS TS Range: {} to {})", year, month, disStartTime, disEndTime);
         log.info("Corresponding UTC Range: {} to {}", MetricsService.formatInstant(Instant.ofEpochSecond(startEpochSeconds)), MetricsService.formatInstant(Instant.ofEpochSecond(endEpochSeconds)));
 
-        List<EntityStateRecord> entityStates = entityStateRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<FireEventRecord> fireEvents = fireEventRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<CollisionRecord> collisionEvents = collisionRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DetonationRecord> detonationEvents = detonationRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DataPduRecord> dataPduEvents = dataPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<ActionRequestPduRecord> actionRequestPduEvents = actionRequestPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<StartResumePduRecord> startResumePduEvents = startResumePduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<SetDataPduRecord> setDataPduEvents = setDataPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DesignatorPduRecord> designatorPduEvents = designatorPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<ElectromagneticEmissionsPduRecord> electromagneticEmissionsPduEvents = electromagneticEmissionsPduRepository.findByTimestampBetween(disStartTime, disEndTime);
+        Map<PduType, Long> counts = admitted("/monthly", EnumSet.allOf(PduType.class), endEpochSeconds - startEpochSeconds + 1,
+                () -> metricsService.countPdusByType(disStartTime, disEndTime));
 
         MonthlyAggregation result = new MonthlyAggregation(
                 year,
                 month,
-                entityStates != null ? entityStates.size() : 0,
-                fireEvents != null ? fireEvents.size() : 0,
-                collisionEvents != null ? collisionEvents.size() : 0,
-                detonationEvents != null ? detonationEvents.size() : 0,
-                dataPduEvents != null ? dataPduEvents.size() : 0,
-                actionRequestPduEvents != null ? actionRequestPduEvents.size() : 0,
-                startResumePduEvents != null ? startResumePduEvents.size() : 0,
-                setDataPduEvents != null ? setDataPduEvents.size() : 0,
-                designatorPduEvents != null ? designatorPduEvents.size() : 0,
-                electromagneticEmissionsPduEvents != null ? electromagneticEmissionsPduEvents.size() : 0
+                counts.get(PduType.ENTITY_STATE),
+                counts.get(PduType.FIRE_EVENT),
+                counts.get(PduType.COLLISION),
+                counts.get(PduType.DETONATION),
+                counts.get(PduType.DATA_PDU),
+                counts.get(PduType.ACTION_REQUEST),
+                counts.get(PduType.START_RESUME),
+                counts.get(PduType.SET_DATA),
+                counts.get(PduType.DESIGNATOR),
+                counts.get(PduType.ELECTROMAGNETIC_EMISSIONS)
         );
         return ResponseEntity.ok(result);
     }
@@ -313,30 +350,22 @@ public class HistoricalDataController {
         log.info("DIS TS Range: {} to {}", disStartTime, disEndTime);
         log.info("Corresponding UTC Range: {} to {}", MetricsService.formatInstant(Instant.ofEpochSecond(startEpochSeconds)), MetricsService.formatInstant(Instant.ofEpochSecond(endEpochSeconds)));
 
-        List<EntityStateRecord> entityStates = entityStateRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<FireEventRecord> fireEvents = fireEventRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<CollisionRecord> collisionEvents = collisionRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DetonationRecord> detonationEvents = detonationRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DataPduRecord> dataPduEvents = dataPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<ActionRequestPduRecord> actionRequestPduEvents = actionRequestPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<StartResumePduRecord> startResumePduEvents = startResumePduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<SetDataPduRecord> setDataPduEvents = setDataPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DesignatorPduRecord> designatorPduEvents = designatorPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<ElectromagneticEmissionsPduRecord> electromagneticEmissionsPduEvents = electromagneticEmissionsPduRepository.findByTimestampBetween(disStartTime, disEndTime);
+        Map<PduType, Long> counts = admitted("/aggregate", EnumSet.allOf(PduType.class), endEpochSeconds - startEpochSeconds + 1,
+                () -> metricsService.countPdusByType(disStartTime, disEndTime));
 
         CustomRangeAggregation result = new CustomRangeAggregation(
                 actualStartDate.toString(),
                 actualEndDate.toString(),
-                entityStates != null ? entityStates.size() : 0,
-                fireEvents != null ? fireEvents.size() : 0,
-                collisionEvents != null ? collisionEvents.size() : 0,
-                detonationEvents != null ? detonationEvents.size() : 0,
-                dataPduEvents != null ? dataPduEvents.size() : 0,
-                actionRequestPduEvents != null ? actionRequestPduEvents.size() : 0,
-                startResumePduEvents != null ? startResumePduEvents.size() : 0,
-                setDataPduEvents != null ? setDataPduEvents.size() : 0,
-                designatorPduEvents != null ? designatorPduEvents.size() : 0,
-                electromagneticEmissionsPduEvents != null ? electromagneticEmissionsPduEvents.size() : 0
+                counts.get(PduType.ENTITY_STATE),
+                counts.get(PduType.FIRE_EVENT),
+                counts.get(PduType.COLLISION),
+                counts.get(PduType.DETONATION),
+                counts.get(PduType.DATA_PDU),
+                counts.get(PduType.ACTION_REQUEST),
+                counts.get(PduType.START_RESUME),
+                counts.get(PduType.SET_DATA),
+                counts.get(PduType.DESIGNATOR),
+                counts.get(PduType.ELECTROMAGNETIC_EMISSIONS)
         );
         return ResponseEntity.ok(result);
     }
@@ -354,7 +383,12 @@ public class HistoricalDataController {
     @GetMapping("/realtime/logs")
     public ResponseEntity<PduLogResponse> getRealtimePduLogs(
             @RequestParam Long startTime, // Expecting Unix Epoch Timestamp (seconds)
-            @RequestParam Long endTime) { // Expecting Unix Epoch Timestamp (seconds)
+            @RequestParam Long endTime, // Expecting Unix Epoch Timestamp (seconds)
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String pduTypes, // e.g. FireEvent,Detonation
+            @RequestParam(required = false) Integer site, // Originating entity; all three or none
+            @RequestParam(required = false) Integer application,
+            @RequestParam(required = false) Integer entity) {
         
         log.info("Fetching realtime PDU logs between Unix Epoch: {} ({}) and {} ({})",
             startTime, MetricsService.formatInstant(Instant.ofEpochSecond(startTime)),
@@ -364,7 +398,74 @@ public class HistoricalDataController {
         Long disStartTime = MetricsService.toDisAbsoluteTimestamp(startTime);
         Long disEndTime = MetricsService.toDisAbsoluteTimestamp(endTime);
         
-        PduLogResponse response = metricsService.getAllPduLogs(disStartTime, disEndTime);
+        Set<PduType> types = EnumSet.allOf(PduType.class);
+        DisEntityId entityId = null;
+        Set<String> selected = null;
+        try {
+            if (pduTypes != null) {
+                types = PduType.fromLogNames(pduTypes);
+            }
+            entityId = DisEntityId.of(site, application, entity);
+            if (entityId != null) {
+                types.removeIf(type -> !type.hasOriginatingEntity());
+            }
+            if (fields != null) {
+                selected = sparseFieldService.logFields(fields);
+                types.retainAll(sparseFieldService.logTypes(selected));
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected PDU log query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Only the tables of the selected types are read, so only those are admitted
+        Set<PduType> queriedTypes = types;
+        DisEntityId filter = entityId;
+        Set<String> selectedFields = selected;
+        PduLogResponse response = admitted("/realtime/logs", queriedTypes, endTime - startTime + 1,
+                () -> selectedFields != null
+                        ? sparseFieldService.getPduLogs(disStartTime, disEndTime, selectedFields, queriedTypes, filter)
+                        : metricsService.getPduLogs(disStartTime, disEndTime, queriedTypes, filter));
         return ResponseEntity.ok(response);
     }
+
+    // --- Admission control for the range endpoints (pass-through when acquisition.admission.enabled is off) ---
+    private <T> T admitted(String operation, Set<PduType> types, long windowSeconds, Supplier<T> query) {
+        return admissionControl != null ? admissionControl.execute(operation, types, windowSeconds, query) : query.get();
+    }
+
+    // --- Range cache for the record endpoints (uncached when acquisition.range-cache.enabled is off) ---
+    private <T> List<T> cachedRange(String operation, PduType type, Long disStartTime, Long disEndTime,
+                                    ToLongFunction<T> idOf, ToLongFunction<T> timestampOf) {
+        // Only the part past the cached watermark reaches the database, so only that part is admitted
+        BiFunction<Long, Long, List<T>> rangeLoader = (from, to) -> admitted(operation, EnumSet.of(type),
+                disWindowSeconds(from, to), () -> metricsService.findRecords(type, from, to));
+        if (recordRangeCache == null) {
+            return rangeLoader.apply(disStartTime, disEndTime);
+        }
+        return recordRangeCache.find(type, disStartTime, disEndTime, idOf, timestampOf, rangeLoader,
+                (afterId, from, to) -> metricsService.findRecords(type, PduIdIndexService.IdRange.after(afterId), from, to));
+    }
+
+    // --- Sparse field selection (fields=) for the record endpoints; bypasses the range cache ---
+    private ResponseEntity<List<?>> sparseRecords(String operation, PduType type, Long disStartTime, Long disEndTime,
+                                                  String fields) {
+        Set<String> selected;
+        try {
+            selected = sparseFieldService.recordFields(type, fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected {} query: {}", operation, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        boolean windowed = disStartTime != null && disEndTime != null;
+        List<Map<String, Object>> rows = admitted(operation, EnumSet.of(type),
+                windowed ? disWindowSeconds(disStartTime, disEndTime) : AdmissionControl.UNBOUNDED_WINDOW,
+                () -> sparseFieldService.findRecords(type, selected, windowed ? disStartTime : null, windowed ? disEndTime : null));
+        log.info("Returning {} {} records with fields {}", rows.size(), type.getLogName(), selected);
+        return ResponseEntity.ok(rows);
+    }
+
+    private static long disWindowSeconds(Long disStartTime, Long disEndTime) {
+        return MetricsService.fromDisAbsoluteTimestamp(disEndTime) - MetricsService.fromDisAbsoluteTimestamp(disStartTime) + 1;
+    }
 }
\ No newline at end of file
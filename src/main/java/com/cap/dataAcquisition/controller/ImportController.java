@@ -0,0 +1,43 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.DisImportReport;
+import com.cap.dataAcquisition.service.DisImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/acquisition/import")
+public class ImportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportController.class);
+
+    private final DisImportService disImportService;
+
+    @Autowired
+    public ImportController(@Autowired(required = false) DisImportService disImportService) {
+        this.disImportService = disImportService;
+    }
+
+    // --- Backfill the PDU tables from a DIS PDU log file in the import directory ---
+    @PostMapping("/dis")
+    public ResponseEntity<DisImportReport> importDisLog(
+            @RequestParam String file,
+            @RequestParam Long startTime) { // Unix epoch seconds, any moment in the first hour of the recording
+        if (disImportService == null) {
+            log.warn("/import/dis called but DIS log import is disabled.");
+            return ResponseEntity.status(503).build();
+        }
+        try {
+            return ResponseEntity.ok(disImportService.importFile(file, startTime));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected DIS log import: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.cap.dataAcquisition.controller;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Gives Spring MVC's async request processing a thread pool of its own while the reactive endpoints are enabled.
+ * <p>
+ * MVC writes each element of a {@code Flux} response with blocking servlet IO on its async executor, by default the
+ * shared {@code applicationTaskExecutor}, so slow clients of {@code /reactive/logs} would occupy the threads other
+ * async work needs. Here they share {@code acquisition.reactive.write-threads} threads with the other async MVC
+ * responses (the DIS export body) instead. The queue is left unbounded: every stream has at most one write pending and
+ * streams are capped by {@code max-streams}, whereas a rejected write would leave its response open.
+ */
+@Configuration
+@ConditionalOnProperty(name = "acquisition.reactive.enabled", havingValue = "true")
+public class ReactiveStreamConfiguration implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor asyncExecutor = new ThreadPoolTaskExecutor();
+
+    public ReactiveStreamConfiguration(@Value("${acquisition.reactive.write-threads:8}") int writeThreads) {
+        asyncExecutor.setCorePoolSize(writeThreads);
+        asyncExecutor.setMaxPoolSize(writeThreads);
+        asyncExecutor.setThreadNamePrefix("mvc-async-");
+        asyncExecutor.setDaemon(true);
+        asyncExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(asyncExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdown();
+    }
+}
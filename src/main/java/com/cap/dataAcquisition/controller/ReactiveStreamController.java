@@ -0,0 +1,84 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.RealTimeMetrics;
+import com.cap.dataAcquisition.service.MetricsService;
+import com.cap.dataAcquisition.service.ReactivePduLogService;
+import com.cap.dataAcquisition.service.RealTimeMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Non-blocking variants of the streaming and real-time endpoints.
+ * <p>
+ * Handlers return Reactor types, so the request thread is released as soon as the pipeline is assembled; the log
+ * stream is written as newline-delimited JSON at the pace the client reads it (see {@link ReactivePduLogService}).
+ * Spring MVC writes those entries with blocking IO on its async executor, sized by
+ * {@link ReactiveStreamConfiguration}, and leaves streaming responses without an async timeout; the stream's own idle
+ * timeout ends abandoned ones.
+ */
+@RestController
+@RequestMapping("/api/acquisition/reactive")
+@ConditionalOnProperty(name = "acquisition.reactive.enabled", havingValue = "true")
+public class ReactiveStreamController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveStreamController.class);
+
+    private final ReactivePduLogService reactivePduLogService;
+    private final RealTimeMetricsService realTimeMetricsService;
+
+    @Autowired
+    public ReactiveStreamController(ReactivePduLogService reactivePduLogService,
+                                    RealTimeMetricsService realTimeMetricsService) {
+        this.reactivePduLogService = reactivePduLogService;
+        this.realTimeMetricsService = realTimeMetricsService;
+    }
+
+    // --- Same parameters and entries as /realtime/logs, one JSON entry per line ---
+    @GetMapping(value = "/logs", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<PduLogResponse.PduLogEntry>> streamPduLogs(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false) String pduTypes,
+            @RequestParam(required = false) Integer site,
+            @RequestParam(required = false) Integer application,
+            @RequestParam(required = false) Integer entity) {
+        Set<PduType> types;
+        DisEntityId entityId;
+        try {
+            types = pduTypes != null ? PduType.fromLogNames(pduTypes) : EnumSet.allOf(PduType.class);
+            entityId = DisEntityId.of(site, application, entity);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected reactive PDU log stream: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(reactivePduLogService.streamLogs(MetricsService.toDisAbsoluteTimestamp(startTime),
+                    MetricsService.toDisAbsoluteTimestamp(endTime), types, entityId));
+        } catch (IllegalStateException e) {
+            log.warn("Rejected reactive PDU log stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/realtime")
+    public Mono<RealTimeMetrics> getRealTimeDisMetrics() {
+        return realTimeMetricsService.getLatestMetricsReactive();
+    }
+}
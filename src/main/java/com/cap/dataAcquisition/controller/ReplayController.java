@@ -0,0 +1,93 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.ReplaySessionStatus;
+import com.cap.dataAcquisition.service.ReplayService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/acquisition/replay")
+public class ReplayController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayController.class);
+
+    private final ReplayService replayService;
+
+    @Autowired
+    public ReplayController(ReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    // --- Server-paced replay of a window as Server-Sent Events ---
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime, // Unix epoch seconds
+            @RequestParam(defaultValue = "1") double speed) {
+        try {
+            return ResponseEntity.ok(replayService.start(startTime, endTime, speed));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected replay: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Rejected replay: {}", e.getMessage());
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    // --- Session controls ---
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<ReplaySessionStatus> status(@PathVariable String sessionId) {
+        return control(() -> replayService.status(sessionId));
+    }
+
+    @PostMapping("/{sessionId}/pause")
+    public ResponseEntity<ReplaySessionStatus> pause(@PathVariable String sessionId) {
+        return control(() -> replayService.pause(sessionId));
+    }
+
+    @PostMapping("/{sessionId}/resume")
+    public ResponseEntity<ReplaySessionStatus> resume(@PathVariable String sessionId) {
+        return control(() -> replayService.resume(sessionId));
+    }
+
+    @PostMapping("/{sessionId}/seek")
+    public ResponseEntity<ReplaySessionStatus> seek(@PathVariable String sessionId,
+                                                    @RequestParam Long time) { // Unix epoch seconds
+        return control(() -> replayService.seek(sessionId, time));
+    }
+
+    @PostMapping("/{sessionId}/speed")
+    public ResponseEntity<ReplaySessionStatus> speed(@PathVariable String sessionId,
+                                                     @RequestParam double factor) {
+        return control(() -> replayService.setSpeed(sessionId, factor));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> stop(@PathVariable String sessionId) {
+        return replayService.stop(sessionId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private ResponseEntity<ReplaySessionStatus> control(Supplier<Optional<ReplaySessionStatus>> action) {
+        try {
+            return action.get().map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected replay control: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.CollisionRecord;
+import com.cap.dataAcquisition.model.DetonationRecord;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.model.FireEventRecord;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.SessionAggregation;
+import com.cap.dataAcquisition.service.AdmissionControl;
+import com.cap.dataAcquisition.service.ExerciseSessionService;
+import com.cap.dataAcquisition.service.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+@RestController
+@RequestMapping("/api/acquisition/sessions")
+public class SessionController {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionController.class);
+
+    private final ExerciseSessionService exerciseSessionService;
+    private final MetricsService metricsService;
+    private final AdmissionControl admissionControl;
+
+    @Autowired
+    public SessionController(@Autowired(required = false) ExerciseSessionService exerciseSessionService,
+                             MetricsService metricsService,
+                             @Autowired(required = false) AdmissionControl admissionControl) {
+        this.exerciseSessionService = exerciseSessionService;
+        this.metricsService = metricsService;
+        this.admissionControl = admissionControl;
+    }
+
+    // --- Session index, derived from StartResume PDUs ---
+    @GetMapping
+    public ResponseEntity<List<SessionAggregation>> listSessions() {
+        if (exerciseSessionService == null) {
+            log.warn("/sessions called but the session index is disabled.");
+            return ResponseEntity.status(503).build();
+        }
+        return ResponseEntity.ok(exerciseSessionService.listSessions());
+    }
+
+    @GetMapping("/{sessionId}/aggregate")
+    public ResponseEntity<SessionAggregation> aggregate(@PathVariable long sessionId) {
+        if (exerciseSessionService == null) {
+            log.warn("/sessions called but the session index is disabled.");
+            return ResponseEntity.status(503).build();
+        }
+        return ResponseEntity.of(exerciseSessionService.aggregate(sessionId));
+    }
+
+    // --- Session-scoped variants of the record and log endpoints, read by id range like the windowed ones ---
+    @GetMapping("/{sessionId}/entity-states")
+    public ResponseEntity<List<EntityStateRecord>> getEntityStates(@PathVariable long sessionId) {
+        return inSession(sessionId, EnumSet.of(PduType.ENTITY_STATE),
+                (start, end) -> metricsService.findRecords(PduType.ENTITY_STATE, start, end));
+    }
+
+    @GetMapping("/{sessionId}/fire-events")
+    public ResponseEntity<List<FireEventRecord>> getFireEvents(@PathVariable long sessionId) {
+        return inSession(sessionId, EnumSet.of(PduType.FIRE_EVENT),
+                (start, end) -> metricsService.findRecords(PduType.FIRE_EVENT, start, end));
+    }
+
+    @GetMapping("/{sessionId}/collision-events")
+    public ResponseEntity<List<CollisionRecord>> getCollisionEvents(@PathVariable long sessionId) {
+        return inSession(sessionId, EnumSet.of(PduType.COLLISION),
+                (start, end) -> metricsService.findRecords(PduType.COLLISION, start, end));
+    }
+
+    @GetMapping("/{sessionId}/detonation-events")
+    public ResponseEntity<List<DetonationRecord>> getDetonationEvents(@PathVariable long sessionId) {
+        return inSession(sessionId, EnumSet.of(PduType.DETONATION),
+                (start, end) -> metricsService.findRecords(PduType.DETONATION, start, end));
+    }
+
+    @GetMapping("/{sessionId}/logs")
+    public ResponseEntity<PduLogResponse> getPduLogs(@PathVariable long sessionId) {
+        return inSession(sessionId, EnumSet.allOf(PduType.class), metricsService::getAllPduLogs);
+    }
+
+    /** Runs {@code query} over the session's DIS timestamp range (both ends inclusive), under admission control. */
+    private <T> ResponseEntity<T> inSession(long sessionId, Set<PduType> types, BiFunction<Long, Long, T> query) {
+        if (exerciseSessionService == null) {
+            log.warn("/sessions called but the session index is disabled.");
+            return ResponseEntity.status(503).build();
+        }
+        return ResponseEntity.of(exerciseSessionService.window(sessionId).map(window -> {
+            long disStart = MetricsService.toDisAbsoluteTimestamp(window.startEpochSeconds());
+            long disEnd = MetricsService.toDisAbsoluteTimestamp(window.endEpochSeconds());
+            long windowSeconds = window.endEpochSeconds() - window.startEpochSeconds() + 1;
+            return admissionControl != null
+                    ? admissionControl.execute("/sessions/" + sessionId, types, windowSeconds, () -> query.apply(disStart, disEnd))
+                    : query.apply(disStart, disEnd);
+        }));
+    }
+}
@@ -0,0 +1,92 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.SpatialQueryResponse;
+import com.cap.dataAcquisition.model.DetonationRecord;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.service.SpatialQueryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Spatial filters over entity states and detonations.
+ * <p>
+ * Either a box ({@code minX, minY, maxX, maxY}, optionally {@code minZ, maxZ}) or a sphere
+ * ({@code centerX, centerY, centerZ, radius}) must be given, together with a time window in Unix epoch seconds.
+ */
+@RestController
+@RequestMapping("/api/acquisition/spatial")
+public class SpatialQueryController {
+
+    private static final Logger log = LoggerFactory.getLogger(SpatialQueryController.class);
+
+    private final SpatialQueryService spatialQueryService;
+
+    @Autowired
+    public SpatialQueryController(SpatialQueryService spatialQueryService) {
+        this.spatialQueryService = spatialQueryService;
+    }
+
+    @GetMapping("/entity-states")
+    public ResponseEntity<SpatialQueryResponse<EntityStateRecord>> getEntityStatesInRegion(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false) Double minX, @RequestParam(required = false) Double minY,
+            @RequestParam(required = false) Double minZ, @RequestParam(required = false) Double maxX,
+            @RequestParam(required = false) Double maxY, @RequestParam(required = false) Double maxZ,
+            @RequestParam(required = false) Double centerX, @RequestParam(required = false) Double centerY,
+            @RequestParam(required = false) Double centerZ, @RequestParam(required = false) Double radius) {
+        try {
+            if (radius != null) {
+                SpatialQueryService.Sphere sphere = toSphere(centerX, centerY, centerZ, radius);
+                return ResponseEntity.ok(spatialQueryService.findEntityStates(sphere, startTime, endTime));
+            }
+            SpatialQueryService.Box box = toBox(minX, minY, minZ, maxX, maxY, maxZ);
+            return ResponseEntity.ok(spatialQueryService.findEntityStates(box, startTime, endTime));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected spatial entity state query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/detonations")
+    public ResponseEntity<SpatialQueryResponse<DetonationRecord>> getDetonationsInRegion(
+            @RequestParam Long startTime, // Unix epoch seconds
+            @RequestParam Long endTime,   // Unix epoch seconds
+            @RequestParam(required = false) Double minX, @RequestParam(required = false) Double minY,
+            @RequestParam(required = false) Double minZ, @RequestParam(required = false) Double maxX,
+            @RequestParam(required = false) Double maxY, @RequestParam(required = false) Double maxZ,
+            @RequestParam(required = false) Double centerX, @RequestParam(required = false) Double centerY,
+            @RequestParam(required = false) Double centerZ, @RequestParam(required = false) Double radius) {
+        try {
+            if (radius != null) {
+                SpatialQueryService.Sphere sphere = toSphere(centerX, centerY, centerZ, radius);
+                return ResponseEntity.ok(spatialQueryService.findDetonations(sphere, startTime, endTime));
+            }
+            SpatialQueryService.Box box = toBox(minX, minY, minZ, maxX, maxY, maxZ);
+            return ResponseEntity.ok(spatialQueryService.findDetonations(box, startTime, endTime));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected spatial detonation query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static SpatialQueryService.Box toBox(Double minX, Double minY, Double minZ, Double maxX, Double maxY, Double maxZ) {
+        if (minX == null || minY == null || maxX == null || maxY == null) {
+            throw new IllegalArgumentException("Either minX/minY/maxX/maxY or centerX/centerY/centerZ/radius is required");
+        }
+        return new SpatialQueryService.Box(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    private static SpatialQueryService.Sphere toSphere(Double centerX, Double centerY, Double centerZ, Double radius) {
+        if (centerX == null || centerY == null || centerZ == null) {
+            throw new IllegalArgumentException("centerX, centerY and centerZ are required with radius");
+        }
+        return new SpatialQueryService.Sphere(centerX, centerY, centerZ, radius);
+    }
+}
@@ -0,0 +1,44 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Proxies the {@link JdbcTemplate} so the SQL of its calls is captured for explained requests, like the Hibernate SQL
+ * {@link SqlCaptureInspector} sees. Every {@code JdbcTemplate} method that runs SQL given as a string takes it as the
+ * first argument; calls the template makes on itself are not intercepted, so each statement is captured once.
+ * <p>
+ * Capture is per request thread: statements run on worker threads (aggregation chunks, replay sessions) are not seen.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.server-timing.enabled", havingValue = "true")
+public class JdbcSqlCapturePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof JdbcTemplate)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(captureInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    static MethodInterceptor captureInterceptor() {
+        return invocation -> {
+            RequestTimings timings = RequestTimings.current();
+            Object[] arguments = invocation.getArguments();
+            if (timings != null && timings.isExplainRequested() && arguments.length > 0
+                    && arguments[0] instanceof String sql) {
+                timings.captureSql(sql);
+            }
+            return invocation.proceed();
+        };
+    }
+}
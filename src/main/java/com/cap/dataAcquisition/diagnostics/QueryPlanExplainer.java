@@ -0,0 +1,90 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import com.cap.dataAcquisition.dto.RequestDiagnostics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Runs EXPLAIN for SQL captured by {@link SqlCaptureInspector} and {@link JdbcSqlCapturePostProcessor}.
+ * <p>
+ * Hibernate and {@code JdbcTemplate} hand us SQL with {@code ?} placeholders and no bound values, so each statement is prepared with
+ * {@code plan_cache_mode = force_generic_plan} and explained through {@code EXPLAIN EXECUTE}. The result is the
+ * generic plan PostgreSQL would use for any parameter values, which is what we need to spot missing indexes.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.server-timing.enabled", havingValue = "true")
+public class QueryPlanExplainer {
+
+    private static final String STATEMENT_NAME = "diagnostics_explain";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public QueryPlanExplainer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public List<RequestDiagnostics.QueryPlan> explain(Collection<String> statements) {
+        if (statements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RequestDiagnostics.QueryPlan> plans = new ArrayList<>();
+        for (String sql : statements) {
+            if (!sql.trim().regionMatches(true, 0, "select", 0, 6)) {
+                continue; // Never prepare anything that could modify data
+            }
+            plans.add(new RequestDiagnostics.QueryPlan(sql, explainOne(sql)));
+        }
+        return plans;
+    }
+
+    private List<String> explainOne(String sql) {
+        int[] parameterCount = {0};
+        String numbered = toNumberedParameters(sql, parameterCount);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+            jdbcTemplate.execute("PREPARE " + STATEMENT_NAME + " AS " + numbered);
+            try {
+                StringJoiner nulls = new StringJoiner(", ", "(", ")");
+                for (int i = 0; i < parameterCount[0]; i++) {
+                    nulls.add("NULL");
+                }
+                String execute = "EXPLAIN EXECUTE " + STATEMENT_NAME + (parameterCount[0] > 0 ? nulls.toString() : "");
+                return jdbcTemplate.queryForList(execute, String.class);
+            } finally {
+                jdbcTemplate.execute("DEALLOCATE " + STATEMENT_NAME);
+            }
+        });
+    }
+
+    // Rewrites JDBC '?' placeholders to PostgreSQL '$n' parameters, leaving quoted literals untouched
+    static String toNumberedParameters(String sql, int[] parameterCount) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                out.append('$').append(++parameterCount[0]);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds a timing interceptor to every Spring Data repository so each query shows up as its own
+ * {@code db.<Repository>.<method>} Server-Timing entry without touching the call sites.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.server-timing.enabled", havingValue = "true")
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                            timingInterceptor(repositoryInformation.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor timingInterceptor(String repositoryName) {
+        String prefix = "db." + repositoryName.replace("Repository", "") + ".";
+        return invocation -> {
+            RequestTimings timings = RequestTimings.current();
+            if (timings == null) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            Object result = invocation.proceed();
+            timings.record(prefix + invocation.getMethod().getName(), System.nanoTime() - start,
+                    RequestTimings.rowCount(result));
+            return result;
+        };
+    }
+}
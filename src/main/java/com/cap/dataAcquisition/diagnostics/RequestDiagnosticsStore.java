@@ -0,0 +1,36 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import com.cap.dataAcquisition.dto.RequestDiagnostics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the diagnostics of the most recent explained requests so clients can fetch them by id.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.server-timing.enabled", havingValue = "true")
+public class RequestDiagnosticsStore {
+
+    private final Map<String, RequestDiagnostics> recent;
+
+    public RequestDiagnosticsStore(@Value("${diagnostics.explain.retained:64}") int retained) {
+        this.recent = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RequestDiagnostics> eldest) {
+                return size() > retained;
+            }
+        };
+    }
+
+    public synchronized void put(RequestDiagnostics diagnostics) {
+        recent.put(diagnostics.getDiagnosticsId(), diagnostics);
+    }
+
+    public synchronized RequestDiagnostics get(String diagnosticsId) {
+        return recent.get(diagnosticsId);
+    }
+}
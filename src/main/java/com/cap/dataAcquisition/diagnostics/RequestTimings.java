@@ -0,0 +1,143 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Per-request collector for Server-Timing entries.
+ * <p>
+ * A collector is bound to the request thread by {@link ServerTimingFilter} only when diagnostics are enabled.
+ * All static helpers fall through to the plain call when nothing is bound, so instrumented code pays a single
+ * ThreadLocal lookup when the feature is off.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final boolean explainRequested;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Set<String> capturedSql = new LinkedHashSet<>();
+    private long serializationStartNanos;
+
+    private RequestTimings(boolean explainRequested) {
+        this.explainRequested = explainRequested;
+    }
+
+    // --- Lifecycle (driven by ServerTimingFilter) ---
+    static RequestTimings begin(boolean explainRequested) {
+        RequestTimings timings = new RequestTimings(explainRequested);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    // --- Instrumentation helpers ---
+    public static <T> T time(String stage, Supplier<T> work) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return work.get();
+        }
+        long start = System.nanoTime();
+        T result = work.get();
+        timings.record(stage, System.nanoTime() - start, rowCount(result), "rows");
+        return result;
+    }
+
+    public static void time(String stage, Runnable work) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            work.run();
+            return;
+        }
+        long start = System.nanoTime();
+        work.run();
+        timings.record(stage, System.nanoTime() - start, -1, null);
+    }
+
+    static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return -1;
+    }
+
+    public void record(String stage, long durationNanos, long rows) {
+        record(stage, durationNanos, rows, "rows");
+    }
+
+    public synchronized void record(String stage, long durationNanos, long count, String unit) {
+        entries.add(new Entry(stage, durationNanos, count >= 0 ? count : null, count >= 0 ? unit : null));
+    }
+
+    synchronized void captureSql(String sql) {
+        capturedSql.add(sql);
+    }
+
+    void markSerializationStart() {
+        if (serializationStartNanos == 0) {
+            serializationStartNanos = System.nanoTime();
+        }
+    }
+
+    long getSerializationStartNanos() {
+        return serializationStartNanos;
+    }
+
+    public boolean isExplainRequested() {
+        return explainRequested;
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public synchronized List<String> getCapturedSql() {
+        return new ArrayList<>(capturedSql);
+    }
+
+    /**
+     * Renders the collected entries using the Server-Timing syntax, e.g.
+     * {@code db.EntityState.findByTimestampBetween;dur=12.5;desc="rows=420"}.
+     */
+    public synchronized String toServerTimingHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Entry entry : entries) {
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(entry.name())
+                  .append(";dur=")
+                  .append(String.format(Locale.ROOT, "%.3f", entry.durationNanos() / 1_000_000.0));
+            if (entry.count() != null) {
+                header.append(";desc=\"").append(entry.unit()).append('=').append(entry.count()).append('"');
+            }
+        }
+        return header.toString();
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(String name, long durationNanos, Long count, String unit) {
+    }
+}
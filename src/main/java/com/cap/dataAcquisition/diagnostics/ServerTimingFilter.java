@@ -0,0 +1,116 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import com.cap.dataAcquisition.dto.RequestDiagnostics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Emits a {@code Server-Timing} header for every acquisition endpoint.
+ * <p>
+ * The response body is buffered so that the serialization stage can be measured before the headers are committed.
+ * Streaming responses (SSE, octet streams, exports, the reactive log streams) are skipped because buffering would
+ * defeat them. A request whose handler goes async is finished, like {@code ShallowEtagHeaderFilter} does, by the async
+ * dispatch that completes it; its total then runs from the start of the original dispatch.
+ * When the client sends {@code X-Diagnostics: explain} and {@code diagnostics.explain.enabled} is set, the SQL issued
+ * while handling the request is explained and stored under the id returned in {@code X-Diagnostics-Id}.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    static final String EXPLAIN_HEADER = "X-Diagnostics";
+    static final String DIAGNOSTICS_ID_HEADER = "X-Diagnostics-Id";
+    private static final String START_ATTRIBUTE = ServerTimingFilter.class.getName() + ".start";
+
+    private final QueryPlanExplainer queryPlanExplainer;
+    private final RequestDiagnosticsStore diagnosticsStore;
+
+    @Value("${diagnostics.explain.enabled:false}")
+    private boolean explainEnabled;
+
+    @Autowired
+    public ServerTimingFilter(QueryPlanExplainer queryPlanExplainer, RequestDiagnosticsStore diagnosticsStore) {
+        this.queryPlanExplainer = queryPlanExplainer;
+        this.diagnosticsStore = diagnosticsStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/acquisition/") || path.startsWith("/api/acquisition/diagnostics")
+                || path.startsWith("/api/acquisition/export") || path.startsWith("/api/acquisition/replay/stream")
+                || path.startsWith("/api/acquisition/reactive/")) {
+            return true;
+        }
+        String accept = request.getHeader("Accept");
+        return accept != null && (accept.contains("text/event-stream") || accept.contains("application/octet-stream"));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean explain = explainEnabled && "explain".equalsIgnoreCase(request.getHeader(EXPLAIN_HEADER));
+        RequestTimings timings = RequestTimings.begin(explain);
+        // An async dispatch writes to the wrapper the original dispatch handed to the async context
+        ContentCachingResponseWrapper existing = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        ContentCachingResponseWrapper wrapper = existing != null ? existing : new ContentCachingResponseWrapper(response);
+        Object originalStart = request.getAttribute(START_ATTRIBUTE);
+        long start = originalStart instanceof Long nanos ? nanos : System.nanoTime();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            RequestTimings.end();
+        }
+        long end = System.nanoTime();
+        if (request.isAsyncStarted()) {
+            request.setAttribute(START_ATTRIBUTE, start);
+            return;
+        }
+
+        if (timings.getSerializationStartNanos() > 0) {
+            timings.record("serialization", end - timings.getSerializationStartNanos(), wrapper.getContentSize(), "bytes");
+        }
+        timings.record("total", end - start, -1);
+
+        if (explain) {
+            String diagnosticsId = UUID.randomUUID().toString();
+            List<RequestDiagnostics.QueryPlan> plans = explainCapturedSql(timings);
+            diagnosticsStore.put(new RequestDiagnostics(diagnosticsId, request.getRequestURI(), timings.getEntries(), plans));
+            wrapper.setHeader(DIAGNOSTICS_ID_HEADER, diagnosticsId);
+        }
+        wrapper.setHeader("Server-Timing", timings.toServerTimingHeader());
+        wrapper.copyBodyToResponse();
+    }
+
+    private List<RequestDiagnostics.QueryPlan> explainCapturedSql(RequestTimings timings) {
+        try {
+            return queryPlanExplainer.explain(timings.getCapturedSql());
+        } catch (RuntimeException e) {
+            log.warn("Unable to explain captured SQL: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+}
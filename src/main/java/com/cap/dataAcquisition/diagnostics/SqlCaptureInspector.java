@@ -0,0 +1,20 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector that records the SQL of requests that asked for query plans.
+ * Registered through {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}; the
+ * {@code JdbcTemplate} SQL is captured by {@link JdbcSqlCapturePostProcessor}.
+ */
+public class SqlCaptureInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null && timings.isExplainRequested()) {
+            timings.captureSql(sql);
+        }
+        return sql;
+    }
+}
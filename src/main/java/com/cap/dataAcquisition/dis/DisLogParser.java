@@ -0,0 +1,162 @@
+package com.cap.dataAcquisition.dis;
+
+import com.cap.dataAcquisition.model.PduType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Walks a DIS PDU log file: PDUs as captured from the wire, back to back, each sized by the length in its header.
+ * <p>
+ * The file is memory-mapped in windows of {@code windowBytes} and never copied; the handler receives the mapped buffer
+ * and the offset of each PDU and reads the fields it needs in place (see {@link DisPduLayout}), so the walk itself
+ * allocates nothing per PDU. Header timestamps only carry the time past the hour, so the caller supplies a moment in
+ * the first hour of the recording and the parser advances the hour whenever the time past the hour wraps.
+ */
+public final class DisLogParser {
+
+    /** Receives each supported PDU; {@code buffer} is only valid during the call. */
+    @FunctionalInterface
+    public interface Handler {
+        void pdu(PduType type, ByteBuffer buffer, int offset, long epochSeconds);
+    }
+
+    private static final int DEFAULT_WINDOW_BYTES = 256 * 1024 * 1024;
+    private static final long HALF_HOUR = 1800;
+
+    private static final PduType[] BY_DIS_CODE = new PduType[256];
+
+    static {
+        for (PduType type : PduType.values()) {
+            BY_DIS_CODE[type.getDisCode()] = type;
+        }
+    }
+
+    private final int windowBytes;
+    private final Handler handler;
+
+    private long hourStart;
+    private long lastSecondPastHour = -1;
+
+    private long pdus;
+    private long unsupported;
+    private long malformed;
+    private long trailingBytes;
+    private long firstEpochSeconds = Long.MAX_VALUE;
+    private long lastEpochSeconds = Long.MIN_VALUE;
+
+    public DisLogParser(long recordingStartEpochSeconds, Handler handler) {
+        this(recordingStartEpochSeconds, handler, DEFAULT_WINDOW_BYTES);
+    }
+
+    DisLogParser(long recordingStartEpochSeconds, Handler handler, int windowBytes) {
+        this.hourStart = Math.floorDiv(recordingStartEpochSeconds, 3600) * 3600;
+        this.handler = handler;
+        this.windowBytes = windowBytes;
+    }
+
+    public void parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowBytes, size - position));
+                int consumed = parse(window);
+                if (consumed == 0) {
+                    // Not even one whole PDU fits: corrupt length or a truncated last PDU
+                    trailingBytes = size - position;
+                    return;
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    /** Parses the whole PDUs at the start of {@code buffer} and returns the number of bytes they span. */
+    public int parse(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int offset = 0;
+        while (limit - offset >= DisPduLayout.HEADER_LENGTH) {
+            int length = buffer.getShort(offset + DisPduLayout.LENGTH_OFFSET) & 0xFFFF;
+            if (length < DisPduLayout.HEADER_LENGTH || length > limit - offset) {
+                break;
+            }
+            pdu(buffer, offset, length);
+            offset += length;
+        }
+        return offset;
+    }
+
+    private void pdu(ByteBuffer buffer, int offset, int length) {
+        PduType type = typeOf(buffer.get(offset + DisPduLayout.PDU_TYPE_OFFSET));
+        if (type == null) {
+            unsupported++;
+            return;
+        }
+        if (length < DisPduLayout.length(type)) {
+            malformed++;
+            return;
+        }
+        long epochSeconds = epochSeconds(buffer.getInt(offset + DisPduLayout.TIMESTAMP_OFFSET) & 0xFFFFFFFFL);
+        firstEpochSeconds = Math.min(firstEpochSeconds, epochSeconds);
+        lastEpochSeconds = Math.max(lastEpochSeconds, epochSeconds);
+        pdus++;
+        handler.pdu(type, buffer, offset, epochSeconds);
+    }
+
+    /**
+     * DIS timestamps count units of 3600/2^31 s past the hour in the upper 31 bits (the low bit flags absolute time).
+     * A jump back of more than half an hour starts the next hour; a jump forward of more than half an hour is a late
+     * PDU from the previous one.
+     */
+    long epochSeconds(long disTimestamp) {
+        long secondPastHour = ((disTimestamp >>> 1) * 3600) >>> 31;
+        if (lastSecondPastHour >= 0 && secondPastHour < lastSecondPastHour - HALF_HOUR) {
+            hourStart += 3600;
+        } else if (lastSecondPastHour >= 0 && secondPastHour > lastSecondPastHour + HALF_HOUR) {
+            return hourStart - 3600 + secondPastHour;
+        }
+        lastSecondPastHour = secondPastHour;
+        return hourStart + secondPastHour;
+    }
+
+    /** DIS header timestamp (absolute time) for {@code epochSeconds}, the inverse of {@link #epochSeconds}. */
+    public static int disTimestamp(long epochSeconds) {
+        long secondPastHour = Math.floorMod(epochSeconds, 3600L);
+        long units = ((secondPastHour << 31) + 3599) / 3600; // round up so the round trip lands on the same second
+        return (int) ((units << 1) | 1);
+    }
+
+    static PduType typeOf(byte disCode) {
+        return BY_DIS_CODE[disCode & 0xFF];
+    }
+
+    public long getPdus() {
+        return pdus;
+    }
+
+    public long getUnsupported() {
+        return unsupported;
+    }
+
+    public long getMalformed() {
+        return malformed;
+    }
+
+    public long getTrailingBytes() {
+        return trailingBytes;
+    }
+
+    /** Earliest PDU time seen, or {@code Long.MAX_VALUE} when none. */
+    public long getFirstEpochSeconds() {
+        return firstEpochSeconds;
+    }
+
+    public long getLastEpochSeconds() {
+        return lastEpochSeconds;
+    }
+}
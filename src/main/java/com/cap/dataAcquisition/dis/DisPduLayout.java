@@ -0,0 +1,97 @@
+package com.cap.dataAcquisition.dis;
+
+import com.cap.dataAcquisition.model.PduType;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Where the persisted columns of each {@link PduType} sit in the DIS wire format (IEEE 1278.1, big-endian).
+ * <p>
+ * Only the fields the record tables keep are described; everything else in a PDU is skipped on import and written as
+ * zeros on export. Offsets are from the start of the PDU, including the 12-byte header.
+ */
+public final class DisPduLayout {
+
+    public static final int HEADER_LENGTH = 12;
+    public static final int PROTOCOL_VERSION_OFFSET = 0;
+    public static final int EXERCISE_ID_OFFSET = 1;
+    public static final int PDU_TYPE_OFFSET = 2;
+    public static final int PROTOCOL_FAMILY_OFFSET = 3;
+    public static final int TIMESTAMP_OFFSET = 4;
+    public static final int LENGTH_OFFSET = 8;
+
+    /** Wire encoding of a field; entity id parts are unsigned 16-bit on the wire and int4 in the tables. */
+    public enum Kind {
+        UINT16(2), INT32(4), FLOAT64(8);
+
+        private final int size;
+
+        Kind(int size) {
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    public record Field(String column, int offset, Kind kind) {
+    }
+
+    private record Layout(int length, int protocolFamily, List<Field> fields) {
+    }
+
+    private static final Map<PduType, Layout> LAYOUTS = new EnumMap<>(PduType.class);
+
+    static {
+        LAYOUTS.put(PduType.ENTITY_STATE, new Layout(144, 1, concat(
+                entity("", 12), List.of(
+                        new Field("locationx", 48, Kind.FLOAT64), new Field("locationy", 56, Kind.FLOAT64),
+                        new Field("locationz", 64, Kind.FLOAT64)))));
+        LAYOUTS.put(PduType.FIRE_EVENT, new Layout(96, 2, concat(
+                entity("firing_", 12), entity("target_", 18), entity("munition_", 24))));
+        LAYOUTS.put(PduType.DETONATION, new Layout(104, 2, concat(
+                entity("firing_", 12), entity("target_", 18), List.of(
+                        new Field("locationx", 48, Kind.FLOAT64), new Field("locationy", 56, Kind.FLOAT64),
+                        new Field("locationz", 64, Kind.FLOAT64)))));
+        LAYOUTS.put(PduType.COLLISION, new Layout(60, 1, concat(entity("issuing_", 12), entity("colliding_", 18))));
+        LAYOUTS.put(PduType.DATA_PDU, new Layout(40, 5, concat(entity("originating_", 12), entity("receiving_", 18))));
+        LAYOUTS.put(PduType.ACTION_REQUEST, new Layout(40, 5, concat(entity("originating_", 12), entity("receiving_", 18))));
+        LAYOUTS.put(PduType.START_RESUME, new Layout(44, 5, List.of(
+                new Field("hour", 24, Kind.INT32), new Field("time_past_hour", 28, Kind.INT32)))); // real-world time
+        LAYOUTS.put(PduType.SET_DATA, new Layout(40, 5, entity("originating_", 12)));
+        LAYOUTS.put(PduType.DESIGNATOR, new Layout(88, 6, entity("designating_", 12)));
+        LAYOUTS.put(PduType.ELECTROMAGNETIC_EMISSIONS, new Layout(28, 6, entity("emitting_", 12)));
+    }
+
+    private DisPduLayout() {
+    }
+
+    /** Columns of the record table held in the PDU, in table order except for {@code id} and {@code timestamp}. */
+    public static List<Field> fields(PduType type) {
+        return LAYOUTS.get(type).fields();
+    }
+
+    /** Length in bytes of the PDU with no variable-length parts (articulation parameters, datum records, ...). */
+    public static int length(PduType type) {
+        return LAYOUTS.get(type).length();
+    }
+
+    public static int protocolFamily(PduType type) {
+        return LAYOUTS.get(type).protocolFamily();
+    }
+
+    private static List<Field> entity(String prefix, int offset) {
+        return List.of(new Field(prefix + "site", offset, Kind.UINT16),
+                new Field(prefix + "application", offset + 2, Kind.UINT16),
+                new Field(prefix + "entity", offset + 4, Kind.UINT16));
+    }
+
+    @SafeVarargs
+    private static List<Field> concat(List<Field>... parts) {
+        return Stream.of(parts).flatMap(List::stream).toList();
+    }
+}
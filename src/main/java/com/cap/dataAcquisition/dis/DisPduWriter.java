@@ -0,0 +1,97 @@
+package com.cap.dataAcquisition.dis;
+
+import com.cap.dataAcquisition.model.PduType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Encodes records back into DIS PDUs (the fixed part of each type, see {@link DisPduLayout}) and writes them to a
+ * channel, e.g. a {@code FileChannel} or a response stream.
+ * <p>
+ * PDUs are assembled in place in one direct buffer that is drained to the channel whenever the next PDU does not fit,
+ * so encoding allocates nothing per PDU. Fields the record tables do not keep are written as zeros. The output is a
+ * plain sequence of PDUs that {@link DisLogParser} reads back.
+ */
+public final class DisPduWriter {
+
+    /** IEEE 1278.1-1995 (DIS 6). */
+    public static final byte PROTOCOL_VERSION = 6;
+
+    private static final byte[] ZEROS = new byte[maxLength()];
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte exerciseId;
+    private long pdus;
+    private long bytes;
+
+    public DisPduWriter(WritableByteChannel channel, int bufferBytes, int exerciseId) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferBytes, ZEROS.length));
+        this.exerciseId = (byte) exerciseId;
+    }
+
+    /**
+     * Appends one PDU. {@code ints} holds the non-floating-point fields of the type in layout order and
+     * {@code doubles} its floating-point fields; both arrays may be reused between calls.
+     */
+    public void write(PduType type, long epochSeconds, int[] ints, double[] doubles) throws IOException {
+        int length = DisPduLayout.length(type);
+        if (buffer.remaining() < length) {
+            drain();
+        }
+        int offset = buffer.position();
+        buffer.put(ZEROS, 0, length);
+        buffer.put(offset + DisPduLayout.PROTOCOL_VERSION_OFFSET, PROTOCOL_VERSION)
+              .put(offset + DisPduLayout.EXERCISE_ID_OFFSET, exerciseId)
+              .put(offset + DisPduLayout.PDU_TYPE_OFFSET, (byte) type.getDisCode())
+              .put(offset + DisPduLayout.PROTOCOL_FAMILY_OFFSET, (byte) DisPduLayout.protocolFamily(type))
+              .putInt(offset + DisPduLayout.TIMESTAMP_OFFSET, DisLogParser.disTimestamp(epochSeconds))
+              .putShort(offset + DisPduLayout.LENGTH_OFFSET, (short) length);
+        List<DisPduLayout.Field> fields = DisPduLayout.fields(type);
+        int nextInt = 0;
+        int nextDouble = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            DisPduLayout.Field field = fields.get(i);
+            switch (field.kind()) {
+                case UINT16 -> buffer.putShort(offset + field.offset(), (short) ints[nextInt++]);
+                case INT32 -> buffer.putInt(offset + field.offset(), ints[nextInt++]);
+                case FLOAT64 -> buffer.putDouble(offset + field.offset(), doubles[nextDouble++]);
+            }
+        }
+        pdus++;
+        bytes += length;
+    }
+
+    /** Writes out everything buffered so far. */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public long getPdus() {
+        return pdus;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    private static int maxLength() {
+        int max = 0;
+        for (PduType type : PduType.values()) {
+            max = Math.max(max, DisPduLayout.length(type));
+        }
+        return max;
+    }
+}
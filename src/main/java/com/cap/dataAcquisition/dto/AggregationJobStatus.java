@@ -0,0 +1,25 @@
+package com.cap.dataAcquisition.dto;
+
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregationJobStatus {
+
+    public enum State { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private String jobId;
+    private State state;
+    private long startTime;       // Unix epoch seconds, inclusive
+    private long endTime;         // Unix epoch seconds, inclusive
+    private long chunkSeconds;
+    private int chunksTotal;
+    private int chunksCompleted;
+    private long completedUntil;  // Unix epoch seconds; everything before it is counted in the result
+    private String error;         // Why the last run stopped, for FAILED jobs
+    private AggregatedMetricsOverview result; // Partial until the job is COMPLETED
+}
@@ -0,0 +1,27 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAggregationRequest {
+
+    private List<Window> windows;
+
+    /**
+     * A UTC window given either as dates ({@code 2024-05-01}, end date inclusive as in /aggregate) or as ISO-8601
+     * instants ({@code 2024-05-01T06:00:00Z}, end exclusive).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Window {
+        private String start;
+        private String end;
+    }
+}
@@ -0,0 +1,25 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisImportReport {
+
+    private String file;
+    private long bytes;
+    private long pdusImported;
+    private Map<String, Long> byType; // Keyed by PDU log name
+    private long unsupportedPdus;    // PDU types without a record table
+    private long malformedPdus;      // Shorter than their fixed layout
+    private long trailingBytes;      // Unparseable tail (truncated last PDU or corrupt length)
+    private Long firstTime;          // Unix epoch seconds of the earliest imported PDU
+    private Long lastTime;
+    private long elapsedMillis;
+    private long copyMillis;         // Of elapsedMillis, time spent in COPY
+}
@@ -0,0 +1,31 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctEntityCounts {
+
+    private long startTime; // Unix epoch seconds, inclusive
+    private long endTime;   // Unix epoch seconds, inclusive
+    private Long bucketSeconds; // null when only the whole window was requested
+    private double relativeStandardError; // ~95% of estimates are within twice this
+    private long activeEntities; // Distinct entities sending EntityState PDUs in the whole window
+    private long firingEntities; // Distinct firing entities of FireEvent PDUs in the whole window
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private long bucketStart; // Unix epoch seconds, inclusive
+        private long bucketEnd;   // Unix epoch seconds, exclusive
+        private long activeEntities;
+        private long firingEntities;
+    }
+}
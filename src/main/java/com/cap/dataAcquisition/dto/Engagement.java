@@ -0,0 +1,38 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A FireEvent paired with the Detonation of the same firing entity and target.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Engagement {
+
+    private long fireRecordId;
+    private long detonationRecordId;
+
+    private int firingSite;
+    private int firingApplication;
+    private int firingEntity;
+
+    private int targetSite;
+    private int targetApplication;
+    private int targetEntity;
+
+    private int munitionSite;
+    private int munitionApplication;
+    private int munitionEntity;
+
+    private long fireTime;       // Unix epoch seconds
+    private long detonationTime; // Unix epoch seconds
+    private long timeOfFlightSeconds;
+
+    // Detonation (hit) location
+    private double locationX;
+    private double locationY;
+    private double locationZ;
+}
@@ -0,0 +1,23 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EngagementReport {
+
+    private long startTime; // Unix epoch seconds, inclusive (fire time)
+    private long endTime;   // Unix epoch seconds, inclusive (fire time)
+    private long maxTimeOfFlightSeconds;
+    private long engagementCount;
+    private long unmatchedFires;       // Fires with no detonation within maxTimeOfFlightSeconds
+    private long unmatchedDetonations; // Detonations in the window with no pending fire
+    private Double meanTimeOfFlightSeconds;
+    private boolean truncated; // engagements holds only the first `limit` pairs; the counts cover all of them
+    private List<Engagement> engagements;
+}
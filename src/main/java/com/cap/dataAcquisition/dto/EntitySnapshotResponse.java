@@ -0,0 +1,19 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntitySnapshotResponse {
+
+    private Instant generatedAtUtc;
+    private long lastRecordId; // Highest entity_state_record id applied to the table
+    private int entityCount;
+    private List<LatestEntityState> entities;
+}
@@ -0,0 +1,52 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeartbeatGapReport {
+
+    private long startTime; // Unix epoch seconds, inclusive
+    private long endTime;   // Unix epoch seconds, inclusive
+    private long gapThresholdSeconds; // Inter-arrivals longer than this are reported as gaps
+    private long rowsScanned;
+    private int entitiesSeen;
+    private int entitiesWithGaps;
+    private long gapCount;
+    private boolean truncated; // entities holds only the first `limit` entries, worst first
+    private List<EntityHeartbeat> entities;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EntityHeartbeat {
+        private int site;
+        private int application;
+        private int entity;
+        private long updates;
+        private long firstSeen; // Unix epoch seconds
+        private long lastSeen;  // Unix epoch seconds
+        // Inter-arrival seconds between consecutive EntityStates of this entity
+        private long p50;
+        private long p95;
+        private long p99;
+        private long max;
+        private long gapCount;
+        private long totalGapSeconds;
+        private List<Gap> gaps; // Longest first, at most acquisition.heartbeat.max-gaps-per-entity
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Gap {
+        private long from; // Unix epoch seconds of the last update before the gap
+        private long to;   // Unix epoch seconds of the update ending the gap
+        private long seconds;
+    }
+}
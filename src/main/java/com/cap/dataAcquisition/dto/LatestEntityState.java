@@ -0,0 +1,24 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last known state of one entity. Instances are replaced, never modified, once they are published in the table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatestEntityState {
+
+    private int site;
+    private int application;
+    private int entity;
+    private double locationX;
+    private double locationY;
+    private double locationZ;
+    private long timestamp; // Original DIS timestamp
+    private long timestampEpoch; // Unix epoch seconds
+    private long recordId; // id of the entity_state_record row this state came from
+}
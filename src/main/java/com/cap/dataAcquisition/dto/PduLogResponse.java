@@ -1,5 +1,6 @@
 package com.cap.dataAcquisition.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,9 +17,11 @@ public class PduLogResponse {
     @JsonProperty("Pdu_messages")
     private List<PduLogEntry> pduMessages;
     
+    // Fields left out by a sparse field selection (fields=) are null and not serialized
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class PduLogEntry {
         @JsonProperty("Id")
         private Long id;
@@ -27,7 +30,7 @@ public class PduLogResponse {
         private String pduType;
         
         @JsonProperty("length")
-        private int length;
+        private Integer length;
         
         @JsonProperty("recordDetails")
         private Map<String, Object> recordDetails;
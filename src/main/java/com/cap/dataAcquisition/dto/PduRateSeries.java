@@ -0,0 +1,29 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PduRateSeries {
+
+    private long startTime; // Unix epoch seconds
+    private long endTime;   // Unix epoch seconds
+    private long bucketSeconds;
+    private String source; // "rollup", "raw" or "rollup+raw"
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private long bucketStart; // Unix epoch seconds
+        private long total;
+        private Map<String, Long> counts; // PDU log type name -> count, zero counts omitted
+    }
+}
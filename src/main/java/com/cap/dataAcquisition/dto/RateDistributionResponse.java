@@ -0,0 +1,17 @@
+package com.cap.dataAcquisition.dto;
+
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateDistributionResponse {
+
+    private long startTime; // Unix epoch seconds, inclusive
+    private long endTime;   // Unix epoch seconds, inclusive
+    private long hoursFromRollup; // Whole hours answered from the stored hourly histograms
+    private AggregatedMetricsOverview.RateDistribution distribution;
+}
@@ -0,0 +1,17 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** PDUs of one simulation second, sent when the replay clock reaches it (possibly split over several events). */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayBatch {
+
+    private long time; // Unix epoch seconds
+    private List<PduLogResponse.PduLogEntry> pdus;
+}
@@ -0,0 +1,19 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplaySessionStatus {
+
+    private String sessionId;
+    private long startTime; // Unix epoch seconds, inclusive
+    private long endTime;   // Unix epoch seconds, inclusive
+    private double speed;   // Simulation seconds per wall-clock second
+    private boolean paused;
+    private long position;  // Unix epoch seconds of the replay clock
+    private long pdusSent;
+}
@@ -0,0 +1,27 @@
+package com.cap.dataAcquisition.dto;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestDiagnostics {
+
+    private String diagnosticsId;
+    private String requestUri;
+    private List<RequestTimings.Entry> timings;
+    private List<QueryPlan> queryPlans;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryPlan {
+        private String sql;
+        private List<String> plan;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpatialQueryResponse<T> {
+
+    private String shape; // "box" or "sphere"
+    private long startTime; // Unix epoch seconds
+    private long endTime;   // Unix epoch seconds
+    private int count;
+    private boolean truncated; // true when more records matched than maxResults
+    private List<T> records;
+}
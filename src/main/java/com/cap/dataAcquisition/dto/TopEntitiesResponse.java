@@ -0,0 +1,30 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopEntitiesResponse {
+
+    private String role;      // firing, targeted or hit
+    private long startTime;   // Unix epoch seconds, inclusive
+    private long endTime;     // Unix epoch seconds, inclusive
+    private String source;    // "stream" (in-memory summaries) or "database" (GROUP BY over the window)
+    private List<TopEntity> entities;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TopEntity {
+        private int site;
+        private int application;
+        private int entity;
+        private long count;
+        private long maxOverestimate; // Upper bound of count minus the true count; always 0 from the database
+    }
+}
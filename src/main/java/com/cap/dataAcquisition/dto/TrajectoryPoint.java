@@ -0,0 +1,24 @@
+package com.cap.dataAcquisition.dto;
+
+import com.cap.dataAcquisition.service.MetricsService;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TrajectoryPoint {
+
+    private long timestamp; // Original DIS timestamp
+    private long timestampEpoch; // Unix epoch seconds
+    private double locationX;
+    private double locationY;
+    private double locationZ;
+
+    public TrajectoryPoint(long timestamp, double locationX, double locationY, double locationZ) {
+        this.timestamp = timestamp;
+        this.timestampEpoch = MetricsService.fromDisAbsoluteTimestamp(timestamp);
+        this.locationX = locationX;
+        this.locationY = locationY;
+        this.locationZ = locationZ;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cap.dataAcquisition.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrajectoryResponse {
+
+    private int site;
+    private int application;
+    private int entity;
+    private long startTime; // Unix epoch seconds
+    private long endTime;   // Unix epoch seconds
+    private long totalPoints; // Points stored for the entity in the window
+    private int returnedPoints;
+    private String downsampling; // "none" or "lttb"
+    private List<TrajectoryPoint> points;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -25,6 +26,7 @@ public class AggregatedMetricsOverview {
     private long electromagneticEmissionsPduPackets;
     private double averagePacketsPerSecond;
     private PeakLoadInfo peakLoad;
+    private RateDistribution rateDistribution; // Per-second rate percentiles over the window
     
     public AggregatedMetricsOverview(String timeWindowDescription, Instant dataFromUtc, Instant dataUntilUtc,
                                    long totalPackets, long entityStatePackets, long fireEventPackets,
@@ -81,4 +83,24 @@ public class AggregatedMetricsOverview {
         private Instant peakIntervalEndUtc;
         private long packetsInPeakInterval;
     }
-}
\ No newline at end of file
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RateDistribution {
+        private long sampleSeconds; // Every second of the window is one sample, quiet seconds included
+        private RatePercentiles overall;
+        private Map<String, RatePercentiles> byType; // Keyed by PDU log name
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RatePercentiles {
+        private long p50; // PDUs per second
+        private long p95;
+        private long p99;
+        private long max;
+        private double mean;
+    }
+}
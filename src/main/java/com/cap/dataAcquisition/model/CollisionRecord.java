@@ -5,10 +5,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_collision_record_issuing_entity_timestamp",
+        columnList = "issuingSite, issuingApplication, issuingEntity, timestamp"))
 public class CollisionRecord {
 
     @Id
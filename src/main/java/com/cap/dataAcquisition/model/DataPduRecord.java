@@ -5,10 +5,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_data_pdu_record_originating_entity_timestamp",
+        columnList = "originatingSite, originatingApplication, originatingEntity, timestamp"))
 public class DataPduRecord {
 
     @Id
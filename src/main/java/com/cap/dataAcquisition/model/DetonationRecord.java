@@ -5,10 +5,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_detonation_record_firing_entity_timestamp",
+                columnList = "firingSite, firingApplication, firingEntity, timestamp")
+})
 public class DetonationRecord {
 
     @Id
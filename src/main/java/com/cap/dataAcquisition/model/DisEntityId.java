@@ -0,0 +1,23 @@
+package com.cap.dataAcquisition.model;
+
+/**
+ * A DIS entity identifier (site, application, entity), as matched against the originating entity of each PDU type
+ * (see {@link PduType#hasOriginatingEntity()}).
+ */
+public record DisEntityId(int site, int application, int entity) {
+
+    /**
+     * The identifier given by optional request parameters, or null when none of them is set.
+     *
+     * @throws IllegalArgumentException when only some of them are set
+     */
+    public static DisEntityId of(Integer site, Integer application, Integer entity) {
+        if (site == null && application == null && entity == null) {
+            return null;
+        }
+        if (site == null || application == null || entity == null) {
+            throw new IllegalArgumentException("site, application and entity are required together");
+        }
+        return new DisEntityId(site, application, entity);
+    }
+}
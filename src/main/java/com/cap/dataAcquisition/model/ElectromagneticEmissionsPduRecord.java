@@ -5,10 +5,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_electromagnetic_emissions_pdu_record_emitting_entity_timestamp",
+        columnList = "emittingSite, emittingApplication, emittingEntity, timestamp"))
 public class ElectromagneticEmissionsPduRecord {
 
     @Id
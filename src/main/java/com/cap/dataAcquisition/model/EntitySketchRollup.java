@@ -0,0 +1,39 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * HyperLogLog sketch of the distinct originating entities of one PDU type in one minute or one hour.
+ * <p>
+ * Written by {@code EntitySketchRollupService} with set-based upserts, see {@code HyperLogLog} for the format.
+ */
+@Entity
+@Data
+@Table(name = "entity_sketch_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_entity_sketch_rollup_bucket",
+                columnNames = {"bucket_start", "bucket_seconds", "pdu_type"}))
+public class EntitySketchRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", columnDefinition = "BIGINT")
+    private long bucketStart; // Unix epoch seconds
+
+    @Column(name = "bucket_seconds")
+    private int bucketSeconds; // 60 or 3600
+
+    @Column(name = "pdu_type")
+    private short pduType;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] registers;
+}
@@ -4,11 +4,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 import jakarta.persistence.Column;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_entity_state_record_entity_timestamp", columnList = "site, application, entity, timestamp")
+})
 public class EntityStateRecord {
 
     @Id
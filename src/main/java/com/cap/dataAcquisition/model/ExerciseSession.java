@@ -0,0 +1,39 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * One exercise session: the time from a StartResume PDU up to the next one.
+ * <p>
+ * Maintained by {@code ExerciseSessionService}; the per-type PDU counts live in {@link ExerciseSessionCount} and
+ * cover {@code [startEpoch, countedUntil)}.
+ */
+@Entity
+@Data
+@Table(name = "exercise_session",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exercise_session_start", columnNames = "start_epoch"))
+public class ExerciseSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "start_epoch", columnDefinition = "BIGINT")
+    private long startEpoch; // Unix epoch seconds of the StartResume PDU
+
+    @Column(name = "end_epoch", columnDefinition = "BIGINT")
+    private Long endEpoch; // Unix epoch seconds, inclusive; null while this is the latest session
+
+    @Column(name = "start_resume_id")
+    private long startResumeId; // id of the StartResume PDU that opened the session
+
+    @Column(name = "counted_until", columnDefinition = "BIGINT")
+    private long countedUntil; // Unix epoch seconds, exclusive
+}
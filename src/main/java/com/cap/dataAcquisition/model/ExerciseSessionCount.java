@@ -0,0 +1,35 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Number of PDUs of one type counted so far for one {@link ExerciseSession}.
+ * <p>
+ * Rows are written with set-based upserts by {@code ExerciseSessionService}; the entity exists so the table is managed
+ * together with the rest of the schema.
+ */
+@Entity
+@Data
+@Table(name = "exercise_session_count",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exercise_session_count_session_type", columnNames = {"session_id", "pdu_type"}))
+public class ExerciseSessionCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id")
+    private long sessionId;
+
+    @Column(name = "pdu_type")
+    private short pduType;
+
+    private long count;
+}
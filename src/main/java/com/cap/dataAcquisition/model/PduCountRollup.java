@@ -0,0 +1,35 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Number of PDUs of one type received in one UTC minute.
+ * <p>
+ * Rows are written with set-based upserts by {@code PduCountRollupService}; the entity exists so the table is managed
+ * together with the rest of the schema.
+ */
+@Entity
+@Data
+@Table(name = "pdu_count_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pdu_count_rollup_minute_type", columnNames = {"minute_epoch", "pdu_type"}))
+public class PduCountRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "minute_epoch", columnDefinition = "BIGINT")
+    private long minuteEpoch; // Unix epoch seconds of the minute start
+
+    @Column(name = "pdu_type")
+    private short pduType;
+
+    private long count;
+}
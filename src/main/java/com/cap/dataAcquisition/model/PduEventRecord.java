@@ -0,0 +1,49 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Consolidated, type-discriminated copy of all PDU records.
+ * <p>
+ * Common columns hold the type, the DIS timestamp and the originating entity triple; everything type specific
+ * lives in a compact binary payload (see {@code PduEventCodec}). {@code sourceId} points back at the row in the
+ * per-type table the event was consolidated from.
+ */
+@Entity
+@Data
+@Table(name = "pdu_event",
+        indexes = {
+                @Index(name = "idx_pdu_event_timestamp_type", columnList = "timestamp, pdu_type"),
+                @Index(name = "idx_pdu_event_entity_timestamp", columnList = "site, application, entity, timestamp")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_pdu_event_source", columnNames = {"pdu_type", "source_id"}))
+public class PduEventRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pdu_type", nullable = false)
+    private short pduType;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    private int site;
+    private int application;
+    private int entity;
+
+    @Column(columnDefinition = "BIGINT")
+    private long timestamp;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] payload;
+}
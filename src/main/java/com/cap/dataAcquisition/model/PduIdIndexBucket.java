@@ -0,0 +1,39 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Smallest and largest id of the rows of one PDU type whose timestamp falls in one UTC minute.
+ * <p>
+ * Rows are written with set-based upserts by {@code PduIdIndexService}; the entity exists so the table is managed
+ * together with the rest of the schema.
+ */
+@Entity
+@Data
+@Table(name = "pdu_id_index",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pdu_id_index_type_minute", columnNames = {"pdu_type", "minute_epoch"}))
+public class PduIdIndexBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pdu_type")
+    private short pduType;
+
+    @Column(name = "minute_epoch", columnDefinition = "BIGINT")
+    private long minuteEpoch; // Unix epoch seconds of the minute start
+
+    @Column(name = "min_id")
+    private long minId;
+
+    @Column(name = "max_id")
+    private long maxId;
+}
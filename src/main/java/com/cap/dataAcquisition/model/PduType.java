@@ -0,0 +1,104 @@
+package com.cap.dataAcquisition.model;
+
+import java.util.EnumSet;
+
+/**
+ * The PDU types persisted by the ingestion service, with their DIS PDU type numbers, backing tables and record entities.
+ * <p>
+ * The declaration order is the order used in every per-type breakdown (aggregations, logs, metrics).
+ */
+public enum PduType {
+    ENTITY_STATE((short) 1, "EntityState", "entity_state_record", "", EntityStateRecord.class),
+    FIRE_EVENT((short) 2, "FireEvent", "fire_event_record", "firing_", FireEventRecord.class),
+    COLLISION((short) 4, "Collision", "collision_record", "issuing_", CollisionRecord.class),
+    DETONATION((short) 3, "Detonation", "detonation_record", "firing_", DetonationRecord.class),
+    DATA_PDU((short) 20, "DataPdu", "data_pdu_record", "originating_", DataPduRecord.class),
+    ACTION_REQUEST((short) 16, "ActionRequest", "action_request_pdu_record", "originating_", ActionRequestPduRecord.class),
+    START_RESUME((short) 13, "StartResume", "start_resume_pdu_record", null, StartResumePduRecord.class),
+    SET_DATA((short) 19, "SetData", "set_data_pdu_record", "originating_", SetDataPduRecord.class),
+    DESIGNATOR((short) 24, "Designator", "designator_pdu_record", "designating_", DesignatorPduRecord.class),
+    ELECTROMAGNETIC_EMISSIONS((short) 23, "ElectromagneticEmissions", "electromagnetic_emissions_pdu_record", "emitting_",
+            ElectromagneticEmissionsPduRecord.class);
+
+    private final short disCode;
+    private final String logName;
+    private final String tableName;
+    private final String entityColumnPrefix;
+    private final Class<?> recordClass;
+
+    PduType(short disCode, String logName, String tableName, String entityColumnPrefix, Class<?> recordClass) {
+        this.disCode = disCode;
+        this.logName = logName;
+        this.tableName = tableName;
+        this.entityColumnPrefix = entityColumnPrefix;
+        this.recordClass = recordClass;
+    }
+
+    /** DIS PDU type number, also used as the discriminator in {@code pdu_event}. */
+    public short getDisCode() {
+        return disCode;
+    }
+
+    /** Name used for this type in the PDU log API ({@code PDUType}). */
+    public String getLogName() {
+        return logName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /** JPA entity mapped to {@link #getTableName()}. */
+    public Class<?> getRecordClass() {
+        return recordClass;
+    }
+
+    /** Whether the record carries an originating (site, application, entity) triple. */
+    public boolean hasOriginatingEntity() {
+        return entityColumnPrefix != null;
+    }
+
+    public String getSiteColumn() {
+        return entityColumnPrefix + "site";
+    }
+
+    public String getApplicationColumn() {
+        return entityColumnPrefix + "application";
+    }
+
+    public String getEntityColumn() {
+        return entityColumnPrefix + "entity";
+    }
+
+    public static PduType fromDisCode(short disCode) {
+        for (PduType type : values()) {
+            if (type.disCode == disCode) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported DIS PDU type: " + disCode);
+    }
+
+    public static PduType fromLogName(String logName) {
+        for (PduType type : values()) {
+            if (type.logName.equalsIgnoreCase(logName) || type.name().equalsIgnoreCase(logName)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown PDU type: " + logName);
+    }
+
+    /** Parses a comma-separated list of {@link #fromLogName} names, such as {@code FireEvent,Detonation}. */
+    public static EnumSet<PduType> fromLogNames(String logNames) {
+        EnumSet<PduType> types = EnumSet.noneOf(PduType.class);
+        for (String logName : logNames.split(",")) {
+            if (!logName.isBlank()) {
+                types.add(fromLogName(logName.trim()));
+            }
+        }
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("At least one PDU type is required");
+        }
+        return types;
+    }
+}
@@ -0,0 +1,39 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Histogram of the per-second PDU rate of one PDU type (or of all types, {@code pdu_type = 0}) over one UTC hour.
+ * <p>
+ * Every second of the hour is one sample, quiet seconds included. Written by {@code RateHistogramRollupService}, see
+ * {@code RateHistogram} for the format.
+ */
+@Entity
+@Data
+@Table(name = "rate_histogram_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rate_histogram_rollup_hour_type", columnNames = {"hour_epoch", "pdu_type"}))
+public class RateHistogramRollup {
+
+    /** {@code pdu_type} of the histogram over all PDU types. */
+    public static final short ALL_TYPES = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_epoch", columnDefinition = "BIGINT")
+    private long hourEpoch; // Unix epoch seconds of the hour start
+
+    @Column(name = "pdu_type")
+    private short pduType;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] histogram;
+}
@@ -0,0 +1,22 @@
+package com.cap.dataAcquisition.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * How far a rollup has been computed: every minute before {@code coveredUntil} is final.
+ */
+@Entity
+@Data
+@Table(name = "rollup_watermark")
+public class RollupWatermark {
+
+    @Id
+    private String name;
+
+    @Column(name = "covered_until", columnDefinition = "BIGINT")
+    private long coveredUntil; // Unix epoch seconds, minute aligned
+}
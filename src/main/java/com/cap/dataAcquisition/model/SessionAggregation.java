@@ -0,0 +1,17 @@
+package com.cap.dataAcquisition.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class SessionAggregation extends AggregationResult {
+    private long sessionId;
+    private long startTime;    // Unix epoch seconds of the StartResume PDU
+    private Long endTime;      // Unix epoch seconds, inclusive; null while the session is still running
+    private boolean open;
+    private long countedUntil; // Unix epoch seconds the counts are complete up to (exclusive)
+    private long totalPdus;
+}
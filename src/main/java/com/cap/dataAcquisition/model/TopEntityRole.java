@@ -0,0 +1,48 @@
+package com.cap.dataAcquisition.model;
+
+/**
+ * Which entity of a weapons-fire PDU a top-K ranking counts.
+ */
+public enum TopEntityRole {
+    FIRING(PduType.FIRE_EVENT, "firing_"),   // shooters
+    TARGETED(PduType.FIRE_EVENT, "target_"), // entities fired upon
+    HIT(PduType.DETONATION, "target_");      // entities a detonation was reported against
+
+    private final PduType pduType;
+    private final String columnPrefix;
+
+    TopEntityRole(PduType pduType, String columnPrefix) {
+        this.pduType = pduType;
+        this.columnPrefix = columnPrefix;
+    }
+
+    public PduType getPduType() {
+        return pduType;
+    }
+
+    public String getSiteColumn() {
+        return columnPrefix + "site";
+    }
+
+    public String getApplicationColumn() {
+        return columnPrefix + "application";
+    }
+
+    public String getEntityColumn() {
+        return columnPrefix + "entity";
+    }
+
+    /** Target ids of 0:0:0 mean "no target" in DIS and are not ranked. */
+    public boolean skipsUnknownEntity() {
+        return this != FIRING;
+    }
+
+    public static TopEntityRole fromName(String name) {
+        for (TopEntityRole role : values()) {
+            if (role.name().equalsIgnoreCase(name)) {
+                return role;
+            }
+        }
+        throw new IllegalArgumentException("Unknown role: " + name);
+    }
+}
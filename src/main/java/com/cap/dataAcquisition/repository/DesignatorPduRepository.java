@@ -2,9 +2,29 @@ package com.cap.dataAcquisition.repository;
 
 import com.cap.dataAcquisition.model.DesignatorPduRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface DesignatorPduRepository extends JpaRepository<DesignatorPduRecord, Long> {
     List<DesignatorPduRecord> findByTimestampBetween(Long startTime, Long endTime);
+
+    long countByTimestampBetween(Long startTime, Long endTime);
+
+    // Log views filtered to one designating entity, served by idx_designator_pdu_record_designating_entity_timestamp
+    List<DesignatorPduRecord> findByDesignatingSiteAndDesignatingApplicationAndDesignatingEntityAndTimestampBetween(
+            int site, int application, int entity, Long startTime, Long endTime);
+
+    // Primary-key range scans over the ids the time-to-id index (PduIdIndexService) maps the window to;
+    // the timestamp condition is rechecked on those rows only.
+    @Query(value = "SELECT * FROM designator_pdu_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime", nativeQuery = true)
+    List<DesignatorPduRecord> findByIdRangeAndTimestampBetween(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("tailAfterId") long tailAfterId, @Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    @Query(value = "SELECT COUNT(*) FROM designator_pdu_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime", nativeQuery = true)
+    long countByIdRangeAndTimestampBetween(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("tailAfterId") long tailAfterId, @Param("startTime") Long startTime, @Param("endTime") Long endTime);
 }
\ No newline at end of file
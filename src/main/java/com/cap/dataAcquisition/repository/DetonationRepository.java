@@ -2,9 +2,58 @@ package com.cap.dataAcquisition.repository;
 
 import com.cap.dataAcquisition.model.DetonationRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface DetonationRepository extends JpaRepository<DetonationRecord, Long> {
     List<DetonationRecord> findByTimestampBetween(Long startTime, Long endTime);
-}
\ No newline at end of file
+
+    long countByTimestampBetween(Long startTime, Long endTime);
+
+    // Log views filtered to one firing entity, served by idx_detonation_record_firing_entity_timestamp
+    List<DetonationRecord> findByFiringSiteAndFiringApplicationAndFiringEntityAndTimestampBetween(
+            int site, int application, int entity, Long startTime, Long endTime);
+
+    // Primary-key range scans over the ids the time-to-id index (PduIdIndexService) maps the window to;
+    // the timestamp condition is rechecked on those rows only.
+    @Query(value = "SELECT * FROM detonation_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime", nativeQuery = true)
+    List<DetonationRecord> findByIdRangeAndTimestampBetween(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("tailAfterId") long tailAfterId, @Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    @Query(value = "SELECT COUNT(*) FROM detonation_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime", nativeQuery = true)
+    long countByIdRangeAndTimestampBetween(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("tailAfterId") long tailAfterId, @Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    // Box and sphere filters are served by the GiST index on point(locationx, locationy) (see SpatialIndexInitializer),
+    // combined with the id range of the window; the remaining predicates are rechecked on the candidate rows only.
+    @Query(value = "SELECT * FROM detonation_record " +
+                   "WHERE point(locationx, locationy) <@ box(point(:minX, :minY), point(:maxX, :maxY)) " +
+                   "AND locationz BETWEEN :minZ AND :maxZ " +
+                   "AND (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime " +
+                   "ORDER BY timestamp LIMIT :limit", nativeQuery = true)
+    List<DetonationRecord> findWithinBox(@Param("minX") double minX, @Param("minY") double minY, @Param("minZ") double minZ,
+                                         @Param("maxX") double maxX, @Param("maxY") double maxY, @Param("maxZ") double maxZ,
+                                         @Param("fromId") long fromId, @Param("toId") long toId,
+                                         @Param("tailAfterId") long tailAfterId,
+                                         @Param("startTime") Long startTime, @Param("endTime") Long endTime,
+                                         @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM detonation_record " +
+                   "WHERE point(locationx, locationy) <@ circle(point(:centerX, :centerY), :radius) " +
+                   "AND (locationx - :centerX) * (locationx - :centerX) + (locationy - :centerY) * (locationy - :centerY) " +
+                   "+ (locationz - :centerZ) * (locationz - :centerZ) <= :radius * :radius " +
+                   "AND (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime " +
+                   "ORDER BY timestamp LIMIT :limit", nativeQuery = true)
+    List<DetonationRecord> findWithinSphere(@Param("centerX") double centerX, @Param("centerY") double centerY,
+                                            @Param("centerZ") double centerZ, @Param("radius") double radius,
+                                            @Param("fromId") long fromId, @Param("toId") long toId,
+                                            @Param("tailAfterId") long tailAfterId,
+                                            @Param("startTime") Long startTime, @Param("endTime") Long endTime,
+                                            @Param("limit") int limit);
+}
@@ -1,10 +1,78 @@
 package com.cap.dataAcquisition.repository;
 
+import com.cap.dataAcquisition.dto.TrajectoryPoint;
 import com.cap.dataAcquisition.model.EntityStateRecord;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface EntityStateRepository extends JpaRepository<EntityStateRecord, Long> {
     List<EntityStateRecord> findByTimestampBetween(Long startTime, Long endTime);
+
+    long countByTimestampBetween(Long startTime, Long endTime);
+
+    // Primary-key range scans over the ids the time-to-id index (PduIdIndexService) maps the window to;
+    // the timestamp condition is rechecked on those rows only.
+    @Query(value = "SELECT * FROM entity_state_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime", nativeQuery = true)
+    List<EntityStateRecord> findByIdRangeAndTimestampBetween(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("tailAfterId") long tailAfterId, @Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    @Query(value = "SELECT COUNT(*) FROM entity_state_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime", nativeQuery = true)
+    long countByIdRangeAndTimestampBetween(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("tailAfterId") long tailAfterId, @Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    // Box and sphere filters are served by the GiST index on point(locationx, locationy) (see SpatialIndexInitializer),
+    // combined with the id range of the window; the remaining predicates are rechecked on the candidate rows only.
+    @Query(value = "SELECT * FROM entity_state_record " +
+                   "WHERE point(locationx, locationy) <@ box(point(:minX, :minY), point(:maxX, :maxY)) " +
+                   "AND locationz BETWEEN :minZ AND :maxZ " +
+                   "AND (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime " +
+                   "ORDER BY timestamp LIMIT :limit", nativeQuery = true)
+    List<EntityStateRecord> findWithinBox(@Param("minX") double minX, @Param("minY") double minY, @Param("minZ") double minZ,
+                                          @Param("maxX") double maxX, @Param("maxY") double maxY, @Param("maxZ") double maxZ,
+                                          @Param("fromId") long fromId, @Param("toId") long toId,
+                                          @Param("tailAfterId") long tailAfterId,
+                                          @Param("startTime") Long startTime, @Param("endTime") Long endTime,
+                                          @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM entity_state_record " +
+                   "WHERE point(locationx, locationy) <@ circle(point(:centerX, :centerY), :radius) " +
+                   "AND (locationx - :centerX) * (locationx - :centerX) + (locationy - :centerY) * (locationy - :centerY) " +
+                   "+ (locationz - :centerZ) * (locationz - :centerZ) <= :radius * :radius " +
+                   "AND (id BETWEEN :fromId AND :toId OR id > :tailAfterId) " +
+                   "AND timestamp BETWEEN :startTime AND :endTime " +
+                   "ORDER BY timestamp LIMIT :limit", nativeQuery = true)
+    List<EntityStateRecord> findWithinSphere(@Param("centerX") double centerX, @Param("centerY") double centerY,
+                                             @Param("centerZ") double centerZ, @Param("radius") double radius,
+                                             @Param("fromId") long fromId, @Param("toId") long toId,
+                                             @Param("tailAfterId") long tailAfterId,
+                                             @Param("startTime") Long startTime, @Param("endTime") Long endTime,
+                                             @Param("limit") int limit);
+
+    // --- Per-entity trajectories and log views, served by idx_entity_state_record_entity_timestamp ---
+    long countBySiteAndApplicationAndEntityAndTimestampBetween(int site, int application, int entity,
+                                                               Long startTime, Long endTime);
+
+    List<EntityStateRecord> findBySiteAndApplicationAndEntityAndTimestampBetween(int site, int application, int entity,
+                                                                             Long startTime, Long endTime);
+
+    // Streams lightweight points rather than managed entities so that long tracks never sit in the persistence context
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "2000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select new com.cap.dataAcquisition.dto.TrajectoryPoint(e.timestamp, e.locationX, e.locationY, e.locationZ) " +
+           "from EntityStateRecord e where e.site = :site and e.application = :application and e.entity = :entity " +
+           "and e.timestamp between :startTime and :endTime order by e.timestamp")
+    Stream<TrajectoryPoint> streamTrajectory(@Param("site") int site, @Param("application") int application,
+                                             @Param("entity") int entity,
+                                             @Param("startTime") Long startTime, @Param("endTime") Long endTime);
 }
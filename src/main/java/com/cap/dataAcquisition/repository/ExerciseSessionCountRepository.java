@@ -0,0 +1,13 @@
+package com.cap.dataAcquisition.repository;
+
+import com.cap.dataAcquisition.model.ExerciseSessionCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ExerciseSessionCountRepository extends JpaRepository<ExerciseSessionCount, Long> {
+    List<ExerciseSessionCount> findBySessionId(long sessionId);
+
+    List<ExerciseSessionCount> findBySessionIdIn(Collection<Long> sessionIds);
+}
@@ -0,0 +1,29 @@
+package com.cap.dataAcquisition.repository;
+
+import com.cap.dataAcquisition.model.ExerciseSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ExerciseSessionRepository extends JpaRepository<ExerciseSession, Long> {
+    List<ExerciseSession> findAllByOrderByStartEpochAsc();
+
+    Optional<ExerciseSession> findFirstByStartEpochLessThanOrderByStartEpochDesc(long startEpoch);
+
+    Optional<ExerciseSession> findFirstByStartEpochGreaterThanOrderByStartEpochAsc(long startEpoch);
+
+    boolean existsByStartEpochBetween(long from, long to);
+
+    @Query("SELECT MAX(s.startResumeId) FROM ExerciseSession s")
+    Long findMaxStartResumeId();
+
+    /** Sessions whose counts stop short of both their end and {@code until}. */
+    @Query("SELECT s FROM ExerciseSession s WHERE s.countedUntil < :until AND (s.endEpoch IS NULL OR s.countedUntil <= s.endEpoch)")
+    List<ExerciseSession> findUncountedBefore(@Param("until") long until);
+
+    @Query("SELECT s FROM ExerciseSession s WHERE s.startEpoch <= :to AND (s.endEpoch IS NULL OR s.endEpoch >= :from)")
+    List<ExerciseSession> findOverlapping(@Param("from") long from, @Param("to") long to);
+}
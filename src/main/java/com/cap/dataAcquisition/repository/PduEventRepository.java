@@ -0,0 +1,35 @@
+package com.cap.dataAcquisition.repository;
+
+import com.cap.dataAcquisition.model.PduEventRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PduEventRepository extends JpaRepository<PduEventRecord, Long> {
+
+    List<PduEventRecord> findByTimestampBetweenOrderByTimestampAsc(Long startTime, Long endTime);
+
+    List<PduEventRecord> findByPduTypeAndTimestampBetween(short pduType, Long startTime, Long endTime);
+
+    // Filtered log views; the entity variant is served by idx_pdu_event_entity_timestamp
+    List<PduEventRecord> findByPduTypeInAndTimestampBetweenOrderByTimestampAsc(Collection<Short> pduTypes,
+                                                                               Long startTime, Long endTime);
+
+    List<PduEventRecord> findByPduTypeInAndSiteAndApplicationAndEntityAndTimestampBetweenOrderByTimestampAsc(
+            Collection<Short> pduTypes, int site, int application, int entity, Long startTime, Long endTime);
+
+    @Query("select e.pduType as pduType, count(e) as count from PduEventRecord e " +
+           "where e.timestamp between :startTime and :endTime group by e.pduType")
+    List<PduTypeCount> countByTypeBetween(@Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    // Served from the (timestamp, pdu_type) index without touching the payloads
+    @Query("select e.pduType as pduType, e.timestamp as timestamp from PduEventRecord e " +
+           "where e.timestamp between :startTime and :endTime")
+    List<PduTypeTimestamp> findTypesAndTimestampsBetween(@Param("startTime") Long startTime, @Param("endTime") Long endTime);
+
+    @Query("select max(e.sourceId) from PduEventRecord e where e.pduType = :pduType")
+    Long findMaxSourceId(@Param("pduType") short pduType);
+}
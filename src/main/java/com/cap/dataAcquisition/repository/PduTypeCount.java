@@ -0,0 +1,9 @@
+package com.cap.dataAcquisition.repository;
+
+/**
+ * Projection for per-type row counts over {@code pdu_event}.
+ */
+public interface PduTypeCount {
+    short getPduType();
+    long getCount();
+}
@@ -0,0 +1,9 @@
+package com.cap.dataAcquisition.repository;
+
+/**
+ * Projection of the type and DIS timestamp of a {@code pdu_event} row.
+ */
+public interface PduTypeTimestamp {
+    short getPduType();
+    long getTimestamp();
+}
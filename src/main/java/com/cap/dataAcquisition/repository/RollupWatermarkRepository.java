@@ -0,0 +1,7 @@
+package com.cap.dataAcquisition.repository;
+
+import com.cap.dataAcquisition.model.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
@@ -0,0 +1,65 @@
+package com.cap.dataAcquisition.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the GiST indexes behind the spatial queries.
+ * <p>
+ * They are expression indexes over {@code point(locationx, locationy)}, which JPA cannot declare, so they are created
+ * here once Hibernate has updated the schema. The built-in point type keeps this free of extensions such as PostGIS.
+ * They are built {@code CONCURRENTLY} so that ingestion into a populated table is not blocked while they build; each
+ * statement runs on its own auto-committed connection, since that form cannot run inside a transaction. A concurrent
+ * build that failed leaves an invalid index behind, which {@code IF NOT EXISTS} would keep; it is dropped first.
+ */
+@Component
+@ConditionalOnProperty(name = "acquisition.spatial.create-indexes", havingValue = "true", matchIfMissing = true)
+public class SpatialIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(SpatialIndexInitializer.class);
+
+    static final List<String> INDEX_DDL = List.of(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_state_record_location ON entity_state_record USING gist (point(locationx, locationy))",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_detonation_record_location ON detonation_record USING gist (point(locationx, locationy))"
+    );
+
+    private static final String INVALID_INDEXES_SQL =
+            "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE NOT i.indisvalid AND c.relname IN ('idx_entity_state_record_location', 'idx_detonation_record_location')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SpatialIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            for (String invalid : jdbcTemplate.queryForList(INVALID_INDEXES_SQL, String.class)) {
+                log.warn("Dropping spatial index {} left invalid by an interrupted build", invalid);
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + invalid);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Unable to check the spatial indexes: {}", e.getMessage());
+        }
+        for (String ddl : INDEX_DDL) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (DataAccessException e) {
+                // Spatial queries still work without the index, they just fall back to the window's id range
+                log.warn("Unable to create spatial index ({}): {}", ddl, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.model.PduType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkheads for the expensive time-window endpoints.
+ * <p>
+ * Every guarded request is priced by {@link QueryCostEstimator} and classed as {@link QueryClass#INTERACTIVE} or
+ * {@link QueryClass#BULK}. Each class has its own semaphore, sized so that both together stay below the connection
+ * pool, which leaves connections for the endpoints that are not guarded at all. Bulk queries additionally share a
+ * budget of estimated rows in flight; a single query larger than the whole budget still runs, but only alone.
+ * A request that cannot be admitted is rejected at once with {@link AdmissionRejectedException} rather than queued.
+ * <p>
+ * Admitted work runs in a read-only transaction whose timeout is the class's statement timeout: Spring applies the
+ * remaining transaction time as the JDBC query timeout of every statement, and the driver cancels it server-side.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.admission.enabled", havingValue = "true")
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    /** Window length to pass for queries without a time bound. */
+    public static final long UNBOUNDED_WINDOW = Long.MAX_VALUE;
+
+    private final QueryCostEstimator costEstimator;
+    private final PlatformTransactionManager transactionManager;
+    private Semaphore interactivePermits;
+    private Semaphore bulkPermits;
+    private TransactionTemplate interactiveTransaction;
+    private TransactionTemplate bulkTransaction;
+    private long bulkRowsInFlight;
+
+    @Value("${acquisition.admission.bulk-threshold-rows:100000}")
+    private long bulkThresholdRows;
+
+    @Value("${acquisition.admission.interactive.permits:6}")
+    private int interactiveConcurrency;
+
+    @Value("${acquisition.admission.interactive.max-wait-ms:250}")
+    private long interactiveMaxWaitMillis;
+
+    @Value("${acquisition.admission.interactive.statement-timeout-seconds:5}")
+    private int interactiveTimeoutSeconds;
+
+    @Value("${acquisition.admission.interactive.retry-after-seconds:1}")
+    private long interactiveRetryAfterSeconds;
+
+    @Value("${acquisition.admission.bulk.permits:2}")
+    private int bulkConcurrency;
+
+    @Value("${acquisition.admission.bulk.max-rows-in-flight:5000000}")
+    private long bulkMaxRowsInFlight;
+
+    @Value("${acquisition.admission.bulk.statement-timeout-seconds:120}")
+    private int bulkTimeoutSeconds;
+
+    @Value("${acquisition.admission.bulk.retry-after-seconds:30}")
+    private long bulkRetryAfterSeconds;
+
+    @Autowired
+    public AdmissionControl(QueryCostEstimator costEstimator, PlatformTransactionManager transactionManager) {
+        this.costEstimator = costEstimator;
+        this.transactionManager = transactionManager;
+    }
+
+    @PostConstruct
+    void init() {
+        interactivePermits = new Semaphore(interactiveConcurrency);
+        bulkPermits = new Semaphore(bulkConcurrency);
+        interactiveTransaction = readOnlyTransaction(interactiveTimeoutSeconds);
+        bulkTransaction = readOnlyTransaction(bulkTimeoutSeconds);
+    }
+
+    private TransactionTemplate readOnlyTransaction(int timeoutSeconds) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setTimeout(timeoutSeconds);
+        return template;
+    }
+
+    /**
+     * Runs {@code query} over {@code types} and a window of {@code windowSeconds} if its class has capacity.
+     *
+     * @throws AdmissionRejectedException when the class's permits or row budget are exhausted
+     */
+    public <T> T execute(String operation, Collection<PduType> types, long windowSeconds, Supplier<T> query) {
+        long estimatedRows = costEstimator.estimateRows(types, windowSeconds);
+        QueryClass queryClass = classify(estimatedRows);
+        long waitStart = System.nanoTime();
+        if (!admit(queryClass, estimatedRows)) {
+            log.warn("Rejected {}: {} capacity exhausted (~{} rows)", operation, queryClass, estimatedRows);
+            throw new AdmissionRejectedException(queryClass, estimatedRows,
+                    queryClass == QueryClass.BULK ? bulkRetryAfterSeconds : interactiveRetryAfterSeconds);
+        }
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.record("admission." + queryClass.name().toLowerCase(), System.nanoTime() - waitStart, estimatedRows, "estRows");
+        }
+        try {
+            TransactionTemplate transaction = queryClass == QueryClass.BULK ? bulkTransaction : interactiveTransaction;
+            return transaction.execute(status -> query.get());
+        } finally {
+            release(queryClass, estimatedRows);
+        }
+    }
+
+    QueryClass classify(long estimatedRows) {
+        return estimatedRows > bulkThresholdRows ? QueryClass.BULK : QueryClass.INTERACTIVE;
+    }
+
+    private boolean admit(QueryClass queryClass, long estimatedRows) {
+        if (queryClass == QueryClass.INTERACTIVE) {
+            try {
+                return interactivePermits.tryAcquire(interactiveMaxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (!bulkPermits.tryAcquire()) {
+            return false;
+        }
+        synchronized (this) {
+            long charge = budgetCharge(estimatedRows);
+            if (bulkRowsInFlight + charge > bulkMaxRowsInFlight) {
+                bulkPermits.release();
+                return false;
+            }
+            bulkRowsInFlight += charge;
+        }
+        return true;
+    }
+
+    private void release(QueryClass queryClass, long estimatedRows) {
+        if (queryClass == QueryClass.INTERACTIVE) {
+            interactivePermits.release();
+            return;
+        }
+        synchronized (this) {
+            bulkRowsInFlight -= budgetCharge(estimatedRows);
+        }
+        bulkPermits.release();
+    }
+
+    /** A query larger than the whole budget is charged the whole budget, so it can only run alone. */
+    private long budgetCharge(long estimatedRows) {
+        return Math.min(estimatedRows, bulkMaxRowsInFlight);
+    }
+}
@@ -0,0 +1,24 @@
+package com.cap.dataAcquisition.service;
+
+/**
+ * Thrown when a range query is not admitted because its class has no capacity left; mapped to {@code 429}.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final QueryClass queryClass;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(QueryClass queryClass, long estimatedRows, long retryAfterSeconds) {
+        super(queryClass + " query capacity exhausted (~" + estimatedRows + " rows)");
+        this.queryClass = queryClass;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public QueryClass getQueryClass() {
+        return queryClass;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
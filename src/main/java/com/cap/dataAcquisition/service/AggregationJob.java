@@ -0,0 +1,78 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.AggregationJobStatus;
+
+/**
+ * A chunked aggregation running in the background. The merged state survives a failed or cancelled run, so the job can
+ * be resumed from the last merged chunk.
+ */
+final class AggregationJob {
+
+    private final String id;
+    private final long startEpochSeconds;
+    private final long endEpochSeconds;
+    private final long chunkSeconds;
+    private final ChunkedAggregation aggregation;
+    private final String timeWindowDescription;
+    private AggregationJobStatus.State state = AggregationJobStatus.State.RUNNING;
+    private volatile boolean cancelRequested;
+    private String error;
+    private long finishedAtMillis;
+
+    AggregationJob(String id, long startEpochSeconds, long endEpochSeconds, long chunkSeconds,
+                   ChunkedAggregation aggregation, String timeWindowDescription) {
+        this.id = id;
+        this.startEpochSeconds = startEpochSeconds;
+        this.endEpochSeconds = endEpochSeconds;
+        this.chunkSeconds = chunkSeconds;
+        this.aggregation = aggregation;
+        this.timeWindowDescription = timeWindowDescription;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    ChunkedAggregation getAggregation() {
+        return aggregation;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    synchronized boolean isRunning() {
+        return state == AggregationJobStatus.State.RUNNING;
+    }
+
+    /** Marks a stopped job as running again; false when it is still running or already complete. */
+    synchronized boolean restart() {
+        if (state != AggregationJobStatus.State.FAILED && state != AggregationJobStatus.State.CANCELLED) {
+            return false;
+        }
+        state = AggregationJobStatus.State.RUNNING;
+        cancelRequested = false;
+        error = null;
+        return true;
+    }
+
+    synchronized void finish(AggregationJobStatus.State finalState, String error) {
+        this.state = finalState;
+        this.error = error;
+        this.finishedAtMillis = System.currentTimeMillis();
+    }
+
+    synchronized boolean isExpired(long nowMillis, long ttlMillis) {
+        return state != AggregationJobStatus.State.RUNNING && nowMillis - finishedAtMillis > ttlMillis;
+    }
+
+    synchronized AggregationJobStatus status() {
+        return new AggregationJobStatus(id, state, startEpochSeconds, endEpochSeconds, chunkSeconds,
+                aggregation.chunkCount(chunkSeconds), aggregation.getChunksMerged(), aggregation.getCompletedUntil(),
+                error, aggregation.toOverview(timeWindowDescription));
+    }
+}
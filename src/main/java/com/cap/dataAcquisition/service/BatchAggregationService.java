@@ -0,0 +1,198 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.BatchAggregationRequest;
+import com.cap.dataAcquisition.model.CustomRangeAggregation;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Counts PDUs per type for many UTC windows in one statement.
+ * <p>
+ * Every window is split into the whole minutes already covered by {@code pdu_count_rollup} and the uncovered edges.
+ * The edges of all windows are merged into disjoint intervals and the PDU tables are scanned once over that union;
+ * each row is then joined to the windows containing it, so overlapping windows share the scan. Each interval is read
+ * over the id range {@link PduIdIndexService} maps it to in each table.
+ */
+@Service
+public class BatchAggregationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchAggregationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduCountRollupService rollupService;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    @Value("${acquisition.aggregate.batch.max-windows:500}")
+    private int maxWindows;
+
+    @Autowired
+    public BatchAggregationService(JdbcTemplate jdbcTemplate,
+                                   @Autowired(required = false) PduCountRollupService rollupService,
+                                   @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /** Half-open window [lo, hi) in epoch seconds, with the rollup-covered part [rollupLo, rollupHi). */
+    record ResolvedWindow(String start, String end, long lo, long hi, long rollupLo, long rollupHi) {
+    }
+
+    record Interval(long lo, long hi) {
+    }
+
+    public List<CustomRangeAggregation> aggregate(List<BatchAggregationRequest.Window> windows) {
+        if (windows == null || windows.isEmpty()) {
+            throw new IllegalArgumentException("At least one window is required");
+        }
+        if (windows.size() > maxWindows) {
+            throw new IllegalArgumentException("At most " + maxWindows + " windows are allowed");
+        }
+        long coveredUntil = rollupService != null ? rollupService.getCoveredUntil() : 0L;
+        List<ResolvedWindow> resolved = windows.stream().map(w -> resolve(w, coveredUntil)).collect(Collectors.toList());
+        List<Interval> rawIntervals = mergeRawIntervals(resolved);
+
+        long[][] counts = new long[resolved.size()][PduType.values().length];
+        String sql = buildSql(resolved.size(), rawIntervals.size());
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < resolved.size(); i++) {
+            ResolvedWindow window = resolved.get(i);
+            args.add(i);
+            args.add(window.lo());
+            args.add(window.hi());
+            args.add(window.rollupLo());
+            args.add(window.rollupHi());
+        }
+        if (consolidatedStorage) {
+            for (Interval interval : rawIntervals) {
+                args.add(MetricsService.toDisAbsoluteTimestamp(interval.lo()));
+                args.add(MetricsService.toDisAbsoluteTimestamp(interval.hi()));
+            }
+        } else {
+            for (PduType type : PduType.values()) {
+                for (Interval interval : rawIntervals) {
+                    PduIdIndexService.IdRange range =
+                            PduIdIndexService.idRange(pduIdIndexService, type, interval.lo(), interval.hi() - 1);
+                    args.add(range.fromId());
+                    args.add(range.toId());
+                    args.add(range.tailAfterId());
+                    args.add(MetricsService.toDisAbsoluteTimestamp(interval.lo()));
+                    args.add(MetricsService.toDisAbsoluteTimestamp(interval.hi()));
+                }
+            }
+        }
+        RequestTimings.time("aggregate.batch", () -> jdbcTemplate.query(sql, rs -> {
+            counts[rs.getInt("idx")][PduType.fromDisCode(rs.getShort("pdu_type")).ordinal()] += rs.getLong("count");
+        }, args.toArray()));
+
+        log.info("Aggregated {} windows with {} raw intervals in one pass", resolved.size(), rawIntervals.size());
+        List<CustomRangeAggregation> results = new ArrayList<>(resolved.size());
+        for (int i = 0; i < resolved.size(); i++) {
+            long[] c = counts[i];
+            results.add(new CustomRangeAggregation(resolved.get(i).start(), resolved.get(i).end(),
+                    c[PduType.ENTITY_STATE.ordinal()], c[PduType.FIRE_EVENT.ordinal()],
+                    c[PduType.COLLISION.ordinal()], c[PduType.DETONATION.ordinal()],
+                    c[PduType.DATA_PDU.ordinal()], c[PduType.ACTION_REQUEST.ordinal()],
+                    c[PduType.START_RESUME.ordinal()], c[PduType.SET_DATA.ordinal()],
+                    c[PduType.DESIGNATOR.ordinal()], c[PduType.ELECTROMAGNETIC_EMISSIONS.ordinal()]));
+        }
+        return results;
+    }
+
+    static ResolvedWindow resolve(BatchAggregationRequest.Window window, long coveredUntil) {
+        if (window == null || window.getStart() == null || window.getEnd() == null) {
+            throw new IllegalArgumentException("Every window needs a start and an end");
+        }
+        long lo = parse(window.getStart(), false);
+        long hi = parse(window.getEnd(), true);
+        if (lo >= hi) {
+            throw new IllegalArgumentException("Window start must be before its end: " + window.getStart() + " - " + window.getEnd());
+        }
+        long rollupLo = Math.floorDiv(lo + 59, 60) * 60;
+        long rollupHi = Math.min(Math.floorDiv(hi, 60) * 60, coveredUntil);
+        if (rollupHi <= rollupLo) {
+            rollupLo = lo;
+            rollupHi = lo;
+        }
+        return new ResolvedWindow(window.getStart(), window.getEnd(), lo, hi, rollupLo, rollupHi);
+    }
+
+    private static long parse(String value, boolean end) {
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return (end ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            }
+            return Instant.parse(value).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unparseable window bound: " + value);
+        }
+    }
+
+    /** Union of the parts of all windows that are not served by the rollup, as sorted disjoint intervals. */
+    static List<Interval> mergeRawIntervals(List<ResolvedWindow> windows) {
+        List<Interval> parts = new ArrayList<>();
+        for (ResolvedWindow window : windows) {
+            if (window.rollupLo() == window.rollupHi()) {
+                parts.add(new Interval(window.lo(), window.hi()));
+            } else {
+                if (window.lo() < window.rollupLo()) {
+                    parts.add(new Interval(window.lo(), window.rollupLo()));
+                }
+                if (window.rollupHi() < window.hi()) {
+                    parts.add(new Interval(window.rollupHi(), window.hi()));
+                }
+            }
+        }
+        parts.sort(Comparator.comparingLong(Interval::lo));
+        List<Interval> merged = new ArrayList<>();
+        for (Interval part : parts) {
+            Interval last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && part.lo() <= last.hi()) {
+                merged.set(merged.size() - 1, new Interval(last.lo(), Math.max(last.hi(), part.hi())));
+            } else {
+                merged.add(part);
+            }
+        }
+        return merged;
+    }
+
+    private String buildSql(int windowCount, int intervalCount) {
+        String values = String.join(", ", Collections.nCopies(windowCount, "(?::int, ?::bigint, ?::bigint, ?::bigint, ?::bigint)"));
+        String rows = consolidatedStorage
+                ? "SELECT pdu_type, " + PduSql.EPOCH_SECONDS + " AS ts FROM pdu_event WHERE " +
+                  rangeFilter(intervalCount, "(timestamp >= ? AND timestamp < ?)")
+                : PduSql.unionAll(type -> "SELECT " + type.getDisCode() + " AS pdu_type, " + PduSql.EPOCH_SECONDS + " AS ts " +
+                                          "FROM " + type.getTableName() + " WHERE " +
+                                          rangeFilter(intervalCount, "(" + PduSql.ID_RANGE + " AND timestamp >= ? AND timestamp < ?)"));
+        return "WITH w(idx, lo, hi, rlo, rhi) AS (VALUES " + values + ") " +
+               "SELECT w.idx, t.pdu_type, COUNT(*) AS count FROM (" + rows + ") t " +
+               "JOIN w ON t.ts >= w.lo AND t.ts < w.hi AND NOT (t.ts >= w.rlo AND t.ts < w.rhi) GROUP BY 1, 2 " +
+               "UNION ALL " +
+               "SELECT w.idx, r.pdu_type, SUM(r.count) AS count FROM pdu_count_rollup r " +
+               "JOIN w ON r.minute_epoch >= w.rlo AND r.minute_epoch < w.rhi GROUP BY 1, 2";
+    }
+
+    private static String rangeFilter(int intervalCount, String perInterval) {
+        return intervalCount == 0 ? "FALSE" : String.join(" OR ", Collections.nCopies(intervalCount, perInterval));
+    }
+}
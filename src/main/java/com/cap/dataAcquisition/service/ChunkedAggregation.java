@@ -0,0 +1,144 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.sketch.RateHistogram;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+/**
+ * Running metrics overview of a window that is counted one time chunk at a time.
+ * <p>
+ * Every chunk is reduced to its per-type counts, its per-second rate histograms and its per-second totals; the first
+ * two merge by addition and the totals feed a {@link SlidingWindowPeak.Accumulator}, so the merged state has the size
+ * of a single chunk's histograms however long the window is. Chunks must be merged in time order, which is also what
+ * makes {@link #getCompletedUntil()} a point the computation can resume from.
+ */
+final class ChunkedAggregation {
+
+    /** Partial aggregate of {@code [fromEpochSeconds, toEpochSeconds)}. */
+    record Chunk(long fromEpochSeconds, long toEpochSeconds, long[] counts, RateHistogram[] histograms, int[] totals) {
+    }
+
+    private final long fromEpochSeconds;
+    private final long toEpochSeconds;
+    private final long[] counts = new long[RateDistributions.ALL_TYPES];
+    private final RateHistogram[] histograms = RateDistributions.newHistograms();
+    private final SlidingWindowPeak.Accumulator peak;
+    private final int peakWindowSeconds;
+    private int chunksMerged;
+
+    /** Aggregation of {@code [fromEpochSeconds, toEpochSeconds)}. */
+    ChunkedAggregation(long fromEpochSeconds, long toEpochSeconds, int peakWindowSeconds, int peakStepSeconds) {
+        if (fromEpochSeconds >= toEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        this.fromEpochSeconds = fromEpochSeconds;
+        this.toEpochSeconds = toEpochSeconds;
+        this.peak = new SlidingWindowPeak.Accumulator(fromEpochSeconds, peakWindowSeconds, peakStepSeconds);
+        this.peakWindowSeconds = peakWindowSeconds;
+    }
+
+    /**
+     * Counts {@code [fromEpochSeconds, toEpochSeconds)} in the database and reduces it to a chunk; {@code idIndex} may
+     * be {@code null}, see {@link RateDistributions#countPerSecond}.
+     */
+    static Chunk count(JdbcTemplate jdbcTemplate, PduIdIndexService idIndex, boolean consolidated,
+                       long fromEpochSeconds, long toEpochSeconds) {
+        int[][] perSecondByType = RateDistributions.countPerSecond(jdbcTemplate, idIndex, consolidated,
+                fromEpochSeconds, toEpochSeconds);
+        long[] counts = new long[RateDistributions.ALL_TYPES];
+        int[] totals = new int[perSecondByType[0].length];
+        for (int type = 0; type < perSecondByType.length; type++) {
+            for (int second = 0; second < totals.length; second++) {
+                counts[type] += perSecondByType[type][second];
+                totals[second] += perSecondByType[type][second];
+            }
+        }
+        RateHistogram[] histograms = RateDistributions.newHistograms();
+        RateDistributions.record(histograms, perSecondByType);
+        return new Chunk(fromEpochSeconds, toEpochSeconds, counts, histograms, totals);
+    }
+
+    long getToEpochSeconds() {
+        return toEpochSeconds;
+    }
+
+    /** End of the chunk starting at {@code fromEpochSeconds}: the next multiple of the chunk length, capped at the end. */
+    long chunkEnd(long fromEpochSeconds, long chunkSeconds) {
+        return Math.min(toEpochSeconds, Math.floorDiv(fromEpochSeconds, chunkSeconds) * chunkSeconds + chunkSeconds);
+    }
+
+    int chunkCount(long chunkSeconds) {
+        return (int) (Math.floorDiv(toEpochSeconds - 1, chunkSeconds) - Math.floorDiv(fromEpochSeconds, chunkSeconds) + 1);
+    }
+
+    /** Merges the chunk starting at {@link #getCompletedUntil()}. */
+    synchronized void merge(Chunk chunk) {
+        if (chunk.fromEpochSeconds() != peak.getNextEpochSecond()) {
+            throw new IllegalStateException("Chunk " + chunk.fromEpochSeconds() + " merged out of order, expected "
+                    + peak.getNextEpochSecond());
+        }
+        for (int type = 0; type < counts.length; type++) {
+            counts[type] += chunk.counts()[type];
+        }
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].merge(chunk.histograms()[i]);
+        }
+        peak.add(chunk.totals(), chunk.fromEpochSeconds());
+        chunksMerged++;
+    }
+
+    synchronized long getCompletedUntil() {
+        return peak.getNextEpochSecond();
+    }
+
+    synchronized int getChunksMerged() {
+        return chunksMerged;
+    }
+
+    boolean isComplete() {
+        return getCompletedUntil() >= toEpochSeconds;
+    }
+
+    /**
+     * Overview of what has been merged so far; for a finished aggregation it matches the overview computed in one pass.
+     * The average rate is over the full window length, as in {@link MetricsService#getAggregatedMetrics}.
+     */
+    synchronized AggregatedMetricsOverview toOverview(String timeWindowDescription) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        Instant startTimeUtc = Instant.ofEpochSecond(fromEpochSeconds);
+        Instant endTimeUtc = Instant.ofEpochSecond(toEpochSeconds - 1);
+        long durationSeconds = toEpochSeconds - 1 - fromEpochSeconds;
+        SlidingWindowPeak.Peak busiest = peak.peak();
+        AggregatedMetricsOverview.PeakLoadInfo peakLoad = busiest == null
+                ? new AggregatedMetricsOverview.PeakLoadInfo(0.0, startTimeUtc, endTimeUtc, 0)
+                : new AggregatedMetricsOverview.PeakLoadInfo((double) busiest.count() / peakWindowSeconds,
+                        Instant.ofEpochSecond(busiest.startEpochSecond()), Instant.ofEpochSecond(busiest.endEpochSecond()),
+                        busiest.count());
+        AggregatedMetricsOverview overview = new AggregatedMetricsOverview(
+                timeWindowDescription,
+                startTimeUtc,
+                endTimeUtc,
+                total,
+                counts[PduType.ENTITY_STATE.ordinal()],
+                counts[PduType.FIRE_EVENT.ordinal()],
+                counts[PduType.COLLISION.ordinal()],
+                counts[PduType.DETONATION.ordinal()],
+                counts[PduType.DATA_PDU.ordinal()],
+                counts[PduType.ACTION_REQUEST.ordinal()],
+                counts[PduType.START_RESUME.ordinal()],
+                counts[PduType.SET_DATA.ordinal()],
+                counts[PduType.DESIGNATOR.ordinal()],
+                counts[PduType.ELECTROMAGNETIC_EMISSIONS.ordinal()],
+                durationSeconds > 0 ? total / (double) durationSeconds : 0.0,
+                peakLoad
+        );
+        overview.setRateDistribution(RateDistributions.toDistribution(histograms));
+        return overview;
+    }
+}
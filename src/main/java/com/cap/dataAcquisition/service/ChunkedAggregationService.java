@@ -0,0 +1,261 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.AggregationJobStatus;
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import com.cap.dataAcquisition.model.PduType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Metrics overviews of long windows, computed one time chunk at a time.
+ * <p>
+ * Chunks are aligned to multiples of {@code acquisition.aggregate.chunked.chunk-seconds} and counted per second by the
+ * database, each in its own short statement over the chunk's id ranges; up to {@code parallelism} chunks of a window
+ * are in flight and they are merged in time order into a {@link ChunkedAggregation}. No connection is held between
+ * chunks and the heap holds the merged state plus the in-flight chunks, whatever the window length.
+ * <p>
+ * All windows share {@code chunk-threads} counting threads, and with {@link AdmissionControl} every chunk is admitted
+ * on its own, so long aggregations compete for connections with the other range endpoints chunk by chunk. A rejected
+ * chunk fails a synchronous aggregation with the usual 429 and {@code Retry-After}.
+ * <p>
+ * Background jobs run on {@code max-running-jobs} threads of their own. They report their partial overview while they
+ * run and keep it when a chunk fails (or is rejected) or the job is cancelled, so a resumed job continues from the
+ * last merged chunk. Jobs live in memory and are dropped {@code job-ttl-minutes} after they stop.
+ */
+@Service
+public class ChunkedAggregationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedAggregationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService idIndex;
+    private final AdmissionControl admissionControl;
+    private final Map<String, AggregationJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private ExecutorService chunkExecutor;
+    private ExecutorService jobExecutor;
+
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    @Value("${acquisition.metrics.peak.window-seconds:60}")
+    private int peakWindowSeconds;
+
+    @Value("${acquisition.metrics.peak.step-seconds:60}")
+    private int peakStepSeconds;
+
+    @Value("${acquisition.aggregate.chunked.chunk-seconds:3600}")
+    private long chunkSeconds;
+
+    @Value("${acquisition.aggregate.chunked.parallelism:2}")
+    private int parallelism;
+
+    @Value("${acquisition.aggregate.chunked.chunk-threads:4}")
+    private int chunkThreads;
+
+    @Value("${acquisition.aggregate.chunked.max-running-jobs:4}")
+    private int maxRunningJobs;
+
+    @Value("${acquisition.aggregate.chunked.job-ttl-minutes:60}")
+    private long jobTtlMinutes;
+
+    @Autowired
+    public ChunkedAggregationService(JdbcTemplate jdbcTemplate,
+                                     @Autowired(required = false) PduIdIndexService idIndex,
+                                     @Autowired(required = false) AdmissionControl admissionControl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idIndex = idIndex;
+        this.admissionControl = admissionControl;
+    }
+
+    @PostConstruct
+    void init() {
+        // Separate pools: a job thread waits for its chunks, so it must never hold a counting thread
+        chunkExecutor = Executors.newFixedThreadPool(Math.max(1, chunkThreads), daemonThreads("aggregation-chunk-"));
+        jobExecutor = Executors.newFixedThreadPool(Math.max(1, maxRunningJobs), daemonThreads("aggregation-job-"));
+    }
+
+    // --- Synchronous aggregation (used by MetricsService for long periods) ---
+
+    /** Overview of {@code [start, end]} (epoch seconds, inclusive); the caller waits while the chunks are merged. */
+    public AggregatedMetricsOverview aggregate(String timeWindowDescription, long startEpochSeconds, long endEpochSeconds) {
+        ChunkedAggregation aggregation = newAggregation(startEpochSeconds, endEpochSeconds);
+        long start = System.nanoTime();
+        process(aggregation, () -> Thread.currentThread().isInterrupted());
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.record("aggregate.chunks", System.nanoTime() - start, aggregation.getChunksMerged(), "chunks");
+        }
+        return aggregation.toOverview(timeWindowDescription);
+    }
+
+    // --- Background jobs ---
+
+    /**
+     * Starts a background aggregation of {@code [start, end]} (epoch seconds, inclusive).
+     *
+     * @throws IllegalArgumentException for an invalid window
+     * @throws IllegalStateException    when {@code acquisition.aggregate.chunked.max-running-jobs} jobs are running
+     */
+    public AggregationJobStatus submit(long startEpochSeconds, long endEpochSeconds) {
+        ChunkedAggregation aggregation = newAggregation(startEpochSeconds, endEpochSeconds);
+        evictExpired();
+        synchronized (jobs) {
+            if (jobs.values().stream().filter(AggregationJob::isRunning).count() >= maxRunningJobs) {
+                throw new IllegalStateException("Too many running aggregation jobs");
+            }
+            String id = UUID.randomUUID().toString();
+            String description = MetricsService.formatInstant(Instant.ofEpochSecond(startEpochSeconds)) + " to "
+                    + MetricsService.formatInstant(Instant.ofEpochSecond(endEpochSeconds));
+            AggregationJob job = new AggregationJob(id, startEpochSeconds, endEpochSeconds, chunkSeconds, aggregation, description);
+            jobs.put(id, job);
+            jobExecutor.execute(() -> run(job));
+            log.info("Aggregation job {} started for {} ({} chunks of {} s)", id, description,
+                    aggregation.chunkCount(chunkSeconds), chunkSeconds);
+            return job.status();
+        }
+    }
+
+    public Optional<AggregationJobStatus> status(String jobId) {
+        return find(jobId).map(AggregationJob::status);
+    }
+
+    /** Continues a failed or cancelled job from its last merged chunk; running and completed jobs are left alone. */
+    public Optional<AggregationJobStatus> resume(String jobId) {
+        return find(jobId).map(job -> {
+            if (job.restart()) {
+                log.info("Aggregation job {} resumed from {}", jobId, job.getAggregation().getCompletedUntil());
+                jobExecutor.execute(() -> run(job));
+            }
+            return job.status();
+        });
+    }
+
+    /** Stops a running job after the chunk being merged; the partial result is kept. */
+    public Optional<AggregationJobStatus> cancel(String jobId) {
+        return find(jobId).map(job -> {
+            job.requestCancel();
+            return job.status();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(AggregationJob::requestCancel);
+        jobExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    private void run(AggregationJob job) {
+        ChunkedAggregation aggregation = job.getAggregation();
+        try {
+            process(aggregation, job::isCancelRequested);
+            if (aggregation.isComplete()) {
+                job.finish(AggregationJobStatus.State.COMPLETED, null);
+                log.info("Aggregation job {} completed ({} chunks)", job.getId(), aggregation.getChunksMerged());
+            } else {
+                job.finish(AggregationJobStatus.State.CANCELLED, null);
+                log.info("Aggregation job {} cancelled at {}", job.getId(), aggregation.getCompletedUntil());
+            }
+        } catch (RuntimeException e) {
+            job.finish(AggregationJobStatus.State.FAILED, e.getMessage());
+            log.warn("Aggregation job {} failed at {} after {} chunks: {}", job.getId(),
+                    aggregation.getCompletedUntil(), aggregation.getChunksMerged(), e.getMessage());
+        }
+    }
+
+    /**
+     * Counts and merges the chunks from {@link ChunkedAggregation#getCompletedUntil()} to the end of the window, keeping
+     * up to {@code parallelism} chunks in flight. Stops early when {@code stop} turns true.
+     */
+    void process(ChunkedAggregation aggregation, BooleanSupplier stop) {
+        Deque<Future<ChunkedAggregation.Chunk>> inFlight = new ArrayDeque<>();
+        long next = aggregation.getCompletedUntil();
+        try {
+            while (!stop.getAsBoolean() && !aggregation.isComplete()) {
+                while (inFlight.size() < Math.max(1, parallelism) && next < aggregation.getToEpochSeconds()) {
+                    long from = next;
+                    long to = aggregation.chunkEnd(from, chunkSeconds);
+                    inFlight.add(chunkExecutor.submit(() -> count(from, to)));
+                    next = to;
+                }
+                aggregation.merge(await(inFlight.removeFirst()));
+            }
+        } finally {
+            inFlight.forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    private ChunkedAggregation.Chunk count(long from, long to) {
+        if (admissionControl == null) {
+            return ChunkedAggregation.count(jdbcTemplate, idIndex, consolidatedStorage, from, to);
+        }
+        return admissionControl.execute("aggregate.chunk", EnumSet.allOf(PduType.class), to - from,
+                () -> ChunkedAggregation.count(jdbcTemplate, idIndex, consolidatedStorage, from, to));
+    }
+
+    private static ChunkedAggregation.Chunk await(Future<ChunkedAggregation.Chunk> chunk) {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Chunk failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a chunk", e);
+        }
+    }
+
+    private ChunkedAggregation newAggregation(long startEpochSeconds, long endEpochSeconds) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (chunkSeconds < 1) {
+            throw new IllegalStateException("acquisition.aggregate.chunked.chunk-seconds must be positive");
+        }
+        return new ChunkedAggregation(startEpochSeconds, endEpochSeconds + 1, peakWindowSeconds, peakStepSeconds);
+    }
+
+    private ThreadFactory daemonThreads(String prefix) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isExpired(now, TimeUnit.MINUTES.toMillis(jobTtlMinutes)));
+    }
+
+    private Optional<AggregationJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+}
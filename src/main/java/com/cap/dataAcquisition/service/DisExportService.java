@@ -0,0 +1,161 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dis.DisPduLayout;
+import com.cap.dataAcquisition.dis.DisPduWriter;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Streams a window of all ten PDU tables back out as DIS PDUs, in timestamp order, for replay tools.
+ * <p>
+ * One {@code UNION ALL ... ORDER BY timestamp} cursor is read in pages inside a read-only transaction. Each branch is a
+ * primary-key range scan over the ids the time-to-id index ({@link PduIdIndexService}) maps the window to, and the
+ * database sorts the union by timestamp, spilling to disk for long windows. Each row is decoded into two reused
+ * primitive arrays and encoded by a {@link DisPduWriter}, so memory here stays flat however long the window is.
+ * <p>
+ * Exports are admitted like the other window queries ({@link AdmissionControl}), which prices the whole window and
+ * usually classes it as bulk.
+ */
+@Service
+public class DisExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DisExportService.class);
+
+    private static final int INT_COLUMNS = maxColumns(false);
+    private static final int DOUBLE_COLUMNS = maxColumns(true);
+
+    static final String EXPORT_SQL =
+            PduSql.unionAll(type -> "SELECT " + type.getDisCode() + " AS pdu_type, timestamp, " + String.join(", ", columns(type))
+                                    + " FROM " + type.getTableName() + " WHERE " + PduSql.ID_RANGE + " AND timestamp BETWEEN ? AND ?")
+            + " ORDER BY timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final PduIdIndexService pduIdIndexService;
+    private final AdmissionControl admissionControl;
+
+    @Value("${acquisition.export.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${acquisition.export.buffer-bytes:1048576}")
+    private int bufferBytes;
+
+    @Value("${acquisition.export.exercise-id:1}")
+    private int exerciseId;
+
+    @Autowired
+    public DisExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            @Autowired(required = false) PduIdIndexService pduIdIndexService,
+                            @Autowired(required = false) AdmissionControl admissionControl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pduIdIndexService = pduIdIndexService;
+        this.admissionControl = admissionControl;
+    }
+
+    public void validateWindow(long startEpochSeconds, long endEpochSeconds) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+    }
+
+    /**
+     * Writes every PDU stored for {@code [start, end]} (epoch seconds, inclusive) to {@code channel}; returns the count.
+     *
+     * @throws AdmissionRejectedException when admission control is enabled and has no capacity for the window
+     */
+    public long export(long startEpochSeconds, long endEpochSeconds, WritableByteChannel channel) throws IOException {
+        validateWindow(startEpochSeconds, endEpochSeconds);
+        try {
+            if (admissionControl == null) {
+                return readOnlyTransaction.execute(status -> write(startEpochSeconds, endEpochSeconds, channel));
+            }
+            return admissionControl.execute("/export/dis", EnumSet.allOf(PduType.class),
+                    endEpochSeconds - startEpochSeconds + 1, () -> write(startEpochSeconds, endEpochSeconds, channel));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Runs the export cursor; must be called inside a read-only transaction so the driver pages through it. */
+    private long write(long startEpochSeconds, long endEpochSeconds, WritableByteChannel channel) {
+        DisPduWriter writer = new DisPduWriter(channel, bufferBytes, exerciseId);
+        int[] ints = new int[INT_COLUMNS];
+        double[] doubles = new double[DOUBLE_COLUMNS];
+        Object[] args = PduSql.perTableIdRangeArgs(pduIdIndexService, startEpochSeconds, endEpochSeconds,
+                MetricsService.toDisAbsoluteTimestamp(startEpochSeconds), MetricsService.toDisAbsoluteTimestamp(endEpochSeconds));
+        long start = System.nanoTime();
+        RequestTimings.time("export.dis", () -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.length; i++) {
+                ps.setLong(i + 1, (Long) args[i]);
+            }
+            return ps;
+        }, rs -> {
+            // Columns: pdu_type, timestamp, INT_COLUMNS ints, DOUBLE_COLUMNS doubles
+            for (int i = 0; i < INT_COLUMNS; i++) {
+                ints[i] = rs.getInt(3 + i);
+            }
+            for (int i = 0; i < DOUBLE_COLUMNS; i++) {
+                doubles[i] = rs.getDouble(3 + INT_COLUMNS + i);
+            }
+            try {
+                writer.write(PduType.fromDisCode(rs.getShort(1)), MetricsService.fromDisAbsoluteTimestamp(rs.getLong(2)), ints, doubles);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} PDUs ({} bytes) for {} to {} in {} ms", writer.getPdus(), writer.getBytes(),
+                startEpochSeconds, endEpochSeconds, (System.nanoTime() - start) / 1_000_000);
+        return writer.getPdus();
+    }
+
+    /** Selected columns of {@code type}: its integer fields, then its floating-point ones, each padded with zeros. */
+    static List<String> columns(PduType type) {
+        List<String> ints = new ArrayList<>();
+        List<String> doubles = new ArrayList<>();
+        for (DisPduLayout.Field field : DisPduLayout.fields(type)) {
+            (field.kind() == DisPduLayout.Kind.FLOAT64 ? doubles : ints).add(field.column());
+        }
+        while (ints.size() < INT_COLUMNS) {
+            ints.add("0");
+        }
+        while (doubles.size() < DOUBLE_COLUMNS) {
+            doubles.add("0::float8");
+        }
+        ints.addAll(doubles);
+        return ints;
+    }
+
+    private static int maxColumns(boolean floating) {
+        int max = 0;
+        for (PduType type : PduType.values()) {
+            max = Math.max(max, (int) DisPduLayout.fields(type).stream()
+                    .filter(field -> (field.kind() == DisPduLayout.Kind.FLOAT64) == floating).count());
+        }
+        return max;
+    }
+}
@@ -0,0 +1,133 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dis.DisLogParser;
+import com.cap.dataAcquisition.dto.DisImportReport;
+import com.cap.dataAcquisition.model.PduType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Backfills the PDU tables from DIS PDU log files recorded during an exercise.
+ * <p>
+ * Files are read from {@code acquisition.import.directory} only. They are parsed in place by a {@link DisLogParser} and
+ * loaded with binary {@code COPY} batches of {@code acquisition.import.copy-batch-rows} rows per table, each batch
+ * committed on its own. Imports are not idempotent: loading the same file twice stores its PDUs twice.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.import.enabled", havingValue = "true")
+public class DisImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DisImportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${acquisition.import.directory}")
+    private String directory;
+
+    @Value("${acquisition.import.copy-batch-rows:50000}")
+    private int copyBatchRows;
+
+    @Autowired
+    public DisImportService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param fileName                   file name relative to the import directory
+     * @param recordingStartEpochSeconds any moment in the first hour of the recording; PDU headers only carry the time
+     *                                   past the hour
+     */
+    public DisImportReport importFile(String fileName, long recordingStartEpochSeconds) {
+        Path file = resolve(fileName);
+        long start = System.nanoTime();
+        ImportRun run = jdbcTemplate.execute((ConnectionCallback<ImportRun>) con -> {
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            PgCopyWriter writer = new PgCopyWriter(copyBatchRows, (sql, data, length) -> copy(copyManager, sql, data, length));
+            DisLogParser parser = new DisLogParser(recordingStartEpochSeconds, writer::add);
+            try {
+                parser.parse(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + file, e);
+            }
+            writer.flush();
+            return new ImportRun(parser, writer);
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        DisLogParser parser = run.parser();
+        long copyMillis = run.writer().getCopyNanos() / 1_000_000;
+        Map<String, Long> byType = new LinkedHashMap<>();
+        for (PduType type : PduType.values()) {
+            byType.put(type.getLogName(), run.writer().getCopied(type));
+        }
+        boolean any = parser.getPdus() > 0;
+        if (any) {
+            eventPublisher.publishEvent(new PduBackfillEvent(parser.getFirstEpochSeconds(), parser.getLastEpochSeconds()));
+        }
+        log.info("Imported {} PDUs from {} in {} ms ({} ms in COPY); {} unsupported, {} malformed, {} trailing bytes",
+                parser.getPdus(), file, elapsedMillis, copyMillis,
+                parser.getUnsupported(), parser.getMalformed(), parser.getTrailingBytes());
+        return new DisImportReport(file.getFileName().toString(), sizeOf(file), parser.getPdus(), byType,
+                parser.getUnsupported(), parser.getMalformed(), parser.getTrailingBytes(),
+                any ? parser.getFirstEpochSeconds() : null, any ? parser.getLastEpochSeconds() : null,
+                elapsedMillis, copyMillis);
+    }
+
+    private record ImportRun(DisLogParser parser, PgCopyWriter writer) {
+    }
+
+    private Path resolve(String fileName) {
+        Path root = Paths.get(directory).toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such file in the import directory: " + fileName);
+        }
+        return file;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void copy(CopyManager copyManager, String sql, byte[] data, int length) {
+        try {
+            CopyIn copyIn = copyManager.copyIn(sql);
+            try {
+                copyIn.writeToCopy(data, 0, length);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("DIS log import", sql, e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.DistinctEntityCounts;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.sketch.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate distinct-entity counts (entities sending EntityState PDUs, entities firing) over a window, optionally
+ * split into buckets.
+ * <p>
+ * Whole hours and minutes already covered by {@code entity_sketch_rollup} are answered by merging the stored sketches,
+ * so the cost grows with the number of buckets rather than the number of rows. The sub-minute edges of the window and
+ * anything newer than the rollup watermark are read from the PDU tables, over the id ranges {@link PduIdIndexService}
+ * maps them to, and added to the same sketches.
+ */
+@Service
+public class DistinctEntityService {
+
+    private static final Logger log = LoggerFactory.getLogger(DistinctEntityService.class);
+
+    /** PDU types with a distinct-entity sketch; the count is over their originating (site, application, entity). */
+    static final List<PduType> SKETCHED_TYPES = List.of(PduType.ENTITY_STATE, PduType.FIRE_EVENT);
+
+    // Timestamp of each table's first row by primary key, as in PduCountRollupService
+    static final String EARLIEST_SQL =
+            "SELECT MIN(earliest) FROM (" +
+            "(SELECT " + PduSql.EPOCH_SECONDS + " AS earliest FROM " + PduType.ENTITY_STATE.getTableName() + " ORDER BY id LIMIT 1)" +
+            " UNION ALL (SELECT " + PduSql.EPOCH_SECONDS + " FROM " + PduType.FIRE_EVENT.getTableName() + " ORDER BY id LIMIT 1)) e";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntitySketchRollupService rollupService;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    @Value("${acquisition.distinct.max-buckets:1000}")
+    private int maxBuckets;
+
+    @Autowired
+    public DistinctEntityService(JdbcTemplate jdbcTemplate,
+                                 @Autowired(required = false) EntitySketchRollupService rollupService,
+                                 @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /**
+     * Distinct (minute, site, application, entity) rows of one type in a window; bind {@link #distinctEntitiesArgs}.
+     */
+    static String distinctEntitiesSql(PduType type, boolean consolidated) {
+        String minute = "(" + PduSql.EPOCH_SECONDS + " / 60) * 60 AS minute_epoch, ";
+        if (consolidated) {
+            return "SELECT DISTINCT " + minute + "site, application, entity FROM pdu_event " +
+                   "WHERE pdu_type = " + type.getDisCode() + " AND timestamp >= ? AND timestamp < ?";
+        }
+        return "SELECT DISTINCT " + minute + type.getSiteColumn() + " AS site, " + type.getApplicationColumn() +
+               " AS application, " + type.getEntityColumn() + " AS entity FROM " + type.getTableName() +
+               " WHERE " + PduSql.ID_RANGE + " AND timestamp >= ? AND timestamp < ?";
+    }
+
+    /**
+     * Placeholder values of {@link #distinctEntitiesSql} for the window {@code [fromEpochSeconds, toEpochSeconds)};
+     * {@code index} is null when the id index is disabled.
+     */
+    static Object[] distinctEntitiesArgs(PduIdIndexService index, PduType type, boolean consolidated,
+                                         long fromEpochSeconds, long toEpochSeconds) {
+        long disFrom = MetricsService.toDisAbsoluteTimestamp(fromEpochSeconds);
+        long disTo = MetricsService.toDisAbsoluteTimestamp(toEpochSeconds);
+        if (consolidated) {
+            return new Object[]{disFrom, disTo};
+        }
+        PduIdIndexService.IdRange range = PduIdIndexService.idRange(index, type, fromEpochSeconds, toEpochSeconds - 1);
+        return new Object[]{range.fromId(), range.toId(), range.tailAfterId(), disFrom, disTo};
+    }
+
+    /**
+     * @param startEpochSeconds window start, inclusive
+     * @param endEpochSeconds   window end, inclusive
+     * @param bucketSeconds     bucket size (a multiple of 60, aligned to the epoch), or null for the whole window only
+     */
+    public DistinctEntityCounts getDistinctEntities(long startEpochSeconds, long endEpochSeconds, Long bucketSeconds) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (bucketSeconds != null && (bucketSeconds < 60 || bucketSeconds % 60 != 0)) {
+            throw new IllegalArgumentException("bucketSeconds must be a positive multiple of 60");
+        }
+        long lo = startEpochSeconds;
+        long hi = endEpochSeconds + 1;
+        long firstBucket = bucketSeconds != null ? Math.floorDiv(lo, bucketSeconds) * bucketSeconds : lo;
+        long bucketCount = bucketSeconds != null ? Math.floorDiv(hi - 1, bucketSeconds) - Math.floorDiv(lo, bucketSeconds) + 1 : 1;
+        if (bucketCount > maxBuckets) {
+            throw new IllegalArgumentException("Window spans more than " + maxBuckets + " buckets");
+        }
+        Buckets buckets = new Buckets(firstBucket, bucketSeconds != null ? bucketSeconds : hi - lo, (int) bucketCount);
+
+        // Covered whole minutes come from the sketches, whole hours too when hours never straddle a bucket
+        long minuteLo = Math.floorDiv(lo + 59, 60) * 60;
+        long minuteHi = Math.min(Math.floorDiv(hi, 60) * 60, rollupService != null ? rollupService.getCoveredUntil() : 0L);
+        if (minuteLo < minuteHi) {
+            long hourLo = Math.floorDiv(minuteLo + 3599, 3600) * 3600;
+            long hourHi = Math.floorDiv(minuteHi, 3600) * 3600;
+            List<long[]> minuteRanges = new ArrayList<>();
+            long[] hourRange = null;
+            if (hourLo < hourHi && (bucketSeconds == null || bucketSeconds % 3600 == 0)) {
+                hourRange = new long[]{hourLo, hourHi};
+                addRange(minuteRanges, minuteLo, hourLo);
+                addRange(minuteRanges, hourHi, minuteHi);
+            } else {
+                minuteRanges.add(new long[]{minuteLo, minuteHi});
+            }
+            mergeSketches(buckets, hourRange, minuteRanges);
+            if (lo < minuteLo) {
+                mergeRaw(buckets, lo, minuteLo);
+            }
+            if (minuteHi < hi) {
+                mergeRaw(buckets, minuteHi, hi);
+            }
+        } else {
+            mergeRaw(buckets, lo, hi);
+        }
+
+        HyperLogLog active = new HyperLogLog();
+        HyperLogLog firing = new HyperLogLog();
+        List<DistinctEntityCounts.Bucket> series = new ArrayList<>(buckets.count);
+        for (int i = 0; i < buckets.count; i++) {
+            long bucketStart = Math.max(lo, firstBucket + i * buckets.seconds);
+            long bucketEnd = Math.min(hi, firstBucket + (i + 1) * buckets.seconds);
+            active.merge(buckets.sketches[0][i]);
+            firing.merge(buckets.sketches[1][i]);
+            series.add(new DistinctEntityCounts.Bucket(bucketStart, bucketEnd,
+                    buckets.sketches[0][i].estimate(), buckets.sketches[1][i].estimate()));
+        }
+        log.info("Distinct entities {} to {}: {} buckets, {} from sketches", startEpochSeconds, endEpochSeconds,
+                buckets.count, minuteLo < minuteHi ? (minuteHi - minuteLo) + " s" : "nothing");
+        return new DistinctEntityCounts(startEpochSeconds, endEpochSeconds, bucketSeconds,
+                active.relativeStandardError(), active.estimate(), firing.estimate(), series);
+    }
+
+    private static void addRange(List<long[]> ranges, long from, long to) {
+        if (from < to) {
+            ranges.add(new long[]{from, to});
+        }
+    }
+
+    private void mergeSketches(Buckets buckets, long[] hourRange, List<long[]> minuteRanges) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT bucket_start, pdu_type, registers FROM entity_sketch_rollup WHERE pdu_type IN (");
+        for (int t = 0; t < SKETCHED_TYPES.size(); t++) {
+            sql.append(t > 0 ? ", " : "").append(SKETCHED_TYPES.get(t).getDisCode());
+        }
+        sql.append(") AND (");
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (hourRange != null) {
+            conditions.add("(bucket_seconds = 3600 AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(hourRange[0]);
+            args.add(hourRange[1]);
+        }
+        for (long[] range : minuteRanges) {
+            conditions.add("(bucket_seconds = 60 AND bucket_start >= ? AND bucket_start < ?)");
+            args.add(range[0]);
+            args.add(range[1]);
+        }
+        sql.append(String.join(" OR ", conditions)).append(')');
+        RequestTimings.time("distinct.sketches", () -> jdbcTemplate.query(sql.toString(), rs -> {
+            HyperLogLog target = buckets.at(SKETCHED_TYPES.indexOf(PduType.fromDisCode(rs.getShort("pdu_type"))),
+                    rs.getLong("bucket_start"));
+            if (target != null) {
+                target.merge(HyperLogLog.fromBytes(rs.getBytes("registers")));
+            }
+        }, args.toArray()));
+    }
+
+    private void mergeRaw(Buckets buckets, long fromEpochSeconds, long toEpochSeconds) {
+        for (int t = 0; t < SKETCHED_TYPES.size(); t++) {
+            int typeIndex = t;
+            Object[] args = distinctEntitiesArgs(pduIdIndexService, SKETCHED_TYPES.get(t), consolidatedStorage,
+                    fromEpochSeconds, toEpochSeconds);
+            RequestTimings.time("distinct.raw." + SKETCHED_TYPES.get(t).getLogName(), () ->
+                    jdbcTemplate.query(distinctEntitiesSql(SKETCHED_TYPES.get(typeIndex), consolidatedStorage), rs -> {
+                        // Bucket edges are whole minutes, so the minute decides the bucket; a sub-minute head edge
+                        // belongs to the first bucket
+                        HyperLogLog target = buckets.at(typeIndex, Math.max(rs.getLong("minute_epoch"), fromEpochSeconds));
+                        if (target != null) {
+                            target.addEntity(rs.getInt("site"), rs.getInt("application"), rs.getInt("entity"));
+                        }
+                    }, args));
+        }
+    }
+
+    /** One sketch per sketched type and bucket. */
+    private static final class Buckets {
+        final long first;
+        final long seconds;
+        final int count;
+        final HyperLogLog[][] sketches;
+
+        Buckets(long first, long seconds, int count) {
+            this.first = first;
+            this.seconds = seconds;
+            this.count = count;
+            this.sketches = new HyperLogLog[SKETCHED_TYPES.size()][count];
+            for (HyperLogLog[] perType : sketches) {
+                for (int i = 0; i < count; i++) {
+                    perType[i] = new HyperLogLog();
+                }
+            }
+        }
+
+        HyperLogLog at(int typeIndex, long epochSeconds) {
+            long index = Math.floorDiv(epochSeconds - first, seconds);
+            return typeIndex >= 0 && index >= 0 && index < count ? sketches[typeIndex][(int) index] : null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.Engagement;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Time-bounded hash join of fires and detonations fed in timestamp order.
+ * <p>
+ * Pending fires are indexed by (firing entity, target). A detonation takes the oldest pending fire of its pair that is
+ * no more than {@code maxTimeOfFlightSeconds} older; fires that grow older than that are evicted as unmatched. Only the
+ * fires of the last {@code maxTimeOfFlightSeconds} are ever held, so memory is bounded by the join window rather than
+ * by the length of the input. At equal timestamps fires must be fed before detonations.
+ */
+final class EngagementJoin {
+
+    private final long maxTimeOfFlightSeconds;
+    private final Consumer<Engagement> sink;
+    private final Map<PairKey, ArrayDeque<PendingFire>> pendingByPair = new HashMap<>();
+    private final ArrayDeque<PendingFire> pendingByTime = new ArrayDeque<>();
+
+    private long matched;
+    private long timeOfFlightTotal;
+    private long unmatchedFires;
+    private int maxPending;
+
+    EngagementJoin(long maxTimeOfFlightSeconds, Consumer<Engagement> sink) {
+        this.maxTimeOfFlightSeconds = maxTimeOfFlightSeconds;
+        this.sink = sink;
+    }
+
+    void fire(long recordId, int firingSite, int firingApplication, int firingEntity,
+              int targetSite, int targetApplication, int targetEntity,
+              int munitionSite, int munitionApplication, int munitionEntity, long epochSeconds) {
+        evictOlderThan(epochSeconds - maxTimeOfFlightSeconds);
+        PendingFire fire = new PendingFire(recordId, firingSite, firingApplication, firingEntity,
+                targetSite, targetApplication, targetEntity, munitionSite, munitionApplication, munitionEntity, epochSeconds);
+        pendingByPair.computeIfAbsent(fire.key(), k -> new ArrayDeque<>()).addLast(fire);
+        pendingByTime.addLast(fire);
+        maxPending = Math.max(maxPending, pendingByTime.size());
+    }
+
+    /** Returns false when no pending fire of the same pair was found. */
+    boolean detonation(long recordId, int firingSite, int firingApplication, int firingEntity,
+                    int targetSite, int targetApplication, int targetEntity,
+                    double locationX, double locationY, double locationZ, long epochSeconds) {
+        evictOlderThan(epochSeconds - maxTimeOfFlightSeconds);
+        PairKey key = new PairKey(LatestEntityStateService.packKey(firingSite, firingApplication, firingEntity),
+                LatestEntityStateService.packKey(targetSite, targetApplication, targetEntity));
+        ArrayDeque<PendingFire> candidates = pendingByPair.get(key);
+        PendingFire fire = candidates != null ? candidates.pollFirst() : null;
+        if (fire == null) {
+            return false;
+        }
+        if (candidates.isEmpty()) {
+            pendingByPair.remove(key);
+        }
+        fire.matched = true;
+        long timeOfFlight = epochSeconds - fire.epochSeconds;
+        matched++;
+        timeOfFlightTotal += timeOfFlight;
+        sink.accept(new Engagement(fire.recordId, recordId,
+                firingSite, firingApplication, firingEntity, targetSite, targetApplication, targetEntity,
+                fire.munitionSite, fire.munitionApplication, fire.munitionEntity,
+                fire.epochSeconds, epochSeconds, timeOfFlight, locationX, locationY, locationZ));
+        return true;
+    }
+
+    /** Evicts every fire still pending; call once the input is exhausted. */
+    void finish() {
+        evictOlderThan(Long.MAX_VALUE);
+    }
+
+    private void evictOlderThan(long oldestAllowed) {
+        while (!pendingByTime.isEmpty() && pendingByTime.peekFirst().epochSeconds < oldestAllowed) {
+            PendingFire fire = pendingByTime.pollFirst();
+            if (fire.matched) {
+                continue;
+            }
+            // Fires of a pair are queued in time order, so an unmatched expired fire is the head of its pair's queue
+            ArrayDeque<PendingFire> candidates = pendingByPair.get(fire.key());
+            candidates.pollFirst();
+            if (candidates.isEmpty()) {
+                pendingByPair.remove(fire.key());
+            }
+            unmatchedFires++;
+        }
+    }
+
+    long getMatched() {
+        return matched;
+    }
+
+    Double getMeanTimeOfFlightSeconds() {
+        return matched > 0 ? (double) timeOfFlightTotal / matched : null;
+    }
+
+    long getUnmatchedFires() {
+        return unmatchedFires;
+    }
+
+    int getMaxPending() {
+        return maxPending;
+    }
+
+    private record PairKey(long firing, long target) {
+    }
+
+    private static final class PendingFire {
+        final long recordId;
+        final PairKey key;
+        final int munitionSite;
+        final int munitionApplication;
+        final int munitionEntity;
+        final long epochSeconds;
+        boolean matched;
+
+        PendingFire(long recordId, int firingSite, int firingApplication, int firingEntity,
+                    int targetSite, int targetApplication, int targetEntity,
+                    int munitionSite, int munitionApplication, int munitionEntity, long epochSeconds) {
+            this.recordId = recordId;
+            this.key = new PairKey(LatestEntityStateService.packKey(firingSite, firingApplication, firingEntity),
+                    LatestEntityStateService.packKey(targetSite, targetApplication, targetEntity));
+            this.munitionSite = munitionSite;
+            this.munitionApplication = munitionApplication;
+            this.munitionEntity = munitionEntity;
+            this.epochSeconds = epochSeconds;
+        }
+
+        PairKey key() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.Engagement;
+import com.cap.dataAcquisition.dto.EngagementReport;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pairs fires with their detonations over a window in a single pass.
+ * <p>
+ * Both tables are read through one {@code UNION ALL ... ORDER BY timestamp} cursor, each branch a primary-key range
+ * scan over the ids the time-to-id index maps the window to, fetched in pages inside a read-only transaction so the driver does not materialise the result, and fed to an
+ * {@link EngagementJoin}. Detonations are read up to {@code maxTimeOfFlight} past the end of the window so the
+ * last fires of the window can still be matched.
+ */
+@Service
+public class EngagementService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementService.class);
+
+    private static final String EVENTS_SQL =
+            "SELECT 0 AS kind, id, firing_site, firing_application, firing_entity, " +
+            "target_site, target_application, target_entity, munition_site, munition_application, munition_entity, " +
+            "0.0 AS locationx, 0.0 AS locationy, 0.0 AS locationz, timestamp " +
+            "FROM fire_event_record WHERE " + PduSql.ID_RANGE + " AND timestamp BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT 1, id, firing_site, firing_application, firing_entity, " +
+            "target_site, target_application, target_entity, 0, 0, 0, locationx, locationy, locationz, timestamp " +
+            "FROM detonation_record WHERE " + PduSql.ID_RANGE + " AND timestamp BETWEEN ? AND ? " +
+            "ORDER BY timestamp, kind, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.engagements.max-time-of-flight-limit:600}")
+    private long maxTimeOfFlightLimit;
+
+    @Value("${acquisition.engagements.max-limit:10000}")
+    private int maxLimit;
+
+    @Value("${acquisition.engagements.fetch-size:5000}")
+    private int fetchSize;
+
+    @Autowired
+    public EngagementService(JdbcTemplate jdbcTemplate,
+                             @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /**
+     * @param startEpochSeconds earliest fire time, inclusive
+     * @param endEpochSeconds   latest fire time, inclusive
+     * @param limit             maximum number of engagements listed; the counts always cover the whole window
+     */
+    @Transactional(readOnly = true)
+    public EngagementReport getEngagements(long startEpochSeconds, long endEpochSeconds, long maxTimeOfFlightSeconds, int limit) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (maxTimeOfFlightSeconds < 0 || maxTimeOfFlightSeconds > maxTimeOfFlightLimit) {
+            throw new IllegalArgumentException("maxTimeOfFlight must be between 0 and " + maxTimeOfFlightLimit);
+        }
+        if (limit < 0 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 0 and " + maxLimit);
+        }
+        List<Engagement> engagements = new ArrayList<>(Math.min(limit, 1024));
+        EngagementJoin join = new EngagementJoin(maxTimeOfFlightSeconds, engagement -> {
+            if (engagements.size() < limit) {
+                engagements.add(engagement);
+            }
+        });
+        long[] unmatchedDetonations = {0};
+        long disStart = MetricsService.toDisAbsoluteTimestamp(startEpochSeconds);
+        long disEnd = MetricsService.toDisAbsoluteTimestamp(endEpochSeconds);
+        long disDetonationEnd = MetricsService.toDisAbsoluteTimestamp(endEpochSeconds + maxTimeOfFlightSeconds);
+        PduIdIndexService.IdRange fireIds = PduIdIndexService.idRange(pduIdIndexService, PduType.FIRE_EVENT,
+                startEpochSeconds, endEpochSeconds);
+        PduIdIndexService.IdRange detonationIds = PduIdIndexService.idRange(pduIdIndexService, PduType.DETONATION,
+                startEpochSeconds, endEpochSeconds + maxTimeOfFlightSeconds);
+
+        RequestTimings.time("engagements.join", () -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EVENTS_SQL);
+            ps.setFetchSize(fetchSize);
+            int i = 1;
+            for (long arg : new long[] {fireIds.fromId(), fireIds.toId(), fireIds.tailAfterId(), disStart, disEnd,
+                    detonationIds.fromId(), detonationIds.toId(), detonationIds.tailAfterId(), disStart, disDetonationEnd}) {
+                ps.setLong(i++, arg);
+            }
+            return ps;
+        }, rs -> {
+            long epochSeconds = MetricsService.fromDisAbsoluteTimestamp(rs.getLong("timestamp"));
+            if (rs.getInt("kind") == 0) {
+                join.fire(rs.getLong("id"), rs.getInt("firing_site"), rs.getInt("firing_application"), rs.getInt("firing_entity"),
+                        rs.getInt("target_site"), rs.getInt("target_application"), rs.getInt("target_entity"),
+                        rs.getInt("munition_site"), rs.getInt("munition_application"), rs.getInt("munition_entity"), epochSeconds);
+            } else {
+                boolean matched = join.detonation(rs.getLong("id"),
+                        rs.getInt("firing_site"), rs.getInt("firing_application"), rs.getInt("firing_entity"),
+                        rs.getInt("target_site"), rs.getInt("target_application"), rs.getInt("target_entity"),
+                        rs.getDouble("locationx"), rs.getDouble("locationy"), rs.getDouble("locationz"), epochSeconds);
+                // Detonations past the window are only read to complete its last fires
+                if (!matched && epochSeconds <= endEpochSeconds) {
+                    unmatchedDetonations[0]++;
+                }
+            }
+        }));
+        join.finish();
+
+        log.info("Engagements {} to {}: {} matched, {} unmatched fires, {} unmatched detonations, at most {} fires pending",
+                startEpochSeconds, endEpochSeconds, join.getMatched(), join.getUnmatchedFires(), unmatchedDetonations[0],
+                join.getMaxPending());
+        return new EngagementReport(startEpochSeconds, endEpochSeconds, maxTimeOfFlightSeconds, join.getMatched(),
+                join.getUnmatchedFires(), unmatchedDetonations[0], join.getMeanTimeOfFlightSeconds(),
+                join.getMatched() > engagements.size(), engagements);
+    }
+}
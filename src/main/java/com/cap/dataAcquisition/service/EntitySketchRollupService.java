@@ -0,0 +1,150 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.RollupWatermark;
+import com.cap.dataAcquisition.repository.RollupWatermarkRepository;
+import com.cap.dataAcquisition.sketch.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@code entity_sketch_rollup}: per-minute and per-hour HyperLogLog sketches of the distinct originating
+ * entities of the sketched PDU types (see {@link DistinctEntityService#SKETCHED_TYPES}).
+ * <p>
+ * Runs alongside {@link PduCountRollupService} with the same lateness rule and its own watermark. Hour sketches are the
+ * merge of their minute sketches and are rewritten whenever one of their minutes is rolled up, so an hour is complete
+ * once the watermark has passed its end.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.rollup.enabled", havingValue = "true")
+public class EntitySketchRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(EntitySketchRollupService.class);
+
+    static final String WATERMARK_NAME = "entity_sketch_rollup";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO entity_sketch_rollup (bucket_start, bucket_seconds, pdu_type, registers) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (bucket_start, bucket_seconds, pdu_type) DO UPDATE SET registers = EXCLUDED.registers";
+
+    private static final String MINUTES_SQL =
+            "SELECT bucket_start, registers FROM entity_sketch_rollup " +
+            "WHERE bucket_seconds = 60 AND pdu_type = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final PduIdIndexService pduIdIndexService;
+    private volatile long coveredUntil = -1;
+
+    @Value("${acquisition.rollup.lateness-seconds:120}")
+    private long latenessSeconds;
+
+    @Value("${acquisition.rollup.sketch-chunk-seconds:21600}")
+    private long chunkSeconds;
+
+    @Autowired
+    public EntitySketchRollupService(JdbcTemplate jdbcTemplate, RollupWatermarkRepository watermarkRepository,
+                                     @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.watermarkRepository = watermarkRepository;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /** Epoch second (minute aligned) before which the sketches are complete, or 0 before the first run. */
+    public long getCoveredUntil() {
+        return Math.max(coveredUntil, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.rollup.interval-ms:10000}")
+    public void roll() {
+        try {
+            rollUpTo(Math.floorDiv(Instant.now().getEpochSecond() - latenessSeconds, 60) * 60);
+        } catch (RuntimeException e) {
+            log.error("Entity sketch rollup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    synchronized void rollUpTo(long closedUntil) {
+        long from = coveredUntil >= 0 ? coveredUntil : loadWatermark(closedUntil);
+        while (from < closedUntil) {
+            long to = Math.min(closedUntil, from + chunkSeconds);
+            for (PduType type : DistinctEntityService.SKETCHED_TYPES) {
+                rollChunk(type, from, to);
+            }
+            saveWatermark(to);
+            from = to;
+        }
+    }
+
+    private void rollChunk(PduType type, long from, long to) {
+        NavigableMap<Long, HyperLogLog> minutes = new TreeMap<>();
+        jdbcTemplate.query(DistinctEntityService.distinctEntitiesSql(type, false), rs -> {
+            minutes.computeIfAbsent(rs.getLong("minute_epoch"), minute -> new HyperLogLog())
+                   .addEntity(rs.getInt("site"), rs.getInt("application"), rs.getInt("entity"));
+        }, DistinctEntityService.distinctEntitiesArgs(pduIdIndexService, type, false, from, to));
+
+        List<Object[]> rows = new ArrayList<>();
+        minutes.forEach((minute, sketch) -> rows.add(new Object[]{minute, 60, type.getDisCode(), sketch.toBytes()}));
+        for (long hour = Math.floorDiv(from, 3600) * 3600; hour < to; hour += 3600) {
+            HyperLogLog hourSketch = new HyperLogLog();
+            if (hour < from) {
+                // The earlier minutes of this hour were rolled up by a previous chunk
+                jdbcTemplate.query(MINUTES_SQL, rs -> {
+                    hourSketch.merge(HyperLogLog.fromBytes(rs.getBytes("registers")));
+                }, type.getDisCode(), hour, from);
+            }
+            minutes.subMap(Math.max(hour, from), Math.min(hour + 3600, to)).values().forEach(hourSketch::merge);
+            if (!hourSketch.isEmpty()) {
+                rows.add(new Object[]{hour, 3600, type.getDisCode(), hourSketch.toBytes()});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+    }
+
+    /** Moves the watermark back so rows written behind it (see {@link PduBackfillEvent}) are rolled up again. */
+    @EventListener
+    public synchronized void onBackfill(PduBackfillEvent event) {
+        long from = Math.floorDiv(event.fromEpochSeconds(), 60) * 60;
+        long current = coveredUntil >= 0 ? coveredUntil : loadWatermark(from);
+        if (from < current) {
+            log.info("Rewinding entity sketches to {} after a backfill", MetricsService.formatInstant(Instant.ofEpochSecond(from)));
+            saveWatermark(from);
+        }
+    }
+
+    private long loadWatermark(long closedUntil) {
+        long start = watermarkRepository.findById(WATERMARK_NAME)
+                .map(RollupWatermark::getCoveredUntil)
+                .orElseGet(() -> {
+                    Long earliest = jdbcTemplate.queryForObject(DistinctEntityService.EARLIEST_SQL, Long.class);
+                    long first = earliest != null ? Math.floorDiv(earliest, 60) * 60 : closedUntil;
+                    log.info("Backfilling entity sketches from {}", MetricsService.formatInstant(Instant.ofEpochSecond(first)));
+                    return first;
+                });
+        coveredUntil = start;
+        return start;
+    }
+
+    private void saveWatermark(long to) {
+        RollupWatermark watermark = new RollupWatermark();
+        watermark.setName(WATERMARK_NAME);
+        watermark.setCoveredUntil(to);
+        watermarkRepository.save(watermark);
+        coveredUntil = to;
+    }
+}
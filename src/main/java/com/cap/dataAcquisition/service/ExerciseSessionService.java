@@ -0,0 +1,270 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.ExerciseSession;
+import com.cap.dataAcquisition.model.ExerciseSessionCount;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.SessionAggregation;
+import com.cap.dataAcquisition.repository.ExerciseSessionCountRepository;
+import com.cap.dataAcquisition.repository.ExerciseSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the exercise session index ({@code exercise_session} and {@code exercise_session_count}).
+ * <p>
+ * Each StartResume PDU opens a session that runs until the second before the next one; PDUs received before the first
+ * StartResume belong to no session. New StartResume rows are tailed by id ({@link IdTail}), so a late or imported
+ * StartResume simply splits the session it falls into. Repeats within {@code acquisition.sessions.resend-window-seconds}
+ * of an existing boundary are treated as retransmissions of the same PDU, which also makes re-reading a row harmless.
+ * <p>
+ * Per-type counts are accumulated the same way as the PDU count rollup: seconds older than
+ * {@code acquisition.sessions.lateness-seconds} are counted once, chunk by chunk, and the position is kept per session
+ * in {@code counted_until}; each chunk is a primary-key range scan per table over the ids the time-to-id index
+ * ({@link PduIdIndexService}) maps it to. Session-scoped queries read the stored boundaries and run as exact windows
+ * through the same index instead of probing with exploratory aggregations.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.sessions.enabled", havingValue = "true")
+public class ExerciseSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExerciseSessionService.class);
+
+    private static final String COUNT_SQL =
+            "INSERT INTO exercise_session_count (session_id, pdu_type, count) SELECT ?::bigint, pdu_type, count FROM (" +
+            PduSql.unionAll(type -> "SELECT " + type.getDisCode() + " AS pdu_type, COUNT(*) AS count FROM " + type.getTableName() +
+                                    " WHERE " + PduSql.ID_RANGE + " AND timestamp >= ? AND timestamp < ? HAVING COUNT(*) > 0") +
+            ") counts ON CONFLICT (session_id, pdu_type) DO UPDATE SET count = exercise_session_count.count + EXCLUDED.count";
+
+    /** Unix epoch seconds of a session window, both ends inclusive. */
+    public record SessionWindow(long startEpochSeconds, long endEpochSeconds) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExerciseSessionRepository sessionRepository;
+    private final ExerciseSessionCountRepository countRepository;
+    private final MetricsService metricsService;
+    private final PduIdIndexService pduIdIndexService;
+    private IdTail startResumeTail;
+
+    @Value("${acquisition.sessions.lateness-seconds:120}")
+    private long latenessSeconds;
+
+    @Value("${acquisition.sessions.chunk-seconds:86400}")
+    private long chunkSeconds;
+
+    @Value("${acquisition.sessions.resend-window-seconds:10}")
+    private long resendWindowSeconds;
+
+    @Value("${acquisition.sessions.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public ExerciseSessionService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ExerciseSessionRepository sessionRepository,
+                                  ExerciseSessionCountRepository countRepository,
+                                  MetricsService metricsService,
+                                  @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sessionRepository = sessionRepository;
+        this.countRepository = countRepository;
+        this.metricsService = metricsService;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    // --- Index maintenance ---
+
+    @Scheduled(fixedDelayString = "${acquisition.sessions.interval-ms:10000}")
+    public void refresh() {
+        try {
+            indexNewStartResumes();
+            countUpTo(Instant.now().getEpochSecond() - latenessSeconds);
+        } catch (RuntimeException e) {
+            log.error("Exercise session indexing failed: {}", e.getMessage(), e);
+        }
+    }
+
+    synchronized void indexNewStartResumes() {
+        if (startResumeTail == null) {
+            Long maxIndexed = sessionRepository.findMaxStartResumeId();
+            startResumeTail = new IdTail(idOverlap);
+            startResumeTail.reset(maxIndexed != null ? maxIndexed : 0L);
+        }
+        List<long[]> startResumes = jdbcTemplate.query(
+                "SELECT id, timestamp FROM start_resume_pdu_record WHERE id > ? ORDER BY id",
+                (rs, rowNum) -> new long[]{rs.getLong("id"), MetricsService.fromDisAbsoluteTimestamp(rs.getLong("timestamp"))},
+                startResumeTail.from());
+        for (long[] startResume : startResumes) {
+            if (startResumeTail.firstSeen(startResume[0])) {
+                try {
+                    addBoundary(startResume[0], startResume[1]);
+                } catch (RuntimeException e) {
+                    // Forget the ids seen so far so this one is read again; addBoundary skips those already indexed
+                    startResumeTail.reset(startResumeTail.getLastId());
+                    throw e;
+                }
+            }
+            startResumeTail.advanceTo(startResume[0]);
+        }
+    }
+
+    /** Opens a session at {@code epochSeconds}, closing (and recounting) the session it splits. */
+    void addBoundary(long startResumeId, long epochSeconds) {
+        if (sessionRepository.existsByStartEpochBetween(epochSeconds - resendWindowSeconds, epochSeconds + resendWindowSeconds)) {
+            return;
+        }
+        Optional<ExerciseSession> previous = sessionRepository.findFirstByStartEpochLessThanOrderByStartEpochDesc(epochSeconds);
+        Optional<ExerciseSession> next = sessionRepository.findFirstByStartEpochGreaterThanOrderByStartEpochAsc(epochSeconds);
+
+        ExerciseSession session = new ExerciseSession();
+        session.setStartEpoch(epochSeconds);
+        session.setEndEpoch(next.map(s -> s.getStartEpoch() - 1).orElse(null));
+        session.setStartResumeId(startResumeId);
+        session.setCountedUntil(epochSeconds);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            previous.ifPresent(split -> {
+                split.setEndEpoch(epochSeconds - 1);
+                if (split.getCountedUntil() > epochSeconds) {
+                    resetCounts(split);
+                }
+                sessionRepository.save(split);
+            });
+            sessionRepository.save(session);
+        });
+        log.info("Exercise session {} starts at {}", session.getId(), MetricsService.formatInstant(Instant.ofEpochSecond(epochSeconds)));
+    }
+
+    synchronized void countUpTo(long closedUntil) {
+        for (ExerciseSession session : sessionRepository.findUncountedBefore(closedUntil)) {
+            long until = session.getEndEpoch() != null ? Math.min(closedUntil, session.getEndEpoch() + 1) : closedUntil;
+            for (long from = session.getCountedUntil(); from < until; ) {
+                long to = Math.min(until, from + chunkSeconds);
+                long chunkFrom = from;
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(COUNT_SQL, countArgs(session.getId(), chunkFrom, to));
+                    jdbcTemplate.update("UPDATE exercise_session SET counted_until = ? WHERE id = ?", to, session.getId());
+                });
+                from = to;
+            }
+        }
+    }
+
+    /** Arguments of {@link #COUNT_SQL} for the seconds {@code [from, to)}. */
+    private Object[] countArgs(long sessionId, long from, long to) {
+        Object[] perTable = PduSql.perTableIdRangeArgs(pduIdIndexService, from, to - 1,
+                MetricsService.toDisAbsoluteTimestamp(from), MetricsService.toDisAbsoluteTimestamp(to));
+        Object[] args = new Object[perTable.length + 1];
+        args[0] = sessionId;
+        System.arraycopy(perTable, 0, args, 1, perTable.length);
+        return args;
+    }
+
+    /** Recounts the sessions a backfill (see {@link PduBackfillEvent}) wrote into; new StartResume rows are picked up by id. */
+    @EventListener
+    public synchronized void onBackfill(PduBackfillEvent event) {
+        for (ExerciseSession session : sessionRepository.findOverlapping(event.fromEpochSeconds(), event.toEpochSeconds())) {
+            if (session.getCountedUntil() > Math.max(session.getStartEpoch(), event.fromEpochSeconds())) {
+                log.info("Recounting exercise session {} after a backfill", session.getId());
+                transactionTemplate.executeWithoutResult(status -> {
+                    resetCounts(session);
+                    sessionRepository.save(session);
+                });
+            }
+        }
+    }
+
+    private void resetCounts(ExerciseSession session) {
+        jdbcTemplate.update("DELETE FROM exercise_session_count WHERE session_id = ?", session.getId());
+        session.setCountedUntil(session.getStartEpoch());
+    }
+
+    // --- Queries ---
+
+    /** All sessions in start order, with the counts accumulated so far (see {@link SessionAggregation#getCountedUntil()}). */
+    public List<SessionAggregation> listSessions() {
+        List<ExerciseSession> sessions = sessionRepository.findAllByOrderByStartEpochAsc();
+        Map<Long, List<ExerciseSessionCount>> counts = countRepository
+                .findBySessionIdIn(sessions.stream().map(ExerciseSession::getId).toList()).stream()
+                .collect(Collectors.groupingBy(ExerciseSessionCount::getSessionId));
+        return sessions.stream()
+                .map(session -> toAggregation(session, storedCounts(counts.getOrDefault(session.getId(), List.of()))))
+                .toList();
+    }
+
+    /** Exact per-type counts of one session: the stored counts plus the not yet counted tail, counted now. */
+    public Optional<SessionAggregation> aggregate(long sessionId) {
+        return sessionRepository.findById(sessionId).map(session -> {
+            Map<PduType, Long> counts = storedCounts(countRepository.findBySessionId(sessionId));
+            SessionWindow window = toWindow(session);
+            if (session.getCountedUntil() <= window.endEpochSeconds()) {
+                metricsService.countPdusByType(
+                        MetricsService.toDisAbsoluteTimestamp(Math.max(session.getCountedUntil(), window.startEpochSeconds())),
+                        MetricsService.toDisAbsoluteTimestamp(window.endEpochSeconds()))
+                        .forEach((type, count) -> counts.merge(type, count, Long::sum));
+            }
+            SessionAggregation aggregation = toAggregation(session, counts);
+            aggregation.setCountedUntil(window.endEpochSeconds() + 1);
+            return aggregation;
+        });
+    }
+
+    /** Window of a session; a running session extends up to now. */
+    public Optional<SessionWindow> window(long sessionId) {
+        return sessionRepository.findById(sessionId).map(this::toWindow);
+    }
+
+    private SessionWindow toWindow(ExerciseSession session) {
+        long end = session.getEndEpoch() != null ? session.getEndEpoch() : Instant.now().getEpochSecond();
+        return new SessionWindow(session.getStartEpoch(), Math.max(end, session.getStartEpoch()));
+    }
+
+    private static Map<PduType, Long> storedCounts(List<ExerciseSessionCount> rows) {
+        Map<PduType, Long> counts = new EnumMap<>(PduType.class);
+        for (PduType type : PduType.values()) {
+            counts.put(type, 0L);
+        }
+        for (ExerciseSessionCount row : rows) {
+            counts.put(PduType.fromDisCode(row.getPduType()), row.getCount());
+        }
+        return counts;
+    }
+
+    private static SessionAggregation toAggregation(ExerciseSession session, Map<PduType, Long> counts) {
+        SessionAggregation aggregation = new SessionAggregation();
+        aggregation.setSessionId(session.getId());
+        aggregation.setStartTime(session.getStartEpoch());
+        aggregation.setEndTime(session.getEndEpoch());
+        aggregation.setOpen(session.getEndEpoch() == null);
+        aggregation.setCountedUntil(session.getCountedUntil());
+        aggregation.setEntityStatePduCount(counts.get(PduType.ENTITY_STATE));
+        aggregation.setFireEventPduCount(counts.get(PduType.FIRE_EVENT));
+        aggregation.setCollisionPduCount(counts.get(PduType.COLLISION));
+        aggregation.setDetonationPduCount(counts.get(PduType.DETONATION));
+        aggregation.setDataPduCount(counts.get(PduType.DATA_PDU));
+        aggregation.setActionRequestPduCount(counts.get(PduType.ACTION_REQUEST));
+        aggregation.setStartResumePduCount(counts.get(PduType.START_RESUME));
+        aggregation.setSetDataPduCount(counts.get(PduType.SET_DATA));
+        aggregation.setDesignatorPduCount(counts.get(PduType.DESIGNATOR));
+        aggregation.setElectromagneticEmissionsPduCount(counts.get(PduType.ELECTROMAGNETIC_EMISSIONS));
+        aggregation.setTotalPdus(counts.values().stream().mapToLong(Long::longValue).sum());
+        return aggregation;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.HeartbeatGapReport;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Finds entities whose EntityState heartbeat stalled during a window.
+ * <p>
+ * The window is read once as a primary-key range scan over the ids the time-to-id index maps it to, ordered by timestamp
+ * through a cursor fetched in pages inside a read-only transaction like {@link EngagementService}, and fed to a
+ * {@link HeartbeatGapTracker}. Ordering by timestamp gives each entity its updates in order without grouping the window
+ * by entity.
+ */
+@Service
+public class HeartbeatGapService {
+
+    private static final Logger log = LoggerFactory.getLogger(HeartbeatGapService.class);
+
+    private static final String ENTITY_STATES_SQL =
+            "SELECT site, application, entity, timestamp FROM entity_state_record " +
+            "WHERE " + PduSql.ID_RANGE + " AND timestamp BETWEEN ? AND ? ORDER BY timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.heartbeat.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${acquisition.heartbeat.max-entities:100000}")
+    private int maxEntities;
+
+    @Value("${acquisition.heartbeat.max-gaps-per-entity:20}")
+    private int maxGapsPerEntity;
+
+    @Value("${acquisition.heartbeat.max-limit:10000}")
+    private int maxLimit;
+
+    @Autowired
+    public HeartbeatGapService(JdbcTemplate jdbcTemplate,
+                               @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /**
+     * @param gapThresholdSeconds inter-arrivals longer than this count as gaps
+     * @param onlyWithGaps        leave out entities that never exceeded the threshold
+     * @param limit               maximum number of entities listed, worst first; the totals always cover all of them
+     */
+    @Transactional(readOnly = true)
+    public HeartbeatGapReport getHeartbeatGaps(long startEpochSeconds, long endEpochSeconds, long gapThresholdSeconds,
+                                               boolean onlyWithGaps, int limit) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (gapThresholdSeconds < 1) {
+            throw new IllegalArgumentException("gapSeconds must be at least 1");
+        }
+        if (limit < 0 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 0 and " + maxLimit);
+        }
+        HeartbeatGapTracker tracker = new HeartbeatGapTracker(gapThresholdSeconds, maxEntities, maxGapsPerEntity);
+        long disStart = MetricsService.toDisAbsoluteTimestamp(startEpochSeconds);
+        long disEnd = MetricsService.toDisAbsoluteTimestamp(endEpochSeconds);
+        PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, PduType.ENTITY_STATE,
+                startEpochSeconds, endEpochSeconds);
+
+        RequestTimings.time("heartbeat.scan", () -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ENTITY_STATES_SQL);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, ids.fromId());
+            ps.setLong(2, ids.toId());
+            ps.setLong(3, ids.tailAfterId());
+            ps.setLong(4, disStart);
+            ps.setLong(5, disEnd);
+            return ps;
+        }, rs -> {
+            tracker.update(rs.getInt(1), rs.getInt(2), rs.getInt(3), MetricsService.fromDisAbsoluteTimestamp(rs.getLong(4)));
+        }));
+
+        List<HeartbeatGapReport.EntityHeartbeat> entities = tracker.entities(onlyWithGaps, limit);
+        int entitiesWithGaps = tracker.getEntitiesWithGaps();
+        log.info("Heartbeat gaps {} to {}: {} rows, {} entities, {} with gaps over {} s",
+                startEpochSeconds, endEpochSeconds, tracker.getRows(), tracker.getEntitiesSeen(), entitiesWithGaps,
+                gapThresholdSeconds);
+        int listable = onlyWithGaps ? entitiesWithGaps : tracker.getEntitiesSeen();
+        return new HeartbeatGapReport(startEpochSeconds, endEpochSeconds, gapThresholdSeconds, tracker.getRows(),
+                tracker.getEntitiesSeen(), entitiesWithGaps, tracker.getGapCount(), listable > entities.size(), entities);
+    }
+}
@@ -0,0 +1,188 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.HeartbeatGapReport;
+import com.cap.dataAcquisition.sketch.RateHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Single-pass heartbeat analysis of EntityState updates fed in timestamp order.
+ * <p>
+ * Per-entity state sits in parallel primitive arrays indexed through a {@link PackedKeyIndex}; the only per-entity
+ * objects are the inter-arrival histogram and, for entities that actually have gaps, a short gap list. Memory therefore
+ * grows with the number of entities, not with the number of rows.
+ */
+final class HeartbeatGapTracker {
+
+    private final long gapThresholdSeconds;
+    private final int maxEntities;
+    private final int maxGapsPerEntity;
+    private final PackedKeyIndex index;
+
+    private long[] firstSeen;
+    private long[] lastSeen;
+    private long[] updates;
+    private long[] gapCount;
+    private long[] totalGapSeconds;
+    private RateHistogram[] interArrivals;
+    private long[][] gaps; // per entity: (from, seconds) pairs, shortest replaced first once full
+    private long rows;
+
+    HeartbeatGapTracker(long gapThresholdSeconds, int maxEntities, int maxGapsPerEntity) {
+        this.gapThresholdSeconds = gapThresholdSeconds;
+        this.maxEntities = maxEntities;
+        this.maxGapsPerEntity = maxGapsPerEntity;
+        int initial = Math.min(maxEntities, 1024);
+        this.index = new PackedKeyIndex(initial);
+        this.firstSeen = new long[initial];
+        this.lastSeen = new long[initial];
+        this.updates = new long[initial];
+        this.gapCount = new long[initial];
+        this.totalGapSeconds = new long[initial];
+        this.interArrivals = new RateHistogram[initial];
+        this.gaps = new long[initial][];
+    }
+
+    void update(int site, int application, int entity, long epochSeconds) {
+        rows++;
+        int before = index.size();
+        int slot = index.slotOf(LatestEntityStateService.packKey(site, application, entity));
+        if (slot == before) {
+            if (slot == maxEntities) {
+                throw new IllegalArgumentException("Window has more than " + maxEntities + " entities");
+            }
+            ensureCapacity(slot + 1);
+            firstSeen[slot] = epochSeconds;
+            lastSeen[slot] = epochSeconds;
+            updates[slot] = 1;
+            interArrivals[slot] = new RateHistogram();
+            return;
+        }
+        long interval = Math.max(0L, epochSeconds - lastSeen[slot]);
+        lastSeen[slot] = Math.max(lastSeen[slot], epochSeconds);
+        updates[slot]++;
+        interArrivals[slot].record(interval);
+        if (interval > gapThresholdSeconds) {
+            gapCount[slot]++;
+            totalGapSeconds[slot] += interval;
+            recordGap(slot, epochSeconds - interval, interval);
+        }
+    }
+
+    private void recordGap(int slot, long from, long seconds) {
+        if (maxGapsPerEntity == 0) {
+            return;
+        }
+        long[] entityGaps = gaps[slot];
+        if (entityGaps == null) {
+            entityGaps = gaps[slot] = new long[2 * Math.min(maxGapsPerEntity, 4)];
+            Arrays.fill(entityGaps, -1L);
+        }
+        int shortest = -1;
+        for (int i = 0; i < entityGaps.length; i += 2) {
+            if (entityGaps[i] < 0) {
+                entityGaps[i] = from;
+                entityGaps[i + 1] = seconds;
+                return;
+            }
+            if (shortest < 0 || entityGaps[i + 1] < entityGaps[shortest + 1]) {
+                shortest = i;
+            }
+        }
+        if (entityGaps.length < 2 * maxGapsPerEntity) {
+            int used = entityGaps.length;
+            entityGaps = gaps[slot] = Arrays.copyOf(entityGaps, Math.min(used * 2, 2 * maxGapsPerEntity));
+            Arrays.fill(entityGaps, used, entityGaps.length, -1L);
+            entityGaps[used] = from;
+            entityGaps[used + 1] = seconds;
+        } else if (seconds > entityGaps[shortest + 1]) {
+            entityGaps[shortest] = from;
+            entityGaps[shortest + 1] = seconds;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= firstSeen.length) {
+            return;
+        }
+        int capacity = Math.min(Math.max(needed, firstSeen.length * 2), maxEntities);
+        firstSeen = Arrays.copyOf(firstSeen, capacity);
+        lastSeen = Arrays.copyOf(lastSeen, capacity);
+        updates = Arrays.copyOf(updates, capacity);
+        gapCount = Arrays.copyOf(gapCount, capacity);
+        totalGapSeconds = Arrays.copyOf(totalGapSeconds, capacity);
+        interArrivals = Arrays.copyOf(interArrivals, capacity);
+        gaps = Arrays.copyOf(gaps, capacity);
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    int getEntitiesSeen() {
+        return index.size();
+    }
+
+    /**
+     * Entities ordered worst first (total gap time, then longest inter-arrival), at most {@code limit} of them.
+     * With {@code onlyWithGaps} entities that never exceeded the threshold are left out.
+     */
+    List<HeartbeatGapReport.EntityHeartbeat> entities(boolean onlyWithGaps, int limit) {
+        List<Integer> selected = new ArrayList<>();
+        for (int slot = 0; slot < index.size(); slot++) {
+            if (!onlyWithGaps || gapCount[slot] > 0) {
+                selected.add(slot);
+            }
+        }
+        selected.sort(Comparator.<Integer>comparingLong(slot -> totalGapSeconds[slot]).reversed()
+                .thenComparing(Comparator.<Integer>comparingLong(slot -> interArrivals[slot].getMax()).reversed())
+                .thenComparingLong(index::keyOf));
+        List<HeartbeatGapReport.EntityHeartbeat> result = new ArrayList<>(Math.min(limit, selected.size()));
+        for (int slot : selected.subList(0, Math.min(limit, selected.size()))) {
+            result.add(toEntity(slot));
+        }
+        return result;
+    }
+
+    int getEntitiesWithGaps() {
+        int count = 0;
+        for (int slot = 0; slot < index.size(); slot++) {
+            if (gapCount[slot] > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    long getGapCount() {
+        long total = 0;
+        for (int slot = 0; slot < index.size(); slot++) {
+            total += gapCount[slot];
+        }
+        return total;
+    }
+
+    private HeartbeatGapReport.EntityHeartbeat toEntity(int slot) {
+        long key = index.keyOf(slot);
+        RateHistogram histogram = interArrivals[slot];
+        List<HeartbeatGapReport.Gap> entityGaps = new ArrayList<>();
+        if (gaps[slot] != null) {
+            for (int i = 0; i < gaps[slot].length; i += 2) {
+                if (gaps[slot][i] >= 0) {
+                    long from = gaps[slot][i];
+                    long seconds = gaps[slot][i + 1];
+                    entityGaps.add(new HeartbeatGapReport.Gap(from, from + seconds, seconds));
+                }
+            }
+            entityGaps.sort(Comparator.comparingLong(HeartbeatGapReport.Gap::getSeconds).reversed()
+                    .thenComparingLong(HeartbeatGapReport.Gap::getFrom));
+        }
+        return new HeartbeatGapReport.EntityHeartbeat((int) (key >>> 32), (int) ((key >>> 16) & 0xFFFF), (int) (key & 0xFFFF),
+                updates[slot], firstSeen[slot], lastSeen[slot],
+                histogram.percentile(50), histogram.percentile(95), histogram.percentile(99), histogram.getMax(),
+                gapCount[slot], totalGapSeconds[slot], entityGaps);
+    }
+}
@@ -0,0 +1,114 @@
+package com.cap.dataAcquisition.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Position of a poller that follows a PDU table by id.
+ * <p>
+ * Ids are assigned on insert but become visible on commit, so a row can show up after a higher id was already read.
+ * Every read therefore starts {@code overlap} ids below the highest id seen ({@link #from()}). Ids inside that overlap
+ * are remembered, and {@link #firstSeen} reports a row read again only the first time; pollers whose writes are
+ * idempotent can ignore it. Older ids are forgotten as the tail moves on, since no read reaches back to them.
+ */
+final class IdTail {
+
+    /** Applies one row of a tail query. */
+    @FunctionalInterface
+    interface RowHandler {
+        void apply(ResultSet rs) throws SQLException;
+    }
+
+    /** Processes the ids in {@code (fromId, toId]}; returns the number of rows it touched. */
+    @FunctionalInterface
+    interface RangeHandler {
+        int apply(long fromId, long toId);
+    }
+
+    private final long overlap;
+    private final Set<Long> recentIds = new HashSet<>();
+    private volatile long lastId;
+
+    IdTail(long overlap) {
+        this.overlap = overlap;
+    }
+
+    /** Highest id read so far. */
+    long getLastId() {
+        return lastId;
+    }
+
+    /** Exclusive lower bound of the next read. */
+    long from() {
+        return Math.max(0L, lastId - overlap);
+    }
+
+    /** Restarts the tail after {@code lastId}, forgetting the remembered ids; used when a poller (re)loads its state. */
+    synchronized void reset(long lastId) {
+        this.lastId = lastId;
+        recentIds.clear();
+    }
+
+    /** Whether the row with {@code id} is seen for the first time. */
+    synchronized boolean firstSeen(long id) {
+        return id <= from() || recentIds.add(id);
+    }
+
+    /** Moves the tail up to {@code id} and forgets the ids no later read can return. */
+    synchronized void advanceTo(long id) {
+        if (id > lastId) {
+            lastId = id;
+            long oldestKept = from();
+            recentIds.removeIf(recent -> recent <= oldestKept);
+        }
+    }
+
+    /**
+     * Reads the rows past the tail with {@code sql} ({@code ... WHERE id > ? ORDER BY id LIMIT ?}) in batches of
+     * {@code batchSize}, hands every row seen for the first time to {@code handler} and moves the tail to the last id
+     * read. Returns the number of rows handled.
+     */
+    long poll(JdbcTemplate jdbcTemplate, String sql, int batchSize, RowHandler handler) {
+        long from = from();
+        long handled = 0;
+        int fetched;
+        do {
+            long[] last = {from, 0};
+            fetched = jdbcTemplate.query(sql, rs -> {
+                int rows = 0;
+                while (rs.next()) {
+                    long id = rs.getLong("id");
+                    if (firstSeen(id)) {
+                        handler.apply(rs);
+                        last[1]++;
+                    }
+                    last[0] = Math.max(last[0], id);
+                    rows++;
+                }
+                return rows;
+            }, from, batchSize);
+            from = last[0];
+            handled += last[1];
+        } while (fetched == batchSize);
+        advanceTo(from);
+        return handled;
+    }
+
+    /**
+     * Hands the ids from the tail up to {@code maxId} to {@code handler} in ranges of at most {@code batchSize}, for
+     * set-based pollers whose statements are idempotent, moving the tail after each range. Returns the rows touched.
+     */
+    long forEachRange(long maxId, int batchSize, RangeHandler handler) {
+        long touched = 0;
+        for (long from = from(); from < maxId; from += batchSize) {
+            long to = Math.min(from + batchSize, maxId);
+            touched += handler.apply(from, to);
+            advanceTo(to);
+        }
+        return touched;
+    }
+}
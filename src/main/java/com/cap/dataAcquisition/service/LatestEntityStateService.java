@@ -0,0 +1,136 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.EntitySnapshotResponse;
+import com.cap.dataAcquisition.dto.LatestEntityState;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of the latest known state of every entity, keyed by the packed (site, application, entity) triple.
+ * <p>
+ * The table is seeded once at startup with the newest row per entity inside
+ * {@code acquisition.latest-state.seed-window-minutes}, read over the window's id range ({@link PduIdIndexService}),
+ * and, once seeded, kept current by tailing {@code entity_state_record} by id ({@link IdTail}); applying a row is
+ * idempotent because a state only replaces one with an older timestamp. Snapshots are served from memory without
+ * touching the database.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.latest-state.enabled", havingValue = "true")
+public class LatestEntityStateService {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestEntityStateService.class);
+
+    private static final String SEED_SQL =
+            "SELECT DISTINCT ON (site, application, entity) id, site, application, entity, locationx, locationy, locationz, timestamp " +
+            "FROM entity_state_record WHERE " + PduSql.ID_RANGE + " AND timestamp >= ? ORDER BY site, application, entity, timestamp DESC, id DESC";
+    private static final String TAIL_SQL =
+            "SELECT id, site, application, entity, locationx, locationy, locationz, timestamp " +
+            "FROM entity_state_record WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService pduIdIndexService;
+    private final Map<Long, LatestEntityState> states = new ConcurrentHashMap<>();
+    private volatile IdTail tail;
+    private volatile boolean seeded;
+
+    @Value("${acquisition.latest-state.seed-window-minutes:1440}")
+    private long seedWindowMinutes;
+
+    @Value("${acquisition.latest-state.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${acquisition.latest-state.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public LatestEntityStateService(JdbcTemplate jdbcTemplate,
+                                    @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    // --- Key packing: DIS site, application and entity numbers are 16-bit unsigned ---
+    static long packKey(int site, int application, int entity) {
+        return ((long) (site & 0xFFFF) << 32) | ((long) (application & 0xFFFF) << 16) | (entity & 0xFFFF);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long now = Instant.now().getEpochSecond();
+        long seedFromEpoch = now - seedWindowMinutes * 60;
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM entity_state_record", Long.class);
+        PduIdIndexService.IdRange range = PduIdIndexService.idRange(pduIdIndexService, PduType.ENTITY_STATE, seedFromEpoch, now);
+        jdbcTemplate.query(SEED_SQL, rs -> {
+            apply(rs);
+        }, range.fromId(), range.toId(), range.tailAfterId(), MetricsService.toDisAbsoluteTimestamp(seedFromEpoch));
+        IdTail seededTail = new IdTail(idOverlap);
+        seededTail.reset(maxId != null ? maxId : 0L);
+        tail = seededTail;
+        seeded = true;
+        log.info("Seeded latest-state table with {} entities (up to record id {})", states.size(), seededTail.getLastId());
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.latest-state.poll-interval-ms:1000}")
+    public void poll() {
+        if (!seeded) {
+            return;
+        }
+        try {
+            tail.poll(jdbcTemplate, TAIL_SQL, batchSize, this::apply);
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh the latest-state table: {}", e.getMessage(), e);
+        }
+    }
+
+    private void apply(ResultSet rs) throws SQLException {
+        apply(rs.getLong("id"), rs.getInt("site"), rs.getInt("application"), rs.getInt("entity"),
+                rs.getDouble("locationx"), rs.getDouble("locationy"), rs.getDouble("locationz"), rs.getLong("timestamp"));
+    }
+
+    void apply(long recordId, int site, int application, int entity,
+               double locationX, double locationY, double locationZ, long disTimestamp) {
+        LatestEntityState candidate = new LatestEntityState(site, application, entity, locationX, locationY, locationZ,
+                disTimestamp, MetricsService.fromDisAbsoluteTimestamp(disTimestamp), recordId);
+        states.merge(packKey(site, application, entity), candidate, LatestEntityStateService::newer);
+    }
+
+    private static LatestEntityState newer(LatestEntityState current, LatestEntityState candidate) {
+        if (candidate.getTimestampEpoch() != current.getTimestampEpoch()) {
+            return candidate.getTimestampEpoch() > current.getTimestampEpoch() ? candidate : current;
+        }
+        return candidate.getRecordId() > current.getRecordId() ? candidate : current;
+    }
+
+    /**
+     * Returns every entity, or only those updated within {@code maxAgeSeconds} of now when it is given.
+     */
+    public EntitySnapshotResponse snapshot(Long maxAgeSeconds) {
+        Instant now = Instant.now();
+        long oldestAllowed = maxAgeSeconds != null ? now.getEpochSecond() - maxAgeSeconds : Long.MIN_VALUE;
+        List<LatestEntityState> entities = new ArrayList<>(states.size());
+        for (LatestEntityState state : states.values()) {
+            if (state.getTimestampEpoch() >= oldestAllowed) {
+                entities.add(state);
+            }
+        }
+        IdTail current = tail;
+        return new EntitySnapshotResponse(now, current != null ? current.getLastId() : 0L, entities.size(), entities);
+    }
+}
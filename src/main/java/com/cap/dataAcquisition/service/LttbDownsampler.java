@@ -0,0 +1,132 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.TrajectoryPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets reduction of a trajectory, fed one point at a time.
+ * <p>
+ * The points between the first and the last are split into {@code budget - 2} equally sized buckets by position.
+ * From each bucket the point forming the largest triangle with the previously selected point and the centroid of the
+ * next bucket is kept. Triangle areas are measured in 3D space (x, y, z), so turns in the track survive the reduction.
+ * Only the bucket awaiting selection and the bucket being filled are held in memory.
+ */
+class LttbDownsampler {
+
+    private final long totalPoints;
+    private final int budget;
+    private final double bucketSize;
+    private final List<TrajectoryPoint> selected;
+
+    private long index;
+    private boolean finished;
+    private int collectingBucket;
+    private List<TrajectoryPoint> pending;
+    private List<TrajectoryPoint> collecting = new ArrayList<>();
+
+    LttbDownsampler(long totalPoints, int budget) {
+        if (budget < 3 || totalPoints <= budget) {
+            throw new IllegalArgumentException("LTTB needs a budget of at least 3 and fewer points than the budget");
+        }
+        this.totalPoints = totalPoints;
+        this.budget = budget;
+        this.bucketSize = (double) (totalPoints - 2) / (budget - 2);
+        this.selected = new ArrayList<>(budget);
+    }
+
+    void accept(TrajectoryPoint point) {
+        long current = index++;
+        if (current == 0) {
+            selected.add(point);
+            return;
+        }
+        if (current >= totalPoints - 1) {
+            // Last point (anything past the announced total is ignored)
+            if (current == totalPoints - 1) {
+                finish(point);
+            }
+            return;
+        }
+        int bucket = (int) Math.min(budget - 3, (long) ((current - 1) / bucketSize));
+        if (bucket != collectingBucket) {
+            completeBucket();
+            collectingBucket = bucket;
+        }
+        collecting.add(point);
+    }
+
+    List<TrajectoryPoint> result() {
+        if (!finished && pending != null) {
+            // Fewer rows than announced: close the open buckets against the last point seen
+            completeBucket();
+            List<TrajectoryPoint> last = pending.isEmpty() ? null : pending;
+            if (last != null) {
+                TrajectoryPoint end = last.get(last.size() - 1);
+                selectFrom(last, new double[]{end.getLocationX(), end.getLocationY(), end.getLocationZ()});
+            }
+            finished = true;
+        }
+        return selected;
+    }
+
+    private void completeBucket() {
+        if (pending != null) {
+            selectFrom(pending, centroid(collecting));
+        }
+        pending = collecting;
+        collecting = new ArrayList<>();
+    }
+
+    private void finish(TrajectoryPoint last) {
+        finished = true;
+        completeBucket();
+        if (pending != null && !pending.isEmpty()) {
+            selectFrom(pending, new double[]{last.getLocationX(), last.getLocationY(), last.getLocationZ()});
+        }
+        selected.add(last);
+    }
+
+    private void selectFrom(List<TrajectoryPoint> bucket, double[] next) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        TrajectoryPoint a = selected.get(selected.size() - 1);
+        TrajectoryPoint best = bucket.get(0);
+        double bestArea = -1;
+        for (TrajectoryPoint candidate : bucket) {
+            double area = doubledTriangleArea(a, candidate, next);
+            if (area > bestArea) {
+                bestArea = area;
+                best = candidate;
+            }
+        }
+        selected.add(best);
+    }
+
+    private static double[] centroid(List<TrajectoryPoint> bucket) {
+        double x = 0, y = 0, z = 0;
+        for (TrajectoryPoint point : bucket) {
+            x += point.getLocationX();
+            y += point.getLocationY();
+            z += point.getLocationZ();
+        }
+        int n = Math.max(1, bucket.size());
+        return new double[]{x / n, y / n, z / n};
+    }
+
+    // |AB x AC|, i.e. twice the area of the triangle; only used for comparisons
+    static double doubledTriangleArea(TrajectoryPoint a, TrajectoryPoint b, double[] c) {
+        double abx = b.getLocationX() - a.getLocationX();
+        double aby = b.getLocationY() - a.getLocationY();
+        double abz = b.getLocationZ() - a.getLocationZ();
+        double acx = c[0] - a.getLocationX();
+        double acy = c[1] - a.getLocationY();
+        double acz = c[2] - a.getLocationZ();
+        double cx = aby * acz - abz * acy;
+        double cy = abz * acx - abx * acz;
+        double cz = abx * acy - aby * acx;
+        return Math.sqrt(cx * cx + cy * cy + cz * cz);
+    }
+}
@@ -11,6 +11,11 @@ import com.cap.dataAcquisition.model.StartResumePduRecord;
 import com.cap.dataAcquisition.model.SetDataPduRecord;
 import com.cap.dataAcquisition.model.DesignatorPduRecord;
 import com.cap.dataAcquisition.model.ElectromagneticEmissionsPduRecord;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduEventRecord;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dis.DisPduLayout;
 import com.cap.dataAcquisition.dto.PduLogResponse;
 import com.cap.dataAcquisition.repository.CollisionRepository;
 import com.cap.dataAcquisition.repository.DetonationRepository;
@@ -22,9 +27,14 @@ import com.cap.dataAcquisition.repository.StartResumePduRepository;
 import com.cap.dataAcquisition.repository.SetDataPduRepository;
 import com.cap.dataAcquisition.repository.DesignatorPduRepository;
 import com.cap.dataAcquisition.repository.ElectromagneticEmissionsPduRepository;
+import com.cap.dataAcquisition.repository.PduEventRepository;
+import com.cap.dataAcquisition.repository.PduTypeCount;
+import com.cap.dataAcquisition.repository.PduTypeTimestamp;
+import com.cap.dataAcquisition.sketch.RateHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -32,11 +42,14 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
 
 @Service
 public class MetricsService {
@@ -53,6 +66,25 @@ public class MetricsService {
     private final SetDataPduRepository setDataPduRepository;
     private final DesignatorPduRepository designatorPduRepository;
     private final ElectromagneticEmissionsPduRepository electromagneticEmissionsPduRepository;
+    private final PduEventRepository pduEventRepository;
+    private final PduIdIndexService pduIdIndexService;
+    private final ChunkedAggregationService chunkedAggregationService;
+    private final RollingMetricsWindow rollingMetricsWindow;
+
+    // When enabled, cross-type queries are answered from the consolidated pdu_event table in a single scan
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    // Peak load is the busiest window of this length, evaluated every step (60/60 reproduces per-minute buckets)
+    @Value("${acquisition.metrics.peak.window-seconds:60}")
+    private int peakWindowSeconds;
+
+    @Value("${acquisition.metrics.peak.step-seconds:60}")
+    private int peakStepSeconds;
+
+    // Longer periods are counted chunk by chunk in the database instead of loading every record
+    @Value("${acquisition.aggregate.chunked.above-seconds:3600}")
+    private long chunkedAboveSeconds;
 
     @Autowired
     public MetricsService(EntityStateRepository entityStateRepository, 
@@ -64,7 +96,11 @@ public class MetricsService {
                           StartResumePduRepository startResumePduRepository,
                           SetDataPduRepository setDataPduRepository,
                           DesignatorPduRepository designatorPduRepository,
-                          ElectromagneticEmissionsPduRepository electromagneticEmissionsPduRepository) {
+                          ElectromagneticEmissionsPduRepository electromagneticEmissionsPduRepository,
+                          PduEventRepository pduEventRepository,
+                          @Autowired(required = false) PduIdIndexService pduIdIndexService,
+                          @Autowired(required = false) ChunkedAggregationService chunkedAggregationService,
+                          @Autowired(required = false) RollingMetricsWindow rollingMetricsWindow) {
         this.entityStateRepository = entityStateRepository;
         this.fireEventRepository = fireEventRepository;
         this.collisionRepository = collisionRepository;
@@ -75,6 +111,10 @@ public class MetricsService {
         this.setDataPduRepository = setDataPduRepository;
         this.designatorPduRepository = designatorPduRepository;
         this.electromagneticEmissionsPduRepository = electromagneticEmissionsPduRepository;
+        this.pduEventRepository = pduEventRepository;
+        this.pduIdIndexService = pduIdIndexService;
+        this.chunkedAggregationService = chunkedAggregationService;
+        this.rollingMetricsWindow = rollingMetricsWindow;
     }
 
     // --- Public Static Helper Methods for Timestamp Conversion & Formatting ---
@@ -124,16 +164,29 @@ public class MetricsService {
         log.info("Corresponding UTC Range: {} to {}",
                 formatInstant(startTimeUtc), formatInstant(endTimeUtc));
 
-        List<EntityStateRecord> entityStates = entityStateRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<FireEventRecord> fireEvents = fireEventRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<CollisionRecord> collisionEvents = collisionRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DetonationRecord> detonationEvents = detonationRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DataPduRecord> dataPduEvents = dataPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<ActionRequestPduRecord> actionRequestEvents = actionRequestPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<StartResumePduRecord> startResumeEvents = startResumePduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<SetDataPduRecord> setDataEvents = setDataPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<DesignatorPduRecord> designatorEvents = designatorPduRepository.findByTimestampBetween(disStartTime, disEndTime);
-        List<ElectromagneticEmissionsPduRecord> electromagneticEmissionsEvents = electromagneticEmissionsPduRepository.findByTimestampBetween(disStartTime, disEndTime);
+        if (rollingMetricsWindow != null && rollingMetricsWindow.covers(startEpochSeconds, endEpochSeconds)) {
+            int[][] perSecondByType = RequestTimings.time("compute.perSecond",
+                    () -> rollingMetricsWindow.countPerSecond(startEpochSeconds, endEpochSeconds));
+            return getAggregatedMetricsFromPerSecond(timeWindowDescription, startTimeUtc, endTimeUtc, perSecondByType);
+        }
+        if (chunkedAggregationService != null && endEpochSeconds - startEpochSeconds > chunkedAboveSeconds) {
+            return chunkedAggregationService.aggregate(timeWindowDescription, startEpochSeconds, endEpochSeconds);
+        }
+        if (consolidatedStorage) {
+            return getAggregatedMetricsFromEvents(timeWindowDescription, startTimeUtc, endTimeUtc, disStartTime, disEndTime);
+        }
+
+        List<EntityStateRecord> entityStates = findRecords(PduType.ENTITY_STATE, disStartTime, disEndTime);
+        List<FireEventRecord> fireEvents = findRecords(PduType.FIRE_EVENT, disStartTime, disEndTime);
+        List<CollisionRecord> collisionEvents = findRecords(PduType.COLLISION, disStartTime, disEndTime);
+        List<DetonationRecord> detonationEvents = findRecords(PduType.DETONATION, disStartTime, disEndTime);
+        List<DataPduRecord> dataPduEvents = findRecords(PduType.DATA_PDU, disStartTime, disEndTime);
+        List<ActionRequestPduRecord> actionRequestEvents = findRecords(PduType.ACTION_REQUEST, disStartTime, disEndTime);
+        List<StartResumePduRecord> startResumeEvents = findRecords(PduType.START_RESUME, disStartTime, disEndTime);
+        List<SetDataPduRecord> setDataEvents = findRecords(PduType.SET_DATA, disStartTime, disEndTime);
+        List<DesignatorPduRecord> designatorEvents = findRecords(PduType.DESIGNATOR, disStartTime, disEndTime);
+        List<ElectromagneticEmissionsPduRecord> electromagneticEmissionsEvents =
+                findRecords(PduType.ELECTROMAGNETIC_EMISSIONS, disStartTime, disEndTime);
 
         long totalEntityStatePackets = entityStates != null ? entityStates.size() : 0;
         long totalFireEventPackets = fireEvents != null ? fireEvents.size() : 0;
@@ -152,13 +205,15 @@ public class MetricsService {
         double durationSeconds = ChronoUnit.SECONDS.between(startTimeUtc, endTimeUtc);
         double averagePacketsPerSecond = (durationSeconds > 0) ? (totalPackets / durationSeconds) : 0.0;
 
-        AggregatedMetricsOverview.PeakLoadInfo peakLoadInfo = calculatePeakLoad(
+        int[][] perSecondByType = RequestTimings.time("compute.perSecond", () -> countPerSecond(
                 entityStates, fireEvents, collisionEvents, detonationEvents, 
                 dataPduEvents, actionRequestEvents, startResumeEvents, setDataEvents, 
                 designatorEvents, electromagneticEmissionsEvents, startTimeUtc, endTimeUtc
-        );
+        ));
+        AggregatedMetricsOverview.PeakLoadInfo peakLoadInfo = RequestTimings.time("compute.peakLoad", () ->
+                calculatePeakLoad(sumPerSecond(perSecondByType), startTimeUtc, endTimeUtc));
 
-        return new AggregatedMetricsOverview(
+        AggregatedMetricsOverview overview = new AggregatedMetricsOverview(
                 timeWindowDescription,
                 startTimeUtc,
                 endTimeUtc,
@@ -176,9 +231,155 @@ public class MetricsService {
                 averagePacketsPerSecond,
                 peakLoadInfo
         );
+        overview.setRateDistribution(RequestTimings.time("compute.rateDistribution", () -> rateDistribution(perSecondByType)));
+        return overview;
+    }
+
+    private AggregatedMetricsOverview getAggregatedMetricsFromEvents(String timeWindowDescription,
+                                                                     Instant startTimeUtc, Instant endTimeUtc,
+                                                                     long disStartTime, long disEndTime) {
+        Map<PduType, Long> counts = countPdusByType(disStartTime, disEndTime);
+        List<PduTypeTimestamp> typedTimestamps = pduEventRepository.findTypesAndTimestampsBetween(disStartTime, disEndTime);
+
+        long totalPackets = counts.values().stream().mapToLong(Long::longValue).sum();
+        double durationSeconds = ChronoUnit.SECONDS.between(startTimeUtc, endTimeUtc);
+        double averagePacketsPerSecond = (durationSeconds > 0) ? (totalPackets / durationSeconds) : 0.0;
+
+        int[][] perSecondByType = RequestTimings.time("compute.perSecond", () -> {
+            long firstSecond = startTimeUtc.getEpochSecond();
+            int[][] perSecond = new int[PduType.values().length][secondsBetween(startTimeUtc, endTimeUtc)];
+            for (PduTypeTimestamp typed : typedTimestamps) {
+                long index = fromDisAbsoluteTimestamp(typed.getTimestamp()) - firstSecond;
+                if (index >= 0 && index < perSecond[0].length) {
+                    perSecond[PduType.fromDisCode(typed.getPduType()).ordinal()][(int) index]++;
+                }
+            }
+            return perSecond;
+        });
+        AggregatedMetricsOverview.PeakLoadInfo peakLoadInfo = RequestTimings.time("compute.peakLoad", () ->
+                calculatePeakLoad(sumPerSecond(perSecondByType), startTimeUtc, endTimeUtc));
+
+        AggregatedMetricsOverview overview = new AggregatedMetricsOverview(
+                timeWindowDescription,
+                startTimeUtc,
+                endTimeUtc,
+                totalPackets,
+                counts.get(PduType.ENTITY_STATE),
+                counts.get(PduType.FIRE_EVENT),
+                counts.get(PduType.COLLISION),
+                counts.get(PduType.DETONATION),
+                counts.get(PduType.DATA_PDU),
+                counts.get(PduType.ACTION_REQUEST),
+                counts.get(PduType.START_RESUME),
+                counts.get(PduType.SET_DATA),
+                counts.get(PduType.DESIGNATOR),
+                counts.get(PduType.ELECTROMAGNETIC_EMISSIONS),
+                averagePacketsPerSecond,
+                peakLoadInfo
+        );
+        overview.setRateDistribution(RequestTimings.time("compute.rateDistribution", () -> rateDistribution(perSecondByType)));
+        return overview;
+    }
+
+    private AggregatedMetricsOverview getAggregatedMetricsFromPerSecond(String timeWindowDescription,
+                                                                        Instant startTimeUtc, Instant endTimeUtc,
+                                                                        int[][] perSecondByType) {
+        long[] counts = new long[perSecondByType.length];
+        long totalPackets = 0;
+        for (int type = 0; type < perSecondByType.length; type++) {
+            for (int count : perSecondByType[type]) {
+                counts[type] += count;
+            }
+            totalPackets += counts[type];
+        }
+        double durationSeconds = ChronoUnit.SECONDS.between(startTimeUtc, endTimeUtc);
+        double averagePacketsPerSecond = (durationSeconds > 0) ? (totalPackets / durationSeconds) : 0.0;
+        AggregatedMetricsOverview.PeakLoadInfo peakLoadInfo = RequestTimings.time("compute.peakLoad", () ->
+                calculatePeakLoad(sumPerSecond(perSecondByType), startTimeUtc, endTimeUtc));
+
+        AggregatedMetricsOverview overview = new AggregatedMetricsOverview(
+                timeWindowDescription,
+                startTimeUtc,
+                endTimeUtc,
+                totalPackets,
+                counts[PduType.ENTITY_STATE.ordinal()],
+                counts[PduType.FIRE_EVENT.ordinal()],
+                counts[PduType.COLLISION.ordinal()],
+                counts[PduType.DETONATION.ordinal()],
+                counts[PduType.DATA_PDU.ordinal()],
+                counts[PduType.ACTION_REQUEST.ordinal()],
+                counts[PduType.START_RESUME.ordinal()],
+                counts[PduType.SET_DATA.ordinal()],
+                counts[PduType.DESIGNATOR.ordinal()],
+                counts[PduType.ELECTROMAGNETIC_EMISSIONS.ordinal()],
+                averagePacketsPerSecond,
+                peakLoadInfo
+        );
+        overview.setRateDistribution(RequestTimings.time("compute.rateDistribution", () -> rateDistribution(perSecondByType)));
+        return overview;
     }
 
-    private AggregatedMetricsOverview.PeakLoadInfo calculatePeakLoad(
+    /**
+     * Counts the PDUs of every type with a DIS timestamp in the given range. Every type is present in the result.
+     */
+    public Map<PduType, Long> countPdusByType(long disStartTime, long disEndTime) {
+        Map<PduType, Long> counts = new EnumMap<>(PduType.class);
+        for (PduType type : PduType.values()) {
+            counts.put(type, 0L);
+        }
+        if (consolidatedStorage) {
+            for (PduTypeCount typeCount : pduEventRepository.countByTypeBetween(disStartTime, disEndTime)) {
+                counts.put(PduType.fromDisCode(typeCount.getPduType()), typeCount.getCount());
+            }
+            return counts;
+        }
+        counts.put(PduType.ENTITY_STATE, inWindow(PduType.ENTITY_STATE, disStartTime, disEndTime,
+                entityStateRepository::countByTimestampBetween, entityStateRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.FIRE_EVENT, inWindow(PduType.FIRE_EVENT, disStartTime, disEndTime,
+                fireEventRepository::countByTimestampBetween, fireEventRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.COLLISION, inWindow(PduType.COLLISION, disStartTime, disEndTime,
+                collisionRepository::countByTimestampBetween, collisionRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.DETONATION, inWindow(PduType.DETONATION, disStartTime, disEndTime,
+                detonationRepository::countByTimestampBetween, detonationRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.DATA_PDU, inWindow(PduType.DATA_PDU, disStartTime, disEndTime,
+                dataPduRepository::countByTimestampBetween, dataPduRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.ACTION_REQUEST, inWindow(PduType.ACTION_REQUEST, disStartTime, disEndTime,
+                actionRequestPduRepository::countByTimestampBetween, actionRequestPduRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.START_RESUME, inWindow(PduType.START_RESUME, disStartTime, disEndTime,
+                startResumePduRepository::countByTimestampBetween, startResumePduRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.SET_DATA, inWindow(PduType.SET_DATA, disStartTime, disEndTime,
+                setDataPduRepository::countByTimestampBetween, setDataPduRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.DESIGNATOR, inWindow(PduType.DESIGNATOR, disStartTime, disEndTime,
+                designatorPduRepository::countByTimestampBetween, designatorPduRepository::countByIdRangeAndTimestampBetween));
+        counts.put(PduType.ELECTROMAGNETIC_EMISSIONS, inWindow(PduType.ELECTROMAGNETIC_EMISSIONS, disStartTime, disEndTime,
+                electromagneticEmissionsPduRepository::countByTimestampBetween,
+                electromagneticEmissionsPduRepository::countByIdRangeAndTimestampBetween));
+        return counts;
+    }
+
+    /** A per-type repository query over an id range and a DIS timestamp range, as served by the time-to-id index. */
+    @FunctionalInterface
+    interface IdRangeQuery<T> {
+        T query(long fromId, long toId, long tailAfterId, Long startTime, Long endTime);
+    }
+
+    /**
+     * Runs a window query as a primary-key range scan when the time-to-id index is enabled, otherwise on the timestamp.
+     */
+    private <T> T inWindow(PduType type, Long disStartTime, Long disEndTime,
+                           BiFunction<Long, Long, T> byTimestamp, IdRangeQuery<T> byIdRange) {
+        if (pduIdIndexService == null) {
+            return byTimestamp.apply(disStartTime, disEndTime);
+        }
+        PduIdIndexService.IdRange range = pduIdIndexService.idRange(type,
+                fromDisAbsoluteTimestamp(disStartTime), fromDisAbsoluteTimestamp(disEndTime));
+        return byIdRange.query(range.fromId(), range.toId(), range.tailAfterId(), disStartTime, disEndTime);
+    }
+
+    /**
+     * PDUs per second of the window (inclusive of both ends), one primitive array per type in {@link PduType} order.
+     */
+    private int[][] countPerSecond(
             List<EntityStateRecord> entityStates,
             List<FireEventRecord> fireEvents,
             List<CollisionRecord> collisionEvents,
@@ -192,354 +393,368 @@ public class MetricsService {
             Instant windowStartTimeUtc,
             Instant windowEndTimeUtc) {
 
-        // Explicit typing in map can help with "capture#1-of ? extends Object" issues if Lombok/IDE struggles
-        Stream<Long> entityTimestamps = (entityStates != null ? entityStates.stream() : Stream.<EntityStateRecord>empty())
-                .map((EntityStateRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> fireTimestamps = (fireEvents != null ? fireEvents.stream() : Stream.<FireEventRecord>empty())
-                .map((FireEventRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> collisionTimestamps = (collisionEvents != null ? collisionEvents.stream() : Stream.<CollisionRecord>empty())
-                .map((CollisionRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> detonationTimestamps = (detonationEvents != null ? detonationEvents.stream() : Stream.<DetonationRecord>empty())
-                .map((DetonationRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> dataPduTimestamps = (dataPduEvents != null ? dataPduEvents.stream() : Stream.<DataPduRecord>empty())
-                .map((DataPduRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> actionRequestTimestamps = (actionRequestEvents != null ? actionRequestEvents.stream() : Stream.<ActionRequestPduRecord>empty())
-                .map((ActionRequestPduRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> startResumeTimestamps = (startResumeEvents != null ? startResumeEvents.stream() : Stream.<StartResumePduRecord>empty())
-                .map((StartResumePduRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> setDataTimestamps = (setDataEvents != null ? setDataEvents.stream() : Stream.<SetDataPduRecord>empty())
-                .map((SetDataPduRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> designatorTimestamps = (designatorEvents != null ? designatorEvents.stream() : Stream.<DesignatorPduRecord>empty())
-                .map((DesignatorPduRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-        Stream<Long> electromagneticEmissionsTimestamps = (electromagneticEmissionsEvents != null ? electromagneticEmissionsEvents.stream() : Stream.<ElectromagneticEmissionsPduRecord>empty())
-                .map((ElectromagneticEmissionsPduRecord record) -> fromDisAbsoluteTimestamp(record.getTimestamp()));
-
-        List<Long> allPduEpochSeconds = Stream.of(
-                entityTimestamps, fireTimestamps, collisionTimestamps, detonationTimestamps,
-                dataPduTimestamps, actionRequestTimestamps, startResumeTimestamps, setDataTimestamps,
-                designatorTimestamps, electromagneticEmissionsTimestamps)
-                .reduce(Stream::concat)
-                .orElseGet(Stream::empty)
-                .sorted()
-                .collect(Collectors.toList());
-
-        if (allPduEpochSeconds.isEmpty()) {
-            return new AggregatedMetricsOverview.PeakLoadInfo(0.0, windowStartTimeUtc, windowEndTimeUtc, 0);
-        }
-
-        Map<Long, Long> packetsPerMinuteInterval = new HashMap<>();
-        long intervalSeconds = 60; // 1-minute intervals
+        // No sorting or boxing of the timestamps
+        long firstSecond = windowStartTimeUtc.getEpochSecond();
+        int[][] perSecond = new int[PduType.values().length][secondsBetween(windowStartTimeUtc, windowEndTimeUtc)];
+        countPerSecond(perSecond[PduType.ENTITY_STATE.ordinal()], firstSecond, entityStates, EntityStateRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.FIRE_EVENT.ordinal()], firstSecond, fireEvents, FireEventRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.COLLISION.ordinal()], firstSecond, collisionEvents, CollisionRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.DETONATION.ordinal()], firstSecond, detonationEvents, DetonationRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.DATA_PDU.ordinal()], firstSecond, dataPduEvents, DataPduRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.ACTION_REQUEST.ordinal()], firstSecond, actionRequestEvents, ActionRequestPduRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.START_RESUME.ordinal()], firstSecond, startResumeEvents, StartResumePduRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.SET_DATA.ordinal()], firstSecond, setDataEvents, SetDataPduRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.DESIGNATOR.ordinal()], firstSecond, designatorEvents, DesignatorPduRecord::getTimestamp);
+        countPerSecond(perSecond[PduType.ELECTROMAGNETIC_EMISSIONS.ordinal()], firstSecond, electromagneticEmissionsEvents, ElectromagneticEmissionsPduRecord::getTimestamp);
+        return perSecond;
+    }
 
-        for (Long pduEpochSecond : allPduEpochSeconds) {
-            long minuteBucketStartEpochSecond = (pduEpochSecond / intervalSeconds) * intervalSeconds;
-            packetsPerMinuteInterval.put(minuteBucketStartEpochSecond,
-                    packetsPerMinuteInterval.getOrDefault(minuteBucketStartEpochSecond, 0L) + 1);
-        }
+    private static int secondsBetween(Instant windowStartTimeUtc, Instant windowEndTimeUtc) {
+        return (int) Math.max(0, windowEndTimeUtc.getEpochSecond() - windowStartTimeUtc.getEpochSecond() + 1);
+    }
 
-        if (packetsPerMinuteInterval.isEmpty()) {
-             return new AggregatedMetricsOverview.PeakLoadInfo(0.0, windowStartTimeUtc, windowEndTimeUtc, 0);
+    private static int[] sumPerSecond(int[][] perSecondByType) {
+        int[] total = new int[perSecondByType[0].length];
+        for (int[] perSecond : perSecondByType) {
+            for (int i = 0; i < total.length; i++) {
+                total[i] += perSecond[i];
+            }
         }
+        return total;
+    }
 
-        long maxPacketsInInterval = 0;
-        long peakIntervalStartEpochSecond = windowStartTimeUtc.getEpochSecond(); // Default to window start
+    private static AggregatedMetricsOverview.RateDistribution rateDistribution(int[][] perSecondByType) {
+        RateHistogram[] histograms = RateDistributions.newHistograms();
+        RateDistributions.record(histograms, perSecondByType);
+        return RateDistributions.toDistribution(histograms);
+    }
 
-        for (Map.Entry<Long, Long> entry : packetsPerMinuteInterval.entrySet()) {
-            if (entry.getValue() > maxPacketsInInterval) {
-                maxPacketsInInterval = entry.getValue();
-                peakIntervalStartEpochSecond = entry.getKey();
-            }
+    private static <T> void countPerSecond(int[] perSecond, long firstSecond, List<T> records, ToLongFunction<T> disTimestamp) {
+        if (records == null) {
+            return;
         }
-        
-        double peakPacketsPerSecond = (maxPacketsInInterval > 0 && intervalSeconds > 0) ? ((double) maxPacketsInInterval / intervalSeconds) : 0.0;
-        Instant peakIntervalStartUtc = Instant.ofEpochSecond(peakIntervalStartEpochSecond);
-        Instant peakIntervalEndUtc = peakIntervalStartUtc.plusSeconds(intervalSeconds);
-        
-        // Ensure the reported interval is within the overall query window
-        if(peakIntervalStartUtc.isBefore(windowStartTimeUtc)){
-             peakIntervalStartUtc = windowStartTimeUtc;
-        }
-        if(peakIntervalEndUtc.isAfter(windowEndTimeUtc)){
-            peakIntervalEndUtc = windowEndTimeUtc;
+        for (T record : records) {
+            long index = fromDisAbsoluteTimestamp(disTimestamp.applyAsLong(record)) - firstSecond;
+            if (index >= 0 && index < perSecond.length) {
+                perSecond[(int) index]++;
+            }
         }
-        // Recalculate maxPacketsInInterval if the interval was clipped (more complex, omitted for now, assumes full minute peak is most relevant)
+    }
 
+    /**
+     * Busiest {@code acquisition.metrics.peak.window-seconds} window of the query window, sliding at
+     * {@code acquisition.metrics.peak.step-seconds}. The reported interval is exact (clipped to the query window) and
+     * the rate is the interval count over the full window length.
+     */
+    private AggregatedMetricsOverview.PeakLoadInfo calculatePeakLoad(int[] perSecond,
+                                                                     Instant windowStartTimeUtc,
+                                                                     Instant windowEndTimeUtc) {
+        SlidingWindowPeak.Peak peak = SlidingWindowPeak.find(perSecond, windowStartTimeUtc.getEpochSecond(),
+                peakWindowSeconds, peakStepSeconds);
+        if (peak == null) {
+            return new AggregatedMetricsOverview.PeakLoadInfo(0.0, windowStartTimeUtc, windowEndTimeUtc, 0);
+        }
         return new AggregatedMetricsOverview.PeakLoadInfo(
-                peakPacketsPerSecond,
-                peakIntervalStartUtc,
-                peakIntervalEndUtc,
-                maxPacketsInInterval // This count is for the full bucket, not potentially clipped interval
+                (double) peak.count() / peakWindowSeconds,
+                Instant.ofEpochSecond(peak.startEpochSecond()),
+                Instant.ofEpochSecond(peak.endEpochSecond()),
+                peak.count()
         );
     }
 
     // --- New method for fetching all PDU logs within a time range ---
     public PduLogResponse getAllPduLogs(Long startTime, Long endTime) {
-        log.info("Fetching all PDU logs between DIS TS: {} and {}", startTime, endTime);
+        return getPduLogs(startTime, endTime, EnumSet.allOf(PduType.class), null);
+    }
+
+    /**
+     * PDU log entries of the window restricted to {@code types} and, when {@code entity} is not null, to PDUs
+     * originated by that entity. Tables of unselected types are not read; types without an originating entity are
+     * skipped under an entity filter, and the others are read through their (entity, timestamp) index.
+     */
+    public PduLogResponse getPduLogs(Long startTime, Long endTime, Set<PduType> types, DisEntityId entity) {
+        log.info("Fetching PDU logs between DIS TS: {} and {} for types {}{}", startTime, endTime, types,
+                entity != null ? " and entity " + entity : "");
         
         List<PduLogResponse.PduLogEntry> pduMessages = new ArrayList<>();
-        
-        // Fetch all PDU types within the time range
-        List<EntityStateRecord> entityStates = entityStateRepository.findByTimestampBetween(startTime, endTime);
-        List<FireEventRecord> fireEvents = fireEventRepository.findByTimestampBetween(startTime, endTime);
-        List<CollisionRecord> collisionEvents = collisionRepository.findByTimestampBetween(startTime, endTime);
-        List<DetonationRecord> detonationEvents = detonationRepository.findByTimestampBetween(startTime, endTime);
-        List<DataPduRecord> dataPduEvents = dataPduRepository.findByTimestampBetween(startTime, endTime);
-        List<ActionRequestPduRecord> actionRequestEvents = actionRequestPduRepository.findByTimestampBetween(startTime, endTime);
-        List<StartResumePduRecord> startResumeEvents = startResumePduRepository.findByTimestampBetween(startTime, endTime);
-        List<SetDataPduRecord> setDataEvents = setDataPduRepository.findByTimestampBetween(startTime, endTime);
-        List<DesignatorPduRecord> designatorEvents = designatorPduRepository.findByTimestampBetween(startTime, endTime);
-        List<ElectromagneticEmissionsPduRecord> electromagneticEmissionsEvents = electromagneticEmissionsPduRepository.findByTimestampBetween(startTime, endTime);
-        
-        // Convert EntityState records
-        if (entityStates != null) {
-            for (EntityStateRecord record : entityStates) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("site", record.getSite());
-                recordDetails.put("application", record.getApplication());
-                recordDetails.put("entity", record.getEntity());
-                recordDetails.put("locationX", record.getLocationX());
-                recordDetails.put("locationY", record.getLocationY());
-                recordDetails.put("locationZ", record.getLocationZ());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "EntityState",
-                    calculatePduLength("EntityState", recordDetails),
-                    recordDetails
-                ));
-            }
-        }
-        
-        // Convert FireEvent records
-        if (fireEvents != null) {
-            for (FireEventRecord record : fireEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("firingSite", record.getFiringSite());
-                recordDetails.put("firingApplication", record.getFiringApplication());
-                recordDetails.put("firingEntity", record.getFiringEntity());
-                recordDetails.put("targetSite", record.getTargetSite());
-                recordDetails.put("targetApplication", record.getTargetApplication());
-                recordDetails.put("targetEntity", record.getTargetEntity());
-                recordDetails.put("munitionSite", record.getMunitionSite());
-                recordDetails.put("munitionApplication", record.getMunitionApplication());
-                recordDetails.put("munitionEntity", record.getMunitionEntity());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "FireEvent",
-                    calculatePduLength("FireEvent", recordDetails),
-                    recordDetails
-                ));
-            }
-        }
-        
-        // Convert Collision records
-        if (collisionEvents != null) {
-            for (CollisionRecord record : collisionEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("issuingSite", record.getIssuingSite());
-                recordDetails.put("issuingApplication", record.getIssuingApplication());
-                recordDetails.put("issuingEntity", record.getIssuingEntity());
-                recordDetails.put("collidingSite", record.getCollidingSite());
-                recordDetails.put("collidingApplication", record.getCollidingApplication());
-                recordDetails.put("collidingEntity", record.getCollidingEntity());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "Collision",
-                    calculatePduLength("Collision", recordDetails),
-                    recordDetails
-                ));
+        Set<PduType> selected = EnumSet.noneOf(PduType.class);
+        for (PduType type : types) {
+            if (entity == null || type.hasOriginatingEntity()) {
+                selected.add(type);
             }
         }
-        
-        // Convert Detonation records
-        if (detonationEvents != null) {
-            for (DetonationRecord record : detonationEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("firingSite", record.getFiringSite());
-                recordDetails.put("firingApplication", record.getFiringApplication());
-                recordDetails.put("firingEntity", record.getFiringEntity());
-                recordDetails.put("targetSite", record.getTargetSite());
-                recordDetails.put("targetApplication", record.getTargetApplication());
-                recordDetails.put("targetEntity", record.getTargetEntity());
-                recordDetails.put("locationX", record.getLocationX());
-                recordDetails.put("locationY", record.getLocationY());
-                recordDetails.put("locationZ", record.getLocationZ());
-                recordDetails.put("timestamp", record.getTimestamp());
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "Detonation",
-                    calculatePduLength("Detonation", recordDetails),
-                    recordDetails
-                ));
+
+        if (consolidatedStorage) {
+            // Single scan over pdu_event, already in timestamp order
+            List<PduEventRecord> events;
+            if (entity != null) {
+                events = pduEventRepository.findByPduTypeInAndSiteAndApplicationAndEntityAndTimestampBetweenOrderByTimestampAsc(
+                        disCodes(selected), entity.site(), entity.application(), entity.entity(), startTime, endTime);
+            } else if (selected.size() < PduType.values().length) {
+                events = pduEventRepository.findByPduTypeInAndTimestampBetweenOrderByTimestampAsc(disCodes(selected), startTime, endTime);
+            } else {
+                events = pduEventRepository.findByTimestampBetweenOrderByTimestampAsc(startTime, endTime);
             }
-        }
-        
-        // Convert DataPdu records
-        if (dataPduEvents != null) {
-            for (DataPduRecord record : dataPduEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("originatingSite", record.getOriginatingSite());
-                recordDetails.put("originatingApplication", record.getOriginatingApplication());
-                recordDetails.put("originatingEntity", record.getOriginatingEntity());
-                recordDetails.put("receivingSite", record.getReceivingSite());
-                recordDetails.put("receivingApplication", record.getReceivingApplication());
-                recordDetails.put("receivingEntity", record.getReceivingEntity());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "DataPdu",
-                    calculatePduLength("DataPdu", recordDetails),
-                    recordDetails
-                ));
+            long mappingStart = System.nanoTime();
+            for (PduEventRecord event : events) {
+                pduMessages.add(toLogEntry(PduEventCodec.decode(event)));
             }
+            recordLogMapping(mappingStart, pduMessages.size());
+            log.info("Returning {} PDU log entries", pduMessages.size());
+            return new PduLogResponse(pduMessages);
         }
         
-        // Convert ActionRequest records
-        if (actionRequestEvents != null) {
-            for (ActionRequestPduRecord record : actionRequestEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("originatingSite", record.getOriginatingSite());
-                recordDetails.put("originatingApplication", record.getOriginatingApplication());
-                recordDetails.put("originatingEntity", record.getOriginatingEntity());
-                recordDetails.put("receivingSite", record.getReceivingSite());
-                recordDetails.put("receivingApplication", record.getReceivingApplication());
-                recordDetails.put("receivingEntity", record.getReceivingEntity());
-                recordDetails.put("timestamp", record.getTimestamp());
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "ActionRequest",
-                    calculatePduLength("ActionRequest", recordDetails),
-                    recordDetails
-                ));
-            }
+        // Fetch the selected PDU types within the time range, in PduType order
+        List<List<?>> records = new ArrayList<>();
+        for (PduType type : selected) {
+            records.add(entity != null ? logRecordsOf(type, entity, startTime, endTime) : logRecords(type, startTime, endTime));
         }
+        long mappingStart = System.nanoTime();
         
-        // Convert StartResume records
-        if (startResumeEvents != null) {
-            for (StartResumePduRecord record : startResumeEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("hour", record.getHour());
-                recordDetails.put("timePastHour", record.getTimePastHour());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "StartResume",
-                    calculatePduLength("StartResume", recordDetails),
-                    recordDetails
-                ));
-            }
+        for (List<?> typeRecords : records) {
+            addLogEntries(pduMessages, typeRecords);
         }
         
-        // Convert SetData records
-        if (setDataEvents != null) {
-            for (SetDataPduRecord record : setDataEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("originatingSite", record.getOriginatingSite());
-                recordDetails.put("originatingApplication", record.getOriginatingApplication());
-                recordDetails.put("originatingEntity", record.getOriginatingEntity());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "SetData",
-                    calculatePduLength("SetData", recordDetails),
-                    recordDetails
-                ));
-            }
-        }
-        
-        // Convert Designator records
-        if (designatorEvents != null) {
-            for (DesignatorPduRecord record : designatorEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("designatingSite", record.getDesignatingSite());
-                recordDetails.put("designatingApplication", record.getDesignatingApplication());
-                recordDetails.put("designatingEntity", record.getDesignatingEntity());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "Designator",
-                    calculatePduLength("Designator", recordDetails),
-                    recordDetails
-                ));
+        recordLogMapping(mappingStart, pduMessages.size());
+        log.info("Returning {} PDU log entries", pduMessages.size());
+        return new PduLogResponse(pduMessages);
+    }
+
+    /**
+     * Records of {@code type} in the DIS timestamp window (both ends inclusive), read over the id range the time-to-id
+     * index maps it to (every id when the index is disabled). {@code T} is the record class of the type, e.g.
+     * {@link EntityStateRecord}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> findRecords(PduType type, Long startTime, Long endTime) {
+        return (List<T>) logRecords(type, startTime, endTime);
+    }
+
+    /**
+     * Records of {@code type} in the DIS timestamp window with ids in {@code range}, e.g.
+     * {@link PduIdIndexService.IdRange#after} for the rows written behind an already read window.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> findRecords(PduType type, PduIdIndexService.IdRange range, Long startTime, Long endTime) {
+        return (List<T>) recordsInRange(type, range, startTime, endTime);
+    }
+
+    private List<?> logRecords(PduType type, Long startTime, Long endTime) {
+        return recordsInRange(type, PduIdIndexService.idRange(pduIdIndexService, type,
+                fromDisAbsoluteTimestamp(startTime), fromDisAbsoluteTimestamp(endTime)), startTime, endTime);
+    }
+
+    private List<?> recordsInRange(PduType type, PduIdIndexService.IdRange range, Long startTime, Long endTime) {
+        long fromId = range.fromId();
+        long toId = range.toId();
+        long tailAfterId = range.tailAfterId();
+        return switch (type) {
+            case ENTITY_STATE -> entityStateRepository.findByIdRangeAndTimestampBetween(fromId, toId, tailAfterId, startTime, endTime);
+            case FIRE_EVENT -> fireEventRepository.findByIdRangeAndTimestampBetween(fromId, toId, tailAfterId, startTime, endTime);
+            case COLLISION -> collisionRepository.findByIdRangeAndTimestampBetween(fromId, toId, tailAfterId, startTime, endTime);
+            case DETONATION -> detonationRepository.findByIdRangeAndTimestampBetween(fromId, toId, tailAfterId, startTime, endTime);
+            case DATA_PDU -> dataPduRepository.findByIdRangeAndTimestampBetween(fromId, toId, tailAfterId, startTime, endTime);
+            case ACTION_REQUEST -> actionRequestPduRepository.findByIdRangeAndTimestampBetween(
+                    fromId, toId, tailAfterId, startTime, endTime);
+            case START_RESUME -> startResumePduRepository.findByIdRangeAndTimestampBetween(
+                    fromId, toId, tailAfterId, startTime, endTime);
+            case SET_DATA -> setDataPduRepository.findByIdRangeAndTimestampBetween(fromId, toId, tailAfterId, startTime, endTime);
+            case DESIGNATOR -> designatorPduRepository.findByIdRangeAndTimestampBetween(
+                    fromId, toId, tailAfterId, startTime, endTime);
+            case ELECTROMAGNETIC_EMISSIONS -> electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(
+                    fromId, toId, tailAfterId, startTime, endTime);
+        };
+    }
+
+    private List<?> logRecordsOf(PduType type, DisEntityId entity, Long startTime, Long endTime) {
+        int site = entity.site();
+        int application = entity.application();
+        int id = entity.entity();
+        return switch (type) {
+            case ENTITY_STATE -> entityStateRepository.findBySiteAndApplicationAndEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case FIRE_EVENT -> fireEventRepository.findByFiringSiteAndFiringApplicationAndFiringEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case COLLISION -> collisionRepository.findByIssuingSiteAndIssuingApplicationAndIssuingEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case DETONATION -> detonationRepository.findByFiringSiteAndFiringApplicationAndFiringEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case DATA_PDU -> dataPduRepository.findByOriginatingSiteAndOriginatingApplicationAndOriginatingEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case ACTION_REQUEST -> actionRequestPduRepository
+                    .findByOriginatingSiteAndOriginatingApplicationAndOriginatingEntityAndTimestampBetween(
+                            site, application, id, startTime, endTime);
+            case SET_DATA -> setDataPduRepository.findByOriginatingSiteAndOriginatingApplicationAndOriginatingEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case DESIGNATOR -> designatorPduRepository.findByDesignatingSiteAndDesignatingApplicationAndDesignatingEntityAndTimestampBetween(
+                    site, application, id, startTime, endTime);
+            case ELECTROMAGNETIC_EMISSIONS -> electromagneticEmissionsPduRepository
+                    .findByEmittingSiteAndEmittingApplicationAndEmittingEntityAndTimestampBetween(site, application, id, startTime, endTime);
+            case START_RESUME -> throw new IllegalArgumentException("StartResume PDUs have no originating entity");
+        };
+    }
+
+    private static List<Short> disCodes(Set<PduType> types) {
+        return types.stream().map(PduType::getDisCode).toList();
+    }
+
+    private void addLogEntries(List<PduLogResponse.PduLogEntry> pduMessages, List<?> records) {
+        if (records != null) {
+            for (Object record : records) {
+                pduMessages.add(toLogEntry(record));
             }
         }
-        
-        // Convert ElectromagneticEmissions records
-        if (electromagneticEmissionsEvents != null) {
-            for (ElectromagneticEmissionsPduRecord record : electromagneticEmissionsEvents) {
-                Map<String, Object> recordDetails = new HashMap<>();
-                recordDetails.put("emittingSite", record.getEmittingSite());
-                recordDetails.put("emittingApplication", record.getEmittingApplication());
-                recordDetails.put("emittingEntity", record.getEmittingEntity());
-                recordDetails.put("timestamp", record.getTimestamp()); // Keep original DIS timestamp for compatibility
-                recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(record.getTimestamp())); // Unix epoch seconds
-                recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(record.getTimestamp())))); // Human readable
-                
-                pduMessages.add(new PduLogResponse.PduLogEntry(
-                    record.getId(),
-                    "ElectromagneticEmissions",
-                    calculatePduLength("ElectromagneticEmissions", recordDetails),
-                    recordDetails
-                ));
-            }
+    }
+
+    private static void recordLogMapping(long mappingStart, int entries) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.record("compute.logMapping", System.nanoTime() - mappingStart, entries);
         }
-        
-        log.info("Returning {} PDU log entries", pduMessages.size());
-        return new PduLogResponse(pduMessages);
     }
-    
-    // Helper method to calculate PDU length based on type and content
-    private int calculatePduLength(String pduType, Map<String, Object> recordDetails) {
-        // Base PDU header length (common to all PDUs)
-        int baseLength = 12; // PDU header
-        
-        switch (pduType) {
-            case "EntityState":
-                return baseLength + 144; // EntityState PDU typical length
-            case "FireEvent":
-                return baseLength + 96; // Fire PDU typical length
-            case "Collision":
-                return baseLength + 56; // Collision PDU typical length
-            case "Detonation":
-                return baseLength + 104; // Detonation PDU typical length
-            case "DataPdu":
-                return baseLength + 64; // Data PDU typical length
-            case "ActionRequest":
-                return baseLength + 64; // Action Request PDU typical length
-            case "StartResume":
-                return baseLength + 40; // Start/Resume PDU typical length
-            case "SetData":
-                return baseLength + 32; // Set Data PDU typical length
-            case "Designator":
-                return baseLength + 88; // Designator PDU typical length
-            case "ElectromagneticEmissions":
-                return baseLength + 72; // Electromagnetic Emissions PDU typical length
-            default:
-                return baseLength + 32; // Default length for unknown PDU types
+
+    // --- Conversion of individual records into PDU log entries ---
+    PduLogResponse.PduLogEntry toLogEntry(Object record) {
+        if (record instanceof EntityStateRecord entityState) {
+            return toLogEntry(entityState);
+        } else if (record instanceof FireEventRecord fireEvent) {
+            return toLogEntry(fireEvent);
+        } else if (record instanceof CollisionRecord collision) {
+            return toLogEntry(collision);
+        } else if (record instanceof DetonationRecord detonation) {
+            return toLogEntry(detonation);
+        } else if (record instanceof DataPduRecord dataPdu) {
+            return toLogEntry(dataPdu);
+        } else if (record instanceof ActionRequestPduRecord actionRequest) {
+            return toLogEntry(actionRequest);
+        } else if (record instanceof StartResumePduRecord startResume) {
+            return toLogEntry(startResume);
+        } else if (record instanceof SetDataPduRecord setData) {
+            return toLogEntry(setData);
+        } else if (record instanceof DesignatorPduRecord designator) {
+            return toLogEntry(designator);
+        } else if (record instanceof ElectromagneticEmissionsPduRecord emissions) {
+            return toLogEntry(emissions);
         }
+        throw new IllegalArgumentException("Unsupported PDU record: " + record);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(EntityStateRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("site", record.getSite());
+        recordDetails.put("application", record.getApplication());
+        recordDetails.put("entity", record.getEntity());
+        recordDetails.put("locationX", record.getLocationX());
+        recordDetails.put("locationY", record.getLocationY());
+        recordDetails.put("locationZ", record.getLocationZ());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "EntityState", DisPduLayout.length(PduType.ENTITY_STATE), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(FireEventRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("firingSite", record.getFiringSite());
+        recordDetails.put("firingApplication", record.getFiringApplication());
+        recordDetails.put("firingEntity", record.getFiringEntity());
+        recordDetails.put("targetSite", record.getTargetSite());
+        recordDetails.put("targetApplication", record.getTargetApplication());
+        recordDetails.put("targetEntity", record.getTargetEntity());
+        recordDetails.put("munitionSite", record.getMunitionSite());
+        recordDetails.put("munitionApplication", record.getMunitionApplication());
+        recordDetails.put("munitionEntity", record.getMunitionEntity());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "FireEvent", DisPduLayout.length(PduType.FIRE_EVENT), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(CollisionRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("issuingSite", record.getIssuingSite());
+        recordDetails.put("issuingApplication", record.getIssuingApplication());
+        recordDetails.put("issuingEntity", record.getIssuingEntity());
+        recordDetails.put("collidingSite", record.getCollidingSite());
+        recordDetails.put("collidingApplication", record.getCollidingApplication());
+        recordDetails.put("collidingEntity", record.getCollidingEntity());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "Collision", DisPduLayout.length(PduType.COLLISION), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(DetonationRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("firingSite", record.getFiringSite());
+        recordDetails.put("firingApplication", record.getFiringApplication());
+        recordDetails.put("firingEntity", record.getFiringEntity());
+        recordDetails.put("targetSite", record.getTargetSite());
+        recordDetails.put("targetApplication", record.getTargetApplication());
+        recordDetails.put("targetEntity", record.getTargetEntity());
+        recordDetails.put("locationX", record.getLocationX());
+        recordDetails.put("locationY", record.getLocationY());
+        recordDetails.put("locationZ", record.getLocationZ());
+        recordDetails.put("timestamp", record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "Detonation", DisPduLayout.length(PduType.DETONATION), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(DataPduRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("originatingSite", record.getOriginatingSite());
+        recordDetails.put("originatingApplication", record.getOriginatingApplication());
+        recordDetails.put("originatingEntity", record.getOriginatingEntity());
+        recordDetails.put("receivingSite", record.getReceivingSite());
+        recordDetails.put("receivingApplication", record.getReceivingApplication());
+        recordDetails.put("receivingEntity", record.getReceivingEntity());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "DataPdu", DisPduLayout.length(PduType.DATA_PDU), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(ActionRequestPduRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("originatingSite", record.getOriginatingSite());
+        recordDetails.put("originatingApplication", record.getOriginatingApplication());
+        recordDetails.put("originatingEntity", record.getOriginatingEntity());
+        recordDetails.put("receivingSite", record.getReceivingSite());
+        recordDetails.put("receivingApplication", record.getReceivingApplication());
+        recordDetails.put("receivingEntity", record.getReceivingEntity());
+        recordDetails.put("timestamp", record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "ActionRequest", DisPduLayout.length(PduType.ACTION_REQUEST), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(StartResumePduRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("hour", record.getHour());
+        recordDetails.put("timePastHour", record.getTimePastHour());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "StartResume", DisPduLayout.length(PduType.START_RESUME), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(SetDataPduRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("originatingSite", record.getOriginatingSite());
+        recordDetails.put("originatingApplication", record.getOriginatingApplication());
+        recordDetails.put("originatingEntity", record.getOriginatingEntity());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "SetData", DisPduLayout.length(PduType.SET_DATA), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(DesignatorPduRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("designatingSite", record.getDesignatingSite());
+        recordDetails.put("designatingApplication", record.getDesignatingApplication());
+        recordDetails.put("designatingEntity", record.getDesignatingEntity());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "Designator", DisPduLayout.length(PduType.DESIGNATOR), recordDetails);
+    }
+
+    private PduLogResponse.PduLogEntry toLogEntry(ElectromagneticEmissionsPduRecord record) {
+        Map<String, Object> recordDetails = new HashMap<>();
+        recordDetails.put("emittingSite", record.getEmittingSite());
+        recordDetails.put("emittingApplication", record.getEmittingApplication());
+        recordDetails.put("emittingEntity", record.getEmittingEntity());
+        putTimestamps(recordDetails, record.getTimestamp());
+        return new PduLogResponse.PduLogEntry(record.getId(), "ElectromagneticEmissions", DisPduLayout.length(PduType.ELECTROMAGNETIC_EMISSIONS), recordDetails);
+    }
+
+    private static void putTimestamps(Map<String, Object> recordDetails, long disTimestamp) {
+        recordDetails.put("timestamp", disTimestamp); // Keep original DIS timestamp for compatibility
+        recordDetails.put("timestampEpoch", fromDisAbsoluteTimestamp(disTimestamp)); // Unix epoch seconds
+        recordDetails.put("timestampHuman", formatInstant(Instant.ofEpochSecond(fromDisAbsoluteTimestamp(disTimestamp)))); // Human readable
     }
 }
\ No newline at end of file
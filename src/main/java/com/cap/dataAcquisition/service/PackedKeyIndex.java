@@ -0,0 +1,83 @@
+package com.cap.dataAcquisition.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a packed entity key ({@link LatestEntityStateService#packKey}) to a dense slot number
+ * 0, 1, 2, ... in first-seen order, so per-entity state can live in parallel primitive arrays instead of one boxed
+ * object per entity. Keys must be non-negative.
+ */
+final class PackedKeyIndex {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] slots;
+    private long[] slotKeys;
+    private int size;
+
+    PackedKeyIndex(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys * 2 - 1)) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[capacity];
+        slotKeys = new long[Math.max(16, expectedKeys)];
+    }
+
+    /** Returns the slot of {@code key}, assigning the next free one the first time the key is seen. */
+    int slotOf(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slots[i];
+            }
+            if (keys[i] == EMPTY) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    return slotOf(key);
+                }
+                keys[i] = key;
+                slots[i] = size;
+                if (size == slotKeys.length) {
+                    slotKeys = Arrays.copyOf(slotKeys, size * 2);
+                }
+                slotKeys[size] = key;
+                return size++;
+            }
+        }
+    }
+
+    long keyOf(int slot) {
+        return slotKeys[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[oldSlots.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                slots[i] = oldSlots[j];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
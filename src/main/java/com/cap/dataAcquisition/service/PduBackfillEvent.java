@@ -0,0 +1,11 @@
+package com.cap.dataAcquisition.service;
+
+/**
+ * Published after PDU rows were written for times the rollups may already have closed (for example by a log import),
+ * so they can roll those times up again.
+ *
+ * @param fromEpochSeconds earliest row time written, inclusive
+ * @param toEpochSeconds   latest row time written, inclusive
+ */
+public record PduBackfillEvent(long fromEpochSeconds, long toEpochSeconds) {
+}
@@ -0,0 +1,124 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.RollupWatermark;
+import com.cap.dataAcquisition.repository.RollupWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Maintains {@code pdu_count_rollup}, the number of PDUs per type and UTC minute.
+ * <p>
+ * A minute is rolled up once it is older than {@code acquisition.rollup.lateness-seconds}; rows that arrive later
+ * than that for an already rolled-up minute are not reflected in the rollup. Work proceeds in chunks from the
+ * persisted watermark, each chunk being one {@code INSERT ... SELECT ... GROUP BY} over the ten PDU tables, so a
+ * restart resumes where it stopped and the first run backfills the full history. Each chunk reads only the id range
+ * {@link PduIdIndexService} maps it to, so it does not scan the tables by timestamp.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.rollup.enabled", havingValue = "true")
+public class PduCountRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(PduCountRollupService.class);
+
+    static final String WATERMARK_NAME = "pdu_count_rollup";
+
+    private static final String ROLLUP_SQL =
+            "INSERT INTO pdu_count_rollup (minute_epoch, pdu_type, count) " +
+            PduSql.unionAll(type -> "SELECT (" + PduSql.EPOCH_SECONDS + " / 60) * 60, " + type.getDisCode() + ", COUNT(*) " +
+                                    "FROM " + type.getTableName() + " WHERE " + PduSql.ID_RANGE +
+                                    " AND timestamp >= ? AND timestamp < ? GROUP BY 1") +
+            " ON CONFLICT (minute_epoch, pdu_type) DO UPDATE SET count = EXCLUDED.count";
+
+    // Timestamp of each table's first row by primary key; rows imported behind it rewind the watermark on their own
+    // (see onBackfill), so the backfill need not scan the tables for the smallest timestamp.
+    static final String EARLIEST_SQL =
+            "SELECT MIN(t) FROM (" + PduSql.unionAll(type -> "(SELECT " + PduSql.EPOCH_SECONDS + " AS t FROM " +
+                                                             type.getTableName() + " ORDER BY id LIMIT 1)") + ") m";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final PduIdIndexService pduIdIndexService;
+    private volatile long coveredUntil = -1;
+
+    @Value("${acquisition.rollup.lateness-seconds:120}")
+    private long latenessSeconds;
+
+    @Value("${acquisition.rollup.chunk-seconds:86400}")
+    private long chunkSeconds;
+
+    @Autowired
+    public PduCountRollupService(JdbcTemplate jdbcTemplate, RollupWatermarkRepository watermarkRepository,
+                                 @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.watermarkRepository = watermarkRepository;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /**
+     * Epoch second (minute aligned) before which the rollup is complete, or 0 when nothing has been rolled up yet.
+     */
+    public long getCoveredUntil() {
+        return Math.max(coveredUntil, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.rollup.interval-ms:10000}")
+    public void roll() {
+        try {
+            rollUpTo(Math.floorDiv(Instant.now().getEpochSecond() - latenessSeconds, 60) * 60);
+        } catch (RuntimeException e) {
+            log.error("PDU count rollup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    synchronized void rollUpTo(long closedUntil) {
+        long from = coveredUntil >= 0 ? coveredUntil : loadWatermark(closedUntil);
+        while (from < closedUntil) {
+            long to = Math.min(closedUntil, from + chunkSeconds);
+            jdbcTemplate.update(ROLLUP_SQL, PduSql.perTableIdRangeArgs(pduIdIndexService, from, to - 1,
+                    MetricsService.toDisAbsoluteTimestamp(from), MetricsService.toDisAbsoluteTimestamp(to)));
+            saveWatermark(to);
+            from = to;
+        }
+    }
+
+    /** Moves the watermark back so rows written behind it (see {@link PduBackfillEvent}) are rolled up again. */
+    @EventListener
+    public synchronized void onBackfill(PduBackfillEvent event) {
+        long from = Math.floorDiv(event.fromEpochSeconds(), 60) * 60;
+        long current = coveredUntil >= 0 ? coveredUntil : loadWatermark(from);
+        if (from < current) {
+            log.info("Rewinding PDU count rollup to {} after a backfill", MetricsService.formatInstant(Instant.ofEpochSecond(from)));
+            saveWatermark(from);
+        }
+    }
+
+    private long loadWatermark(long closedUntil) {
+        long start = watermarkRepository.findById(WATERMARK_NAME)
+                .map(RollupWatermark::getCoveredUntil)
+                .orElseGet(() -> {
+                    Long earliest = jdbcTemplate.queryForObject(EARLIEST_SQL, Long.class);
+                    long first = earliest != null ? Math.floorDiv(earliest, 60) * 60 : closedUntil;
+                    log.info("Backfilling PDU count rollup from {}", MetricsService.formatInstant(Instant.ofEpochSecond(first)));
+                    return first;
+                });
+        coveredUntil = start;
+        return start;
+    }
+
+    private void saveWatermark(long to) {
+        RollupWatermark watermark = new RollupWatermark();
+        watermark.setName(WATERMARK_NAME);
+        watermark.setCoveredUntil(to);
+        watermarkRepository.save(watermark);
+        coveredUntil = to;
+    }
+}
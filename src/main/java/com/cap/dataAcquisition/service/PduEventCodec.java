@@ -0,0 +1,198 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.ActionRequestPduRecord;
+import com.cap.dataAcquisition.model.CollisionRecord;
+import com.cap.dataAcquisition.model.DataPduRecord;
+import com.cap.dataAcquisition.model.DesignatorPduRecord;
+import com.cap.dataAcquisition.model.DetonationRecord;
+import com.cap.dataAcquisition.model.ElectromagneticEmissionsPduRecord;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.model.FireEventRecord;
+import com.cap.dataAcquisition.model.PduEventRecord;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.SetDataPduRecord;
+import com.cap.dataAcquisition.model.StartResumePduRecord;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Payload layout of {@link PduEventRecord}, kept in one place for both directions.
+ * <p>
+ * Payloads are big-endian so the consolidation SQL can build them with PostgreSQL's {@code int4send}/{@code float8send}:
+ * <ul>
+ *   <li>EntityState: locationX, locationY, locationZ (3 x float8)</li>
+ *   <li>FireEvent: target triple, munition triple (6 x int4)</li>
+ *   <li>Collision: colliding triple (3 x int4)</li>
+ *   <li>Detonation: target triple (3 x int4), location (3 x float8)</li>
+ *   <li>DataPdu / ActionRequest: receiving triple (3 x int4)</li>
+ *   <li>StartResume: hour, timePastHour (2 x int4)</li>
+ *   <li>SetData / Designator / ElectromagneticEmissions: no payload</li>
+ * </ul>
+ */
+public final class PduEventCodec {
+
+    private PduEventCodec() {
+    }
+
+    // --- SQL used by the consolidation job ---
+
+    /**
+     * Returns an {@code INSERT ... SELECT} that copies the rows with {@code ?1 < id <= ?2} from the per-type table into
+     * {@code pdu_event}. Re-running it for the same ids is a no-op thanks to the (pdu_type, source_id) key.
+     */
+    public static String consolidationSql(PduType type) {
+        String entityColumns = type.hasOriginatingEntity()
+                ? type.getSiteColumn() + ", " + type.getApplicationColumn() + ", " + type.getEntityColumn()
+                : "0, 0, 0";
+        return "INSERT INTO pdu_event (pdu_type, source_id, site, application, entity, timestamp, payload) " +
+               "SELECT " + type.getDisCode() + ", id, " + entityColumns + ", timestamp, " + payloadSql(type) +
+               " FROM " + type.getTableName() + " WHERE id > ? AND id <= ? " +
+               "ON CONFLICT (pdu_type, source_id) DO NOTHING";
+    }
+
+    static String payloadSql(PduType type) {
+        switch (type) {
+            case ENTITY_STATE:
+                return "float8send(locationx) || float8send(locationy) || float8send(locationz)";
+            case FIRE_EVENT:
+                return "int4send(target_site) || int4send(target_application) || int4send(target_entity) || " +
+                       "int4send(munition_site) || int4send(munition_application) || int4send(munition_entity)";
+            case COLLISION:
+                return "int4send(colliding_site) || int4send(colliding_application) || int4send(colliding_entity)";
+            case DETONATION:
+                return "int4send(target_site) || int4send(target_application) || int4send(target_entity) || " +
+                       "float8send(locationx) || float8send(locationy) || float8send(locationz)";
+            case DATA_PDU:
+            case ACTION_REQUEST:
+                return "int4send(receiving_site) || int4send(receiving_application) || int4send(receiving_entity)";
+            case START_RESUME:
+                return "int4send(hour) || int4send(time_past_hour)";
+            default:
+                return "NULL";
+        }
+    }
+
+    // --- Decoding back into the per-type records ---
+
+    public static Object decode(PduEventRecord event) {
+        PduType type = PduType.fromDisCode(event.getPduType());
+        ByteBuffer payload = event.getPayload() != null ? ByteBuffer.wrap(event.getPayload()) : ByteBuffer.allocate(0);
+        switch (type) {
+            case ENTITY_STATE: {
+                EntityStateRecord record = new EntityStateRecord();
+                record.setId(event.getSourceId());
+                record.setSite(event.getSite());
+                record.setApplication(event.getApplication());
+                record.setEntity(event.getEntity());
+                record.setLocationX(payload.getDouble());
+                record.setLocationY(payload.getDouble());
+                record.setLocationZ(payload.getDouble());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case FIRE_EVENT: {
+                FireEventRecord record = new FireEventRecord();
+                record.setId(event.getSourceId());
+                record.setFiringSite(event.getSite());
+                record.setFiringApplication(event.getApplication());
+                record.setFiringEntity(event.getEntity());
+                record.setTargetSite(payload.getInt());
+                record.setTargetApplication(payload.getInt());
+                record.setTargetEntity(payload.getInt());
+                record.setMunitionSite(payload.getInt());
+                record.setMunitionApplication(payload.getInt());
+                record.setMunitionEntity(payload.getInt());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case COLLISION: {
+                CollisionRecord record = new CollisionRecord();
+                record.setId(event.getSourceId());
+                record.setIssuingSite(event.getSite());
+                record.setIssuingApplication(event.getApplication());
+                record.setIssuingEntity(event.getEntity());
+                record.setCollidingSite(payload.getInt());
+                record.setCollidingApplication(payload.getInt());
+                record.setCollidingEntity(payload.getInt());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case DETONATION: {
+                DetonationRecord record = new DetonationRecord();
+                record.setId(event.getSourceId());
+                record.setFiringSite(event.getSite());
+                record.setFiringApplication(event.getApplication());
+                record.setFiringEntity(event.getEntity());
+                record.setTargetSite(payload.getInt());
+                record.setTargetApplication(payload.getInt());
+                record.setTargetEntity(payload.getInt());
+                record.setLocationX(payload.getDouble());
+                record.setLocationY(payload.getDouble());
+                record.setLocationZ(payload.getDouble());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case DATA_PDU: {
+                DataPduRecord record = new DataPduRecord();
+                record.setId(event.getSourceId());
+                record.setOriginatingSite(event.getSite());
+                record.setOriginatingApplication(event.getApplication());
+                record.setOriginatingEntity(event.getEntity());
+                record.setReceivingSite(payload.getInt());
+                record.setReceivingApplication(payload.getInt());
+                record.setReceivingEntity(payload.getInt());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case ACTION_REQUEST: {
+                ActionRequestPduRecord record = new ActionRequestPduRecord();
+                record.setId(event.getSourceId());
+                record.setOriginatingSite(event.getSite());
+                record.setOriginatingApplication(event.getApplication());
+                record.setOriginatingEntity(event.getEntity());
+                record.setReceivingSite(payload.getInt());
+                record.setReceivingApplication(payload.getInt());
+                record.setReceivingEntity(payload.getInt());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case START_RESUME: {
+                StartResumePduRecord record = new StartResumePduRecord();
+                record.setId(event.getSourceId());
+                record.setHour(payload.getInt());
+                record.setTimePastHour(payload.getInt());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case SET_DATA: {
+                SetDataPduRecord record = new SetDataPduRecord();
+                record.setId(event.getSourceId());
+                record.setOriginatingSite(event.getSite());
+                record.setOriginatingApplication(event.getApplication());
+                record.setOriginatingEntity(event.getEntity());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case DESIGNATOR: {
+                DesignatorPduRecord record = new DesignatorPduRecord();
+                record.setId(event.getSourceId());
+                record.setDesignatingSite(event.getSite());
+                record.setDesignatingApplication(event.getApplication());
+                record.setDesignatingEntity(event.getEntity());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            case ELECTROMAGNETIC_EMISSIONS: {
+                ElectromagneticEmissionsPduRecord record = new ElectromagneticEmissionsPduRecord();
+                record.setId(event.getSourceId());
+                record.setEmittingSite(event.getSite());
+                record.setEmittingApplication(event.getApplication());
+                record.setEmittingEntity(event.getEntity());
+                record.setTimestamp(event.getTimestamp());
+                return record;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported PDU type: " + type);
+        }
+    }
+}
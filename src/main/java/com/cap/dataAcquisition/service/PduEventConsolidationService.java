@@ -0,0 +1,75 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.repository.PduEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps {@code pdu_event} in step with the ten per-type tables the ingestion service writes to.
+ * <p>
+ * Each run tails every table by id ({@link IdTail}) from the highest {@code source_id} already consolidated and copies
+ * new rows with set-based {@code INSERT ... SELECT} statements, so no rows travel through the JVM. The insert is
+ * idempotent, so re-reading the tail's overlap costs an index probe per row and nothing more.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.storage.consolidated.enabled", havingValue = "true")
+public class PduEventConsolidationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PduEventConsolidationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduEventRepository pduEventRepository;
+    private final Map<PduType, IdTail> tails = new EnumMap<>(PduType.class);
+
+    @Value("${acquisition.storage.consolidation.batch-size:50000}")
+    private int batchSize;
+
+    @Value("${acquisition.storage.consolidation.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public PduEventConsolidationService(JdbcTemplate jdbcTemplate, PduEventRepository pduEventRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduEventRepository = pduEventRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.storage.consolidation.interval-ms:2000}")
+    public void consolidate() {
+        for (PduType type : PduType.values()) {
+            try {
+                consolidate(type);
+            } catch (RuntimeException e) {
+                log.error("Consolidation of {} into pdu_event failed: {}", type, e.getMessage(), e);
+            }
+        }
+    }
+
+    int consolidate(PduType type) {
+        IdTail tail = tails.computeIfAbsent(type, t -> {
+            Long maxSourceId = pduEventRepository.findMaxSourceId(t.getDisCode());
+            IdTail consolidated = new IdTail(idOverlap);
+            consolidated.reset(maxSourceId != null ? maxSourceId : 0L);
+            return consolidated;
+        });
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + type.getTableName(), Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+        String sql = PduEventCodec.consolidationSql(type);
+        long total = tail.forEachRange(maxId, batchSize, (from, to) -> jdbcTemplate.update(sql, from, to));
+        if (total > 0) {
+            log.debug("Consolidated {} {} rows into pdu_event (watermark id {})", total, type.getLogName(), maxId);
+        }
+        return (int) total;
+    }
+}
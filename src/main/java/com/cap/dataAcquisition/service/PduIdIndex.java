@@ -0,0 +1,67 @@
+package com.cap.dataAcquisition.service;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sparse per-minute map from time to the ids of one PDU table: for every minute that has rows, the smallest and
+ * largest id whose timestamp falls in it.
+ * <p>
+ * Ids normally grow with time, but imported or late rows do not, so a window is mapped to the smallest and largest id
+ * over all of its minutes rather than to the first id of its first minute. Minutes are stored in one pair of primitive
+ * arrays per UTC day that has data, so a stray far-off timestamp costs one day page, not an array spanning the gap.
+ */
+final class PduIdIndex {
+
+    static final int MINUTES_PER_DAY = 1440;
+
+    private final NavigableMap<Long, long[][]> days = new TreeMap<>(); // day -> {minIds, maxIds}, 0 = no rows
+    private long minutes;
+
+    /** Widens the id bounds of the minute containing {@code minuteEpochSeconds}. */
+    synchronized void merge(long minuteEpochSeconds, long minId, long maxId) {
+        long minute = Math.floorDiv(minuteEpochSeconds, 60);
+        long[][] page = days.computeIfAbsent(Math.floorDiv(minute, MINUTES_PER_DAY),
+                day -> new long[][]{new long[MINUTES_PER_DAY], new long[MINUTES_PER_DAY]});
+        int slot = (int) Math.floorMod(minute, MINUTES_PER_DAY);
+        if (page[0][slot] == 0) {
+            minutes++;
+            page[0][slot] = minId;
+            page[1][slot] = maxId;
+        } else {
+            page[0][slot] = Math.min(page[0][slot], minId);
+            page[1][slot] = Math.max(page[1][slot], maxId);
+        }
+    }
+
+    /**
+     * Returns {smallest id, largest id} over the minutes overlapping {@code [fromEpochSeconds, toEpochSeconds]}, or
+     * {@code {1, 0}} (an empty range) when none of them has rows.
+     */
+    synchronized long[] idRange(long fromEpochSeconds, long toEpochSeconds) {
+        long fromMinute = Math.floorDiv(fromEpochSeconds, 60);
+        long toMinute = Math.floorDiv(toEpochSeconds, 60);
+        long lowest = Long.MAX_VALUE;
+        long highest = 0;
+        for (Map.Entry<Long, long[][]> day : days.subMap(Math.floorDiv(fromMinute, MINUTES_PER_DAY), true,
+                Math.floorDiv(toMinute, MINUTES_PER_DAY), true).entrySet()) {
+            long firstMinute = day.getKey() * MINUTES_PER_DAY;
+            int fromSlot = (int) Math.max(0, fromMinute - firstMinute);
+            int toSlot = (int) Math.min(MINUTES_PER_DAY - 1, toMinute - firstMinute);
+            long[] minIds = day.getValue()[0];
+            long[] maxIds = day.getValue()[1];
+            for (int slot = fromSlot; slot <= toSlot; slot++) {
+                if (minIds[slot] != 0) {
+                    lowest = Math.min(lowest, minIds[slot]);
+                    highest = Math.max(highest, maxIds[slot]);
+                }
+            }
+        }
+        return highest == 0 ? new long[]{1, 0} : new long[]{lowest, highest};
+    }
+
+    synchronized long getMinutes() {
+        return minutes;
+    }
+}
@@ -0,0 +1,145 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps a {@link PduIdIndex} per PDU table so time windows can be read as primary-key range scans.
+ * <p>
+ * Each run tails every table by id, groups the new rows by minute and upserts the per-minute id bounds into
+ * {@code pdu_id_index}; the upsert returns the merged bounds, which are applied to the in-memory index as they are.
+ * The persisted table makes a restart cheap: it is loaded once and tailing ({@link IdTail}) resumes from its highest id;
+ * the upsert only widens bounds, so re-reading the tail's overlap is harmless.
+ * <p>
+ * {@link #idRange} turns a window into {@code id BETWEEN fromId AND toId OR id > tailAfterId}; callers keep the
+ * timestamp condition as a recheck. Rows above {@code tailAfterId} have not been indexed yet and are always included,
+ * so results stay exact while the tail catches up, including during the initial backfill.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.id-index.enabled", havingValue = "true")
+public class PduIdIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(PduIdIndexService.class);
+
+    private static final String LOAD_SQL = "SELECT pdu_type, minute_epoch, min_id, max_id FROM pdu_id_index";
+
+    /** An id range plus the not yet indexed tail; {@code fromId > toId} when no indexed minute of the window has rows. */
+    public record IdRange(long fromId, long toId, long tailAfterId) {
+
+        /** Every row; lets one statement serve both an enabled and a disabled index. */
+        public static final IdRange ALL = new IdRange(1L, 0L, 0L);
+
+        /** Every row with an id above {@code afterId}. */
+        public static IdRange after(long afterId) {
+            return new IdRange(1L, 0L, afterId);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<PduType, PduIdIndex> indexes = new EnumMap<>(PduType.class);
+    private final Map<PduType, IdTail> tails = new EnumMap<>(PduType.class);
+    private volatile boolean loaded;
+
+    @Value("${acquisition.id-index.batch-size:50000}")
+    private int batchSize;
+
+    @Value("${acquisition.id-index.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public PduIdIndexService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (PduType type : PduType.values()) {
+            indexes.put(type, new PduIdIndex());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        for (PduType type : PduType.values()) {
+            tails.put(type, new IdTail(idOverlap));
+        }
+    }
+
+    static String upsertSql(PduType type) {
+        return "INSERT INTO pdu_id_index (pdu_type, minute_epoch, min_id, max_id) " +
+               "SELECT " + type.getDisCode() + ", (" + PduSql.EPOCH_SECONDS + " / 60) * 60, MIN(id), MAX(id) FROM " +
+               type.getTableName() + " WHERE id > ? AND id <= ? GROUP BY 2 " +
+               "ON CONFLICT (pdu_type, minute_epoch) DO UPDATE SET min_id = LEAST(pdu_id_index.min_id, EXCLUDED.min_id), " +
+               "max_id = GREATEST(pdu_id_index.max_id, EXCLUDED.max_id) RETURNING minute_epoch, min_id, max_id";
+    }
+
+    // Before the startup seeds that read through the index
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void load() {
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            PduType type = PduType.fromDisCode(rs.getShort("pdu_type"));
+            long maxId = rs.getLong("max_id");
+            indexes.get(type).merge(rs.getLong("minute_epoch"), rs.getLong("min_id"), maxId);
+            tails.get(type).advanceTo(maxId);
+        });
+        loaded = true;
+        long minutes = indexes.values().stream().mapToLong(PduIdIndex::getMinutes).sum();
+        log.info("Loaded time-to-id index with {} minute buckets", minutes);
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.id-index.interval-ms:2000}")
+    public void refresh() {
+        if (!loaded) {
+            return;
+        }
+        for (PduType type : PduType.values()) {
+            try {
+                refresh(type);
+            } catch (RuntimeException e) {
+                log.error("Time-to-id index update for {} failed: {}", type, e.getMessage(), e);
+            }
+        }
+    }
+
+    synchronized void refresh(PduType type) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + type.getTableName(), Long.class);
+        if (maxId == null) {
+            return;
+        }
+        PduIdIndex index = indexes.get(type);
+        String sql = upsertSql(type);
+        tails.get(type).forEachRange(maxId, batchSize, (from, to) -> {
+            int[] minutes = {0};
+            jdbcTemplate.query(sql, rs -> {
+                index.merge(rs.getLong("minute_epoch"), rs.getLong("min_id"), rs.getLong("max_id"));
+                minutes[0]++;
+            }, from, to);
+            return minutes[0];
+        });
+    }
+
+    /** {@link #idRange} of {@code index}, or {@link IdRange#ALL} when the index is disabled ({@code index} is null). */
+    public static IdRange idRange(PduIdIndexService index, PduType type, long fromEpochSeconds, long toEpochSeconds) {
+        return index != null ? index.idRange(type, fromEpochSeconds, toEpochSeconds) : IdRange.ALL;
+    }
+
+    /** Id bounds of the rows of {@code type} with timestamps in {@code [fromEpochSeconds, toEpochSeconds]}. */
+    public IdRange idRange(PduType type, long fromEpochSeconds, long toEpochSeconds) {
+        // Read the tail first: the index only widens, so bounds read afterwards still cover everything below it
+        long tailAfterId = tails.get(type).from();
+        long[] bounds = indexes.get(type).idRange(fromEpochSeconds, toEpochSeconds);
+        return new IdRange(bounds[0], bounds[1], tailAfterId);
+    }
+}
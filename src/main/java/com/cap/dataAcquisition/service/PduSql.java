@@ -0,0 +1,62 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SQL fragments shared by the set-based queries that span the per-type PDU tables.
+ */
+final class PduSql {
+
+    /** Unix epoch seconds of a DIS absolute timestamp column (clears the absolute-time marker bit). */
+    static final String EPOCH_SECONDS = "(timestamp & 2147483647)";
+
+    /** Primary-key range of a {@link PduIdIndexService.IdRange}: from id, to id and tail-after id, in that order. */
+    static final String ID_RANGE = "(id BETWEEN ? AND ? OR id > ?)";
+
+    private PduSql() {
+    }
+
+    /** Joins one sub-select per PDU table with {@code UNION ALL}, in {@link PduType} declaration order. */
+    static String unionAll(Function<PduType, String> perTable) {
+        return Stream.of(PduType.values()).map(perTable).collect(Collectors.joining(" UNION ALL "));
+    }
+
+    /** Repeats {@code values} once per PDU table, matching the placeholders of a {@link #unionAll} query. */
+    static Object[] perTableArgs(Object... values) {
+        PduType[] types = PduType.values();
+        Object[] args = new Object[types.length * values.length];
+        for (int i = 0; i < types.length; i++) {
+            System.arraycopy(values, 0, args, i * values.length, values.length);
+        }
+        return args;
+    }
+
+    /**
+     * Concatenates the placeholder values {@code perTable} returns for each PDU table, in {@link PduType} declaration
+     * order, for {@link #unionAll} queries whose values differ per table.
+     */
+    static Object[] perTableArgs(Function<PduType, Object[]> perTable) {
+        return Stream.of(PduType.values()).map(perTable).flatMap(Stream::of).toArray();
+    }
+
+    /**
+     * Like {@link #perTableArgs}, each table's {@code values} preceded by the {@link #ID_RANGE} of the window
+     * {@code [fromEpochSeconds, toEpochSeconds]} in that table; {@code index} is null when the id index is disabled.
+     */
+    static Object[] perTableIdRangeArgs(PduIdIndexService index, long fromEpochSeconds, long toEpochSeconds,
+                                        Object... values) {
+        return perTableArgs(type -> {
+            PduIdIndexService.IdRange range = PduIdIndexService.idRange(index, type, fromEpochSeconds, toEpochSeconds);
+            Object[] args = new Object[3 + values.length];
+            args[0] = range.fromId();
+            args[1] = range.toId();
+            args[2] = range.tailAfterId();
+            System.arraycopy(values, 0, args, 3, values.length);
+            return args;
+        });
+    }
+}
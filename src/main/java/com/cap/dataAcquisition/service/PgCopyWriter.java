@@ -0,0 +1,111 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dis.DisPduLayout;
+import com.cap.dataAcquisition.model.PduType;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Buffers parsed PDUs as PostgreSQL binary {@code COPY} tuples, one buffer per record table, and hands a buffer to the
+ * sink as one {@code COPY ... FROM STDIN} whenever it holds {@code batchRows} rows.
+ * <p>
+ * Fields are copied straight from the PDU buffer into the tuple buffer (doubles as their raw bits), and every row of a
+ * table has the same size, so the buffers are sized once and reused for the whole import.
+ */
+final class PgCopyWriter {
+
+    /** Runs one {@code COPY} with the first {@code length} bytes of {@code data} as its input. */
+    @FunctionalInterface
+    interface Sink {
+        void copy(String sql, byte[] data, int length);
+    }
+
+    private static final byte[] HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    private final int batchRows;
+    private final Sink sink;
+    private final String[] copySql = new String[PduType.values().length];
+    private final DisPduLayout.Field[][] fields = new DisPduLayout.Field[PduType.values().length][];
+    private final ByteBuffer[] buffers = new ByteBuffer[PduType.values().length];
+    private final int[] pending = new int[PduType.values().length];
+    private final long[] copied = new long[PduType.values().length];
+    private long copyNanos;
+
+    PgCopyWriter(int batchRows, Sink sink) {
+        this.batchRows = batchRows;
+        this.sink = sink;
+        for (PduType type : PduType.values()) {
+            List<DisPduLayout.Field> typeFields = DisPduLayout.fields(type);
+            fields[type.ordinal()] = typeFields.toArray(new DisPduLayout.Field[0]);
+            copySql[type.ordinal()] = copySql(type, typeFields);
+        }
+    }
+
+    static String copySql(PduType type, List<DisPduLayout.Field> typeFields) {
+        return "COPY " + type.getTableName() + " ("
+               + typeFields.stream().map(DisPduLayout.Field::column).collect(Collectors.joining(", "))
+               + ", timestamp) FROM STDIN (FORMAT binary)";
+    }
+
+    static int rowBytes(DisPduLayout.Field[] typeFields) {
+        int bytes = 2 + 4 + 8; // field count, timestamp
+        for (DisPduLayout.Field field : typeFields) {
+            bytes += 4 + (field.kind() == DisPduLayout.Kind.FLOAT64 ? 8 : 4);
+        }
+        return bytes;
+    }
+
+    void add(PduType type, ByteBuffer pdu, int offset, long epochSeconds) {
+        int slot = type.ordinal();
+        ByteBuffer buffer = buffers[slot];
+        if (buffer == null) {
+            buffer = buffers[slot] = ByteBuffer.allocate(HEADER.length + batchRows * rowBytes(fields[slot]) + 2);
+            buffer.put(HEADER);
+        }
+        DisPduLayout.Field[] typeFields = fields[slot];
+        buffer.putShort((short) (typeFields.length + 1));
+        for (DisPduLayout.Field field : typeFields) {
+            switch (field.kind()) {
+                case UINT16 -> buffer.putInt(4).putInt(pdu.getShort(offset + field.offset()) & 0xFFFF);
+                case INT32 -> buffer.putInt(4).putInt(pdu.getInt(offset + field.offset()));
+                case FLOAT64 -> buffer.putInt(8).putLong(pdu.getLong(offset + field.offset()));
+            }
+        }
+        buffer.putInt(8).putLong(MetricsService.toDisAbsoluteTimestamp(epochSeconds));
+        if (++pending[slot] == batchRows) {
+            flush(type);
+        }
+    }
+
+    void flush() {
+        for (PduType type : PduType.values()) {
+            flush(type);
+        }
+    }
+
+    private void flush(PduType type) {
+        int slot = type.ordinal();
+        if (pending[slot] == 0) {
+            return;
+        }
+        ByteBuffer buffer = buffers[slot];
+        buffer.putShort((short) -1);
+        long start = System.nanoTime();
+        sink.copy(copySql[slot], buffer.array(), buffer.position());
+        copyNanos += System.nanoTime() - start;
+        copied[slot] += pending[slot];
+        pending[slot] = 0;
+        buffer.clear();
+        buffer.put(HEADER);
+    }
+
+    long getCopied(PduType type) {
+        return copied[type.ordinal()];
+    }
+
+    long getCopyNanos() {
+        return copyNanos;
+    }
+}
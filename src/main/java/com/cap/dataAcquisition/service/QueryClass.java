@@ -0,0 +1,11 @@
+package com.cap.dataAcquisition.service;
+
+/**
+ * Admission class of a range query, chosen from its estimated row count (see {@link AdmissionControl}).
+ */
+public enum QueryClass {
+    /** Small windows: dashboards, drill-downs. Many may run at once and they get a short statement timeout. */
+    INTERACTIVE,
+    /** Large windows: few at a time, within a row budget, with a long statement timeout. */
+    BULK
+}
@@ -0,0 +1,112 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+/**
+ * Estimates how many rows a time-window query will touch: the window length times each table's recent row rate.
+ * <p>
+ * The rate of a table is its row count over the last {@code acquisition.admission.rate-window-seconds} of its own data
+ * (ending at the timestamp of its highest id, not at now), so windows over replayed or imported exercises are priced at
+ * the rate they were recorded at. With the id index enabled the count is the id span {@link PduIdIndexService} maps
+ * that window to; otherwise, or while the window is not indexed yet, it is measured on the newest
+ * {@code acquisition.admission.rate-sample-rows} rows by id. Either way only the primary key is read. Rates are
+ * refreshed in the background; estimating is a few multiplications.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.admission.enabled", havingValue = "true")
+public class QueryCostEstimator {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCostEstimator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService pduIdIndexService;
+    private volatile double[] rowsPerSecond = new double[PduType.values().length]; // by ordinal
+
+    @Value("${acquisition.admission.rate-window-seconds:3600}")
+    private long rateWindowSeconds;
+
+    @Value("${acquisition.admission.rate-sample-rows:100000}")
+    private int rateSampleRows;
+
+    @Autowired
+    public QueryCostEstimator(JdbcTemplate jdbcTemplate,
+                              @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    static String newestSql(PduType type) {
+        return "SELECT id, " + PduSql.EPOCH_SECONDS + " AS newest FROM " + type.getTableName() + " ORDER BY id DESC LIMIT 1";
+    }
+
+    /** Row count and time span of the newest {@code ?} rows by id that lie within {@code ?} seconds of the newest. */
+    static String sampleSql(PduType type) {
+        String table = type.getTableName();
+        return "SELECT COUNT(*) AS row_count, COALESCE(MAX(t) - MIN(t), 0) AS span FROM (SELECT " + PduSql.EPOCH_SECONDS +
+               " AS t FROM " + table + " ORDER BY id DESC LIMIT ?) s WHERE t > (SELECT " + PduSql.EPOCH_SECONDS +
+               " FROM " + table + " ORDER BY id DESC LIMIT 1) - ?";
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.admission.rate-refresh-ms:60000}")
+    public void refresh() {
+        try {
+            double[] rates = new double[PduType.values().length];
+            for (PduType type : PduType.values()) {
+                rates[type.ordinal()] = measureRate(type);
+            }
+            rowsPerSecond = rates;
+        } catch (RuntimeException e) {
+            log.error("Refreshing PDU row rates for admission control failed: {}", e.getMessage(), e);
+        }
+    }
+
+    double measureRate(PduType type) {
+        if (pduIdIndexService != null) {
+            long[] newest = new long[2]; // {id, epoch seconds}; id 0 = empty table
+            jdbcTemplate.query(newestSql(type), rs -> {
+                newest[0] = rs.getLong("id");
+                newest[1] = rs.getLong("newest");
+            });
+            if (newest[0] == 0) {
+                return 0.0;
+            }
+            PduIdIndexService.IdRange range = pduIdIndexService.idRange(type, newest[1] - rateWindowSeconds + 1, newest[1]);
+            if (range.fromId() <= range.toId()) {
+                return (Math.max(newest[0], range.toId()) - range.fromId() + 1) / (double) rateWindowSeconds;
+            }
+        }
+        double[] rate = {0.0};
+        jdbcTemplate.query(sampleSql(type), rs -> {
+            long rows = rs.getLong("row_count");
+            // A full sample covers less than the window: rate over the time it does span
+            rate[0] = rows >= rateSampleRows ? rows / (double) Math.max(1L, rs.getLong("span")) : rows / (double) rateWindowSeconds;
+        }, rateSampleRows, rateWindowSeconds);
+        return rate[0];
+    }
+
+    /** Estimated rows of {@code types} in a window of {@code windowSeconds}; saturates instead of overflowing. */
+    public long estimateRows(Collection<PduType> types, long windowSeconds) {
+        double[] rates = rowsPerSecond;
+        double rows = 0;
+        for (PduType type : types) {
+            rows += rates[type.ordinal()] * Math.max(1L, windowSeconds);
+        }
+        return rows >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) Math.ceil(rows);
+    }
+
+    void setRowsPerSecond(PduType type, double rate) {
+        double[] rates = rowsPerSecond.clone();
+        rates[type.ordinal()] = rate;
+        rowsPerSecond = rates;
+    }
+}
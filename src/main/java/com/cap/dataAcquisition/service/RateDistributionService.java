@@ -0,0 +1,105 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.RateDistributionResponse;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.RateHistogramRollup;
+import com.cap.dataAcquisition.sketch.RateHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Per-second PDU rate percentiles over arbitrary windows.
+ * <p>
+ * Whole hours covered by {@code rate_histogram_rollup} are merged from their stored histograms, so a month costs about
+ * 720 small rows per type; the partial hours at the edges and anything newer than the rollup are counted per second
+ * from the PDU tables, up to {@code acquisition.rate-distribution.max-raw-seconds}.
+ */
+@Service
+public class RateDistributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RateDistributionService.class);
+
+    private static final String HISTOGRAMS_SQL =
+            "SELECT hour_epoch, pdu_type, histogram FROM rate_histogram_rollup WHERE hour_epoch >= ? AND hour_epoch < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RateHistogramRollupService rollupService;
+    private final PduIdIndexService idIndex;
+
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    @Value("${acquisition.rate-distribution.max-raw-seconds:86400}")
+    private long maxRawSeconds;
+
+    @Autowired
+    public RateDistributionService(JdbcTemplate jdbcTemplate,
+                                   @Autowired(required = false) RateHistogramRollupService rollupService,
+                                   @Autowired(required = false) PduIdIndexService idIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.idIndex = idIndex;
+    }
+
+    public RateDistributionResponse getDistribution(long startEpochSeconds, long endEpochSeconds) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        long lo = startEpochSeconds;
+        long hi = endEpochSeconds + 1;
+        long hourLo = Math.floorDiv(lo + 3599, 3600) * 3600;
+        long hourHi = Math.min(Math.floorDiv(hi, 3600) * 3600, rollupService != null ? rollupService.getCoveredUntil() : 0L);
+        if (hourHi <= hourLo) {
+            hourLo = hourHi = lo; // nothing from the rollup
+        }
+        long rawSeconds = (hourLo - lo) + (hi - hourHi);
+        if (rawSeconds > maxRawSeconds) {
+            throw new IllegalArgumentException("Window needs " + rawSeconds + " s of raw rows, more than the "
+                    + maxRawSeconds + " s allowed; the hourly rollup does not cover it");
+        }
+
+        RateHistogram[] histograms = RateDistributions.newHistograms();
+        if (hourLo < hourHi) {
+            mergeHours(histograms, hourLo, hourHi);
+        }
+        if (lo < hourLo) {
+            recordRaw(histograms, lo, hourLo);
+        }
+        if (hourHi < hi) {
+            recordRaw(histograms, Math.max(hourHi, lo), hi);
+        }
+        log.info("Rate distribution {} to {}: {} hours from the rollup, {} s raw", startEpochSeconds, endEpochSeconds,
+                (hourHi - hourLo) / 3600, rawSeconds);
+        return new RateDistributionResponse(startEpochSeconds, endEpochSeconds, (hourHi - hourLo) / 3600,
+                RateDistributions.toDistribution(histograms));
+    }
+
+    private void mergeHours(RateHistogram[] histograms, long hourLo, long hourHi) {
+        Set<Long> storedHours = new HashSet<>();
+        RequestTimings.time("rateDistribution.rollup", () -> jdbcTemplate.query(HISTOGRAMS_SQL, rs -> {
+            short pduType = rs.getShort("pdu_type");
+            int slot = pduType == RateHistogramRollup.ALL_TYPES
+                    ? RateDistributions.ALL_TYPES
+                    : PduType.fromDisCode(pduType).ordinal();
+            histograms[slot].merge(RateHistogram.fromBytes(rs.getBytes("histogram")));
+            storedHours.add(rs.getLong("hour_epoch"));
+        }, hourLo, hourHi));
+        // Hours without traffic are not stored
+        RateDistributions.recordQuiet(histograms, ((hourHi - hourLo) / 3600 - storedHours.size()) * 3600);
+    }
+
+    private void recordRaw(RateHistogram[] histograms, long fromEpochSeconds, long toEpochSeconds) {
+        int[][] perSecond = RequestTimings.time("rateDistribution.raw",
+                () -> RateDistributions.countPerSecond(jdbcTemplate, idIndex, consolidatedStorage,
+                        fromEpochSeconds, toEpochSeconds));
+        RateDistributions.record(histograms, perSecond);
+    }
+}
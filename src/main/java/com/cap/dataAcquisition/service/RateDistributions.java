@@ -0,0 +1,97 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.sketch.RateHistogram;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-second rate histograms indexed by {@link PduType#ordinal()}, with the all-types histogram in the last slot.
+ */
+final class RateDistributions {
+
+    static final int ALL_TYPES = PduType.values().length;
+
+    private static final String PER_SECOND_SQL =
+            PduSql.unionAll(type -> "SELECT " + type.getDisCode() + " AS pdu_type, " + PduSql.EPOCH_SECONDS + " AS second, COUNT(*) AS count " +
+                                    "FROM " + type.getTableName() + " WHERE " + PduSql.ID_RANGE + " AND timestamp >= ? AND timestamp < ? GROUP BY 2");
+
+    private static final String PER_SECOND_CONSOLIDATED_SQL =
+            "SELECT pdu_type, " + PduSql.EPOCH_SECONDS + " AS second, COUNT(*) AS count " +
+            "FROM pdu_event WHERE timestamp >= ? AND timestamp < ? GROUP BY 1, 2";
+
+    private RateDistributions() {
+    }
+
+    /**
+     * PDUs per second of {@code [fromEpochSeconds, toEpochSeconds)}, one array per type in {@link PduType} order,
+     * counted by the database. Each PDU table is read through the id range {@code idIndex} gives for the window, or
+     * whole when it is {@code null}.
+     */
+    static int[][] countPerSecond(JdbcTemplate jdbcTemplate, PduIdIndexService idIndex, boolean consolidated,
+                                  long fromEpochSeconds, long toEpochSeconds) {
+        int[][] perSecond = new int[ALL_TYPES][(int) (toEpochSeconds - fromEpochSeconds)];
+        long disFrom = MetricsService.toDisAbsoluteTimestamp(fromEpochSeconds);
+        long disTo = MetricsService.toDisAbsoluteTimestamp(toEpochSeconds);
+        Object[] args = consolidated
+                ? new Object[]{disFrom, disTo}
+                : PduSql.perTableIdRangeArgs(idIndex, fromEpochSeconds, toEpochSeconds - 1, disFrom, disTo);
+        jdbcTemplate.query(consolidated ? PER_SECOND_CONSOLIDATED_SQL : PER_SECOND_SQL, rs -> {
+            long index = rs.getLong("second") - fromEpochSeconds;
+            if (index >= 0 && index < perSecond[0].length) {
+                perSecond[PduType.fromDisCode(rs.getShort("pdu_type")).ordinal()][(int) index] = rs.getInt("count");
+            }
+        }, args);
+        return perSecond;
+    }
+
+    static RateHistogram[] newHistograms() {
+        RateHistogram[] histograms = new RateHistogram[ALL_TYPES + 1];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new RateHistogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * Records every second of {@code perSecondByType} (one array per type, same length) as one sample per type and one
+     * of the all-types total.
+     */
+    static void record(RateHistogram[] histograms, int[][] perSecondByType) {
+        int seconds = perSecondByType[0].length;
+        for (int second = 0; second < seconds; second++) {
+            long total = 0;
+            for (int type = 0; type < ALL_TYPES; type++) {
+                int count = perSecondByType[type][second];
+                histograms[type].record(count);
+                total += count;
+            }
+            histograms[ALL_TYPES].record(total);
+        }
+    }
+
+    /** Records {@code seconds} quiet seconds (rate 0) in every histogram. */
+    static void recordQuiet(RateHistogram[] histograms, long seconds) {
+        for (RateHistogram histogram : histograms) {
+            histogram.record(0, seconds);
+        }
+    }
+
+    static AggregatedMetricsOverview.RateDistribution toDistribution(RateHistogram[] histograms) {
+        Map<String, AggregatedMetricsOverview.RatePercentiles> byType = new LinkedHashMap<>();
+        for (PduType type : PduType.values()) {
+            byType.put(type.getLogName(), percentiles(histograms[type.ordinal()]));
+        }
+        return new AggregatedMetricsOverview.RateDistribution(
+                histograms[ALL_TYPES].getTotalCount(), percentiles(histograms[ALL_TYPES]), byType);
+    }
+
+    private static AggregatedMetricsOverview.RatePercentiles percentiles(RateHistogram histogram) {
+        return new AggregatedMetricsOverview.RatePercentiles(
+                histogram.percentile(50), histogram.percentile(95), histogram.percentile(99),
+                histogram.getMax(), histogram.getMean());
+    }
+}
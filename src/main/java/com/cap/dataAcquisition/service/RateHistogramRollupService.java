@@ -0,0 +1,137 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.RateHistogramRollup;
+import com.cap.dataAcquisition.model.RollupWatermark;
+import com.cap.dataAcquisition.repository.RollupWatermarkRepository;
+import com.cap.dataAcquisition.sketch.RateHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains {@code rate_histogram_rollup}: for every UTC hour with traffic, a histogram of the per-second PDU rate per
+ * type and over all types.
+ * <p>
+ * An hour is rolled up once its end is older than {@code acquisition.rollup.lateness-seconds}, with one per-second
+ * {@code GROUP BY} over the PDU tables, each read through the hour's id range. Hours without any PDU are not stored;
+ * readers count them as quiet. Progress is kept in {@code rollup_watermark} like the other rollups, so the first run
+ * backfills the full history.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.rollup.enabled", havingValue = "true")
+public class RateHistogramRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RateHistogramRollupService.class);
+
+    static final String WATERMARK_NAME = "rate_histogram_rollup";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO rate_histogram_rollup (hour_epoch, pdu_type, histogram) VALUES (?, ?, ?) " +
+            "ON CONFLICT (hour_epoch, pdu_type) DO UPDATE SET histogram = EXCLUDED.histogram";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final PduIdIndexService idIndex;
+    private volatile long coveredUntil = -1;
+
+    @Value("${acquisition.rollup.lateness-seconds:120}")
+    private long latenessSeconds;
+
+    @Autowired
+    public RateHistogramRollupService(JdbcTemplate jdbcTemplate, RollupWatermarkRepository watermarkRepository,
+                                      @Autowired(required = false) PduIdIndexService idIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.watermarkRepository = watermarkRepository;
+        this.idIndex = idIndex;
+    }
+
+    /** Epoch second (hour aligned) before which the histograms are complete, or 0 before the first run. */
+    public long getCoveredUntil() {
+        return Math.max(coveredUntil, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.rollup.interval-ms:10000}")
+    public void roll() {
+        try {
+            rollUpTo(Math.floorDiv(Instant.now().getEpochSecond() - latenessSeconds, 3600) * 3600);
+        } catch (RuntimeException e) {
+            log.error("Rate histogram rollup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    synchronized void rollUpTo(long closedUntil) {
+        long from = coveredUntil >= 0 ? coveredUntil : loadWatermark(closedUntil);
+        while (from < closedUntil) {
+            rollHour(from);
+            saveWatermark(from + 3600);
+            from += 3600;
+        }
+    }
+
+    private void rollHour(long hour) {
+        int[][] perSecond = RateDistributions.countPerSecond(jdbcTemplate, idIndex, false, hour, hour + 3600);
+        boolean quiet = true;
+        for (int[] typeCounts : perSecond) {
+            for (int count : typeCounts) {
+                if (count != 0) {
+                    quiet = false;
+                    break;
+                }
+            }
+        }
+        if (quiet) {
+            return;
+        }
+        RateHistogram[] histograms = RateDistributions.newHistograms();
+        RateDistributions.record(histograms, perSecond);
+        List<Object[]> rows = new ArrayList<>(histograms.length);
+        for (PduType type : PduType.values()) {
+            rows.add(new Object[]{hour, type.getDisCode(), histograms[type.ordinal()].toBytes()});
+        }
+        rows.add(new Object[]{hour, RateHistogramRollup.ALL_TYPES, histograms[RateDistributions.ALL_TYPES].toBytes()});
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /** Moves the watermark back so rows written behind it (see {@link PduBackfillEvent}) are rolled up again. */
+    @EventListener
+    public synchronized void onBackfill(PduBackfillEvent event) {
+        long from = Math.floorDiv(event.fromEpochSeconds(), 3600) * 3600;
+        long current = coveredUntil >= 0 ? coveredUntil : loadWatermark(from);
+        if (from < current) {
+            log.info("Rewinding rate histograms to {} after a backfill", MetricsService.formatInstant(Instant.ofEpochSecond(from)));
+            saveWatermark(from);
+        }
+    }
+
+    private long loadWatermark(long closedUntil) {
+        long start = watermarkRepository.findById(WATERMARK_NAME)
+                .map(RollupWatermark::getCoveredUntil)
+                .orElseGet(() -> {
+                    Long earliest = jdbcTemplate.queryForObject(PduCountRollupService.EARLIEST_SQL, Long.class);
+                    long first = earliest != null ? Math.floorDiv(earliest, 3600) * 3600 : closedUntil;
+                    log.info("Backfilling rate histograms from {}", MetricsService.formatInstant(Instant.ofEpochSecond(first)));
+                    return first;
+                });
+        coveredUntil = start;
+        return start;
+    }
+
+    private void saveWatermark(long to) {
+        RollupWatermark watermark = new RollupWatermark();
+        watermark.setName(WATERMARK_NAME);
+        watermark.setCoveredUntil(to);
+        watermarkRepository.save(watermark);
+        coveredUntil = to;
+    }
+}
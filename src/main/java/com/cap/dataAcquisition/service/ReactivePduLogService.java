@@ -0,0 +1,145 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduType;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PDU log stream over R2DBC, for consumers that read a long window slowly.
+ * <p>
+ * Each selected table is read in timestamp order through a server-side cursor of {@code fetch-size} rows, one table
+ * after the other, and only as fast as the subscriber requests entries: a slow consumer leaves the cursor parked
+ * instead of buffering the window, and no JDBC connection is used; the R2DBC pool bounds the open cursors. Without an
+ * entity filter a table is read over the id range {@link PduIdIndexService} gives for the window and those rows are
+ * sorted; with one, the (entity, timestamp) index serves the order.
+ * <p>
+ * The database side does not block, but Spring MVC writes every entry with blocking servlet IO on a thread of its async
+ * executor, which a slow client holds for as long as a write takes. Streams are therefore capped at
+ * {@code acquisition.reactive.max-streams}, and a stream that emits nothing for {@code idle-timeout-ms}, such as one
+ * whose client stopped reading, fails and closes its cursor. Entries are built by {@link MetricsService#toLogEntry}, so
+ * they match {@code /realtime/logs}, and filters behave as in {@link MetricsService#getPduLogs}.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.reactive.enabled", havingValue = "true")
+public class ReactivePduLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactivePduLogService.class);
+
+    private final DatabaseClient databaseClient;
+    private final MetricsService metricsService;
+    private final RecordColumns recordColumns;
+    private final PduIdIndexService idIndex;
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    @Value("${acquisition.reactive.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${acquisition.reactive.max-streams:32}")
+    private int maxStreams;
+
+    @Value("${acquisition.reactive.idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    @Autowired
+    public ReactivePduLogService(ConnectionFactory connectionFactory, MetricsService metricsService,
+                                 RecordColumns recordColumns,
+                                 @Autowired(required = false) PduIdIndexService idIndex) {
+        this(DatabaseClient.create(connectionFactory), metricsService, recordColumns, idIndex);
+    }
+
+    ReactivePduLogService(DatabaseClient databaseClient, MetricsService metricsService, RecordColumns recordColumns,
+                          PduIdIndexService idIndex) {
+        this.databaseClient = databaseClient;
+        this.metricsService = metricsService;
+        this.recordColumns = recordColumns;
+        this.idIndex = idIndex;
+    }
+
+    /**
+     * Log entries of {@code [disStartTime, disEndTime]}, table by table in {@link PduType} order. The stream counts
+     * against {@code max-streams} from this call until it terminates or is cancelled, so it must be subscribed.
+     *
+     * @throws IllegalStateException when {@code acquisition.reactive.max-streams} streams are open
+     */
+    public Flux<PduLogResponse.PduLogEntry> streamLogs(long disStartTime, long disEndTime, Set<PduType> types,
+                                                       DisEntityId entity) {
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            throw new IllegalStateException("Too many reactive log streams");
+        }
+        Set<PduType> selected = EnumSet.noneOf(PduType.class);
+        for (PduType type : types) {
+            if (entity == null || type.hasOriginatingEntity()) {
+                selected.add(type);
+            }
+        }
+        log.info("Streaming PDU logs between DIS TS: {} and {} for types {}{}", disStartTime, disEndTime, selected,
+                entity != null ? " and entity " + entity : "");
+        // concatMap without prefetch: the next table is only opened once the previous cursor is exhausted
+        return Flux.fromIterable(selected)
+                .concatMap(type -> rows(type, disStartTime, disEndTime, entity), 0)
+                .map(metricsService::toLogEntry)
+                .timeout(Duration.ofMillis(idleTimeoutMillis))
+                .doFinally(signal -> openStreams.decrementAndGet());
+    }
+
+    private Flux<Object> rows(PduType type, long disStartTime, long disEndTime, DisEntityId entity) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(logSql(type, entity))
+                .bind("startTime", disStartTime)
+                .bind("endTime", disEndTime);
+        if (entity != null) {
+            spec = spec.bind("site", entity.site()).bind("application", entity.application()).bind("entity", entity.entity());
+        } else {
+            PduIdIndexService.IdRange range = PduIdIndexService.idRange(idIndex, type,
+                    MetricsService.fromDisAbsoluteTimestamp(disStartTime), MetricsService.fromDisAbsoluteTimestamp(disEndTime));
+            spec = spec.bind("fromId", range.fromId()).bind("toId", range.toId()).bind("tailAfterId", range.tailAfterId());
+        }
+        return spec.filter(statement -> statement.fetchSize(fetchSize))
+                .map(row -> toRecord(type, row))
+                .all();
+    }
+
+    /**
+     * Rows of one table in timestamp order: an index scan of the (entity, timestamp) index when filtering by entity,
+     * otherwise a primary-key range scan over the window's id range and a sort of those rows.
+     */
+    static String logSql(PduType type, DisEntityId entity) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(type.getTableName()).append(" WHERE ");
+        if (entity != null) {
+            sql.append(type.getSiteColumn()).append(" = :site AND ").append(type.getApplicationColumn())
+                    .append(" = :application AND ").append(type.getEntityColumn()).append(" = :entity AND ");
+        } else {
+            sql.append("(id BETWEEN :fromId AND :toId OR id > :tailAfterId) AND ");
+        }
+        return sql.append("timestamp BETWEEN :startTime AND :endTime ORDER BY timestamp, id").toString();
+    }
+
+    /** The record entity of {@code type} held in a row, as the JPA repositories would load it. */
+    Object toRecord(PduType type, Readable row) {
+        Object record = BeanUtils.instantiateClass(type.getRecordClass());
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(record);
+        for (Map.Entry<String, String> column : recordColumns.of(type).entrySet()) {
+            wrapper.setPropertyValue(column.getKey(), row.get(column.getValue()));
+        }
+        return record;
+    }
+}
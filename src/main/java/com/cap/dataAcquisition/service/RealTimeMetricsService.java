@@ -7,7 +7,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 
 @Service
 public class RealTimeMetricsService {
@@ -15,13 +19,19 @@ public class RealTimeMetricsService {
     private static final Logger log = LoggerFactory.getLogger(RealTimeMetricsService.class);
 
     private final RestTemplate restTemplate;
+    private final WebClient webClient;
 
     @Value("${metrics.dataIngestion.service.url}") // Configure this in application.properties
     private String dataIngestionServiceUrl;
 
+    // Upper bound for the non-blocking call; on timeout the fallback metrics are returned
+    @Value("${acquisition.reactive.upstream-timeout-ms:2000}")
+    private long upstreamTimeoutMillis;
+
     @Autowired
-    public RealTimeMetricsService(RestTemplate restTemplate) {
+    public RealTimeMetricsService(RestTemplate restTemplate, @Autowired(required = false) WebClient.Builder webClientBuilder) {
         this.restTemplate = restTemplate;
+        this.webClient = webClientBuilder != null ? webClientBuilder.build() : WebClient.create();
     }
 
     public RealTimeMetrics getLatestMetrics() {
@@ -40,6 +50,25 @@ public class RealTimeMetricsService {
         }
     }
 
+    /** Non-blocking variant of {@link #getLatestMetrics()}, with the same fallback on errors. */
+    public Mono<RealTimeMetrics> getLatestMetricsReactive() {
+        String fullMetricsUrl = dataIngestionServiceUrl + "/internal/metrics/realtime"; // Path matches DataIngestionService
+        log.debug("Fetching real-time metrics (non-blocking) from: {}", fullMetricsUrl);
+        return webClient.get()
+                .uri(fullMetricsUrl)
+                .retrieve()
+                .bodyToMono(RealTimeMetrics.class)
+                .timeout(Duration.ofMillis(upstreamTimeoutMillis))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("Received null metrics from {}", fullMetricsUrl);
+                    return createFallbackMetrics("Null response from metrics service at " + fullMetricsUrl);
+                }))
+                .onErrorResume(e -> {
+                    log.error("Error fetching metrics from {}: {}", fullMetricsUrl, e.getMessage());
+                    return Mono.just(createFallbackMetrics("Failed to connect to metrics service at " + fullMetricsUrl + ": " + e.getMessage()));
+                });
+    }
+
     private RealTimeMetrics createFallbackMetrics(String errorMessage) {
         log.warn("Falling back to default metrics. Error: {}", errorMessage);
         // Create fallback metrics with all fields set to 0
@@ -0,0 +1,49 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.hibernate.metamodel.mapping.ModelPart;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Record property to table column of every PDU type, read from Hibernate's mapping of the record entities.
+ * <p>
+ * The column names are the ones Hibernate derived with the configured naming strategy ({@code locationX} is
+ * {@code locationx}, {@code firingSite} is {@code firing_site}), so SQL written against the PDU tables by hand names
+ * exactly the columns the repositories use.
+ */
+@Component
+public class RecordColumns {
+
+    private final Map<PduType, Map<String, String>> columns = new EnumMap<>(PduType.class);
+
+    @Autowired
+    public RecordColumns(EntityManagerFactory entityManagerFactory) {
+        MappingMetamodel metamodel = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel();
+        for (PduType type : PduType.values()) {
+            EntityPersister persister = metamodel.getEntityDescriptor(type.getRecordClass());
+            Map<String, String> typeColumns = new LinkedHashMap<>();
+            put(typeColumns, persister.getIdentifierMapping().getAttributeName(), persister.getIdentifierMapping());
+            persister.forEachAttributeMapping(attribute -> put(typeColumns, attribute.getAttributeName(), attribute));
+            columns.put(type, Collections.unmodifiableMap(typeColumns));
+        }
+    }
+
+    /** Record property name to column of {@code type}, the identifier first. */
+    public Map<String, String> of(PduType type) {
+        return columns.get(type);
+    }
+
+    private static void put(Map<String, String> columns, String property, ModelPart part) {
+        part.forEachSelectable((index, selectable) -> columns.put(property, selectable.getSelectionExpression()));
+    }
+}
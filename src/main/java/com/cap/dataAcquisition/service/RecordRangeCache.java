@@ -0,0 +1,193 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Append-aware cache of record range queries, for dashboards that repeat {@code [T0, now]} with a growing end.
+ * <p>
+ * Each cached segment holds the records of one PDU type from its start up to its watermark (DIS timestamps,
+ * inclusive). A request starting inside a segment is answered from memory, and only the part past the watermark is
+ * read from the database and appended. Rows that arrive late, with a timestamp at or below the watermark, are picked
+ * up on the next request: each request first reads the rows added by id since the segment was last filled (tailed by
+ * an {@link IdTail}, so rows re-read are not appended twice) that fall inside the segment. Segments are evicted least recently used
+ * once the cache holds more than {@code acquisition.range-cache.max-rows} records in total.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.range-cache.enabled", havingValue = "true")
+public class RecordRangeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordRangeCache.class);
+
+    /** Records of one type with {@code id > afterId} and a DIS timestamp in the given range. */
+    @FunctionalInterface
+    public interface LateRowLoader<T> {
+        List<T> load(long afterId, Long disStartTime, Long disEndTime);
+    }
+
+    private record SegmentKey(PduType type, long start) {
+    }
+
+    private static final class Segment<T> {
+        private final PduType type;
+        private final long start;
+        private final List<T> rows = new ArrayList<>();
+        private final IdTail tail; // ids the segment is filled up to
+        private long watermark;
+        private long accountedRows; // rows counted in cachedRows
+
+        private Segment(PduType type, long start, long idOverlap) {
+            this.type = type;
+            this.start = start;
+            this.tail = new IdTail(idOverlap);
+            this.watermark = start - 1;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LinkedHashMap<SegmentKey, Segment<?>> segments = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedRows;
+
+    // About 100 bytes per cached record
+    @Value("${acquisition.range-cache.max-rows:1000000}")
+    private long maxRows;
+
+    @Value("${acquisition.range-cache.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public RecordRangeCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records of {@code type} with a DIS timestamp in {@code [disStartTime, disEndTime]}.
+     *
+     * @param rangeLoader   reads a timestamp range from the database; called for the part not cached yet
+     * @param lateRowLoader reads rows added since the segment was filled, to catch late arrivals
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> find(PduType type, long disStartTime, long disEndTime,
+                            ToLongFunction<T> idOf, ToLongFunction<T> timestampOf,
+                            BiFunction<Long, Long, List<T>> rangeLoader, LateRowLoader<T> lateRowLoader) {
+        if (disStartTime > disEndTime) {
+            return rangeLoader.apply(disStartTime, disEndTime);
+        }
+        Segment<T> segment;
+        synchronized (segments) {
+            segment = (Segment<T>) lookup(type, disStartTime);
+            if (segment == null) {
+                segment = new Segment<>(type, disStartTime, idOverlap);
+                segments.put(new SegmentKey(type, disStartTime), segment);
+            }
+        }
+        List<T> result;
+        long added;
+        synchronized (segment) {
+            int before = segment.rows.size();
+            extend(segment, disEndTime, idOf, timestampOf, rangeLoader, lateRowLoader);
+            added = segment.rows.size() - before;
+            result = new ArrayList<>();
+            for (T row : segment.rows) {
+                long timestamp = timestampOf.applyAsLong(row);
+                if (timestamp >= disStartTime && timestamp <= disEndTime) {
+                    result.add(row);
+                }
+            }
+        }
+        synchronized (segments) {
+            if (segments.get(new SegmentKey(type, segment.start)) == segment) {
+                segment.accountedRows += added;
+                cachedRows += added;
+                if (segment.accountedRows > maxRows) {
+                    // Too large to cache on its own; keep the other segments
+                    segments.remove(new SegmentKey(type, segment.start));
+                    cachedRows -= segment.accountedRows;
+                }
+                evict();
+            }
+        }
+        return result;
+    }
+
+    /** Appends late rows and the range past the watermark, then moves the watermark and the filled-up-to id. */
+    private <T> void extend(Segment<T> segment, long disEndTime, ToLongFunction<T> idOf, ToLongFunction<T> timestampOf,
+                            BiFunction<Long, Long, List<T>> rangeLoader, LateRowLoader<T> lateRowLoader) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + segment.type.getTableName(), Long.class);
+        long filledUpToId = maxId != null ? maxId : 0L;
+        if (segment.watermark >= segment.start) {
+            List<T> late = RequestTimings.time("rangeCache.lateRows", () -> lateRowLoader.load(
+                    segment.tail.from(), segment.start, segment.watermark));
+            int appended = append(segment, late, idOf);
+            if (appended > 0) {
+                log.info("Appended {} late {} rows below the cache watermark {}", appended, segment.type.getLogName(),
+                        segment.watermark);
+            }
+        }
+        if (disEndTime > segment.watermark) {
+            long from = segment.watermark + 1;
+            append(segment, RequestTimings.time("rangeCache.extend", () -> rangeLoader.apply(from, disEndTime)), idOf);
+            segment.watermark = disEndTime;
+        }
+        segment.tail.advanceTo(filledUpToId);
+    }
+
+    private <T> int append(Segment<T> segment, List<T> rows, ToLongFunction<T> idOf) {
+        int appended = 0;
+        for (T row : rows) {
+            if (!segment.tail.firstSeen(idOf.applyAsLong(row))) {
+                continue; // re-read inside the overlap
+            }
+            segment.rows.add(row);
+            appended++;
+        }
+        return appended;
+    }
+
+    /** A segment of {@code type} whose cached range contains {@code disStartTime}, or null. */
+    private Segment<?> lookup(PduType type, long disStartTime) {
+        Segment<?> exact = segments.get(new SegmentKey(type, disStartTime));
+        if (exact != null) {
+            return exact;
+        }
+        for (Segment<?> segment : segments.values()) {
+            if (segment.type == type && segment.start <= disStartTime && disStartTime <= segment.watermark) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /** Drops least recently used segments until the cache is within {@code max-rows}. */
+    private void evict() {
+        Iterator<Map.Entry<SegmentKey, Segment<?>>> eldest = segments.entrySet().iterator();
+        while (cachedRows > maxRows && eldest.hasNext()) {
+            Segment<?> segment = eldest.next().getValue();
+            eldest.remove();
+            cachedRows -= segment.accountedRows;
+            log.debug("Evicted the {} range cache segment from {} ({} rows)", segment.type.getLogName(), segment.start,
+                    segment.accountedRows);
+        }
+    }
+
+    long getCachedRows() {
+        synchronized (segments) {
+            return cachedRows;
+        }
+    }
+}
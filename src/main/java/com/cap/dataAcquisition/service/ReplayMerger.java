@@ -0,0 +1,121 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * k-way merge of the ten per-type PDU tables into one (time, type, id) ordered stream.
+ * <p>
+ * Each table is read through a keyset cursor that holds at most one page of rows and fetches the next page only when
+ * that one is used up, so read-ahead is bounded by ten pages however long the window. {@link #seek} moves every cursor
+ * to a new time with one page query per table instead of reading from the start.
+ */
+final class ReplayMerger {
+
+    record Row(PduType type, long id, long epochSeconds, Object record) {
+    }
+
+    /** Loads up to {@code limit} rows of {@code type} after (afterEpochSeconds, afterId) and up to the window end. */
+    @FunctionalInterface
+    interface PageLoader {
+        List<Row> load(PduType type, long afterEpochSeconds, long afterId, int limit);
+    }
+
+    private static final Comparator<Cursor> BY_HEAD = Comparator
+            .<Cursor>comparingLong(cursor -> cursor.page.peekFirst().epochSeconds())
+            .thenComparingInt(cursor -> cursor.type.ordinal())
+            .thenComparingLong(cursor -> cursor.page.peekFirst().id());
+
+    private final PageLoader loader;
+    private final int pageSize;
+    private final Cursor[] cursors = new Cursor[PduType.values().length];
+    private final PriorityQueue<Cursor> heads = new PriorityQueue<>(BY_HEAD);
+    private long pagesLoaded;
+
+    ReplayMerger(PageLoader loader, int pageSize, long startEpochSeconds) {
+        this.loader = loader;
+        this.pageSize = pageSize;
+        for (PduType type : PduType.values()) {
+            cursors[type.ordinal()] = new Cursor(type);
+        }
+        seek(startEpochSeconds);
+    }
+
+    /** Repositions every cursor on the first row at or after {@code epochSeconds}, dropping the buffered rows. */
+    void seek(long epochSeconds) {
+        heads.clear();
+        for (Cursor cursor : cursors) {
+            cursor.page.clear();
+            cursor.afterEpochSeconds = epochSeconds - 1;
+            cursor.afterId = Long.MAX_VALUE;
+            cursor.exhausted = false;
+            if (cursor.refill()) {
+                heads.add(cursor);
+            }
+        }
+    }
+
+    /** Time of the next row, or {@code null} at the end of the window. */
+    Long peekEpochSeconds() {
+        Cursor head = heads.peek();
+        return head != null ? head.page.peekFirst().epochSeconds() : null;
+    }
+
+    Row next() {
+        Cursor head = heads.poll();
+        if (head == null) {
+            return null;
+        }
+        Row row = head.page.pollFirst();
+        if (!head.page.isEmpty() || head.refill()) {
+            heads.add(head);
+        }
+        return row;
+    }
+
+    int buffered() {
+        int rows = 0;
+        for (Cursor cursor : cursors) {
+            rows += cursor.page.size();
+        }
+        return rows;
+    }
+
+    long getPagesLoaded() {
+        return pagesLoaded;
+    }
+
+    private final class Cursor {
+        private final PduType type;
+        private final ArrayDeque<Row> page = new ArrayDeque<>();
+        private long afterEpochSeconds;
+        private long afterId;
+        private boolean exhausted;
+
+        private Cursor(PduType type) {
+            this.type = type;
+        }
+
+        /** Loads the next page into the (empty) buffer; returns false when the table has no more rows. */
+        private boolean refill() {
+            if (exhausted) {
+                return false;
+            }
+            List<Row> rows = loader.load(type, afterEpochSeconds, afterId, pageSize);
+            pagesLoaded++;
+            exhausted = rows.size() < pageSize;
+            if (rows.isEmpty()) {
+                return false;
+            }
+            page.addAll(rows);
+            Row last = rows.get(rows.size() - 1);
+            afterEpochSeconds = last.epochSeconds();
+            afterId = last.id();
+            return true;
+        }
+    }
+}
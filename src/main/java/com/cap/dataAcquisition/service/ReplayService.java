@@ -0,0 +1,187 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.dto.ReplaySessionStatus;
+import com.cap.dataAcquisition.model.PduType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Server-paced replay of historical PDUs over Server-Sent Events.
+ * <p>
+ * Every stream is a {@link ReplaySession} on its own thread, reading the window through a {@link ReplayMerger} whose
+ * cursors page through each table by (timestamp, id). No connection or transaction is held between pages, so a paused
+ * or slow replay costs one buffered page per table and nothing in the database.
+ * <p>
+ * A page is read in time slices of {@code acquisition.replay.slice-seconds}, each a primary-key range scan over the ids
+ * the time-to-id index ({@link PduIdIndexService}) maps the slice to, with the (timestamp, id) position rechecked on
+ * those rows only. A slice that does not fill the page is followed by one twice as long, so gaps in a table cost a few
+ * statements rather than one per slice.
+ */
+@Service
+public class ReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MetricsService metricsService;
+    private final PduIdIndexService pduIdIndexService;
+    private final Map<PduType, RowMapper<?>> rowMappers = new EnumMap<>(PduType.class);
+    private final Map<String, ReplaySession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "replay-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${acquisition.replay.max-sessions:16}")
+    private int maxSessions;
+
+    @Value("${acquisition.replay.max-speed:64}")
+    private double maxSpeed;
+
+    @Value("${acquisition.replay.page-size:500}")
+    private int pageSize;
+
+    @Value("${acquisition.replay.max-batch:1000}")
+    private int maxBatch;
+
+    @Value("${acquisition.replay.slice-seconds:60}")
+    private long sliceSeconds;
+
+    @Value("${acquisition.replay.heartbeat-ms:1000}")
+    private long heartbeatMillis;
+
+    @Value("${acquisition.replay.emitter-timeout-ms:0}")
+    private long emitterTimeoutMillis;
+
+    @Autowired
+    public ReplayService(JdbcTemplate jdbcTemplate, MetricsService metricsService,
+                         @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metricsService = metricsService;
+        this.pduIdIndexService = pduIdIndexService;
+        for (PduType type : PduType.values()) {
+            rowMappers.put(type, BeanPropertyRowMapper.newInstance(type.getRecordClass()));
+        }
+    }
+
+    /**
+     * Opens a replay of {@code [start, end]} (epoch seconds, inclusive). The first event, {@code session}, carries the
+     * id used by the control calls.
+     *
+     * @throws IllegalArgumentException for an invalid window or speed
+     * @throws IllegalStateException    when {@code acquisition.replay.max-sessions} replays are already running
+     */
+    public SseEmitter start(long startEpochSeconds, long endEpochSeconds, double speed) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        validateSpeed(speed);
+        synchronized (sessions) {
+            if (sessions.size() >= maxSessions) {
+                throw new IllegalStateException("Too many replay sessions");
+            }
+            String id = UUID.randomUUID().toString();
+            SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+            ReplayMerger merger = new ReplayMerger((type, afterEpoch, afterId, limit) ->
+                    loadPage(type, afterEpoch, afterId, endEpochSeconds, limit), pageSize, startEpochSeconds);
+            Function<Object, PduLogResponse.PduLogEntry> toLogEntry = metricsService::toLogEntry;
+            ReplaySession session = new ReplaySession(id, startEpochSeconds, endEpochSeconds, speed, merger, toLogEntry,
+                    emitter, maxBatch, heartbeatMillis, () -> sessions.remove(id));
+            emitter.onCompletion(session::stop);
+            emitter.onTimeout(session::stop);
+            emitter.onError(error -> session.stop());
+            sessions.put(id, session);
+            executor.execute(session);
+            log.info("Replay {} started for {} to {} at {}x", id, startEpochSeconds, endEpochSeconds, speed);
+            return emitter;
+        }
+    }
+
+    public Optional<ReplaySessionStatus> status(String sessionId) {
+        return find(sessionId).map(ReplaySession::status);
+    }
+
+    public Optional<ReplaySessionStatus> pause(String sessionId) {
+        return find(sessionId).map(ReplaySession::pause);
+    }
+
+    public Optional<ReplaySessionStatus> resume(String sessionId) {
+        return find(sessionId).map(ReplaySession::resume);
+    }
+
+    public Optional<ReplaySessionStatus> seek(String sessionId, long epochSeconds) {
+        return find(sessionId).map(session -> session.seek(epochSeconds));
+    }
+
+    public Optional<ReplaySessionStatus> setSpeed(String sessionId, double speed) {
+        validateSpeed(speed);
+        return find(sessionId).map(session -> session.setSpeed(speed));
+    }
+
+    public boolean stop(String sessionId) {
+        Optional<ReplaySession> session = find(sessionId);
+        session.ifPresent(ReplaySession::stop);
+        return session.isPresent();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(ReplaySession::stop);
+        executor.shutdownNow();
+    }
+
+    private Optional<ReplaySession> find(String sessionId) {
+        return Optional.ofNullable(sessions.get(sessionId));
+    }
+
+    private void validateSpeed(double speed) {
+        if (!(speed > 0) || speed > maxSpeed) {
+            throw new IllegalArgumentException("speed must be above 0 and at most " + maxSpeed);
+        }
+    }
+
+    private List<ReplayMerger.Row> loadPage(PduType type, long afterEpochSeconds, long afterId, long endEpochSeconds, int limit) {
+        RowMapper<?> mapper = rowMappers.get(type);
+        String sql = "SELECT * FROM " + type.getTableName() + " WHERE " + PduSql.ID_RANGE +
+                     " AND timestamp BETWEEN ? AND ? AND (timestamp, id) > (?, ?) ORDER BY timestamp, id LIMIT ?";
+        List<ReplayMerger.Row> rows = new ArrayList<>();
+        // Without the index a slice is no cheaper than the rest of the window, so the window is read at once
+        long span = pduIdIndexService != null ? Math.max(1L, sliceSeconds) : Long.MAX_VALUE;
+        for (long sliceStart = afterEpochSeconds; sliceStart <= endEpochSeconds && rows.size() < limit; ) {
+            long sliceEnd = endEpochSeconds - sliceStart < span ? endEpochSeconds : sliceStart + span - 1;
+            PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, type, sliceStart, sliceEnd);
+            rows.addAll(jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new ReplayMerger.Row(type, rs.getLong("id"),
+                            MetricsService.fromDisAbsoluteTimestamp(rs.getLong("timestamp")), mapper.mapRow(rs, rowNum)),
+                    ids.fromId(), ids.toId(), ids.tailAfterId(),
+                    MetricsService.toDisAbsoluteTimestamp(sliceStart), MetricsService.toDisAbsoluteTimestamp(sliceEnd),
+                    MetricsService.toDisAbsoluteTimestamp(afterEpochSeconds), afterId, limit - rows.size()));
+            sliceStart = sliceEnd + 1;
+            span = span > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : span * 2;
+        }
+        return rows;
+    }
+}
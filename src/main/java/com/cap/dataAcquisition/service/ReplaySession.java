@@ -0,0 +1,237 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.dto.ReplayBatch;
+import com.cap.dataAcquisition.dto.ReplaySessionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One replay viewer: pulls rows from a {@link ReplayMerger} and sends each simulation second as a {@code pdus} event
+ * when the replay clock reaches it.
+ * <p>
+ * The clock is anchored at (wall time, simulation time) and runs at {@code speed}; pause, seek and speed changes just
+ * re-anchor it and wake the replay thread. While it waits for the next second a {@code clock} event is sent every
+ * {@code heartbeatMillis} so viewers can move their playhead through quiet periods.
+ */
+final class ReplaySession implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplaySession.class);
+
+    private final String id;
+    private final long startEpochSeconds;
+    private final long endEpochSeconds;
+    private final ReplayMerger merger;
+    private final Function<Object, PduLogResponse.PduLogEntry> toLogEntry;
+    private final SseEmitter emitter;
+    private final int maxBatch;
+    private final long heartbeatMillis;
+    private final Runnable onFinish;
+
+    // Guarded by this
+    private double speed;
+    private boolean paused;
+    private boolean stopped;
+    private Long pendingSeek;
+    private long anchorWallMillis;
+    private long anchorSimMillis;
+    private long pdusSent;
+    private long version; // Bumped by every control call
+
+    ReplaySession(String id, long startEpochSeconds, long endEpochSeconds, double speed, ReplayMerger merger,
+                  Function<Object, PduLogResponse.PduLogEntry> toLogEntry, SseEmitter emitter, int maxBatch,
+                  long heartbeatMillis, Runnable onFinish) {
+        this.id = id;
+        this.startEpochSeconds = startEpochSeconds;
+        this.endEpochSeconds = endEpochSeconds;
+        this.speed = speed;
+        this.merger = merger;
+        this.toLogEntry = toLogEntry;
+        this.emitter = emitter;
+        this.maxBatch = maxBatch;
+        this.heartbeatMillis = heartbeatMillis;
+        this.onFinish = onFinish;
+        this.anchorWallMillis = System.currentTimeMillis();
+        this.anchorSimMillis = startEpochSeconds * 1000;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    // --- Controls (request threads) ---
+
+    synchronized ReplaySessionStatus pause() {
+        if (!paused) {
+            reanchor(System.currentTimeMillis());
+            paused = true;
+            version++;
+            notifyAll();
+        }
+        return status();
+    }
+
+    synchronized ReplaySessionStatus resume() {
+        if (paused) {
+            anchorWallMillis = System.currentTimeMillis();
+            paused = false;
+            version++;
+            notifyAll();
+        }
+        return status();
+    }
+
+    synchronized ReplaySessionStatus seek(long epochSeconds) {
+        if (epochSeconds < startEpochSeconds || epochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("Seek target must be inside the replay window");
+        }
+        pendingSeek = epochSeconds;
+        anchorSimMillis = epochSeconds * 1000;
+        anchorWallMillis = System.currentTimeMillis();
+        version++;
+        notifyAll();
+        return status();
+    }
+
+    synchronized ReplaySessionStatus setSpeed(double newSpeed) {
+        reanchor(System.currentTimeMillis());
+        speed = newSpeed;
+        version++;
+        notifyAll();
+        return status();
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    synchronized ReplaySessionStatus status() {
+        return new ReplaySessionStatus(id, startEpochSeconds, endEpochSeconds, speed, paused,
+                playheadMillis(System.currentTimeMillis()) / 1000, pdusSent);
+    }
+
+    private long playheadMillis(long nowMillis) {
+        if (paused) {
+            return anchorSimMillis;
+        }
+        return Math.min(anchorSimMillis + (long) ((nowMillis - anchorWallMillis) * speed), (endEpochSeconds + 1) * 1000 - 1);
+    }
+
+    private void reanchor(long nowMillis) {
+        anchorSimMillis = playheadMillis(nowMillis);
+        anchorWallMillis = nowMillis;
+    }
+
+    // --- Replay thread ---
+
+    private enum Wait { DUE, HEARTBEAT, CHANGED, STOPPED }
+
+    @Override
+    public void run() {
+        try {
+            replay();
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Replay {} ended by the client: {}", id, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Replay {} failed: {}", id, e.getMessage(), e);
+            emitter.completeWithError(e);
+        } finally {
+            onFinish.run();
+        }
+    }
+
+    private void replay() throws IOException, InterruptedException {
+        send("session", status());
+        while (true) {
+            Long seek;
+            synchronized (this) {
+                while (paused && !stopped && pendingSeek == null) {
+                    wait();
+                }
+                if (stopped) {
+                    return;
+                }
+                seek = pendingSeek;
+                pendingSeek = null;
+            }
+            if (seek != null) {
+                merger.seek(seek);
+                send("clock", status());
+                continue;
+            }
+            Long second = merger.peekEpochSeconds();
+            if (second == null) {
+                send("end", status());
+                return;
+            }
+            switch (waitFor(second)) {
+                case DUE -> sendSecond(second);
+                case HEARTBEAT -> send("clock", status());
+                case STOPPED -> {
+                    return;
+                }
+                case CHANGED -> {
+                    // Paused, seeking or re-timed: look again
+                }
+            }
+        }
+    }
+
+    private synchronized Wait waitFor(long epochSeconds) throws InterruptedException {
+        if (stopped) {
+            return Wait.STOPPED;
+        }
+        if (paused || pendingSeek != null) {
+            return Wait.CHANGED;
+        }
+        long seenVersion = version;
+        long dueWallMillis = anchorWallMillis + (long) Math.ceil((epochSeconds * 1000 - anchorSimMillis) / speed);
+        long remaining = dueWallMillis - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return Wait.DUE;
+        }
+        wait(Math.min(remaining, heartbeatMillis));
+        if (stopped) {
+            return Wait.STOPPED;
+        }
+        if (version != seenVersion) {
+            return Wait.CHANGED;
+        }
+        return System.currentTimeMillis() >= dueWallMillis ? Wait.DUE : Wait.HEARTBEAT;
+    }
+
+    private void sendSecond(long epochSeconds) throws IOException {
+        List<PduLogResponse.PduLogEntry> pdus = new ArrayList<>();
+        while (Long.valueOf(epochSeconds).equals(merger.peekEpochSeconds())) {
+            pdus.add(toLogEntry.apply(merger.next().record()));
+            if (pdus.size() == maxBatch) {
+                sendPdus(epochSeconds, pdus);
+                pdus = new ArrayList<>();
+            }
+        }
+        if (!pdus.isEmpty()) {
+            sendPdus(epochSeconds, pdus);
+        }
+    }
+
+    private void sendPdus(long epochSeconds, List<PduLogResponse.PduLogEntry> pdus) throws IOException {
+        send("pdus", new ReplayBatch(epochSeconds, pdus));
+        synchronized (this) {
+            pdusSent += pdus.size();
+        }
+    }
+
+    private void send(String event, Object data) throws IOException {
+        emitter.send(SseEmitter.event().name(event).data(data));
+    }
+}
@@ -0,0 +1,161 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.model.PduType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-second PDU counts of the last {@code acquisition.metrics.rolling.window-minutes}, kept up to date incrementally
+ * for the {@code last60minutes} metrics overview.
+ * <p>
+ * The counts live in a ring of per-minute slots, each holding the per-second counts of every type for that minute.
+ * Every call first reads the rows added since the previous call, tailing each table by id ({@link IdTail}) so that no
+ * row is counted twice, and a slot is cleared when its minute falls out of the window
+ * and the slot is reused. A call therefore costs the new rows plus one pass over the ring, not a scan of the hour.
+ * The first call, and any call after more than a window without one, reloads the window over the id range
+ * {@link PduIdIndexService} maps it to.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.metrics.rolling.enabled", havingValue = "true")
+public class RollingMetricsWindow {
+
+    private static final Logger log = LoggerFactory.getLogger(RollingMetricsWindow.class);
+
+    private static final int TYPES = PduType.values().length;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService pduIdIndexService;
+    private final IdTail[] tails = new IdTail[TYPES];
+    private int[][][] slots;    // [slot][type][second of the minute]
+    private long[] slotMinutes; // epoch minute held by each slot
+    private long refreshedAt = Long.MIN_VALUE;
+
+    @Value("${acquisition.metrics.rolling.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${acquisition.metrics.rolling.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${acquisition.metrics.rolling.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public RollingMetricsWindow(JdbcTemplate jdbcTemplate,
+                                @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /** Whether {@code [fromEpochSeconds, nowEpochSeconds]} lies inside the window kept in memory. */
+    public boolean covers(long fromEpochSeconds, long nowEpochSeconds) {
+        return fromEpochSeconds >= oldestMinute(nowEpochSeconds) * 60;
+    }
+
+    /**
+     * PDUs per second of {@code [fromEpochSeconds, nowEpochSeconds]} (inclusive), one array per type in {@link PduType}
+     * order, after applying the rows written since the previous call.
+     */
+    public synchronized int[][] countPerSecond(long fromEpochSeconds, long nowEpochSeconds) {
+        if (!covers(fromEpochSeconds, nowEpochSeconds) || fromEpochSeconds > nowEpochSeconds) {
+            throw new IllegalArgumentException("Window " + fromEpochSeconds + " - " + nowEpochSeconds
+                    + " is not within the last " + windowMinutes + " minutes");
+        }
+        long start = System.nanoTime();
+        long rows = refresh(nowEpochSeconds);
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.record("metrics.rolling.refresh", System.nanoTime() - start, rows);
+        }
+
+        int[][] perSecond = new int[TYPES][(int) (nowEpochSeconds - fromEpochSeconds + 1)];
+        for (long second = fromEpochSeconds; second <= nowEpochSeconds; second++) {
+            long minute = Math.floorDiv(second, 60);
+            int slot = slot(minute);
+            if (slotMinutes[slot] == minute) {
+                int secondOfMinute = (int) Math.floorMod(second, 60);
+                for (int type = 0; type < TYPES; type++) {
+                    perSecond[type][(int) (second - fromEpochSeconds)] = slots[slot][type][secondOfMinute];
+                }
+            }
+        }
+        return perSecond;
+    }
+
+    /** Applies the new rows of every table; returns the number of rows read. */
+    long refresh(long nowEpochSeconds) {
+        boolean reload = refreshedAt == Long.MIN_VALUE || nowEpochSeconds - refreshedAt > windowMinutes * 60L;
+        refreshedAt = nowEpochSeconds;
+        if (reload) {
+            // The current minute and one minute of clock skew ahead of it are kept besides the window
+            slots = new int[windowMinutes + 2][][];
+            slotMinutes = new long[windowMinutes + 2];
+        }
+        long rows = 0;
+        for (PduType type : PduType.values()) {
+            rows += reload ? load(type, nowEpochSeconds) : tail(type, nowEpochSeconds);
+        }
+        if (reload) {
+            log.info("Loaded the rolling {} minute metrics window ({} rows)", windowMinutes, rows);
+        }
+        return rows;
+    }
+
+    private long load(PduType type, long nowEpochSeconds) {
+        int ordinal = type.ordinal();
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + type.getTableName(), Long.class);
+        tails[ordinal] = new IdTail(idOverlap);
+        tails[ordinal].reset(maxId != null ? maxId : 0L);
+        long from = oldestMinute(nowEpochSeconds) * 60;
+        // Up to the end of the minute of clock skew kept ahead of the current one
+        PduIdIndexService.IdRange range = PduIdIndexService.idRange(pduIdIndexService, type, from,
+                (Math.floorDiv(nowEpochSeconds, 60) + 2) * 60 - 1);
+        long[] applied = {0};
+        jdbcTemplate.query("SELECT id, timestamp FROM " + type.getTableName() + " WHERE " + PduSql.ID_RANGE +
+                           " AND id <= ? AND timestamp >= ?", rs -> {
+            apply(ordinal, rs.getLong("id"), rs.getLong("timestamp"), nowEpochSeconds);
+            applied[0]++;
+        }, range.fromId(), range.toId(), range.tailAfterId(), tails[ordinal].getLastId(),
+                MetricsService.toDisAbsoluteTimestamp(from));
+        return applied[0];
+    }
+
+    private long tail(PduType type, long nowEpochSeconds) {
+        int ordinal = type.ordinal();
+        String sql = "SELECT id, timestamp FROM " + type.getTableName() + " WHERE id > ? ORDER BY id LIMIT ?";
+        return tails[ordinal].poll(jdbcTemplate, sql, batchSize,
+                rs -> apply(ordinal, rs.getLong("id"), rs.getLong("timestamp"), nowEpochSeconds));
+    }
+
+    void apply(int type, long id, long disTimestamp, long nowEpochSeconds) {
+        if (!tails[type].firstSeen(id)) {
+            return;
+        }
+        long second = MetricsService.fromDisAbsoluteTimestamp(disTimestamp);
+        long minute = Math.floorDiv(second, 60);
+        long currentMinute = Math.floorDiv(nowEpochSeconds, 60);
+        if (minute < oldestMinute(nowEpochSeconds) || minute > currentMinute + 1) {
+            return;
+        }
+        int slot = slot(minute);
+        if (slots[slot] == null || slotMinutes[slot] != minute) {
+            // The minute this slot held has left the window
+            slots[slot] = new int[TYPES][60];
+            slotMinutes[slot] = minute;
+        }
+        slots[slot][type][(int) Math.floorMod(second, 60)]++;
+    }
+
+    private long oldestMinute(long nowEpochSeconds) {
+        return Math.floorDiv(nowEpochSeconds, 60) - windowMinutes;
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) slotMinutes.length);
+    }
+}
@@ -0,0 +1,135 @@
+package com.cap.dataAcquisition.service;
+
+/**
+ * Busiest fixed-length window over a per-second count array, evaluated at a fixed step.
+ * <p>
+ * Candidate windows start on multiples of the step (epoch aligned, so a 60 s window at a 60 s step is the classic
+ * per-minute bucket). A single running sum of the counts makes the search O(n + n / step) regardless of the window
+ * length. Windows overhanging either end of the array are clipped to it, and the count is that of the clipped interval.
+ * {@link Accumulator} gives the same answer for an array that arrives in consecutive pieces.
+ */
+final class SlidingWindowPeak {
+
+    /** Peak interval {@code [startEpochSecond, endEpochSecond)} and the number of PDUs in it. */
+    record Peak(long startEpochSecond, long endEpochSecond, long count) {
+    }
+
+    private SlidingWindowPeak() {
+    }
+
+    /**
+     * @param perSecond       PDU count of each second, index 0 being {@code firstEpochSecond}
+     * @param firstEpochSecond epoch second of {@code perSecond[0]}
+     * @return the earliest window with the highest count, or null when every count is zero
+     */
+    static Peak find(int[] perSecond, long firstEpochSecond, int windowSeconds, int stepSeconds) {
+        if (windowSeconds < 1 || stepSeconds < 1) {
+            throw new IllegalArgumentException("Window and step must be positive");
+        }
+        int n = perSecond.length;
+        long[] runningSum = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            runningSum[i + 1] = runningSum[i] + perSecond[i];
+        }
+        long lastEpochSecond = firstEpochSecond + n; // exclusive
+        long bestCount = 0;
+        long bestStart = 0;
+        long bestEnd = 0;
+        // First window start on the step grid that still overlaps the array
+        long windowStart = Math.floorDiv(firstEpochSecond - windowSeconds + 1 + stepSeconds - 1, stepSeconds) * (long) stepSeconds;
+        for (; windowStart < lastEpochSecond; windowStart += stepSeconds) {
+            long from = Math.max(windowStart, firstEpochSecond);
+            long to = Math.min(windowStart + windowSeconds, lastEpochSecond);
+            long count = runningSum[(int) (to - firstEpochSecond)] - runningSum[(int) (from - firstEpochSecond)];
+            if (count > bestCount) {
+                bestCount = count;
+                bestStart = from;
+                bestEnd = to;
+            }
+        }
+        return bestCount > 0 ? new Peak(bestStart, bestEnd, bestCount) : null;
+    }
+
+    /**
+     * Streaming form of {@link #find}: consecutive runs of per-second counts are added in time order and only the last
+     * {@code windowSeconds} running sums are kept, so memory does not grow with the length of the window.
+     */
+    static final class Accumulator {
+
+        private final int windowSeconds;
+        private final int stepSeconds;
+        private final long firstEpochSecond;
+        private final long[] runningSums; // running sum up to (exclusive) second s, at index (s - first) % length
+        private long nextEpochSecond;
+        private long nextWindowStart;
+        private long bestCount;
+        private long bestStart;
+        private long bestEnd;
+
+        Accumulator(long firstEpochSecond, int windowSeconds, int stepSeconds) {
+            if (windowSeconds < 1 || stepSeconds < 1) {
+                throw new IllegalArgumentException("Window and step must be positive");
+            }
+            this.windowSeconds = windowSeconds;
+            this.stepSeconds = stepSeconds;
+            this.firstEpochSecond = firstEpochSecond;
+            this.runningSums = new long[windowSeconds + 1];
+            this.nextEpochSecond = firstEpochSecond;
+            this.nextWindowStart = Math.floorDiv(firstEpochSecond - windowSeconds + 1 + stepSeconds - 1, stepSeconds) * (long) stepSeconds;
+        }
+
+        /** Adds the counts of {@code [fromEpochSecond, fromEpochSecond + perSecond.length)}, which must follow on. */
+        void add(int[] perSecond, long fromEpochSecond) {
+            if (fromEpochSecond != nextEpochSecond) {
+                throw new IllegalStateException("Expected second " + nextEpochSecond + " but got " + fromEpochSecond);
+            }
+            for (int count : perSecond) {
+                long sum = runningSum(nextEpochSecond) + count;
+                nextEpochSecond++;
+                runningSums[slot(nextEpochSecond)] = sum;
+                // The window ending at this second is complete
+                if (nextWindowStart + windowSeconds == nextEpochSecond) {
+                    consider(nextWindowStart, nextEpochSecond);
+                    nextWindowStart += stepSeconds;
+                }
+            }
+        }
+
+        long getNextEpochSecond() {
+            return nextEpochSecond;
+        }
+
+        /** Peak of everything added so far, the last windows clipped to the data; null when every count is zero. */
+        Peak peak() {
+            long savedCount = bestCount;
+            long savedStart = bestStart;
+            long savedEnd = bestEnd;
+            for (long windowStart = nextWindowStart; windowStart < nextEpochSecond; windowStart += stepSeconds) {
+                consider(windowStart, nextEpochSecond);
+            }
+            Peak peak = bestCount > 0 ? new Peak(bestStart, bestEnd, bestCount) : null;
+            bestCount = savedCount;
+            bestStart = savedStart;
+            bestEnd = savedEnd;
+            return peak;
+        }
+
+        private void consider(long windowStart, long windowEnd) {
+            long from = Math.max(windowStart, firstEpochSecond);
+            long count = runningSum(windowEnd) - runningSum(from);
+            if (count > bestCount) {
+                bestCount = count;
+                bestStart = from;
+                bestEnd = windowEnd;
+            }
+        }
+
+        private long runningSum(long epochSecond) {
+            return runningSums[slot(epochSecond)];
+        }
+
+        private int slot(long epochSecond) {
+            return (int) ((epochSecond - firstEpochSecond) % runningSums.length);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dis.DisPduLayout;
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse field selection ({@code fields=}) for the record and PDU log endpoints.
+ * <p>
+ * Only the columns behind the requested fields are selected, and each row is returned with just those fields, so a
+ * narrow view costs proportionally less to read and to serialize. Field names are the JSON names of the full
+ * responses: record properties ({@code id}, {@code locationX}, ...) for the record endpoints; for log entries
+ * {@code Id}, {@code PDUType} and {@code length} plus any {@code recordDetails} key. Types whose table has none of the
+ * requested log fields are not queried at all.
+ * <p>
+ * With consolidated storage the type-specific columns live in the {@code pdu_event} payload, so logs are read as
+ * usual and only trimmed before serialization.
+ */
+@Service
+public class SparseFieldService {
+
+    public static final String LOG_ID = "Id";
+    public static final String LOG_PDU_TYPE = "PDUType";
+    public static final String LOG_LENGTH = "length";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String TIMESTAMP_EPOCH = "timestampEpoch";
+    private static final String TIMESTAMP_HUMAN = "timestampHuman";
+    private static final Set<String> LOG_ENTRY_FIELDS = Set.of(LOG_ID, LOG_PDU_TYPE, LOG_LENGTH);
+
+    // Detonation and ActionRequest log entries carry the raw DIS timestamp only (see MetricsService#toLogEntry)
+    private static final Set<PduType> RAW_TIMESTAMP_ONLY = EnumSet.of(PduType.DETONATION, PduType.ACTION_REQUEST);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MetricsService metricsService;
+    private final PduIdIndexService pduIdIndexService;
+    private final RecordColumns recordColumns;
+
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    @Autowired
+    public SparseFieldService(JdbcTemplate jdbcTemplate, MetricsService metricsService, RecordColumns recordColumns,
+                              @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metricsService = metricsService;
+        this.recordColumns = recordColumns;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /**
+     * Splits a {@code fields=} parameter into record properties of {@code type}.
+     *
+     * @throws IllegalArgumentException when the list is empty or names a field the record does not have
+     */
+    public Set<String> recordFields(PduType type, String fields) {
+        Set<String> selected = split(fields);
+        for (String field : selected) {
+            if (!recordColumns.of(type).containsKey(field)) {
+                throw new IllegalArgumentException("Unknown " + type.getLogName() + " field: " + field);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Splits a {@code fields=} parameter into log entry fields.
+     *
+     * @throws IllegalArgumentException when the list is empty or names a field no log entry has
+     */
+    public Set<String> logFields(String fields) {
+        Set<String> selected = split(fields);
+        for (String field : selected) {
+            boolean known = LOG_ENTRY_FIELDS.contains(field) || Arrays.stream(PduType.values())
+                    .anyMatch(type -> hasDetail(type, field));
+            if (!known) {
+                throw new IllegalArgumentException("Unknown log field: " + field);
+            }
+        }
+        return selected;
+    }
+
+    /** The types a log view with {@code fields} reads: all of them when an entry-level field is selected. */
+    public Set<PduType> logTypes(Set<String> fields) {
+        Set<PduType> types = EnumSet.noneOf(PduType.class);
+        for (PduType type : PduType.values()) {
+            if (fields.stream().anyMatch(field -> LOG_ENTRY_FIELDS.contains(field) || hasDetail(type, field))) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * The {@code fields} of the records of {@code type} with a DIS timestamp in {@code [disStartTime, disEndTime]},
+     * or of all records when either bound is null.
+     */
+    public List<Map<String, Object>> findRecords(PduType type, Set<String> fields, Long disStartTime, Long disEndTime) {
+        Map<String, String> columns = recordColumns.of(type);
+        List<String> selected = fields.stream().map(columns::get).toList();
+        return RequestTimings.time("sparse.records", () -> query(type, selected, disStartTime, disEndTime, null, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, rs.getObject(columns.get(field)));
+            }
+            return row;
+        }));
+    }
+
+    /**
+     * PDU log entries of {@code [disStartTime, disEndTime]} holding only {@code fields}, restricted to {@code types}
+     * and, when {@code entity} is not null, to PDUs that entity originated (as in {@link MetricsService#getPduLogs}).
+     */
+    public PduLogResponse getPduLogs(Long disStartTime, Long disEndTime, Set<String> fields, Set<PduType> types,
+                                     DisEntityId entity) {
+        Set<PduType> selected = EnumSet.noneOf(PduType.class);
+        for (PduType type : logTypes(fields)) {
+            if (types.contains(type) && (entity == null || type.hasOriginatingEntity())) {
+                selected.add(type);
+            }
+        }
+        if (consolidatedStorage) {
+            List<PduLogResponse.PduLogEntry> entries = new ArrayList<>();
+            if (selected.isEmpty()) {
+                return new PduLogResponse(entries);
+            }
+            for (PduLogResponse.PduLogEntry entry : metricsService.getPduLogs(disStartTime, disEndTime, selected, entity)
+                    .getPduMessages()) {
+                entries.add(project(entry, fields));
+            }
+            return new PduLogResponse(entries);
+        }
+        List<PduLogResponse.PduLogEntry> entries = new ArrayList<>();
+        for (PduType type : selected) {
+            Set<String> details = fields.stream().filter(field -> hasDetail(type, field))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<String> columns = new LinkedHashSet<>();
+            if (fields.contains(LOG_ID)) {
+                columns.add("id");
+            }
+            for (String detail : details) {
+                columns.add(detail.startsWith(TIMESTAMP) ? TIMESTAMP : recordColumns.of(type).get(detail));
+            }
+            if (columns.isEmpty()) {
+                columns.add("id"); // PDUType and length only: one narrow column per row
+            }
+            entries.addAll(RequestTimings.time("sparse.logs", () -> query(type, List.copyOf(columns), disStartTime, disEndTime, entity,
+                    (rs, rowNum) -> new PduLogResponse.PduLogEntry(
+                            fields.contains(LOG_ID) ? rs.getLong("id") : null,
+                            fields.contains(LOG_PDU_TYPE) ? type.getLogName() : null,
+                            fields.contains(LOG_LENGTH) ? DisPduLayout.length(type) : null,
+                            details.isEmpty() ? null : details(type, details, rs)))));
+        }
+        return new PduLogResponse(entries);
+    }
+
+    /** A copy of a full log entry with only {@code fields}. */
+    static PduLogResponse.PduLogEntry project(PduLogResponse.PduLogEntry entry, Set<String> fields) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        entry.getRecordDetails().forEach((key, value) -> {
+            if (fields.contains(key)) {
+                details.put(key, value);
+            }
+        });
+        return new PduLogResponse.PduLogEntry(
+                fields.contains(LOG_ID) ? entry.getId() : null,
+                fields.contains(LOG_PDU_TYPE) ? entry.getPduType() : null,
+                fields.contains(LOG_LENGTH) ? entry.getLength() : null,
+                details.isEmpty() ? null : details);
+    }
+
+    private <T> List<T> query(PduType type, List<String> columns, Long disStartTime, Long disEndTime, DisEntityId entity,
+                              RowMapper<T> mapper) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", columns))
+                .append(" FROM ").append(type.getTableName());
+        List<Object> args = new ArrayList<>();
+        if (disStartTime != null && disEndTime != null) {
+            sql.append(" WHERE ");
+            if (entity != null) {
+                // Served by the (entity, timestamp) index of the table
+                sql.append(type.getSiteColumn()).append(" = ? AND ").append(type.getApplicationColumn()).append(" = ? AND ")
+                        .append(type.getEntityColumn()).append(" = ? AND ");
+                args.addAll(List.of(entity.site(), entity.application(), entity.entity()));
+            } else if (pduIdIndexService != null) {
+                PduIdIndexService.IdRange range = pduIdIndexService.idRange(type,
+                        MetricsService.fromDisAbsoluteTimestamp(disStartTime), MetricsService.fromDisAbsoluteTimestamp(disEndTime));
+                sql.append("(id BETWEEN ? AND ? OR id > ?) AND ");
+                args.addAll(List.of(range.fromId(), range.toId(), range.tailAfterId()));
+            }
+            sql.append("timestamp BETWEEN ? AND ?");
+            args.addAll(List.of(disStartTime, disEndTime));
+        }
+        return jdbcTemplate.query(sql.toString(), mapper, args.toArray());
+    }
+
+    private Map<String, Object> details(PduType type, Set<String> details, ResultSet rs) throws SQLException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String detail : details) {
+            switch (detail) {
+                case TIMESTAMP -> values.put(detail, rs.getLong(TIMESTAMP));
+                case TIMESTAMP_EPOCH -> values.put(detail, MetricsService.fromDisAbsoluteTimestamp(rs.getLong(TIMESTAMP)));
+                case TIMESTAMP_HUMAN -> values.put(detail, MetricsService.formatInstant(
+                        Instant.ofEpochSecond(MetricsService.fromDisAbsoluteTimestamp(rs.getLong(TIMESTAMP)))));
+                default -> values.put(detail, rs.getObject(recordColumns.of(type).get(detail)));
+            }
+        }
+        return values;
+    }
+
+    private boolean hasDetail(PduType type, String field) {
+        if (TIMESTAMP_EPOCH.equals(field) || TIMESTAMP_HUMAN.equals(field)) {
+            return !RAW_TIMESTAMP_ONLY.contains(type);
+        }
+        return !"id".equals(field) && recordColumns.of(type).containsKey(field);
+    }
+
+    private static Set<String> split(String fields) {
+        Set<String> selected = Arrays.stream(fields.split(",")).map(String::trim).filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,132 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.SpatialQueryResponse;
+import com.cap.dataAcquisition.model.DetonationRecord;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.repository.DetonationRepository;
+import com.cap.dataAcquisition.repository.EntityStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Box and sphere queries over entity states and detonations within a time window.
+ * <p>
+ * The database does the filtering through the GiST location index, narrowed to the window's primary-key range by the
+ * time-to-id index ({@link PduIdIndexService}), so the work done here is proportional to the number of matching
+ * records. Results are capped at {@code acquisition.spatial.max-results}; one extra row is fetched
+ * to tell the caller whether the cap was hit.
+ */
+@Service
+public class SpatialQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpatialQueryService.class);
+
+    private final EntityStateRepository entityStateRepository;
+    private final DetonationRepository detonationRepository;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.spatial.max-results:50000}")
+    private int maxResults;
+
+    @Autowired
+    public SpatialQueryService(EntityStateRepository entityStateRepository, DetonationRepository detonationRepository,
+                               @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.entityStateRepository = entityStateRepository;
+        this.detonationRepository = detonationRepository;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /** Axis-aligned box; a null Z bound leaves that side open. */
+    public record Box(double minX, double minY, Double minZ, double maxX, double maxY, Double maxZ) {
+        public Box {
+            if (minX > maxX || minY > maxY || (minZ != null && maxZ != null && minZ > maxZ)) {
+                throw new IllegalArgumentException("Box minimum must not exceed its maximum");
+            }
+        }
+
+        double lowerZ() {
+            return minZ != null ? minZ : -Double.MAX_VALUE;
+        }
+
+        double upperZ() {
+            return maxZ != null ? maxZ : Double.MAX_VALUE;
+        }
+    }
+
+    public record Sphere(double centerX, double centerY, double centerZ, double radius) {
+        public Sphere {
+            if (!(radius >= 0)) {
+                throw new IllegalArgumentException("Radius must be zero or positive");
+            }
+        }
+    }
+
+    public SpatialQueryResponse<EntityStateRecord> findEntityStates(Box box, long startEpochSeconds, long endEpochSeconds) {
+        validateWindow(startEpochSeconds, endEpochSeconds);
+        PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, PduType.ENTITY_STATE,
+                startEpochSeconds, endEpochSeconds);
+        List<EntityStateRecord> records = entityStateRepository.findWithinBox(
+                box.minX(), box.minY(), box.lowerZ(), box.maxX(), box.maxY(), box.upperZ(),
+                ids.fromId(), ids.toId(), ids.tailAfterId(),
+                MetricsService.toDisAbsoluteTimestamp(startEpochSeconds), MetricsService.toDisAbsoluteTimestamp(endEpochSeconds),
+                maxResults + 1);
+        return toResponse("box", startEpochSeconds, endEpochSeconds, records);
+    }
+
+    public SpatialQueryResponse<EntityStateRecord> findEntityStates(Sphere sphere, long startEpochSeconds, long endEpochSeconds) {
+        validateWindow(startEpochSeconds, endEpochSeconds);
+        PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, PduType.ENTITY_STATE,
+                startEpochSeconds, endEpochSeconds);
+        List<EntityStateRecord> records = entityStateRepository.findWithinSphere(
+                sphere.centerX(), sphere.centerY(), sphere.centerZ(), sphere.radius(),
+                ids.fromId(), ids.toId(), ids.tailAfterId(),
+                MetricsService.toDisAbsoluteTimestamp(startEpochSeconds), MetricsService.toDisAbsoluteTimestamp(endEpochSeconds),
+                maxResults + 1);
+        return toResponse("sphere", startEpochSeconds, endEpochSeconds, records);
+    }
+
+    public SpatialQueryResponse<DetonationRecord> findDetonations(Box box, long startEpochSeconds, long endEpochSeconds) {
+        validateWindow(startEpochSeconds, endEpochSeconds);
+        PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, PduType.DETONATION,
+                startEpochSeconds, endEpochSeconds);
+        List<DetonationRecord> records = detonationRepository.findWithinBox(
+                box.minX(), box.minY(), box.lowerZ(), box.maxX(), box.maxY(), box.upperZ(),
+                ids.fromId(), ids.toId(), ids.tailAfterId(),
+                MetricsService.toDisAbsoluteTimestamp(startEpochSeconds), MetricsService.toDisAbsoluteTimestamp(endEpochSeconds),
+                maxResults + 1);
+        return toResponse("box", startEpochSeconds, endEpochSeconds, records);
+    }
+
+    public SpatialQueryResponse<DetonationRecord> findDetonations(Sphere sphere, long startEpochSeconds, long endEpochSeconds) {
+        validateWindow(startEpochSeconds, endEpochSeconds);
+        PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, PduType.DETONATION,
+                startEpochSeconds, endEpochSeconds);
+        List<DetonationRecord> records = detonationRepository.findWithinSphere(
+                sphere.centerX(), sphere.centerY(), sphere.centerZ(), sphere.radius(),
+                ids.fromId(), ids.toId(), ids.tailAfterId(),
+                MetricsService.toDisAbsoluteTimestamp(startEpochSeconds), MetricsService.toDisAbsoluteTimestamp(endEpochSeconds),
+                maxResults + 1);
+        return toResponse("sphere", startEpochSeconds, endEpochSeconds, records);
+    }
+
+    private static void validateWindow(long startEpochSeconds, long endEpochSeconds) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+    }
+
+    private <T> SpatialQueryResponse<T> toResponse(String shape, long startEpochSeconds, long endEpochSeconds, List<T> records) {
+        boolean truncated = records.size() > maxResults;
+        List<T> returned = truncated ? records.subList(0, maxResults) : records;
+        if (truncated) {
+            log.info("Spatial {} query matched more than {} records; result truncated", shape, maxResults);
+        }
+        return new SpatialQueryResponse<>(shape, startEpochSeconds, endEpochSeconds, returned.size(), truncated, returned);
+    }
+}
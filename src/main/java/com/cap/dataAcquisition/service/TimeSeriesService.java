@@ -0,0 +1,167 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduRateSeries;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-type PDU counts over time, bucketed so the series stays within a requested number of points.
+ * <p>
+ * Buckets are aligned to the Unix epoch. Whole minutes already covered by {@code pdu_count_rollup} are read from the
+ * rollup; the remaining edges of the window (and any bucket size below one minute) are counted with a single
+ * {@code GROUP BY} over the PDU tables, bounded by the id ranges {@link PduIdIndexService} maps the edges to.
+ */
+@Service
+public class TimeSeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeSeriesService.class);
+
+    static final long[] BUCKET_SECONDS = {
+            1, 2, 5, 10, 15, 30,
+            60, 120, 300, 600, 900, 1800,
+            3600, 7200, 10800, 21600, 43200, 86400
+    };
+
+    private static final String RAW_SQL =
+            PduSql.unionAll(type -> "SELECT " + type.getDisCode() + " AS pdu_type, (" + PduSql.EPOCH_SECONDS + " / ?) * ? AS bucket, COUNT(*) AS count " +
+                                    "FROM " + type.getTableName() + " WHERE " + PduSql.ID_RANGE +
+                                    " AND timestamp BETWEEN ? AND ? GROUP BY 2");
+
+    private static final String RAW_CONSOLIDATED_SQL =
+            "SELECT pdu_type, (" + PduSql.EPOCH_SECONDS + " / ?) * ? AS bucket, COUNT(*) AS count " +
+            "FROM pdu_event WHERE timestamp BETWEEN ? AND ? GROUP BY 1, 2";
+
+    private static final String ROLLUP_SQL =
+            "SELECT pdu_type, (minute_epoch / ?) * ? AS bucket, SUM(count) AS count " +
+            "FROM pdu_count_rollup WHERE minute_epoch >= ? AND minute_epoch < ? GROUP BY 1, 2";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduCountRollupService rollupService;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.storage.consolidated.enabled:false}")
+    private boolean consolidatedStorage;
+
+    @Value("${acquisition.series.max-points-limit:5000}")
+    private int maxPointsLimit;
+
+    @Autowired
+    public TimeSeriesService(JdbcTemplate jdbcTemplate,
+                             @Autowired(required = false) PduCountRollupService rollupService,
+                             @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    /**
+     * Smallest supported bucket that keeps the window within {@code maxPoints} buckets; one day at most.
+     */
+    static long pickBucketSeconds(long startEpochSeconds, long endEpochSeconds, int maxPoints) {
+        for (long candidate : BUCKET_SECONDS) {
+            if (bucketCount(startEpochSeconds, endEpochSeconds, candidate) <= maxPoints) {
+                return candidate;
+            }
+        }
+        return BUCKET_SECONDS[BUCKET_SECONDS.length - 1];
+    }
+
+    private static long bucketCount(long startEpochSeconds, long endEpochSeconds, long bucketSeconds) {
+        return Math.floorDiv(endEpochSeconds, bucketSeconds) - Math.floorDiv(startEpochSeconds, bucketSeconds) + 1;
+    }
+
+    public PduRateSeries getSeries(long startEpochSeconds, long endEpochSeconds, int maxPoints) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (maxPoints < 1 || maxPoints > maxPointsLimit) {
+            throw new IllegalArgumentException("maxPoints must be between 1 and " + maxPointsLimit);
+        }
+        long bucketSeconds = pickBucketSeconds(startEpochSeconds, endEpochSeconds, maxPoints);
+        long firstBucket = Math.floorDiv(startEpochSeconds, bucketSeconds) * bucketSeconds;
+        int buckets = (int) bucketCount(startEpochSeconds, endEpochSeconds, bucketSeconds);
+        long[][] counts = new long[buckets][PduType.values().length];
+
+        // Whole minutes inside the window that the rollup already covers
+        long rollupStart = Math.floorDiv(startEpochSeconds + 59, 60) * 60;
+        long rollupEnd = Math.floorDiv(endEpochSeconds + 1, 60) * 60;
+        if (rollupService != null && bucketSeconds % 60 == 0) {
+            rollupEnd = Math.min(rollupEnd, rollupService.getCoveredUntil());
+        } else {
+            rollupEnd = rollupStart;
+        }
+
+        String source;
+        if (rollupStart < rollupEnd) {
+            accumulate(counts, firstBucket, bucketSeconds, "series.rollup", ROLLUP_SQL,
+                    bucketSeconds, bucketSeconds, rollupStart, rollupEnd);
+            boolean raw = false;
+            if (startEpochSeconds < rollupStart) {
+                accumulateRaw(counts, firstBucket, bucketSeconds, startEpochSeconds, rollupStart - 1);
+                raw = true;
+            }
+            if (rollupEnd <= endEpochSeconds) {
+                accumulateRaw(counts, firstBucket, bucketSeconds, rollupEnd, endEpochSeconds);
+                raw = true;
+            }
+            source = raw ? "rollup+raw" : "rollup";
+        } else {
+            accumulateRaw(counts, firstBucket, bucketSeconds, startEpochSeconds, endEpochSeconds);
+            source = "raw";
+        }
+
+        List<PduRateSeries.Bucket> series = new ArrayList<>(buckets);
+        PduType[] types = PduType.values();
+        for (int i = 0; i < buckets; i++) {
+            Map<String, Long> byType = new LinkedHashMap<>();
+            long total = 0;
+            for (PduType type : types) {
+                long count = counts[i][type.ordinal()];
+                if (count > 0) {
+                    byType.put(type.getLogName(), count);
+                    total += count;
+                }
+            }
+            series.add(new PduRateSeries.Bucket(firstBucket + i * bucketSeconds, total, byType));
+        }
+        log.info("Series {} to {}: {} buckets of {} s from {}", startEpochSeconds, endEpochSeconds, buckets, bucketSeconds, source);
+        return new PduRateSeries(startEpochSeconds, endEpochSeconds, bucketSeconds, source, series);
+    }
+
+    private void accumulateRaw(long[][] counts, long firstBucket, long bucketSeconds, long fromEpochSeconds, long toEpochSeconds) {
+        long disFrom = MetricsService.toDisAbsoluteTimestamp(fromEpochSeconds);
+        long disTo = MetricsService.toDisAbsoluteTimestamp(toEpochSeconds);
+        if (consolidatedStorage) {
+            accumulate(counts, firstBucket, bucketSeconds, "series.raw", RAW_CONSOLIDATED_SQL,
+                    bucketSeconds, bucketSeconds, disFrom, disTo);
+        } else {
+            accumulate(counts, firstBucket, bucketSeconds, "series.raw", RAW_SQL,
+                    PduSql.perTableArgs(type -> {
+                        PduIdIndexService.IdRange range =
+                                PduIdIndexService.idRange(pduIdIndexService, type, fromEpochSeconds, toEpochSeconds);
+                        return new Object[]{bucketSeconds, bucketSeconds,
+                                range.fromId(), range.toId(), range.tailAfterId(), disFrom, disTo};
+                    }));
+        }
+    }
+
+    private void accumulate(long[][] counts, long firstBucket, long bucketSeconds, String stage, String sql, Object... args) {
+        RequestTimings.time(stage, () -> jdbcTemplate.query(sql, rs -> {
+            int bucket = (int) ((rs.getLong("bucket") - firstBucket) / bucketSeconds);
+            if (bucket >= 0 && bucket < counts.length) {
+                counts[bucket][PduType.fromDisCode(rs.getShort("pdu_type")).ordinal()] += rs.getLong("count");
+            }
+        }, args));
+    }
+}
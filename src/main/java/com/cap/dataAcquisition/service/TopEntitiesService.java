@@ -0,0 +1,102 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.diagnostics.RequestTimings;
+import com.cap.dataAcquisition.dto.TopEntitiesResponse;
+import com.cap.dataAcquisition.model.TopEntityRole;
+import com.cap.dataAcquisition.sketch.SpaceSaving;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Top-K most active firing entities and most targeted entities over a window.
+ * <p>
+ * "Last N minutes" queries within the streaming window are answered from the in-memory summaries of
+ * {@link TopEntitiesStreamService}; explicit or older windows run one {@code GROUP BY ... ORDER BY count DESC LIMIT k}
+ * over the primary-key range the time-to-id index ({@link PduIdIndexService}) maps the window to.
+ */
+@Service
+public class TopEntitiesService {
+
+    private static final Logger log = LoggerFactory.getLogger(TopEntitiesService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TopEntitiesStreamService streamService;
+    private final PduIdIndexService pduIdIndexService;
+
+    @Value("${acquisition.top-entities.max-k:100}")
+    private int maxK;
+
+    @Autowired
+    public TopEntitiesService(JdbcTemplate jdbcTemplate,
+                              @Autowired(required = false) TopEntitiesStreamService streamService,
+                              @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamService = streamService;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    static String topSql(TopEntityRole role) {
+        String site = role.getSiteColumn();
+        String application = role.getApplicationColumn();
+        String entity = role.getEntityColumn();
+        return "SELECT " + site + " AS site, " + application + " AS application, " + entity + " AS entity, COUNT(*) AS count " +
+               "FROM " + role.getPduType().getTableName() + " WHERE " + PduSql.ID_RANGE + " AND timestamp BETWEEN ? AND ?" +
+               (role.skipsUnknownEntity() ? " AND (" + site + " <> 0 OR " + application + " <> 0 OR " + entity + " <> 0)" : "") +
+               " GROUP BY 1, 2, 3 ORDER BY count DESC, 1, 2, 3 LIMIT ?";
+    }
+
+    public TopEntitiesResponse getTopEntities(TopEntityRole role, int k, int lastMinutes) {
+        validateK(k);
+        if (lastMinutes < 1) {
+            throw new IllegalArgumentException("lastMinutes must be positive");
+        }
+        long now = Instant.now().getEpochSecond();
+        long windowStart = Math.floorDiv(now, 60) * 60 - (lastMinutes - 1) * 60L;
+        if (streamService == null || lastMinutes > streamService.getWindowMinutes()) {
+            return query(role, k, windowStart, now);
+        }
+        SpaceSaving summary = RequestTimings.time("topEntities.stream", () -> streamService.summarize(role, lastMinutes, now));
+        List<TopEntitiesResponse.TopEntity> entities = new ArrayList<>(k);
+        for (SpaceSaving.Entry entry : summary.top(k)) {
+            long key = entry.key();
+            entities.add(new TopEntitiesResponse.TopEntity((int) (key >>> 32) & 0xFFFF, (int) (key >>> 16) & 0xFFFF,
+                    (int) key & 0xFFFF, entry.count(), entry.error()));
+        }
+        return new TopEntitiesResponse(role.name().toLowerCase(), windowStart, now, "stream", entities);
+    }
+
+    public TopEntitiesResponse getTopEntities(TopEntityRole role, int k, long startEpochSeconds, long endEpochSeconds) {
+        validateK(k);
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        return query(role, k, startEpochSeconds, endEpochSeconds);
+    }
+
+    private void validateK(int k) {
+        if (k < 1 || k > maxK) {
+            throw new IllegalArgumentException("k must be between 1 and " + maxK);
+        }
+    }
+
+    private TopEntitiesResponse query(TopEntityRole role, int k, long startEpochSeconds, long endEpochSeconds) {
+        PduIdIndexService.IdRange ids = PduIdIndexService.idRange(pduIdIndexService, role.getPduType(),
+                startEpochSeconds, endEpochSeconds);
+        List<TopEntitiesResponse.TopEntity> entities = RequestTimings.time("topEntities.db", () -> jdbcTemplate.query(
+                topSql(role),
+                (rs, rowNum) -> new TopEntitiesResponse.TopEntity(rs.getInt("site"), rs.getInt("application"),
+                        rs.getInt("entity"), rs.getLong("count"), 0L),
+                ids.fromId(), ids.toId(), ids.tailAfterId(),
+                MetricsService.toDisAbsoluteTimestamp(startEpochSeconds), MetricsService.toDisAbsoluteTimestamp(endEpochSeconds), k));
+        log.info("Top {} {} entities {} to {} from the database", k, role, startEpochSeconds, endEpochSeconds);
+        return new TopEntitiesResponse(role.name().toLowerCase(), startEpochSeconds, endEpochSeconds, "database", entities);
+    }
+}
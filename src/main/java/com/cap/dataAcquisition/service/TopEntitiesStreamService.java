@@ -0,0 +1,173 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.TopEntityRole;
+import com.cap.dataAcquisition.sketch.SpaceSaving;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live top-K rankings for the {@link TopEntityRole}s over the last {@code acquisition.top-entities.window-minutes}.
+ * <p>
+ * Every role keeps a ring of per-minute {@link SpaceSaving} summaries. Fire and detonation records are tailed by id
+ * ({@link IdTail}), which reports every row only once, so a row is never counted twice. A ranking merges at most one summary per minute of the window, so answering costs the same
+ * however many events arrived.
+ */
+@Service
+@ConditionalOnProperty(name = "acquisition.top-entities.streaming.enabled", havingValue = "true")
+public class TopEntitiesStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(TopEntitiesStreamService.class);
+
+    private static final List<PduType> TAILED_TYPES = List.of(PduType.FIRE_EVENT, PduType.DETONATION);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PduIdIndexService pduIdIndexService;
+    private final Map<TopEntityRole, SpaceSaving[]> summaries = new EnumMap<>(TopEntityRole.class);
+    private final Map<TopEntityRole, long[]> summaryMinutes = new EnumMap<>(TopEntityRole.class);
+    private final Map<PduType, IdTail> tails = new EnumMap<>(PduType.class);
+    private volatile boolean seeded;
+
+    @Value("${acquisition.top-entities.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${acquisition.top-entities.capacity:512}")
+    private int capacity;
+
+    @Value("${acquisition.top-entities.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${acquisition.top-entities.id-overlap:1000}")
+    private long idOverlap;
+
+    @Autowired
+    public TopEntitiesStreamService(JdbcTemplate jdbcTemplate,
+                                    @Autowired(required = false) PduIdIndexService pduIdIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pduIdIndexService = pduIdIndexService;
+    }
+
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    private static String columnsSql(PduType type) {
+        StringBuilder columns = new StringBuilder("id, timestamp");
+        for (TopEntityRole role : TopEntityRole.values()) {
+            if (role.getPduType() == type) {
+                columns.append(", ").append(role.getSiteColumn()).append(", ").append(role.getApplicationColumn())
+                       .append(", ").append(role.getEntityColumn());
+            }
+        }
+        return columns.toString();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long now = Instant.now().getEpochSecond();
+        long seedFromEpoch = now - windowMinutes * 60L;
+        long seedFrom = MetricsService.toDisAbsoluteTimestamp(seedFromEpoch);
+        for (PduType type : TAILED_TYPES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + type.getTableName(), Long.class);
+            // Position the tail first so the seeded rows inside its overlap are remembered and not counted again
+            IdTail tail = new IdTail(idOverlap);
+            tail.reset(maxId != null ? maxId : 0L);
+            tails.put(type, tail);
+            // Up to the end of the minute of clock skew kept ahead of the current one
+            PduIdIndexService.IdRange range = PduIdIndexService.idRange(pduIdIndexService, type, seedFromEpoch,
+                    (Math.floorDiv(now, 60) + 2) * 60 - 1);
+            long[] applied = {0};
+            jdbcTemplate.query("SELECT " + columnsSql(type) + " FROM " + type.getTableName() +
+                               " WHERE " + PduSql.ID_RANGE + " AND id <= ? AND timestamp >= ?", rs -> {
+                if (tail.firstSeen(rs.getLong("id"))) {
+                    apply(type, rs);
+                }
+                applied[0]++;
+            }, range.fromId(), range.toId(), range.tailAfterId(), tail.getLastId(), seedFrom);
+            log.info("Seeded top-entity summaries with {} {} records", applied[0], type.getLogName());
+        }
+        seeded = true;
+    }
+
+    @Scheduled(fixedDelayString = "${acquisition.top-entities.poll-interval-ms:1000}")
+    public void poll() {
+        if (!seeded) {
+            return;
+        }
+        for (PduType type : TAILED_TYPES) {
+            try {
+                poll(type);
+            } catch (RuntimeException e) {
+                log.error("Failed to refresh top-entity summaries from {}: {}", type.getTableName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void poll(PduType type) {
+        String sql = "SELECT " + columnsSql(type) + " FROM " + type.getTableName() + " WHERE id > ? ORDER BY id LIMIT ?";
+        tails.get(type).poll(jdbcTemplate, sql, batchSize, rs -> apply(type, rs));
+    }
+
+    private void apply(PduType type, ResultSet rs) throws SQLException {
+        long minute = Math.floorDiv(MetricsService.fromDisAbsoluteTimestamp(rs.getLong("timestamp")), 60);
+        for (TopEntityRole role : TopEntityRole.values()) {
+            if (role.getPduType() == type) {
+                apply(role, minute, rs.getInt(role.getSiteColumn()), rs.getInt(role.getApplicationColumn()),
+                        rs.getInt(role.getEntityColumn()));
+            }
+        }
+    }
+
+    synchronized void apply(TopEntityRole role, long minute, int site, int application, int entity) {
+        if (role.skipsUnknownEntity() && site == 0 && application == 0 && entity == 0) {
+            return;
+        }
+        long currentMinute = Math.floorDiv(Instant.now().getEpochSecond(), 60);
+        if (minute <= currentMinute - windowMinutes || minute > currentMinute + 1) {
+            return;
+        }
+        SpaceSaving[] ring = summaries.computeIfAbsent(role, r -> new SpaceSaving[windowMinutes + 2]);
+        long[] minutes = summaryMinutes.computeIfAbsent(role, r -> new long[windowMinutes + 2]);
+        int slot = (int) Math.floorMod(minute, (long) ring.length);
+        if (ring[slot] == null || minutes[slot] != minute) {
+            ring[slot] = new SpaceSaving(capacity);
+            minutes[slot] = minute;
+        }
+        ring[slot].offer(LatestEntityStateService.packKey(site, application, entity));
+    }
+
+    /**
+     * Merges the summaries of the last {@code lastMinutes} minutes (the current, partial minute included).
+     */
+    public synchronized SpaceSaving summarize(TopEntityRole role, int lastMinutes, long nowEpochSeconds) {
+        SpaceSaving merged = new SpaceSaving(capacity);
+        SpaceSaving[] ring = summaries.get(role);
+        if (ring == null) {
+            return merged;
+        }
+        long[] minutes = summaryMinutes.get(role);
+        long currentMinute = Math.floorDiv(nowEpochSeconds, 60);
+        for (long minute = currentMinute - lastMinutes + 1; minute <= currentMinute; minute++) {
+            int slot = (int) Math.floorMod(minute, (long) ring.length);
+            if (ring[slot] != null && minutes[slot] == minute) {
+                merged.merge(ring[slot]);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.TrajectoryPoint;
+import com.cap.dataAcquisition.dto.TrajectoryResponse;
+import com.cap.dataAcquisition.repository.EntityStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds the track of a single entity, reduced to a point budget.
+ * <p>
+ * The count and the row stream run in one repeatable-read transaction so the LTTB buckets, which are sized from the
+ * count, line up with the rows that are actually streamed.
+ */
+@Service
+public class TrajectoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrajectoryService.class);
+
+    private final EntityStateRepository entityStateRepository;
+
+    @Value("${acquisition.trajectory.max-points-limit:10000}")
+    private int maxPointsLimit;
+
+    @Autowired
+    public TrajectoryService(EntityStateRepository entityStateRepository) {
+        this.entityStateRepository = entityStateRepository;
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TrajectoryResponse getTrajectory(int site, int application, int entity,
+                                            long startEpochSeconds, long endEpochSeconds, int maxPoints) {
+        if (startEpochSeconds > endEpochSeconds) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (maxPoints < 3 || maxPoints > maxPointsLimit) {
+            throw new IllegalArgumentException("maxPoints must be between 3 and " + maxPointsLimit);
+        }
+        long disStartTime = MetricsService.toDisAbsoluteTimestamp(startEpochSeconds);
+        long disEndTime = MetricsService.toDisAbsoluteTimestamp(endEpochSeconds);
+
+        long total = entityStateRepository.countBySiteAndApplicationAndEntityAndTimestampBetween(
+                site, application, entity, disStartTime, disEndTime);
+
+        List<TrajectoryPoint> points;
+        String downsampling;
+        try (Stream<TrajectoryPoint> rows = entityStateRepository.streamTrajectory(
+                site, application, entity, disStartTime, disEndTime)) {
+            if (total <= maxPoints) {
+                points = rows.collect(Collectors.toList());
+                downsampling = "none";
+            } else {
+                LttbDownsampler downsampler = new LttbDownsampler(total, maxPoints);
+                rows.forEach(downsampler::accept);
+                points = downsampler.result();
+                downsampling = "lttb";
+            }
+        }
+        log.info("Trajectory for entity {}:{}:{} reduced from {} to {} points", site, application, entity, total, points.size());
+        return new TrajectoryResponse(site, application, entity, startEpochSeconds, endEpochSeconds,
+                total, points.size(), downsampling, points);
+    }
+}
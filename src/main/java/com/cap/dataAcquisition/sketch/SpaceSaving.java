@@ -0,0 +1,130 @@
+package com.cap.dataAcquisition.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy-hitter summary over long keys, holding at most {@code capacity} counters.
+ * <p>
+ * When the summary is full, a new key takes over the smallest counter and inherits its count as the error bound, so
+ * every reported count overestimates the true one by at most its {@link Entry#error()}, and every key seen more than
+ * {@code total / capacity} times is guaranteed to be present. Summaries merge (Agarwal et al., "Mergeable summaries"),
+ * which lets per-minute summaries be combined into any window of minutes.
+ */
+public final class SpaceSaving {
+
+    // Ascending by count; among equal counts the larger key comes first, so the descending view ranks ties by key
+    private static final Comparator<Counter> BY_COUNT =
+            Comparator.<Counter>comparingLong(c -> c.count).thenComparing(c -> c.key, Comparator.reverseOrder());
+
+    private final int capacity;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Sum of all increments offered, directly or through merges. */
+    public long getTotal() {
+        return total;
+    }
+
+    public void offer(long key) {
+        offer(key, 1);
+    }
+
+    public void offer(long key, long increment) {
+        total += increment;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count += increment;
+            ordered.add(counter);
+        } else if (counters.size() < capacity) {
+            put(new Counter(key, increment, 0));
+        } else {
+            Counter smallest = ordered.pollFirst();
+            counters.remove(smallest.key);
+            put(new Counter(key, smallest.count + increment, smallest.count));
+        }
+    }
+
+    /** Count any absent key may have reached without being tracked: the smallest counter once full, else zero. */
+    public long minCount() {
+        return counters.size() < capacity ? 0 : ordered.first().count;
+    }
+
+    public void merge(SpaceSaving other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+        Set<Long> keys = new HashSet<>(counters.keySet());
+        keys.addAll(other.counters.keySet());
+        List<Counter> combined = new ArrayList<>(keys.size());
+        for (long key : keys) {
+            Counter mine = counters.get(key);
+            Counter theirs = other.counters.get(key);
+            long count = (mine != null ? mine.count : thisMin) + (theirs != null ? theirs.count : otherMin);
+            long error = (mine != null ? mine.error : thisMin) + (theirs != null ? theirs.error : otherMin);
+            combined.add(new Counter(key, count, error));
+        }
+        combined.sort(BY_COUNT.reversed());
+        counters.clear();
+        ordered.clear();
+        for (int i = 0; i < Math.min(capacity, combined.size()); i++) {
+            put(combined.get(i));
+        }
+        total += other.total;
+    }
+
+    /** The {@code k} largest counters, highest count first, ties in key order. */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(Math.min(k, counters.size()));
+        for (Counter counter : ordered.descendingSet()) {
+            if (entries.size() == k) {
+                break;
+            }
+            entries.add(new Entry(counter.key, counter.count, counter.error));
+        }
+        return entries;
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    private void put(Counter counter) {
+        counters.put(counter.key, counter);
+        ordered.add(counter);
+    }
+
+    /** A tracked key; the true count lies in {@code [count - error, count]}. */
+    public record Entry(long key, long count, long error) {
+    }
+
+    private static final class Counter {
+        final long key;
+        long count;
+        long error;
+
+        Counter(long key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
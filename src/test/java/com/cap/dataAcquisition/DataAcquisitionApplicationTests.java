@@ -33,6 +33,10 @@ class DataAcquisitionApplicationTests {
             System.setProperty("spring.datasource.url", postgres.getJdbcUrl());
             System.setProperty("spring.datasource.username", postgres.getUsername());
             System.setProperty("spring.datasource.password", postgres.getPassword());
+            System.setProperty("spring.r2dbc.url", "r2dbc:postgresql://" + postgres.getHost() + ":"
+                    + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+            System.setProperty("spring.r2dbc.username", postgres.getUsername());
+            System.setProperty("spring.r2dbc.password", postgres.getPassword());
         }
     }
     
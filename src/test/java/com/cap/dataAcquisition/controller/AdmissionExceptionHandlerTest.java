@@ -0,0 +1,74 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.repository.CollisionRepository;
+import com.cap.dataAcquisition.repository.DetonationRepository;
+import com.cap.dataAcquisition.repository.EntityStateRepository;
+import com.cap.dataAcquisition.repository.FireEventRepository;
+import com.cap.dataAcquisition.service.AdmissionControl;
+import com.cap.dataAcquisition.service.AdmissionRejectedException;
+import com.cap.dataAcquisition.service.ExerciseSessionService;
+import com.cap.dataAcquisition.service.MetricsService;
+import com.cap.dataAcquisition.service.QueryClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SessionController.class)
+class AdmissionExceptionHandlerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AdmissionControl admissionControl;
+    @MockBean
+    private ExerciseSessionService exerciseSessionService;
+    @MockBean
+    private EntityStateRepository entityStateRepository;
+    @MockBean
+    private FireEventRepository fireEventRepository;
+    @MockBean
+    private CollisionRepository collisionRepository;
+    @MockBean
+    private DetonationRepository detonationRepository;
+    @MockBean
+    private MetricsService metricsService;
+
+    @BeforeEach
+    void setUp() {
+        when(exerciseSessionService.window(3L))
+            .thenReturn(Optional.of(new ExerciseSessionService.SessionWindow(1_700_000_000L, 1_700_604_799L)));
+    }
+
+    @Test
+    void rejectedQuery_returnsTooManyRequestsWithRetryAfter() throws Exception {
+        when(admissionControl.execute(anyString(), any(), anyLong(), any()))
+            .thenThrow(new AdmissionRejectedException(QueryClass.BULK, 50_000_000L, 30));
+
+        mockMvc.perform(get("/api/acquisition/sessions/3/logs"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    void statementTimeout_returnsServiceUnavailable() throws Exception {
+        when(admissionControl.execute(anyString(), any(), anyLong(), any()))
+            .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+
+        mockMvc.perform(get("/api/acquisition/sessions/3/entity-states"))
+            .andExpect(status().isServiceUnavailable());
+    }
+}
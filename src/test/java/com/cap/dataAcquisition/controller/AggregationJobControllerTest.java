@@ -0,0 +1,65 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.AggregationJobStatus;
+import com.cap.dataAcquisition.service.ChunkedAggregationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AggregationJobController.class)
+class AggregationJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChunkedAggregationService chunkedAggregationService;
+
+    private static AggregationJobStatus jobStatus(AggregationJobStatus.State state, int chunksCompleted) {
+        return new AggregationJobStatus("job-1", state, 0L, 86_399L, 3600L, 24, chunksCompleted, chunksCompleted * 3600L,
+                null, null);
+    }
+
+    @Test
+    void submit_returnsAcceptedWithJobId() throws Exception {
+        when(chunkedAggregationService.submit(0L, 86_399L)).thenReturn(jobStatus(AggregationJobStatus.State.RUNNING, 0));
+
+        mockMvc.perform(post("/api/acquisition/aggregate/jobs").param("startTime", "0").param("endTime", "86399"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.jobId").value("job-1"))
+            .andExpect(jsonPath("$.chunksTotal").value(24));
+    }
+
+    @Test
+    void submit_invalidWindowOrTooManyJobs_isRejected() throws Exception {
+        when(chunkedAggregationService.submit(10L, 5L)).thenThrow(new IllegalArgumentException("startTime must not be after endTime"));
+        when(chunkedAggregationService.submit(0L, 5L)).thenThrow(new IllegalStateException("Too many running aggregation jobs"));
+
+        mockMvc.perform(post("/api/acquisition/aggregate/jobs").param("startTime", "10").param("endTime", "5"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/acquisition/aggregate/jobs").param("startTime", "0").param("endTime", "5"))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void resume_reportsProgressAndUnknownJobsAreNotFound() throws Exception {
+        when(chunkedAggregationService.resume("job-1")).thenReturn(Optional.of(jobStatus(AggregationJobStatus.State.RUNNING, 9)));
+        when(chunkedAggregationService.status("nope")).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/acquisition/aggregate/jobs/job-1/resume"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value("RUNNING"))
+            .andExpect(jsonPath("$.completedUntil").value(32_400));
+        mockMvc.perform(get("/api/acquisition/aggregate/jobs/nope"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,160 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.DistinctEntityCounts;
+import com.cap.dataAcquisition.dto.PduRateSeries;
+import com.cap.dataAcquisition.dto.RateDistributionResponse;
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import com.cap.dataAcquisition.dto.TopEntitiesResponse;
+import com.cap.dataAcquisition.model.CustomRangeAggregation;
+import com.cap.dataAcquisition.model.TopEntityRole;
+import com.cap.dataAcquisition.service.BatchAggregationService;
+import com.cap.dataAcquisition.service.DistinctEntityService;
+import com.cap.dataAcquisition.service.RateDistributionService;
+import com.cap.dataAcquisition.service.TimeSeriesService;
+import com.cap.dataAcquisition.service.TopEntitiesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalyticsController.class)
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TimeSeriesService timeSeriesService;
+    @MockBean
+    private BatchAggregationService batchAggregationService;
+    @MockBean
+    private DistinctEntityService distinctEntityService;
+    @MockBean
+    private TopEntitiesService topEntitiesService;
+    @MockBean
+    private RateDistributionService rateDistributionService;
+
+    @Test
+    void getPduRateSeries_returnsBuckets() throws Exception {
+        PduRateSeries series = new PduRateSeries(0L, 119L, 60L, "raw", List.of(
+                new PduRateSeries.Bucket(0L, 3L, Map.of("EntityState", 3L)),
+                new PduRateSeries.Bucket(60L, 0L, Map.of())));
+        when(timeSeriesService.getSeries(0L, 119L, 2)).thenReturn(series);
+
+        mockMvc.perform(get("/api/acquisition/metrics/series")
+                .param("startTime", "0").param("endTime", "119").param("maxPoints", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.bucketSeconds", is(60)))
+            .andExpect(jsonPath("$.buckets", hasSize(2)))
+            .andExpect(jsonPath("$.buckets[0].counts.EntityState", is(3)));
+    }
+
+    @Test
+    void getDistinctEntities_returnsEstimates() throws Exception {
+        DistinctEntityCounts counts = new DistinctEntityCounts(0L, 7199L, 3600L, 0.016, 1000L, 12L, List.of(
+                new DistinctEntityCounts.Bucket(0L, 3600L, 990L, 10L),
+                new DistinctEntityCounts.Bucket(3600L, 7200L, 1000L, 3L)));
+        when(distinctEntityService.getDistinctEntities(0L, 7199L, 3600L)).thenReturn(counts);
+
+        mockMvc.perform(get("/api/acquisition/metrics/distinct-entities")
+                .param("startTime", "0").param("endTime", "7199").param("bucketSeconds", "3600"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.activeEntities", is(1000)))
+            .andExpect(jsonPath("$.buckets", hasSize(2)))
+            .andExpect(jsonPath("$.buckets[1].firingEntities", is(3)));
+    }
+
+    @Test
+    void getDistinctEntities_invalidBucket_returnsBadRequest() throws Exception {
+        when(distinctEntityService.getDistinctEntities(0L, 7199L, 90L)).thenThrow(new IllegalArgumentException("bad bucket"));
+
+        mockMvc.perform(get("/api/acquisition/metrics/distinct-entities")
+                .param("startTime", "0").param("endTime", "7199").param("bucketSeconds", "90"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRateDistribution_returnsPercentiles() throws Exception {
+        AggregatedMetricsOverview.RatePercentiles overall = new AggregatedMetricsOverview.RatePercentiles(12L, 40L, 95L, 130L, 14.2);
+        when(rateDistributionService.getDistribution(0L, 86399L)).thenReturn(new RateDistributionResponse(0L, 86399L, 24L,
+                new AggregatedMetricsOverview.RateDistribution(86400L, overall, Map.of("EntityState", overall))));
+
+        mockMvc.perform(get("/api/acquisition/metrics/rate-distribution")
+                .param("startTime", "0").param("endTime", "86399"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.hoursFromRollup", is(24)))
+            .andExpect(jsonPath("$.distribution.overall.p95", is(40)))
+            .andExpect(jsonPath("$.distribution.byType.EntityState.p99", is(95)));
+    }
+
+    @Test
+    void getRateDistribution_rejectedWindow_returnsBadRequest() throws Exception {
+        when(rateDistributionService.getDistribution(10L, 0L)).thenThrow(new IllegalArgumentException("reversed"));
+
+        mockMvc.perform(get("/api/acquisition/metrics/rate-distribution")
+                .param("startTime", "10").param("endTime", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTopEntities_lastMinutes_usesLiveRanking() throws Exception {
+        when(topEntitiesService.getTopEntities(TopEntityRole.FIRING, 2, 15)).thenReturn(new TopEntitiesResponse(
+                "firing", 0L, 900L, "stream", List.of(
+                        new TopEntitiesResponse.TopEntity(1, 3, 7, 40L, 0L),
+                        new TopEntitiesResponse.TopEntity(1, 3, 9, 12L, 2L))));
+
+        mockMvc.perform(get("/api/acquisition/metrics/top-entities")
+                .param("role", "firing").param("k", "2").param("lastMinutes", "15"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.source", is("stream")))
+            .andExpect(jsonPath("$.entities", hasSize(2)))
+            .andExpect(jsonPath("$.entities[0].entity", is(7)))
+            .andExpect(jsonPath("$.entities[1].maxOverestimate", is(2)));
+    }
+
+    @Test
+    void getTopEntities_withoutWindow_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/acquisition/metrics/top-entities").param("role", "targeted"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/acquisition/metrics/top-entities").param("role", "medic").param("lastMinutes", "5"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBatchAggregatedData_returnsOneResultPerWindow() throws Exception {
+        when(batchAggregationService.aggregate(anyList())).thenReturn(List.of(
+                new CustomRangeAggregation("2024-05-01", "2024-05-01", 10L, 2L),
+                new CustomRangeAggregation("2024-05-02", "2024-05-02", 4L, 0L)));
+
+        mockMvc.perform(post("/api/acquisition/aggregate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"windows\":[{\"start\":\"2024-05-01\",\"end\":\"2024-05-01\"},{\"start\":\"2024-05-02\",\"end\":\"2024-05-02\"}]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[1].startDate", is("2024-05-02")))
+            .andExpect(jsonPath("$[1].entityStatePduCount", is(4)));
+    }
+
+    @Test
+    void getBatchAggregatedData_invalidWindow_returnsBadRequest() throws Exception {
+        when(batchAggregationService.aggregate(anyList())).thenThrow(new IllegalArgumentException("bad window"));
+
+        mockMvc.perform(post("/api/acquisition/aggregate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"windows\":[{\"start\":\"2024-05-02\",\"end\":\"2024-05-01\"}]}"))
+            .andExpect(status().isBadRequest());
+    }
+}
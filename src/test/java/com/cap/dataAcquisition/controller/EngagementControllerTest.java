@@ -0,0 +1,51 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.Engagement;
+import com.cap.dataAcquisition.dto.EngagementReport;
+import com.cap.dataAcquisition.service.EngagementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EngagementController.class)
+class EngagementControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EngagementService engagementService;
+
+    @Test
+    void getEngagements_returnsPairsAndCounts() throws Exception {
+        Engagement engagement = new Engagement(1L, 11L, 1, 3, 5, 1, 3, 100, 1, 3, 900,
+                1000L, 1012L, 12L, 10.0, 20.0, 30.0);
+        when(engagementService.getEngagements(1000L, 2000L, 60L, 1000)).thenReturn(
+                new EngagementReport(1000L, 2000L, 60L, 1L, 2L, 0L, 12.0, false, List.of(engagement)));
+
+        mockMvc.perform(get("/api/acquisition/engagements").param("startTime", "1000").param("endTime", "2000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.engagementCount", is(1)))
+            .andExpect(jsonPath("$.unmatchedFires", is(2)))
+            .andExpect(jsonPath("$.engagements", hasSize(1)))
+            .andExpect(jsonPath("$.engagements[0].timeOfFlightSeconds", is(12)));
+    }
+
+    @Test
+    void getEngagements_invalidWindow_returnsBadRequest() throws Exception {
+        when(engagementService.getEngagements(2000L, 1000L, 60L, 1000)).thenThrow(new IllegalArgumentException("bad window"));
+
+        mockMvc.perform(get("/api/acquisition/engagements").param("startTime", "2000").param("endTime", "1000"))
+            .andExpect(status().isBadRequest());
+    }
+}
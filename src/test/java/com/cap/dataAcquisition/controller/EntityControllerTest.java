@@ -0,0 +1,115 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.EntitySnapshotResponse;
+import com.cap.dataAcquisition.dto.HeartbeatGapReport;
+import com.cap.dataAcquisition.dto.LatestEntityState;
+import com.cap.dataAcquisition.dto.TrajectoryPoint;
+import com.cap.dataAcquisition.dto.TrajectoryResponse;
+import com.cap.dataAcquisition.service.HeartbeatGapService;
+import com.cap.dataAcquisition.service.LatestEntityStateService;
+import com.cap.dataAcquisition.service.MetricsService;
+import com.cap.dataAcquisition.service.TrajectoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EntityController.class)
+class EntityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TrajectoryService trajectoryService;
+
+    @MockBean
+    private LatestEntityStateService latestEntityStateService;
+
+    @MockBean
+    private HeartbeatGapService heartbeatGapService;
+
+    @Test
+    void getHeartbeatGaps_returnsWorstEntities() throws Exception {
+        HeartbeatGapReport.EntityHeartbeat entity = new HeartbeatGapReport.EntityHeartbeat(1, 3, 7, 120L, 0L, 3599L,
+                5L, 5L, 40L, 900L, 2L, 940L, List.of(new HeartbeatGapReport.Gap(1000L, 1900L, 900L),
+                        new HeartbeatGapReport.Gap(2500L, 2540L, 40L)));
+        when(heartbeatGapService.getHeartbeatGaps(0L, 3599L, 12L, true, 100))
+                .thenReturn(new HeartbeatGapReport(0L, 3599L, 12L, 50_000L, 80, 1, 2L, false, List.of(entity)));
+
+        mockMvc.perform(get("/api/acquisition/entities/heartbeat-gaps")
+                .param("startTime", "0").param("endTime", "3599"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entitiesSeen", is(80)))
+            .andExpect(jsonPath("$.entities", hasSize(1)))
+            .andExpect(jsonPath("$.entities[0].entity", is(7)))
+            .andExpect(jsonPath("$.entities[0].gaps[0].seconds", is(900)));
+    }
+
+    @Test
+    void getHeartbeatGaps_invalidThreshold_returnsBadRequest() throws Exception {
+        when(heartbeatGapService.getHeartbeatGaps(0L, 3599L, 0L, true, 100))
+                .thenThrow(new IllegalArgumentException("gapSeconds must be at least 1"));
+
+        mockMvc.perform(get("/api/acquisition/entities/heartbeat-gaps")
+                .param("startTime", "0").param("endTime", "3599").param("gapSeconds", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTrajectory_returnsDownsampledPoints() throws Exception {
+        TrajectoryPoint point = new TrajectoryPoint(MetricsService.toDisAbsoluteTimestamp(150L), 1.0, 2.0, 3.0);
+        when(trajectoryService.getTrajectory(1, 2, 3, 100L, 200L, 500))
+                .thenReturn(new TrajectoryResponse(1, 2, 3, 100L, 200L, 50_000L, 1, "lttb", List.of(point)));
+
+        mockMvc.perform(get("/api/acquisition/entities/1/2/3/trajectory")
+                .param("startTime", "100").param("endTime", "200").param("maxPoints", "500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalPoints", is(50_000)))
+            .andExpect(jsonPath("$.downsampling", is("lttb")))
+            .andExpect(jsonPath("$.points", hasSize(1)))
+            .andExpect(jsonPath("$.points[0].timestampEpoch", is(150)));
+    }
+
+    @Test
+    void getTrajectory_invalidBudget_returnsBadRequest() throws Exception {
+        when(trajectoryService.getTrajectory(eq(1), eq(2), eq(3), anyLong(), anyLong(), anyInt()))
+                .thenThrow(new IllegalArgumentException("maxPoints must be between 3 and 10000"));
+
+        mockMvc.perform(get("/api/acquisition/entities/1/2/3/trajectory")
+                .param("startTime", "100").param("endTime", "200").param("maxPoints", "1"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLatestEntityStates_passesStalenessFilter() throws Exception {
+        LatestEntityState state = new LatestEntityState(1, 2, 3, 10.0, 20.0, 30.0, 0L, 150L, 99L);
+        when(latestEntityStateService.snapshot(30L))
+                .thenReturn(new EntitySnapshotResponse(Instant.now(), 99L, 1, List.of(state)));
+
+        mockMvc.perform(get("/api/acquisition/entities/latest").param("maxAgeSeconds", "30"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.entityCount", is(1)))
+            .andExpect(jsonPath("$.entities[0].entity", is(3)))
+            .andExpect(jsonPath("$.entities[0].recordId", is(99)));
+    }
+
+    @Test
+    void getLatestEntityStates_negativeAge_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/acquisition/entities/latest").param("maxAgeSeconds", "-1"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,57 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.service.DisExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DisExportService disExportService;
+
+    @Test
+    void exportDis_streamsPdus() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(2, WritableByteChannel.class).write(ByteBuffer.wrap(new byte[]{6, 1, 1, 1}));
+            return 1L;
+        }).when(disExportService).export(eq(100L), eq(200L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/acquisition/export/dis").param("startTime", "100").param("endTime", "200"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"pdus-100-200.pdu\""))
+            .andExpect(content().bytes(new byte[]{6, 1, 1, 1}));
+    }
+
+    @Test
+    void exportDis_reversedWindow_returnsBadRequest() throws Exception {
+        doThrow(new IllegalArgumentException("startTime must not be after endTime")).when(disExportService).validateWindow(200L, 100L);
+
+        mockMvc.perform(get("/api/acquisition/export/dis").param("startTime", "200").param("endTime", "100"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -14,6 +14,7 @@ import com.cap.dataAcquisition.repository.DesignatorPduRepository;
 import com.cap.dataAcquisition.repository.ElectromagneticEmissionsPduRepository;
 import com.cap.dataAcquisition.service.MetricsService;
 import com.cap.dataAcquisition.service.RealTimeMetricsService;
+import com.cap.dataAcquisition.service.SparseFieldService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,9 +26,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -68,6 +72,8 @@ class HistoricalDataControllerTest {
     private RealTimeMetricsService realTimeMetricsService; // [cite: 87]
     @MockBean
     private MetricsService metricsService; // [cite: 87]
+    @MockBean
+    private SparseFieldService sparseFieldService;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -86,7 +92,7 @@ class HistoricalDataControllerTest {
     @Test
     void getEntityStates_withParams_returnsFiltered() throws Exception {
         EntityStateRecord record = new EntityStateRecord(); record.setId(2L); record.setTimestamp(456L);
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(List.of(record)); // [cite: 91]
+        when(metricsService.findRecords(eq(PduType.ENTITY_STATE), anyLong(), anyLong())).thenReturn(List.of(record)); // [cite: 91]
 
         mockMvc.perform(get("/api/acquisition/entity-states")
                 .param("startTime", "1000")
@@ -110,7 +116,7 @@ class HistoricalDataControllerTest {
     @Test
     void getFireEvents_withParams_returnsFiltered() throws Exception {
         FireEventRecord record = new FireEventRecord(); record.setId(2L); record.setTimestamp(456L);
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(List.of(record)); // [cite: 96]
+        when(metricsService.findRecords(eq(PduType.FIRE_EVENT), anyLong(), anyLong())).thenReturn(List.of(record)); // [cite: 96]
 
         mockMvc.perform(get("/api/acquisition/fire-events")
                 .param("startTime", "1000")
@@ -183,10 +189,7 @@ class HistoricalDataControllerTest {
     @Test
     void getMonthlyAggregatedData_validRequest() throws Exception {
         MonthlyAggregation aggregation = new MonthlyAggregation(2023, 5, 100L, 20L, 15L, 10L); // [cite: 19, 110]
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(100, new EntityStateRecord()));
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(20, new FireEventRecord()));
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(15, new CollisionRecord()));
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(10, new DetonationRecord()));
+        when(metricsService.countPdusByType(anyLong(), anyLong())).thenReturn(pduCounts(100L, 20L, 15L, 10L));
 
         mockMvc.perform(get("/api/acquisition/monthly")
                 .param("year", "2023")
@@ -210,10 +213,7 @@ class HistoricalDataControllerTest {
     void getCustomRangeAggregatedData_validRequest() throws Exception {
         CustomRangeAggregation aggregation = new CustomRangeAggregation(
             LocalDate.of(2023,1,1).toString(), LocalDate.of(2023,1,10).toString(), 150L, 25L, 20L, 15L); // [cite: 26, 115]
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(150, new EntityStateRecord()));
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(25, new FireEventRecord()));
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(20, new CollisionRecord()));
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.nCopies(15, new DetonationRecord()));
+        when(metricsService.countPdusByType(anyLong(), anyLong())).thenReturn(pduCounts(150L, 25L, 20L, 15L));
 
         mockMvc.perform(get("/api/acquisition/aggregate")
                 .param("startDate", "2023-01-01")
@@ -275,7 +275,7 @@ class HistoricalDataControllerTest {
             List.of(entityStateEntry, emissionEntry)
         );
         
-        when(metricsService.getAllPduLogs(anyLong(), anyLong())).thenReturn(response);
+        when(metricsService.getPduLogs(anyLong(), anyLong(), eq(EnumSet.allOf(PduType.class)), isNull())).thenReturn(response);
 
         mockMvc.perform(get("/api/acquisition/realtime/logs")
                 .param("startTime", "1000")
@@ -293,9 +293,77 @@ class HistoricalDataControllerTest {
             .andExpect(jsonPath("$.Pdu_messages[1].recordDetails.emittingSite", is("789")));
     }
 
+    @Test
+    void getEntityStates_withFields_returnsSparseRows() throws Exception {
+        when(sparseFieldService.recordFields(PduType.ENTITY_STATE, "id,timestamp")).thenReturn(Set.of("id", "timestamp"));
+        when(sparseFieldService.findRecords(eq(PduType.ENTITY_STATE), anySet(), eq(1000L), eq(2000L)))
+                .thenReturn(List.of(Map.of("id", 5, "timestamp", 1500)));
+
+        mockMvc.perform(get("/api/acquisition/entity-states")
+                .param("startTime", "1000")
+                .param("endTime", "2000")
+                .param("fields", "id,timestamp"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id", is(5)))
+            .andExpect(jsonPath("$[0].locationX").doesNotExist());
+    }
+
+    @Test
+    void getPduLogs_withUnknownField_returnsBadRequest() throws Exception {
+        when(sparseFieldService.logFields("bogus")).thenThrow(new IllegalArgumentException("Unknown log field: bogus"));
+
+        mockMvc.perform(get("/api/acquisition/realtime/logs")
+                .param("startTime", "1000")
+                .param("endTime", "2000")
+                .param("fields", "bogus"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPduLogs_withTypeAndEntityFilters_skipsOtherTypes() throws Exception {
+        when(metricsService.getPduLogs(anyLong(), anyLong(), eq(EnumSet.of(PduType.FIRE_EVENT, PduType.DETONATION)),
+                eq(new DisEntityId(1, 2, 3)))).thenReturn(new PduLogResponse(List.of()));
+
+        mockMvc.perform(get("/api/acquisition/realtime/logs")
+                .param("startTime", "1000")
+                .param("endTime", "2000")
+                .param("pduTypes", "FireEvent,Detonation,StartResume")
+                .param("site", "1")
+                .param("application", "2")
+                .param("entity", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.Pdu_messages", hasSize(0)));
+    }
+
+    @Test
+    void getPduLogs_withPartialEntityOrUnknownType_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/acquisition/realtime/logs")
+                .param("startTime", "1000")
+                .param("endTime", "2000")
+                .param("site", "1"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/acquisition/realtime/logs")
+                .param("startTime", "1000")
+                .param("endTime", "2000")
+                .param("pduTypes", "Bogus"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getPduLogs_missingParameters_returnsBadRequest() throws Exception {
         mockMvc.perform(get("/api/acquisition/realtime/logs"))
             .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    private static Map<PduType, Long> pduCounts(long entityStates, long fireEvents, long collisions, long detonations) {
+        Map<PduType, Long> counts = new EnumMap<>(PduType.class);
+        for (PduType type : PduType.values()) {
+            counts.put(type, 0L);
+        }
+        counts.put(PduType.ENTITY_STATE, entityStates);
+        counts.put(PduType.FIRE_EVENT, fireEvents);
+        counts.put(PduType.COLLISION, collisions);
+        counts.put(PduType.DETONATION, detonations);
+        return counts;
+    }
+}
@@ -0,0 +1,46 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.DisImportReport;
+import com.cap.dataAcquisition.service.DisImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportController.class)
+class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DisImportService disImportService;
+
+    @Test
+    void importDisLog_returnsReport() throws Exception {
+        when(disImportService.importFile("exercise.pdu", 1_750_000_000L)).thenReturn(new DisImportReport("exercise.pdu",
+                1_440_000L, 10_000L, Map.of("EntityState", 10_000L), 2L, 0L, 0L, 1_750_000_000L, 1_750_000_600L, 120L, 90L));
+
+        mockMvc.perform(post("/api/acquisition/import/dis").param("file", "exercise.pdu").param("startTime", "1750000000"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pdusImported", is(10_000)))
+            .andExpect(jsonPath("$.byType.EntityState", is(10_000)))
+            .andExpect(jsonPath("$.unsupportedPdus", is(2)));
+    }
+
+    @Test
+    void importDisLog_fileOutsideDirectory_returnsBadRequest() throws Exception {
+        when(disImportService.importFile("../etc/passwd", 0L)).thenThrow(new IllegalArgumentException("No such file"));
+
+        mockMvc.perform(post("/api/acquisition/import/dis").param("file", "../etc/passwd").param("startTime", "0"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,109 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.RealTimeMetrics;
+import com.cap.dataAcquisition.service.MetricsService;
+import com.cap.dataAcquisition.service.ReactivePduLogService;
+import com.cap.dataAcquisition.service.RealTimeMetricsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ReactiveStreamController.class, properties = "acquisition.reactive.enabled=true")
+class ReactiveStreamControllerTest {
+
+    private static final long START = 1_700_000_000L;
+    private static final long END = 1_700_000_059L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactivePduLogService reactivePduLogService;
+
+    @MockBean
+    private RealTimeMetricsService realTimeMetricsService;
+
+    @Test
+    void streamLogs_writesOneEntryPerLine() throws Exception {
+        PduLogResponse.PduLogEntry entry = new PduLogResponse.PduLogEntry(7L, "FireEvent", 96, Map.of("timestamp", 1L));
+        when(reactivePduLogService.streamLogs(MetricsService.toDisAbsoluteTimestamp(START),
+                MetricsService.toDisAbsoluteTimestamp(END), EnumSet.of(PduType.FIRE_EVENT), new DisEntityId(1, 2, 3)))
+            .thenReturn(Flux.just(entry, entry));
+
+        MvcResult result = mockMvc.perform(get("/api/acquisition/reactive/logs")
+                        .param("startTime", String.valueOf(START)).param("endTime", String.valueOf(END))
+                        .param("pduTypes", "FireEvent")
+                        .param("site", "1").param("application", "2").param("entity", "3"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"PDUType\":\"FireEvent\"")));
+    }
+
+    @Test
+    void streamLogs_tooManyStreams_returnsServiceUnavailable() throws Exception {
+        when(reactivePduLogService.streamLogs(MetricsService.toDisAbsoluteTimestamp(START),
+                MetricsService.toDisAbsoluteTimestamp(END), EnumSet.allOf(PduType.class), null))
+            .thenThrow(new IllegalStateException("Too many reactive log streams"));
+
+        mockMvc.perform(get("/api/acquisition/reactive/logs")
+                        .param("startTime", String.valueOf(START)).param("endTime", String.valueOf(END)))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void streamLogs_partialEntity_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/acquisition/reactive/logs")
+                        .param("startTime", String.valueOf(START)).param("endTime", String.valueOf(END))
+                        .param("site", "1"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reactivePduLogService);
+    }
+
+    @Test
+    void streamLogs_unknownPduType_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/acquisition/reactive/logs")
+                        .param("startTime", String.valueOf(START)).param("endTime", String.valueOf(END))
+                        .param("pduTypes", "Bogus"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reactivePduLogService);
+    }
+
+    @Test
+    void realtime_returnsUpstreamMetrics() throws Exception {
+        when(realTimeMetricsService.getLatestMetricsReactive())
+            .thenReturn(Mono.just(new RealTimeMetrics(12345L, 100L, 1.66, 40L, 30L, 20L, 10L)));
+
+        MvcResult result = mockMvc.perform(get("/api/acquisition/reactive/realtime"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lastPduReceivedTimestampMs").value(12345))
+            .andExpect(jsonPath("$.pdusInLastSixtySeconds").value(100));
+    }
+}
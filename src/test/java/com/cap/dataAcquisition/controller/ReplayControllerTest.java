@@ -0,0 +1,85 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.ReplaySessionStatus;
+import com.cap.dataAcquisition.service.ReplayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReplayController.class)
+class ReplayControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReplayService replayService;
+
+    @Test
+    void stream_startsAsyncReplay() throws Exception {
+        when(replayService.start(100L, 200L, 8.0)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/acquisition/replay/stream")
+                        .param("startTime", "100").param("endTime", "200").param("speed", "8"))
+            .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void stream_invalidSpeed_returnsBadRequest() throws Exception {
+        when(replayService.start(100L, 200L, 0.0)).thenThrow(new IllegalArgumentException("speed must be above 0"));
+
+        mockMvc.perform(get("/api/acquisition/replay/stream")
+                        .param("startTime", "100").param("endTime", "200").param("speed", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void stream_tooManySessions_returnsServiceUnavailable() throws Exception {
+        when(replayService.start(100L, 200L, 1.0)).thenThrow(new IllegalStateException("Too many replay sessions"));
+
+        mockMvc.perform(get("/api/acquisition/replay/stream").param("startTime", "100").param("endTime", "200"))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void seek_returnsSessionStatus() throws Exception {
+        when(replayService.seek("abc", 150L))
+            .thenReturn(Optional.of(new ReplaySessionStatus("abc", 100L, 200L, 4.0, true, 150L, 42L)));
+
+        mockMvc.perform(post("/api/acquisition/replay/abc/seek").param("time", "150"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessionId").value("abc"))
+            .andExpect(jsonPath("$.paused").value(true))
+            .andExpect(jsonPath("$.pdusSent").value(42));
+    }
+
+    @Test
+    void seek_outsideWindow_returnsBadRequest() throws Exception {
+        when(replayService.seek("abc", 999L)).thenThrow(new IllegalArgumentException("time outside the replay window"));
+
+        mockMvc.perform(post("/api/acquisition/replay/abc/seek").param("time", "999"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void controls_unknownSession_returnNotFound() throws Exception {
+        when(replayService.pause("missing")).thenReturn(Optional.empty());
+        when(replayService.stop("missing")).thenReturn(false);
+
+        mockMvc.perform(post("/api/acquisition/replay/missing/pause"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/acquisition/replay/missing"))
+            .andExpect(status().isNotFound());
+    }
+}
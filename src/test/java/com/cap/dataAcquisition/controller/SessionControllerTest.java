@@ -0,0 +1,87 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.SessionAggregation;
+import com.cap.dataAcquisition.service.ExerciseSessionService;
+import com.cap.dataAcquisition.service.MetricsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SessionController.class)
+class SessionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExerciseSessionService exerciseSessionService;
+    @MockBean
+    private MetricsService metricsService;
+
+    private static final long START = 1_700_000_000L;
+    private static final long END = 1_700_003_599L;
+
+    @Test
+    void listSessions_returnsIndex() throws Exception {
+        SessionAggregation session = new SessionAggregation();
+        session.setSessionId(3L);
+        session.setStartTime(START);
+        session.setOpen(true);
+        session.setEntityStatePduCount(120);
+        when(exerciseSessionService.listSessions()).thenReturn(List.of(session));
+
+        mockMvc.perform(get("/api/acquisition/sessions"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].sessionId").value(3))
+            .andExpect(jsonPath("$[0].open").value(true))
+            .andExpect(jsonPath("$[0].entityStatePduCount").value(120));
+    }
+
+    @Test
+    void entityStates_queriesExactSessionRange() throws Exception {
+        when(exerciseSessionService.window(3L)).thenReturn(Optional.of(new ExerciseSessionService.SessionWindow(START, END)));
+        EntityStateRecord record = new EntityStateRecord();
+        record.setId(7L);
+        when(metricsService.findRecords(PduType.ENTITY_STATE,
+                MetricsService.toDisAbsoluteTimestamp(START), MetricsService.toDisAbsoluteTimestamp(END)))
+            .thenReturn(List.of(record));
+
+        mockMvc.perform(get("/api/acquisition/sessions/3/entity-states"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    void logs_queriesExactSessionRange() throws Exception {
+        when(exerciseSessionService.window(3L)).thenReturn(Optional.of(new ExerciseSessionService.SessionWindow(START, END)));
+        when(metricsService.getAllPduLogs(MetricsService.toDisAbsoluteTimestamp(START), MetricsService.toDisAbsoluteTimestamp(END)))
+            .thenReturn(new PduLogResponse(Collections.emptyList()));
+
+        mockMvc.perform(get("/api/acquisition/sessions/3/logs"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownSession_returnsNotFound() throws Exception {
+        when(exerciseSessionService.window(9L)).thenReturn(Optional.empty());
+        when(exerciseSessionService.aggregate(9L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/acquisition/sessions/9/fire-events"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/acquisition/sessions/9/aggregate"))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,72 @@
+package com.cap.dataAcquisition.controller;
+
+import com.cap.dataAcquisition.dto.SpatialQueryResponse;
+import com.cap.dataAcquisition.model.DetonationRecord;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.service.SpatialQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SpatialQueryController.class)
+class SpatialQueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SpatialQueryService spatialQueryService;
+
+    @Test
+    void getEntityStatesInRegion_box() throws Exception {
+        EntityStateRecord record = new EntityStateRecord();
+        record.setId(7L);
+        when(spatialQueryService.findEntityStates(eq(new SpatialQueryService.Box(0, 0, null, 10, 10, 5.0)), eq(100L), eq(200L)))
+                .thenReturn(new SpatialQueryResponse<>("box", 100L, 200L, 1, false, List.of(record)));
+
+        mockMvc.perform(get("/api/acquisition/spatial/entity-states")
+                .param("startTime", "100").param("endTime", "200")
+                .param("minX", "0").param("minY", "0").param("maxX", "10").param("maxY", "10").param("maxZ", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.shape", is("box")))
+            .andExpect(jsonPath("$.count", is(1)))
+            .andExpect(jsonPath("$.records[0].id", is(7)));
+    }
+
+    @Test
+    void getDetonationsInRegion_sphere() throws Exception {
+        when(spatialQueryService.findDetonations(eq(new SpatialQueryService.Sphere(1, 2, 3, 50)), eq(100L), eq(200L)))
+                .thenReturn(new SpatialQueryResponse<>("sphere", 100L, 200L, 1, true, List.of(new DetonationRecord())));
+
+        mockMvc.perform(get("/api/acquisition/spatial/detonations")
+                .param("startTime", "100").param("endTime", "200")
+                .param("centerX", "1").param("centerY", "2").param("centerZ", "3").param("radius", "50"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.shape", is("sphere")))
+            .andExpect(jsonPath("$.truncated", is(true)));
+    }
+
+    @Test
+    void getEntityStatesInRegion_missingShape_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/acquisition/spatial/entity-states")
+                .param("startTime", "100").param("endTime", "200").param("minX", "0"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/acquisition/spatial/detonations")
+                .param("startTime", "100").param("endTime", "200").param("radius", "5").param("centerX", "0"))
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(spatialQueryService);
+    }
+}
@@ -0,0 +1,166 @@
+package com.cap.dataAcquisition.diagnostics;
+
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServerTimingFilterTest {
+
+    @Mock
+    private QueryPlanExplainer queryPlanExplainer;
+
+    @Test
+    void time_withoutActiveRequest_justRunsWork() {
+        assertFalse(RequestTimings.isActive());
+        assertEquals(List.of(1, 2), RequestTimings.time("compute.test", () -> List.of(1, 2)));
+    }
+
+    @Test
+    void filter_emitsServerTimingWithStagesAndRowCounts() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(queryPlanExplainer, new RequestDiagnosticsStore(4));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/acquisition/metrics");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res)
+                    throws java.io.IOException {
+                RequestTimings.time("db.EntityState.findByTimestampBetween", () -> List.of("a", "b", "c"));
+                RequestTimings.current().markSerializationStart();
+                res.getWriter().write("{}");
+            }
+        });
+
+        filter.doFilter(request, response, chain);
+
+        String header = response.getHeader("Server-Timing");
+        assertNotNull(header);
+        assertTrue(header.contains("db.EntityState.findByTimestampBetween;dur="));
+        assertTrue(header.contains("desc=\"rows=3\""));
+        assertTrue(header.contains("serialization;dur="));
+        assertTrue(header.contains("desc=\"bytes=2\""));
+        assertTrue(header.contains("total;dur="));
+        assertEquals("{}", response.getContentAsString());
+        assertFalse(RequestTimings.isActive(), "Collector must be unbound after the request");
+        verifyNoInteractions(queryPlanExplainer);
+    }
+
+    @Test
+    void filter_skipsNonAcquisitionPaths() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(queryPlanExplainer, new RequestDiagnosticsStore(4));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    @Test
+    void filter_skipsStreamedExports() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(queryPlanExplainer, new RequestDiagnosticsStore(4));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/acquisition/export/dis");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    @Test
+    void filter_skipsReactiveStreams() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(queryPlanExplainer, new RequestDiagnosticsStore(4));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/acquisition/reactive/logs");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertSame(response, chain.getResponse(), "Reactive streams must not be buffered");
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    @Test
+    void filter_finishesAsyncHandlersOnTheAsyncDispatch() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(queryPlanExplainer, new RequestDiagnosticsStore(4));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/acquisition/metrics");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res) {
+                req.startAsync(req, res);
+            }
+        }));
+
+        assertNull(response.getHeader("Server-Timing"), "Headers wait for the async dispatch");
+        assertFalse(response.isCommitted());
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, request.getAsyncContext().getResponse(), new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res)
+                    throws java.io.IOException {
+                res.getWriter().write("{}");
+            }
+        }));
+
+        assertNotNull(response.getHeader("Server-Timing"));
+        assertEquals("{}", response.getContentAsString());
+        assertFalse(RequestTimings.isActive());
+    }
+
+    @Test
+    void filter_explainsJdbcTemplateSql() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        JdbcTemplate jdbcTemplate = (JdbcTemplate) new JdbcSqlCapturePostProcessor()
+                .postProcessAfterInitialization(new JdbcTemplate(dataSource), "jdbcTemplate");
+        ServerTimingFilter filter = new ServerTimingFilter(queryPlanExplainer, new RequestDiagnosticsStore(4));
+        ReflectionTestUtils.setField(filter, "explainEnabled", true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/acquisition/metrics/series");
+        request.addHeader(ServerTimingFilter.EXPLAIN_HEADER, "explain");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res) {
+                jdbcTemplate.execute("SELECT 1 FROM pdu_count_rollup");
+            }
+        }));
+
+        verify(queryPlanExplainer).explain(List.of("SELECT 1 FROM pdu_count_rollup"));
+        assertNotNull(response.getHeader(ServerTimingFilter.DIAGNOSTICS_ID_HEADER));
+    }
+
+    @Test
+    void toNumberedParameters_ignoresQuotedQuestionMarks() {
+        int[] count = {0};
+        String sql = QueryPlanExplainer.toNumberedParameters("select * from t where a=? and b='?' and c between ? and ?", count);
+        assertEquals("select * from t where a=$1 and b='?' and c between $2 and $3", sql);
+        assertEquals(3, count[0]);
+    }
+}
@@ -0,0 +1,123 @@
+package com.cap.dataAcquisition.dis;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisLogParserTest {
+
+    private static final long HOUR = 1_750_000_000L / 3600 * 3600;
+
+    private record Seen(PduType type, int site, int application, int entity, double locationX, long epochSeconds) {
+    }
+
+    private final List<Seen> seen = new ArrayList<>();
+
+    private void record(PduType type, ByteBuffer buffer, int offset, long epochSeconds) {
+        double x = type == PduType.ENTITY_STATE || type == PduType.DETONATION ? buffer.getDouble(offset + 48) : 0.0;
+        seen.add(new Seen(type, buffer.getShort(offset + 12) & 0xFFFF, buffer.getShort(offset + 14) & 0xFFFF,
+                buffer.getShort(offset + 16) & 0xFFFF, x, epochSeconds));
+    }
+
+    private static byte[] pdu(int disCode, int length, long epochSeconds, int site, int application, int entity, double x) {
+        ByteBuffer pdu = ByteBuffer.allocate(length);
+        pdu.put(DisPduLayout.PROTOCOL_VERSION_OFFSET, (byte) 7);
+        pdu.put(DisPduLayout.PDU_TYPE_OFFSET, (byte) disCode);
+        pdu.putInt(DisPduLayout.TIMESTAMP_OFFSET, DisLogParser.disTimestamp(epochSeconds));
+        pdu.putShort(DisPduLayout.LENGTH_OFFSET, (short) length);
+        pdu.putShort(12, (short) site).putShort(14, (short) application).putShort(16, (short) entity);
+        if (length >= 72) {
+            pdu.putDouble(48, x);
+        }
+        return pdu.array();
+    }
+
+    private static Path write(Path dir, byte[]... pdus) throws IOException {
+        Path file = dir.resolve("exercise.pdu");
+        try (var out = Files.newOutputStream(file)) {
+            for (byte[] pdu : pdus) {
+                out.write(pdu);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void parse_readsFieldsInPlaceAndSkipsUnsupportedTypes(@TempDir Path dir) throws IOException {
+        Path file = write(dir,
+                pdu(1, 144 + 16, HOUR + 10, 1, 3, 65535, 1234.5), // EntityState with one articulation parameter
+                pdu(26, 32, HOUR + 11, 0, 0, 0, 0),                  // Underwater acoustic: no table
+                pdu(3, 104, HOUR + 12, 1, 3, 7, -42.25),
+                pdu(23, 28, HOUR + 13, 2, 4, 6, 0));
+        DisLogParser parser = new DisLogParser(HOUR + 5, this::record);
+
+        parser.parse(file);
+
+        assertEquals(List.of(
+                new Seen(PduType.ENTITY_STATE, 1, 3, 65535, 1234.5, HOUR + 10),
+                new Seen(PduType.DETONATION, 1, 3, 7, -42.25, HOUR + 12),
+                new Seen(PduType.ELECTROMAGNETIC_EMISSIONS, 2, 4, 6, 0.0, HOUR + 13)), seen);
+        assertEquals(3, parser.getPdus());
+        assertEquals(1, parser.getUnsupported());
+        assertEquals(HOUR + 10, parser.getFirstEpochSeconds());
+        assertEquals(HOUR + 13, parser.getLastEpochSeconds());
+    }
+
+    @Test
+    void parse_spansMappingWindowsAndReportsATruncatedTail(@TempDir Path dir) throws IOException {
+        byte[][] pdus = new byte[101][];
+        for (int i = 0; i < 100; i++) {
+            pdus[i] = pdu(1, 144, HOUR + i, 1, 1, i, i);
+        }
+        pdus[100] = java.util.Arrays.copyOf(pdu(2, 96, HOUR + 100, 1, 1, 1, 0), 40);
+        Path file = write(dir, pdus);
+        DisLogParser parser = new DisLogParser(HOUR, this::record, 1000); // 6 PDUs per window
+
+        parser.parse(file);
+
+        assertEquals(100, seen.size());
+        assertEquals(99, seen.get(99).entity());
+        assertEquals(40, parser.getTrailingBytes());
+    }
+
+    @Test
+    void parse_countsPdusShorterThanTheirLayoutAsMalformed(@TempDir Path dir) throws IOException {
+        Path file = write(dir, pdu(1, 64, HOUR, 1, 1, 1, 0), pdu(4, 60, HOUR, 1, 1, 2, 0));
+        DisLogParser parser = new DisLogParser(HOUR, this::record);
+
+        parser.parse(file);
+
+        assertEquals(1, parser.getMalformed());
+        assertEquals(PduType.COLLISION, seen.get(0).type());
+    }
+
+    @Test
+    void epochSeconds_followsTheHourAcrossWraps() {
+        DisLogParser parser = new DisLogParser(HOUR + 3000, this::record);
+
+        assertEquals(HOUR + 3590, parser.epochSeconds(DisLogParser.disTimestamp(HOUR + 3590) & 0xFFFFFFFFL));
+        assertEquals(HOUR + 3605, parser.epochSeconds(DisLogParser.disTimestamp(HOUR + 3605) & 0xFFFFFFFFL));
+        // A late PDU from before the wrap stays in the previous hour
+        assertEquals(HOUR + 3599, parser.epochSeconds(DisLogParser.disTimestamp(HOUR + 3599) & 0xFFFFFFFFL));
+        assertEquals(HOUR + 3700, parser.epochSeconds(DisLogParser.disTimestamp(HOUR + 3700) & 0xFFFFFFFFL));
+    }
+
+    @Test
+    void disTimestamp_roundTripsEverySecondOfTheHour() {
+        DisLogParser parser = new DisLogParser(HOUR, this::record);
+        for (long second = 0; second < 3600; second++) {
+            int disTimestamp = DisLogParser.disTimestamp(HOUR + second);
+            assertEquals(1, disTimestamp & 1);
+            assertEquals(HOUR + second, parser.epochSeconds(disTimestamp & 0xFFFFFFFFL));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.cap.dataAcquisition.dis;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisPduWriterTest {
+
+    private static final long HOUR = 1_750_000_000L / 3600 * 3600;
+
+    @Test
+    void write_producesPdusThatParseBackToTheSameFields(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("export.pdu");
+        int[] ints = new int[9];
+        double[] doubles = new double[3];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            DisPduWriter writer = new DisPduWriter(channel, 300, 9); // forces several drains
+            for (int i = 0; i < 10; i++) {
+                ints[0] = 1;
+                ints[1] = 3;
+                ints[2] = 60000 + i;
+                doubles[0] = i * 1.5;
+                doubles[1] = -2.0;
+                doubles[2] = 6.4e6;
+                writer.write(PduType.ENTITY_STATE, HOUR + i, ints, doubles);
+            }
+            int[] fire = {1, 3, 7, 1, 3, 8, 1, 3, 900};
+            writer.write(PduType.FIRE_EVENT, HOUR + 20, fire, doubles);
+            writer.write(PduType.START_RESUME, HOUR + 21, new int[]{14, 123456, 0, 0, 0, 0, 0, 0, 0}, doubles);
+            writer.flush();
+            assertEquals(12, writer.getPdus());
+            assertEquals(10 * 144 + 96 + 44, writer.getBytes());
+        }
+        assertEquals(10 * 144 + 96 + 44, Files.size(file));
+
+        List<String> parsed = new ArrayList<>();
+        DisLogParser parser = new DisLogParser(HOUR, (type, buffer, offset, epochSeconds) -> {
+            assertEquals(DisPduWriter.PROTOCOL_VERSION, buffer.get(offset));
+            assertEquals(9, buffer.get(offset + DisPduLayout.EXERCISE_ID_OFFSET));
+            assertEquals(DisPduLayout.protocolFamily(type), buffer.get(offset + DisPduLayout.PROTOCOL_FAMILY_OFFSET));
+            parsed.add(describe(type, buffer, offset, epochSeconds));
+        });
+        parser.parse(file);
+
+        assertEquals(12, parsed.size());
+        assertEquals("ENTITY_STATE@" + (HOUR + 3) + " 1 3 60003 4.5 -2.0 6400000.0", parsed.get(3));
+        assertEquals("FIRE_EVENT@" + (HOUR + 20) + " 1 3 7 1 3 8 1 3 900", parsed.get(10));
+        assertEquals("START_RESUME@" + (HOUR + 21) + " 14 123456", parsed.get(11));
+    }
+
+    private static String describe(PduType type, ByteBuffer buffer, int offset, long epochSeconds) {
+        StringBuilder text = new StringBuilder(type + "@" + epochSeconds);
+        for (DisPduLayout.Field field : DisPduLayout.fields(type)) {
+            text.append(' ');
+            switch (field.kind()) {
+                case UINT16 -> text.append(buffer.getShort(offset + field.offset()) & 0xFFFF);
+                case INT32 -> text.append(buffer.getInt(offset + field.offset()));
+                case FLOAT64 -> text.append(buffer.getDouble(offset + field.offset()));
+            }
+        }
+        return text.toString();
+    }
+}
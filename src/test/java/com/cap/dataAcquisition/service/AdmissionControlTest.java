@@ -0,0 +1,108 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AdmissionControlTest {
+
+    private static final Set<PduType> ENTITY_STATE = EnumSet.of(PduType.ENTITY_STATE);
+
+    private final QueryCostEstimator estimator = new QueryCostEstimator(mock(JdbcTemplate.class), null);
+    private final AdmissionControl admissionControl = new AdmissionControl(estimator, mock(PlatformTransactionManager.class));
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        estimator.setRowsPerSecond(PduType.ENTITY_STATE, 100.0);
+        ReflectionTestUtils.setField(admissionControl, "bulkThresholdRows", 10_000L);
+        ReflectionTestUtils.setField(admissionControl, "interactiveConcurrency", 1);
+        ReflectionTestUtils.setField(admissionControl, "interactiveMaxWaitMillis", 10L);
+        ReflectionTestUtils.setField(admissionControl, "interactiveRetryAfterSeconds", 1L);
+        ReflectionTestUtils.setField(admissionControl, "bulkConcurrency", 2);
+        ReflectionTestUtils.setField(admissionControl, "bulkMaxRowsInFlight", 1_000_000L);
+        ReflectionTestUtils.setField(admissionControl, "bulkRetryAfterSeconds", 30L);
+        admissionControl.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    /** Starts a query that holds its permit until the test ends. */
+    private void occupy(long windowSeconds) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> admissionControl.execute("test", ENTITY_STATE, windowSeconds, () -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void estimateRows_isWindowTimesRowRate() {
+        estimator.setRowsPerSecond(PduType.FIRE_EVENT, 0.5);
+
+        assertEquals(6_030, estimator.estimateRows(EnumSet.of(PduType.ENTITY_STATE, PduType.FIRE_EVENT), 60));
+        assertEquals(Long.MAX_VALUE, estimator.estimateRows(ENTITY_STATE, AdmissionControl.UNBOUNDED_WINDOW));
+    }
+
+    @Test
+    void classify_splitsOnBulkThreshold() {
+        assertEquals(QueryClass.INTERACTIVE, admissionControl.classify(10_000));
+        assertEquals(QueryClass.BULK, admissionControl.classify(10_001));
+    }
+
+    @Test
+    void execute_interactivePermitsExhausted_rejectsWithShortRetry() throws Exception {
+        occupy(60);
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.execute("test", ENTITY_STATE, 60, () -> "never"));
+
+        assertEquals(QueryClass.INTERACTIVE, e.getQueryClass());
+        assertEquals(1, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void execute_bulkDoesNotConsumeInteractiveCapacity() throws Exception {
+        occupy(3_600);
+        occupy(3_600);
+
+        assertEquals("ok", admissionControl.execute("test", ENTITY_STATE, 60, () -> "ok"));
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.execute("test", ENTITY_STATE, 3_600, () -> "never"));
+        assertEquals(QueryClass.BULK, e.getQueryClass());
+        assertEquals(30, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void execute_queryLargerThanBudget_runsOnlyAlone() throws Exception {
+        assertEquals("alone", admissionControl.execute("test", ENTITY_STATE, 86_400, () -> "alone"));
+
+        occupy(3_600); // 360,000 rows in flight
+        assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.execute("test", ENTITY_STATE, 86_400, () -> "never"));
+    }
+}
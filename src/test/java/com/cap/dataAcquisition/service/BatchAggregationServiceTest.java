@@ -0,0 +1,119 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.BatchAggregationRequest;
+import com.cap.dataAcquisition.model.CustomRangeAggregation;
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchAggregationServiceTest {
+
+    private static final long DAY = 86_400L;
+    private static final long MAY_1 = 1_714_521_600L; // 2024-05-01T00:00:00Z
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PduCountRollupService rollupService;
+
+    private static BatchAggregationRequest.Window window(String start, String end) {
+        return new BatchAggregationRequest.Window(start, end);
+    }
+
+    @Test
+    void resolve_datesAreWholeDaysAndInstantsAreHalfOpen() {
+        BatchAggregationService.ResolvedWindow day = BatchAggregationService.resolve(window("2024-05-01", "2024-05-01"), 0L);
+        assertEquals(MAY_1, day.lo());
+        assertEquals(MAY_1 + DAY, day.hi());
+        assertEquals(day.rollupLo(), day.rollupHi()); // nothing rolled up yet
+
+        BatchAggregationService.ResolvedWindow partial = BatchAggregationService.resolve(
+                window("2024-05-01T00:00:30Z", "2024-05-01T01:00:00Z"), MAY_1 + 1800);
+        assertEquals(MAY_1 + 60, partial.rollupLo());
+        assertEquals(MAY_1 + 1800, partial.rollupHi());
+
+        assertThrows(IllegalArgumentException.class, () -> BatchAggregationService.resolve(window("2024-05-02", "2024-05-01"), 0L));
+        assertThrows(IllegalArgumentException.class, () -> BatchAggregationService.resolve(window("yesterday", "2024-05-01"), 0L));
+    }
+
+    @Test
+    void mergeRawIntervals_scansOverlappingWindowsOnce() {
+        List<BatchAggregationService.Interval> merged = BatchAggregationService.mergeRawIntervals(List.of(
+                BatchAggregationService.resolve(window("2024-05-01", "2024-05-03"), 0L),
+                BatchAggregationService.resolve(window("2024-05-02", "2024-05-02"), 0L),
+                BatchAggregationService.resolve(window("2024-05-10", "2024-05-10"), 0L)));
+
+        assertEquals(List.of(
+                new BatchAggregationService.Interval(MAY_1, MAY_1 + 3 * DAY),
+                new BatchAggregationService.Interval(MAY_1 + 9 * DAY, MAY_1 + 10 * DAY)), merged);
+    }
+
+    @Test
+    void aggregate_runsOneStatementAndReturnsWindowsInRequestOrder() throws Exception {
+        BatchAggregationService service = new BatchAggregationService(jdbcTemplate, rollupService, null);
+        ReflectionTestUtils.setField(service, "maxWindows", 10);
+        when(rollupService.getCoveredUntil()).thenReturn(MAY_1 + DAY);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(0, PduType.ENTITY_STATE, 5));
+            handler.processRow(row(1, PduType.ENTITY_STATE, 3));
+            handler.processRow(row(1, PduType.ENTITY_STATE, 2)); // rollup part of the same window
+            handler.processRow(row(1, PduType.DESIGNATOR, 1));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        List<CustomRangeAggregation> results = service.aggregate(List.of(
+                window("2024-05-02", "2024-05-02"), window("2024-05-01", "2024-05-02")));
+
+        assertEquals(2, results.size());
+        assertEquals("2024-05-02", results.get(0).getStartDate());
+        assertEquals(5, results.get(0).getEntityStatePduCount());
+        assertEquals(5, results.get(1).getEntityStatePduCount());
+        assertEquals(1, results.get(1).getDesignatorPduCount());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).query(sql.capture(), any(RowCallbackHandler.class), args.capture());
+        assertTrue(sql.getValue().contains("pdu_count_rollup"));
+        assertTrue(sql.getValue().contains(PduSql.ID_RANGE));
+        // Every placeholder is bound: 5 per window, then id range and DIS bounds per table and raw interval
+        assertEquals(sql.getValue().chars().filter(c -> c == '?').count(), args.getValue().length);
+        assertEquals(2 * 5 + PduType.values().length * 5, args.getValue().length);
+    }
+
+    @Test
+    void aggregate_rejectsEmptyAndOversizedBatches() {
+        BatchAggregationService service = new BatchAggregationService(jdbcTemplate, null, null);
+        ReflectionTestUtils.setField(service, "maxWindows", 1);
+        assertThrows(IllegalArgumentException.class, () -> service.aggregate(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.aggregate(List.of(
+                window("2024-05-01", "2024-05-01"), window("2024-05-02", "2024-05-02"))));
+    }
+
+    private static ResultSet row(int windowIndex, PduType type, long count) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("idx")).thenReturn(windowIndex);
+        when(rs.getShort("pdu_type")).thenReturn(type.getDisCode());
+        when(rs.getLong("count")).thenReturn(count);
+        return rs;
+    }
+}
@@ -0,0 +1,168 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.AggregatedMetricsOverview;
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedAggregationServiceTest {
+
+    private static final long START = 1_714_521_600L; // 2024-05-01T00:00:00Z
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ChunkedAggregationService service;
+    private final List<long[]> rows = new ArrayList<>(); // second, DIS type, count
+    private final List<ResultSet> resultSets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = newService(null);
+    }
+
+    private ChunkedAggregationService newService(AdmissionControl admissionControl) {
+        ChunkedAggregationService service = new ChunkedAggregationService(jdbcTemplate, null, admissionControl);
+        ReflectionTestUtils.setField(service, "peakWindowSeconds", 10);
+        ReflectionTestUtils.setField(service, "peakStepSeconds", 1);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "chunkThreads", 2);
+        ReflectionTestUtils.setField(service, "maxRunningJobs", 1);
+        service.init();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void givenTraffic() throws Exception {
+        // A burst straddling the 600 s chunk boundary, and background traffic of two types
+        for (long second = START + 595; second < START + 605; second++) {
+            addRow(second, PduType.ENTITY_STATE, 40);
+        }
+        for (long second = START; second < START + 1800; second += 7) {
+            addRow(second, PduType.FIRE_EVENT, 1);
+            addRow(second, PduType.COLLISION, 3);
+        }
+    }
+
+    private void addRow(long second, PduType type, int count) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("second")).thenReturn(second);
+        when(rs.getShort("pdu_type")).thenReturn(type.getDisCode());
+        when(rs.getInt("count")).thenReturn(count);
+        rows.add(new long[]{second, type.getDisCode(), count});
+        resultSets.add(rs);
+    }
+
+    /** Answers the per-second count statement from {@link #rows}, failing once for the chunk containing failAt. */
+    private void answerPerSecondCounts(long failAt, AtomicBoolean failed) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            // Each table's arguments are its id range (from, to, tail) and then the DIS timestamps
+            long from = MetricsService.fromDisAbsoluteTimestamp((Long) invocation.getArgument(5));
+            long to = MetricsService.fromDisAbsoluteTimestamp((Long) invocation.getArgument(6));
+            if (from <= failAt && failAt < to && failed.compareAndSet(false, true)) {
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i)[0] >= from && rows.get(i)[0] < to) {
+                    handler.processRow(resultSets.get(i));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private AggregatedMetricsOverview aggregate(long chunkSeconds) {
+        ReflectionTestUtils.setField(service, "chunkSeconds", chunkSeconds);
+        return service.aggregate("test", START, START + 1799);
+    }
+
+    @Test
+    void aggregate_chunkedResultMatchesSingleChunk() throws Exception {
+        givenTraffic();
+        answerPerSecondCounts(-1, new AtomicBoolean());
+
+        AggregatedMetricsOverview single = aggregate(3600);
+        AggregatedMetricsOverview chunked = aggregate(600);
+
+        assertEquals(single, chunked);
+        assertEquals(400 + 258 * 4, chunked.getTotalPackets());
+        assertEquals(258, chunked.getFireEventPackets());
+        assertEquals(START + 595, chunked.getPeakLoad().getPeakIntervalStartUtc().getEpochSecond());
+        assertEquals(40, chunked.getRateDistribution().getByType().get("EntityState").getMax());
+        assertEquals(1800, chunked.getRateDistribution().getSampleSeconds());
+    }
+
+    @Test
+    void process_failedChunk_resumesFromLastMergedChunk() throws Exception {
+        givenTraffic();
+        answerPerSecondCounts(START + 1300, new AtomicBoolean());
+        ReflectionTestUtils.setField(service, "chunkSeconds", 600L);
+        ChunkedAggregation aggregation = new ChunkedAggregation(START, START + 1800, 10, 1);
+
+        assertThrows(QueryTimeoutException.class, () -> service.process(aggregation, () -> false));
+        assertEquals(START + 1200, aggregation.getCompletedUntil());
+        assertEquals(2, aggregation.getChunksMerged());
+
+        service.process(aggregation, () -> false);
+
+        assertTrue(aggregation.isComplete());
+        assertEquals(aggregate(3600), aggregation.toOverview("test"));
+    }
+
+    @Test
+    void process_admitsEveryChunkOnItsOwn() {
+        answerPerSecondCounts(-1, new AtomicBoolean());
+        AdmissionControl admissionControl = mock(AdmissionControl.class);
+        when(admissionControl.execute(eq("aggregate.chunk"), eq(EnumSet.allOf(PduType.class)), eq(600L), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get())
+            .thenThrow(new AdmissionRejectedException(QueryClass.BULK, 1_000_000L, 30L));
+        service.shutdown();
+        service = newService(admissionControl);
+        ReflectionTestUtils.setField(service, "chunkSeconds", 600L);
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        ChunkedAggregation aggregation = new ChunkedAggregation(START, START + 1800, 10, 1);
+
+        assertThrows(AdmissionRejectedException.class, () -> service.process(aggregation, () -> false));
+        assertEquals(START + 600, aggregation.getCompletedUntil());
+    }
+
+    @Test
+    void chunks_areAlignedToTheChunkLength() {
+        ChunkedAggregation aggregation = new ChunkedAggregation(START + 30, START + 3700, 10, 1);
+
+        assertEquals(START + 3600, aggregation.chunkEnd(START + 30, 3600));
+        assertEquals(START + 3700, aggregation.chunkEnd(START + 3600, 3600));
+        assertEquals(2, aggregation.chunkCount(3600));
+        assertThrows(IllegalStateException.class, () -> aggregation.merge(new ChunkedAggregation.Chunk(
+                START + 3600, START + 3700, new long[10], RateDistributions.newHistograms(), new int[100])));
+    }
+}
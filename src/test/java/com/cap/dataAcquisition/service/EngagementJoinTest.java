@@ -0,0 +1,68 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.Engagement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngagementJoinTest {
+
+    private final List<Engagement> engagements = new ArrayList<>();
+    private final EngagementJoin join = new EngagementJoin(30, engagements::add);
+
+    private void fire(long id, int firingEntity, int targetEntity, long epochSeconds) {
+        join.fire(id, 1, 3, firingEntity, 1, 3, targetEntity, 1, 3, 900, epochSeconds);
+    }
+
+    private boolean detonation(long id, int firingEntity, int targetEntity, long epochSeconds) {
+        return join.detonation(id, 1, 3, firingEntity, 1, 3, targetEntity, 10.0, 20.0, 30.0, epochSeconds);
+    }
+
+    @Test
+    void pairsEachDetonationWithTheOldestPendingFireOfTheSamePair() {
+        fire(1, 5, 100, 1000);
+        fire(2, 5, 100, 1002);
+        fire(3, 6, 100, 1003);
+        assertTrue(detonation(11, 5, 100, 1010));
+        assertTrue(detonation(12, 6, 100, 1011));
+        assertTrue(detonation(13, 5, 100, 1012));
+        join.finish();
+
+        assertEquals(3, join.getMatched());
+        assertEquals(0, join.getUnmatchedFires());
+        assertEquals(1L, engagements.get(0).getFireRecordId());
+        assertEquals(10, engagements.get(0).getTimeOfFlightSeconds());
+        assertEquals(900, engagements.get(0).getMunitionEntity());
+        assertEquals(20.0, engagements.get(0).getLocationY());
+        assertEquals(3L, engagements.get(1).getFireRecordId());
+        assertEquals(2L, engagements.get(2).getFireRecordId());
+        assertEquals(28.0 / 3, join.getMeanTimeOfFlightSeconds(), 1e-9);
+    }
+
+    @Test
+    void evictsFiresOlderThanTheMaximumTimeOfFlight() {
+        fire(1, 5, 100, 1000);
+        fire(2, 7, 101, 1020);
+        assertFalse(detonation(11, 5, 100, 1031)); // fire 1 expired at 1030
+        assertFalse(detonation(12, 5, 200, 1032)); // different target
+        join.finish();
+
+        assertEquals(0, join.getMatched());
+        assertEquals(2, join.getUnmatchedFires());
+        assertNull(join.getMeanTimeOfFlightSeconds());
+    }
+
+    @Test
+    void pendingFiresAreBoundedByTheJoinWindow() {
+        for (int second = 0; second < 86_400; second++) {
+            fire(second, second % 50, 100, second); // one fire per second, never detonating
+        }
+        join.finish();
+
+        assertEquals(86_400, join.getUnmatchedFires());
+        assertTrue(join.getMaxPending() <= 31, "pending " + join.getMaxPending());
+    }
+}
@@ -0,0 +1,157 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.ExerciseSession;
+import com.cap.dataAcquisition.model.ExerciseSessionCount;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.model.SessionAggregation;
+import com.cap.dataAcquisition.repository.ExerciseSessionCountRepository;
+import com.cap.dataAcquisition.repository.ExerciseSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExerciseSessionServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ExerciseSessionRepository sessionRepository = mock(ExerciseSessionRepository.class);
+    private final ExerciseSessionCountRepository countRepository = mock(ExerciseSessionCountRepository.class);
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private ExerciseSessionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExerciseSessionService(jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                sessionRepository, countRepository, metricsService, null);
+        ReflectionTestUtils.setField(service, "resendWindowSeconds", 10L);
+        ReflectionTestUtils.setField(service, "idOverlap", 1000L);
+        ReflectionTestUtils.setField(service, "chunkSeconds", 86400L);
+        when(sessionRepository.findFirstByStartEpochLessThanOrderByStartEpochDesc(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.findFirstByStartEpochGreaterThanOrderByStartEpochAsc(anyLong())).thenReturn(Optional.empty());
+    }
+
+    private static ExerciseSession session(long id, long start, Long end, long countedUntil) {
+        ExerciseSession session = new ExerciseSession();
+        session.setId(id);
+        session.setStartEpoch(start);
+        session.setEndEpoch(end);
+        session.setCountedUntil(countedUntil);
+        return session;
+    }
+
+    @Test
+    void addBoundary_latestStartResume_closesPreviousSessionAndOpensNewOne() {
+        ExerciseSession previous = session(1L, 1000, null, 1900);
+        when(sessionRepository.findFirstByStartEpochLessThanOrderByStartEpochDesc(2000)).thenReturn(Optional.of(previous));
+
+        service.addBoundary(42L, 2000);
+
+        ArgumentCaptor<ExerciseSession> saved = ArgumentCaptor.forClass(ExerciseSession.class);
+        verify(sessionRepository, times(2)).save(saved.capture());
+        assertEquals(1999L, saved.getAllValues().get(0).getEndEpoch());
+        assertEquals(1900, saved.getAllValues().get(0).getCountedUntil()); // counts up to 1900 are still valid
+        ExerciseSession opened = saved.getAllValues().get(1);
+        assertEquals(2000, opened.getStartEpoch());
+        assertNull(opened.getEndEpoch());
+        assertEquals(42L, opened.getStartResumeId());
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), any(Object[].class));
+    }
+
+    @Test
+    void addBoundary_lateStartResume_splitsSessionAndRecountsIt() {
+        ExerciseSession split = session(1L, 1000, 2999L, 3000);
+        when(sessionRepository.findFirstByStartEpochLessThanOrderByStartEpochDesc(2000)).thenReturn(Optional.of(split));
+        when(sessionRepository.findFirstByStartEpochGreaterThanOrderByStartEpochAsc(2000))
+                .thenReturn(Optional.of(session(2L, 3000, null, 3500)));
+
+        service.addBoundary(43L, 2000);
+
+        assertEquals(1999L, split.getEndEpoch());
+        assertEquals(1000, split.getCountedUntil());
+        verify(jdbcTemplate).update("DELETE FROM exercise_session_count WHERE session_id = ?", 1L);
+        ArgumentCaptor<ExerciseSession> saved = ArgumentCaptor.forClass(ExerciseSession.class);
+        verify(sessionRepository, times(2)).save(saved.capture());
+        assertEquals(2999L, saved.getAllValues().get(1).getEndEpoch());
+    }
+
+    @Test
+    void addBoundary_retransmission_isIgnored() {
+        when(sessionRepository.existsByStartEpochBetween(1990, 2010)).thenReturn(true);
+
+        service.addBoundary(44L, 2000);
+
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexNewStartResumes_rereadsTheOverlapAndIndexesEachRowOnce() {
+        when(sessionRepository.findMaxStartResumeId()).thenReturn(100L);
+        // Row 95 was committed after row 100 had been indexed; both polls return it and row 101
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0L)))
+                .thenReturn(List.of(new long[]{95, 1000}, new long[]{101, 2000}));
+
+        service.indexNewStartResumes();
+        service.indexNewStartResumes();
+
+        ArgumentCaptor<ExerciseSession> saved = ArgumentCaptor.forClass(ExerciseSession.class);
+        verify(sessionRepository, times(2)).save(saved.capture());
+        assertEquals(List.of(95L, 101L), saved.getAllValues().stream().map(ExerciseSession::getStartResumeId).toList());
+    }
+
+    @Test
+    void countUpTo_stopsAtSessionEndAndAdvancesCountedUntil() {
+        when(sessionRepository.findUncountedBefore(5000)).thenReturn(List.of(session(1L, 1000, 1999L, 1500)));
+
+        service.countUpTo(5000);
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO exercise_session_count"), any(Object[].class));
+        verify(jdbcTemplate).update("UPDATE exercise_session SET counted_until = ? WHERE id = ?", 2000L, 1L);
+    }
+
+    @Test
+    void aggregate_addsUncountedTailToStoredCounts() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session(1L, 1000, 1999L, 1500)));
+        ExerciseSessionCount stored = new ExerciseSessionCount();
+        stored.setSessionId(1L);
+        stored.setPduType(PduType.ENTITY_STATE.getDisCode());
+        stored.setCount(70);
+        when(countRepository.findBySessionId(1L)).thenReturn(List.of(stored));
+        Map<PduType, Long> tail = new EnumMap<>(PduType.class);
+        tail.put(PduType.ENTITY_STATE, 30L);
+        tail.put(PduType.FIRE_EVENT, 2L);
+        when(metricsService.countPdusByType(MetricsService.toDisAbsoluteTimestamp(1500), MetricsService.toDisAbsoluteTimestamp(1999)))
+                .thenReturn(tail);
+
+        SessionAggregation aggregation = service.aggregate(1L).orElseThrow();
+
+        assertEquals(100, aggregation.getEntityStatePduCount());
+        assertEquals(2, aggregation.getFireEventPduCount());
+        assertEquals(102, aggregation.getTotalPdus());
+        assertEquals(2000, aggregation.getCountedUntil());
+        assertFalse(aggregation.isOpen());
+    }
+
+    @Test
+    void window_unknownSession_isEmpty() {
+        when(sessionRepository.findById(eq(9L))).thenReturn(Optional.empty());
+
+        assertTrue(service.window(9L).isEmpty());
+    }
+}
@@ -0,0 +1,93 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.HeartbeatGapReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeartbeatGapTrackerTest {
+
+    @Test
+    void reportsGapsOverTheThresholdWithInterArrivalPercentiles() {
+        HeartbeatGapTracker tracker = new HeartbeatGapTracker(12, 1000, 20);
+        // Entity 7 heartbeats every 5 s but goes silent for 60 s once; entity 8 never misses
+        for (long t = 0; t <= 100; t += 5) {
+            tracker.update(1, 3, 7, t);
+            tracker.update(1, 3, 8, t);
+        }
+        for (long t = 160; t <= 200; t += 5) {
+            tracker.update(1, 3, 7, t);
+            tracker.update(1, 3, 8, t - 55);
+        }
+
+        List<HeartbeatGapReport.EntityHeartbeat> entities = tracker.entities(true, 10);
+
+        assertEquals(2, tracker.getEntitiesSeen());
+        assertEquals(1, tracker.getEntitiesWithGaps());
+        assertEquals(1, entities.size());
+        HeartbeatGapReport.EntityHeartbeat entity = entities.get(0);
+        assertEquals(7, entity.getEntity());
+        assertEquals(3, entity.getApplication());
+        assertEquals(30, entity.getUpdates());
+        assertEquals(0, entity.getFirstSeen());
+        assertEquals(200, entity.getLastSeen());
+        assertEquals(5, entity.getP50());
+        assertEquals(60, entity.getMax());
+        assertEquals(1, entity.getGapCount());
+        assertEquals(List.of(new HeartbeatGapReport.Gap(100, 160, 60)), entity.getGaps());
+    }
+
+    @Test
+    void entities_worstFirstAndLimited() {
+        HeartbeatGapTracker tracker = new HeartbeatGapTracker(10, 1000, 20);
+        tracker.update(1, 1, 1, 0);
+        tracker.update(1, 1, 1, 20);
+        tracker.update(1, 1, 2, 0);
+        tracker.update(1, 1, 2, 50);
+        tracker.update(1, 1, 3, 0);
+        tracker.update(1, 1, 3, 5);
+
+        List<HeartbeatGapReport.EntityHeartbeat> worst = tracker.entities(true, 1);
+        List<HeartbeatGapReport.EntityHeartbeat> all = tracker.entities(false, 10);
+
+        assertEquals(1, worst.size());
+        assertEquals(2, worst.get(0).getEntity());
+        assertEquals(List.of(2, 1, 3), all.stream().map(HeartbeatGapReport.EntityHeartbeat::getEntity).toList());
+        assertEquals(2, tracker.getGapCount());
+    }
+
+    @Test
+    void keepsOnlyTheLongestGapsPerEntity() {
+        HeartbeatGapTracker tracker = new HeartbeatGapTracker(1, 1000, 3);
+        long t = 0;
+        tracker.update(2, 2, 2, t);
+        for (long gap : new long[]{5, 9, 2, 7, 3, 8}) {
+            t += gap;
+            tracker.update(2, 2, 2, t);
+        }
+
+        HeartbeatGapReport.EntityHeartbeat entity = tracker.entities(true, 1).get(0);
+
+        assertEquals(6, entity.getGapCount());
+        assertEquals(34, entity.getTotalGapSeconds());
+        assertEquals(List.of(9L, 8L, 7L), entity.getGaps().stream().map(HeartbeatGapReport.Gap::getSeconds).toList());
+    }
+
+    @Test
+    void tracksManyEntitiesAndRejectsTooMany() {
+        HeartbeatGapTracker tracker = new HeartbeatGapTracker(12, 5000, 20);
+        for (int entity = 0; entity < 5000; entity++) {
+            tracker.update(entity >> 8, 1, entity, 0);
+        }
+        for (int entity = 0; entity < 5000; entity++) {
+            tracker.update(entity >> 8, 1, entity, 5);
+        }
+
+        assertEquals(5000, tracker.getEntitiesSeen());
+        assertEquals(10_000, tracker.getRows());
+        assertEquals(0, tracker.getEntitiesWithGaps());
+        assertThrows(IllegalArgumentException.class, () -> tracker.update(999, 1, 1, 10));
+    }
+}
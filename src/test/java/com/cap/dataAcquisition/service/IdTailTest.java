@@ -0,0 +1,55 @@
+package com.cap.dataAcquisition.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdTailTest {
+
+    @Test
+    void firstSeen_reportsIdsInsideTheOverlapOnce() {
+        IdTail tail = new IdTail(10);
+        tail.reset(100);
+
+        assertEquals(90, tail.from());
+        assertTrue(tail.firstSeen(95));
+        assertFalse(tail.firstSeen(95));
+        assertTrue(tail.firstSeen(85)); // below the overlap, never read again
+    }
+
+    @Test
+    void advanceTo_forgetsIdsNoReadReachesAnyMore() {
+        IdTail tail = new IdTail(10);
+        tail.reset(100);
+        tail.firstSeen(95);
+
+        tail.advanceTo(120);
+        tail.advanceTo(110); // never moves back
+
+        assertEquals(120, tail.getLastId());
+        assertEquals(110, tail.from());
+        assertTrue(tail.firstSeen(115));
+        assertFalse(tail.firstSeen(115));
+    }
+
+    @Test
+    void forEachRange_coversTheIdsUpToMaxInBatches() {
+        IdTail tail = new IdTail(5);
+        tail.reset(20);
+        List<long[]> ranges = new ArrayList<>();
+
+        long touched = tail.forEachRange(40, 10, (from, to) -> {
+            ranges.add(new long[] {from, to});
+            return 1;
+        });
+
+        assertEquals(3, touched);
+        assertArrayEquals(new long[] {15, 25}, ranges.get(0));
+        assertArrayEquals(new long[] {25, 35}, ranges.get(1));
+        assertArrayEquals(new long[] {35, 40}, ranges.get(2));
+        assertEquals(40, tail.getLastId());
+    }
+}
@@ -0,0 +1,59 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.EntitySnapshotResponse;
+import com.cap.dataAcquisition.dto.LatestEntityState;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class LatestEntityStateServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LatestEntityStateService service = new LatestEntityStateService(jdbcTemplate, null);
+
+    @Test
+    void packKey_keepsTriplesDistinct() {
+        assertNotEquals(LatestEntityStateService.packKey(1, 2, 3), LatestEntityStateService.packKey(3, 2, 1));
+        assertNotEquals(LatestEntityStateService.packKey(0, 1, 0), LatestEntityStateService.packKey(0, 0, 1));
+        assertEquals(0xFFFF_FFFF_FFFFL, LatestEntityStateService.packKey(65535, 65535, 65535));
+    }
+
+    @Test
+    void apply_keepsNewestStateRegardlessOfArrivalOrder() {
+        long now = Instant.now().getEpochSecond();
+        service.apply(2L, 1, 2, 3, 20.0, 0, 0, MetricsService.toDisAbsoluteTimestamp(now));
+        service.apply(1L, 1, 2, 3, 10.0, 0, 0, MetricsService.toDisAbsoluteTimestamp(now - 5)); // late, older row
+        service.apply(3L, 1, 2, 4, 30.0, 0, 0, MetricsService.toDisAbsoluteTimestamp(now - 5));
+
+        EntitySnapshotResponse snapshot = service.snapshot(null);
+
+        assertEquals(2, snapshot.getEntityCount());
+        LatestEntityState entity3 = snapshot.getEntities().stream().filter(s -> s.getEntity() == 3).findFirst().orElseThrow();
+        assertEquals(20.0, entity3.getLocationX());
+        assertEquals(2L, entity3.getRecordId());
+    }
+
+    @Test
+    void snapshot_filtersStaleEntities() {
+        long now = Instant.now().getEpochSecond();
+        service.apply(1L, 1, 1, 1, 0, 0, 0, MetricsService.toDisAbsoluteTimestamp(now - 2));
+        service.apply(2L, 1, 1, 2, 0, 0, 0, MetricsService.toDisAbsoluteTimestamp(now - 600));
+
+        EntitySnapshotResponse snapshot = service.snapshot(60L);
+
+        assertEquals(1, snapshot.getEntityCount());
+        assertEquals(1, snapshot.getEntities().get(0).getEntity());
+    }
+
+    @Test
+    void poll_beforeSeed_readsNothing() {
+        service.poll();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
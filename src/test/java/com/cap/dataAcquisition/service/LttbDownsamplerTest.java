@@ -0,0 +1,67 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.TrajectoryPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbDownsamplerTest {
+
+    private static List<TrajectoryPoint> track(int n, int cornerAt) {
+        // Straight line along x up to the corner, then straight along y
+        List<TrajectoryPoint> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double x = Math.min(i, cornerAt);
+            double y = Math.max(0, i - cornerAt);
+            points.add(new TrajectoryPoint(MetricsService.toDisAbsoluteTimestamp(1_000L + i), x, y, 0));
+        }
+        return points;
+    }
+
+    @Test
+    void keepsBudgetEndpointsAndOrder() {
+        List<TrajectoryPoint> points = track(10_000, 3_333);
+        LttbDownsampler downsampler = new LttbDownsampler(points.size(), 100);
+        points.forEach(downsampler::accept);
+
+        List<TrajectoryPoint> result = downsampler.result();
+        assertEquals(100, result.size());
+        assertSame(points.get(0), result.get(0));
+        assertSame(points.get(points.size() - 1), result.get(result.size() - 1));
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i).getTimestamp() > result.get(i - 1).getTimestamp());
+        }
+    }
+
+    @Test
+    void keepsTheCorner() {
+        List<TrajectoryPoint> points = track(1_001, 500);
+        LttbDownsampler downsampler = new LttbDownsampler(points.size(), 3);
+        points.forEach(downsampler::accept);
+
+        List<TrajectoryPoint> result = downsampler.result();
+        assertEquals(3, result.size());
+        assertEquals(500.0, result.get(1).getLocationX());
+        assertEquals(0.0, result.get(1).getLocationY());
+    }
+
+    @Test
+    void shortStreamStillEndsWithTheLastPointSeen() {
+        List<TrajectoryPoint> points = track(500, 250);
+        LttbDownsampler downsampler = new LttbDownsampler(1_000, 50);
+        points.forEach(downsampler::accept);
+
+        List<TrajectoryPoint> result = downsampler.result();
+        assertTrue(result.size() <= 50);
+        assertSame(points.get(0), result.get(0));
+    }
+
+    @Test
+    void rejectsBudgetsThatNeedNoReduction() {
+        assertThrows(IllegalArgumentException.class, () -> new LttbDownsampler(10, 2));
+        assertThrows(IllegalArgumentException.class, () -> new LttbDownsampler(10, 10));
+    }
+}
@@ -11,6 +11,10 @@ import com.cap.dataAcquisition.model.StartResumePduRecord;
 import com.cap.dataAcquisition.model.SetDataPduRecord;
 import com.cap.dataAcquisition.model.DesignatorPduRecord;
 import com.cap.dataAcquisition.model.ElectromagneticEmissionsPduRecord;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduEventRecord;
+import com.cap.dataAcquisition.model.PduType;
+import com.cap.dataAcquisition.dto.PduLogResponse;
 import com.cap.dataAcquisition.repository.CollisionRepository;
 import com.cap.dataAcquisition.repository.DetonationRepository;
 import com.cap.dataAcquisition.repository.EntityStateRepository;
@@ -21,21 +25,34 @@ import com.cap.dataAcquisition.repository.StartResumePduRepository;
 import com.cap.dataAcquisition.repository.SetDataPduRepository;
 import com.cap.dataAcquisition.repository.DesignatorPduRepository;
 import com.cap.dataAcquisition.repository.ElectromagneticEmissionsPduRepository;
+import com.cap.dataAcquisition.repository.PduEventRepository;
+import com.cap.dataAcquisition.repository.PduTypeCount;
+import com.cap.dataAcquisition.repository.PduTypeTimestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -71,6 +88,9 @@ class MetricsServiceTest {
     @Mock
     private ElectromagneticEmissionsPduRepository electromagneticEmissionsPduRepository;
 
+    @Mock
+    private PduEventRepository pduEventRepository;
+
     @InjectMocks
     private MetricsService metricsService;
 
@@ -97,6 +117,8 @@ class MetricsServiceTest {
         setDataEvents = new ArrayList<>();
         designatorEvents = new ArrayList<>();
         electromagneticEmissionsEvents = new ArrayList<>();
+        ReflectionTestUtils.setField(metricsService, "peakWindowSeconds", 60);
+        ReflectionTestUtils.setField(metricsService, "peakStepSeconds", 60);
     }
 
     // --- Test Static Helper Methods ---
@@ -204,16 +226,16 @@ class MetricsServiceTest {
 
     @Test
     void getAggregatedMetrics_last60minutes_noData() {
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList()); // [cite: 47]
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList()); // [cite: 47]
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList()); // [cite: 47]
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList()); // [cite: 47]
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
 
 
         
@@ -267,18 +289,18 @@ class MetricsServiceTest {
         fireEvents.add(createFireEvent(dis_ts3));
 
         // Mock repository calls
-        // The findByTimestampBetween will be called with start/end times for "lastDay"
+        // The id-range queries will be called with start/end times for "lastDay"
         // We ensure our test data (dis_ts1 to dis_ts4) will fall within this window.
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(entityStates); // [cite: 47]
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(fireEvents); // [cite: 47]
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(entityStates); // [cite: 47]
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(fireEvents); // [cite: 47]
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
 
         AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("lastDay"); // [cite: 40]
 
@@ -309,16 +331,16 @@ class MetricsServiceTest {
 
     @Test
     void getAggregatedMetrics_unsupportedPeriod_defaultsToLast60Minutes() {
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
 
         AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("unsupportedPeriod"); // [cite: 43]
         assertEquals("Last 60 minutes (default)", overview.getTimeWindowDescription()); // [cite: 42]
@@ -337,16 +359,16 @@ class MetricsServiceTest {
 
         entityStates.add(createEntityState(disPacketTimestamp));
 
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(entityStates);
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(entityStates);
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
 
         // Requesting for "last10minutes" will default to "last60minutes" in the current MetricsService
         AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("last10minutes"); // Will use default [cite: 42, 43]
@@ -379,16 +401,16 @@ class MetricsServiceTest {
 
     @Test
     void calculatePeakLoad_emptyPduList() {
-         when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+         when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
 
         AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("last60minutes");
         AggregatedMetricsOverview.PeakLoadInfo peakLoadInfo = overview.getPeakLoad();
@@ -405,16 +427,16 @@ class MetricsServiceTest {
         long packetTime = now.minus(30, ChronoUnit.MINUTES).getEpochSecond();
         entityStates.add(createEntityState(MetricsService.toDisAbsoluteTimestamp(packetTime)));
 
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(entityStates);
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(entityStates);
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(Collections.emptyList());
 
         AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("last60minutes");
         AggregatedMetricsOverview.PeakLoadInfo peakLoadInfo = overview.getPeakLoad();
@@ -435,11 +457,12 @@ class MetricsServiceTest {
         long fireEventTime = nowEpochSeconds - 240;   // 4 minutes ago
         long collisionTime = nowEpochSeconds - 180;   // 3 minutes ago
         long detonationTime = nowEpochSeconds - 120;  // 2 minutes ago
-        long dataPduTime = nowEpochSeconds - 100;     // 1 minute 40 seconds ago
+        long dataPduTime = nowEpochSeconds - 200;     // 3 minutes 20 seconds ago
         
         // Make sure all 5 PDUs are in the same minute bucket by using the same timestamp
         // This ensures they'll be counted together in the peak load calculation
-        long sameMinuteBucket = (nowEpochSeconds / 60) * 60; // Round down to the start of the current minute
+        // (the previous minute, so that none of them falls after the end of the query window)
+        long sameMinuteBucket = (nowEpochSeconds / 60) * 60 - 60; // Start of the previous minute
         long actionRequestTime = sameMinuteBucket + 10; // 10 seconds into the minute
         long startResumeTime = sameMinuteBucket + 20;   // 20 seconds into the minute
         long setDataTime = sameMinuteBucket + 30;       // 30 seconds into the minute
@@ -490,16 +513,16 @@ class MetricsServiceTest {
         electromagneticEmissionsEvents.add(emissions);
         
         // Mock repository calls
-        when(entityStateRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(entityStates);
-        when(fireEventRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(fireEvents);
-        when(collisionRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(collisionEvents);
-        when(detonationRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(detonationEvents);
-        when(dataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(dataPduEvents);
-        when(actionRequestPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(actionRequestEvents);
-        when(startResumePduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(startResumeEvents);
-        when(setDataPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(setDataEvents);
-        when(designatorPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(designatorEvents);
-        when(electromagneticEmissionsPduRepository.findByTimestampBetween(anyLong(), anyLong())).thenReturn(electromagneticEmissionsEvents);
+        when(entityStateRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(entityStates);
+        when(fireEventRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(fireEvents);
+        when(collisionRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(collisionEvents);
+        when(detonationRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(detonationEvents);
+        when(dataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(dataPduEvents);
+        when(actionRequestPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(actionRequestEvents);
+        when(startResumePduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(startResumeEvents);
+        when(setDataPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(setDataEvents);
+        when(designatorPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(designatorEvents);
+        when(electromagneticEmissionsPduRepository.findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(electromagneticEmissionsEvents);
         
         AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("last60minutes");
         
@@ -521,8 +544,216 @@ class MetricsServiceTest {
         assertEquals(10.0 / durationSeconds, overview.getAveragePacketsPerSecond(), 0.0001);
         
         // Verify peak load (we have 5 PDUs in the same minute)
-         // The last 5 PDUs are all within the same minute bucket (nowEpochSeconds - 60 to nowEpochSeconds)
+         // The last 5 PDUs are all within the same minute bucket (the minute before the current one)
          assertEquals(5, overview.getPeakLoad().getPacketsInPeakInterval());
          assertEquals(5.0/60.0, overview.getPeakLoad().getPeakPacketsPerSecond(), 0.00001);
     }
-}
\ No newline at end of file
+
+    // --- Consolidated pdu_event storage ---
+
+    @Test
+    void countPdusByType_legacyStorage_countsEachTable() {
+        when(entityStateRepository.countByTimestampBetween(anyLong(), anyLong())).thenReturn(7L);
+        when(fireEventRepository.countByTimestampBetween(anyLong(), anyLong())).thenReturn(3L);
+
+        Map<PduType, Long> counts = metricsService.countPdusByType(0L, 100L);
+
+        assertEquals(PduType.values().length, counts.size());
+        assertEquals(7L, counts.get(PduType.ENTITY_STATE));
+        assertEquals(3L, counts.get(PduType.FIRE_EVENT));
+        assertEquals(0L, counts.get(PduType.ELECTROMAGNETIC_EMISSIONS));
+        verifyNoInteractions(pduEventRepository);
+    }
+
+    @Test
+    void countPdusByType_idIndex_countsEachTableOverItsIdRange() {
+        PduIdIndexService idIndex = mock(PduIdIndexService.class);
+        ReflectionTestUtils.setField(metricsService, "pduIdIndexService", idIndex);
+        long disStart = MetricsService.toDisAbsoluteTimestamp(1_000L);
+        long disEnd = MetricsService.toDisAbsoluteTimestamp(1_100L);
+        when(idIndex.idRange(any(PduType.class), eq(1_000L), eq(1_100L))).thenReturn(new PduIdIndexService.IdRange(1L, 0L, 900L));
+        when(entityStateRepository.countByIdRangeAndTimestampBetween(50L, 80L, 900L, disStart, disEnd)).thenReturn(7L);
+        when(idIndex.idRange(PduType.ENTITY_STATE, 1_000L, 1_100L)).thenReturn(new PduIdIndexService.IdRange(50L, 80L, 900L));
+
+        Map<PduType, Long> counts = metricsService.countPdusByType(disStart, disEnd);
+
+        assertEquals(7L, counts.get(PduType.ENTITY_STATE));
+        assertEquals(0L, counts.get(PduType.FIRE_EVENT));
+        verify(entityStateRepository, never()).countByTimestampBetween(anyLong(), anyLong());
+    }
+
+    @Test
+    void countPdusByType_consolidatedStorage_usesSingleGroupedQuery() {
+        ReflectionTestUtils.setField(metricsService, "consolidatedStorage", true);
+        when(pduEventRepository.countByTypeBetween(anyLong(), anyLong())).thenReturn(List.of(
+                typeCount(PduType.ENTITY_STATE, 7L), typeCount(PduType.DESIGNATOR, 2L)));
+
+        Map<PduType, Long> counts = metricsService.countPdusByType(0L, 100L);
+
+        assertEquals(7L, counts.get(PduType.ENTITY_STATE));
+        assertEquals(2L, counts.get(PduType.DESIGNATOR));
+        assertEquals(0L, counts.get(PduType.FIRE_EVENT));
+        verifyNoInteractions(entityStateRepository, designatorPduRepository);
+    }
+
+    @Test
+    void getAggregatedMetrics_consolidatedStorage_matchesPerTypeCounts() {
+        ReflectionTestUtils.setField(metricsService, "consolidatedStorage", true);
+        long minuteStart = (Instant.now().getEpochSecond() / 60) * 60 - 120;
+        when(pduEventRepository.countByTypeBetween(anyLong(), anyLong())).thenReturn(List.of(
+                typeCount(PduType.ENTITY_STATE, 2L), typeCount(PduType.FIRE_EVENT, 1L)));
+        when(pduEventRepository.findTypesAndTimestampsBetween(anyLong(), anyLong())).thenReturn(List.of(
+                typedTimestamp(PduType.ENTITY_STATE, minuteStart + 1),
+                typedTimestamp(PduType.ENTITY_STATE, minuteStart + 2),
+                typedTimestamp(PduType.FIRE_EVENT, minuteStart + 3)));
+
+        AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("last60minutes");
+
+        assertEquals(3, overview.getTotalPackets());
+        assertEquals(2, overview.getEntityStatePackets());
+        assertEquals(1, overview.getFireEventPackets());
+        assertEquals(0, overview.getCollisionPackets());
+        assertEquals(3, overview.getPeakLoad().getPacketsInPeakInterval());
+        assertEquals(Instant.ofEpochSecond(minuteStart), overview.getPeakLoad().getPeakIntervalStartUtc());
+    }
+
+    @Test
+    void getAggregatedMetrics_slidingPeakWindow_reportsExactBurstInterval() {
+        ReflectionTestUtils.setField(metricsService, "consolidatedStorage", true);
+        ReflectionTestUtils.setField(metricsService, "peakWindowSeconds", 10);
+        ReflectionTestUtils.setField(metricsService, "peakStepSeconds", 1);
+        long minuteBoundary = (Instant.now().getEpochSecond() / 60) * 60 - 120;
+        List<PduTypeTimestamp> burst = new ArrayList<>();
+        for (long second = minuteBoundary - 4; second < minuteBoundary + 4; second++) {
+            burst.add(typedTimestamp(PduType.ENTITY_STATE, second));
+            burst.add(typedTimestamp(PduType.ENTITY_STATE, second));
+        }
+        when(pduEventRepository.countByTypeBetween(anyLong(), anyLong())).thenReturn(List.of(
+                typeCount(PduType.ENTITY_STATE, 16L)));
+        when(pduEventRepository.findTypesAndTimestampsBetween(anyLong(), anyLong())).thenReturn(burst);
+
+        AggregatedMetricsOverview overview = metricsService.getAggregatedMetrics("last60minutes");
+
+        assertEquals(16, overview.getPeakLoad().getPacketsInPeakInterval());
+        assertEquals(1.6, overview.getPeakLoad().getPeakPacketsPerSecond(), 1e-9);
+        // Earliest 10 s window holding the whole burst, even though it straddles a minute boundary
+        assertEquals(Instant.ofEpochSecond(minuteBoundary - 6), overview.getPeakLoad().getPeakIntervalStartUtc());
+        assertEquals(Instant.ofEpochSecond(minuteBoundary + 4), overview.getPeakLoad().getPeakIntervalEndUtc());
+    }
+
+    @Test
+    void getAggregatedMetrics_reportsPerSecondRatePercentiles() {
+        ReflectionTestUtils.setField(metricsService, "consolidatedStorage", true);
+        long start = (Instant.now().getEpochSecond() / 60) * 60 - 600;
+        List<PduTypeTimestamp> rows = new ArrayList<>();
+        for (long second = start; second < start + 100; second++) {
+            rows.add(typedTimestamp(PduType.ENTITY_STATE, second)); // 1/s for 100 s
+        }
+        for (int i = 0; i < 40; i++) {
+            rows.add(typedTimestamp(PduType.FIRE_EVENT, start + 50)); // one 41/s second
+        }
+        when(pduEventRepository.countByTypeBetween(anyLong(), anyLong())).thenReturn(List.of(
+                typeCount(PduType.ENTITY_STATE, 100L), typeCount(PduType.FIRE_EVENT, 40L)));
+        when(pduEventRepository.findTypesAndTimestampsBetween(anyLong(), anyLong())).thenReturn(rows);
+
+        AggregatedMetricsOverview.RateDistribution distribution =
+                metricsService.getAggregatedMetrics("last60minutes").getRateDistribution();
+
+        assertEquals(3601, distribution.getSampleSeconds());
+        assertEquals(0, distribution.getOverall().getP50()); // most of the hour is quiet
+        assertEquals(1, distribution.getOverall().getP99());
+        assertEquals(41, distribution.getOverall().getMax());
+        assertEquals(40, distribution.getByType().get("FireEvent").getMax());
+        assertEquals(140.0 / 3601, distribution.getOverall().getMean(), 1e-9);
+    }
+
+    @Test
+    void getAllPduLogs_consolidatedStorage_decodesPayloads() {
+        ReflectionTestUtils.setField(metricsService, "consolidatedStorage", true);
+        long disTime = MetricsService.toDisAbsoluteTimestamp(1_700_000_000L);
+        PduEventRecord event = new PduEventRecord();
+        event.setPduType(PduType.FIRE_EVENT.getDisCode());
+        event.setSourceId(42L);
+        event.setSite(1);
+        event.setApplication(2);
+        event.setEntity(3);
+        event.setTimestamp(disTime);
+        event.setPayload(ByteBuffer.allocate(24).putInt(4).putInt(5).putInt(6).putInt(7).putInt(8).putInt(9).array());
+        when(pduEventRepository.findByTimestampBetweenOrderByTimestampAsc(anyLong(), anyLong())).thenReturn(List.of(event));
+
+        PduLogResponse response = metricsService.getAllPduLogs(disTime, disTime);
+
+        assertEquals(1, response.getPduMessages().size());
+        PduLogResponse.PduLogEntry entry = response.getPduMessages().get(0);
+        assertEquals(42L, entry.getId());
+        assertEquals("FireEvent", entry.getPduType());
+        assertEquals(1, entry.getRecordDetails().get("firingSite"));
+        assertEquals(6, entry.getRecordDetails().get("targetEntity"));
+        assertEquals(9, entry.getRecordDetails().get("munitionEntity"));
+        assertEquals(1_700_000_000L, entry.getRecordDetails().get("timestampEpoch"));
+        verifyNoInteractions(fireEventRepository);
+    }
+
+    @Test
+    void getPduLogs_entityFilter_readsOnlySelectedTypesThroughTheEntityIndex() {
+        long disStart = MetricsService.toDisAbsoluteTimestamp(1_700_000_000L);
+        long disEnd = disStart + 59;
+        FireEventRecord fire = new FireEventRecord();
+        fire.setId(5L);
+        fire.setFiringSite(1);
+        fire.setFiringApplication(2);
+        fire.setFiringEntity(3);
+        fire.setTimestamp(disStart);
+        when(fireEventRepository.findByFiringSiteAndFiringApplicationAndFiringEntityAndTimestampBetween(1, 2, 3, disStart, disEnd))
+                .thenReturn(List.of(fire));
+
+        PduLogResponse response = metricsService.getPduLogs(disStart, disEnd,
+                EnumSet.of(PduType.FIRE_EVENT, PduType.DETONATION, PduType.START_RESUME), new DisEntityId(1, 2, 3));
+
+        assertEquals(1, response.getPduMessages().size());
+        assertEquals("FireEvent", response.getPduMessages().get(0).getPduType());
+        verify(detonationRepository).findByFiringSiteAndFiringApplicationAndFiringEntityAndTimestampBetween(1, 2, 3, disStart, disEnd);
+        verify(fireEventRepository, never()).findByIdRangeAndTimestampBetween(anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        verifyNoInteractions(startResumePduRepository, entityStateRepository, collisionRepository);
+    }
+
+    @Test
+    void getPduLogs_typeFilter_consolidatedStorage_queriesOnlyThoseTypes() {
+        ReflectionTestUtils.setField(metricsService, "consolidatedStorage", true);
+        long disTime = MetricsService.toDisAbsoluteTimestamp(1_700_000_000L);
+        when(pduEventRepository.findByPduTypeInAndTimestampBetweenOrderByTimestampAsc(
+                List.of(PduType.FIRE_EVENT.getDisCode()), disTime, disTime)).thenReturn(List.of());
+
+        metricsService.getPduLogs(disTime, disTime, EnumSet.of(PduType.FIRE_EVENT), null);
+
+        verify(pduEventRepository, never()).findByTimestampBetweenOrderByTimestampAsc(anyLong(), anyLong());
+    }
+
+    private static PduTypeTimestamp typedTimestamp(PduType type, long epochSeconds) {
+        return new PduTypeTimestamp() {
+            @Override
+            public short getPduType() {
+                return type.getDisCode();
+            }
+
+            @Override
+            public long getTimestamp() {
+                return MetricsService.toDisAbsoluteTimestamp(epochSeconds);
+            }
+        };
+    }
+
+    private static PduTypeCount typeCount(PduType type, long count) {
+        return new PduTypeCount() {
+            @Override
+            public short getPduType() {
+                return type.getDisCode();
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.cap.dataAcquisition.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PduIdIndexTest {
+
+    private static final long DAY = 86_400L;
+
+    @Test
+    void idRange_coversEveryMinuteOfTheWindow() {
+        PduIdIndex index = new PduIdIndex();
+        index.merge(1_000_020, 100, 160);   // minute 1_000_020 .. 1_000_079
+        index.merge(1_000_080, 161, 220);
+        index.merge(1_000_140, 221, 300);
+
+        assertArrayEquals(new long[]{161, 220}, index.idRange(1_000_100, 1_000_130));
+        assertArrayEquals(new long[]{100, 300}, index.idRange(1_000_079, 1_000_140));
+        assertEquals(3, index.getMinutes());
+    }
+
+    @Test
+    void idRange_withoutRows_isEmpty() {
+        PduIdIndex index = new PduIdIndex();
+        index.merge(1_000_020, 100, 160);
+
+        long[] range = index.idRange(2_000_000, 2_000_600);
+
+        assertTrue(range[0] > range[1]);
+    }
+
+    @Test
+    void merge_widensMinuteForLateRows() {
+        PduIdIndex index = new PduIdIndex();
+        index.merge(1_000_020, 100, 160);
+        index.merge(1_000_020, 5_000, 5_010); // imported long after the minute was first seen
+
+        assertArrayEquals(new long[]{100, 5_010}, index.idRange(1_000_020, 1_000_020));
+        assertEquals(1, index.getMinutes());
+    }
+
+    @Test
+    void idRange_spansDayPagesAndSkipsEmptyDays() {
+        PduIdIndex index = new PduIdIndex();
+        long dayStart = 20_000 * DAY;
+        index.merge(dayStart - 60, 10, 20);         // last minute of the previous day
+        index.merge(dayStart, 21, 30);              // first minute of the day
+        index.merge(dayStart + 400 * DAY, 31, 40);  // far-off outlier gets its own page only
+
+        assertArrayEquals(new long[]{10, 30}, index.idRange(dayStart - 60, dayStart + 59));
+        assertArrayEquals(new long[]{10, 40}, index.idRange(0, dayStart + 500 * DAY));
+    }
+}
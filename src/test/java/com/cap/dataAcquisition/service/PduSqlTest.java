@@ -0,0 +1,35 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PduSqlTest {
+
+    @Test
+    void perTableIdRangeArgs_prefixesEachTablesValuesWithItsIdRange() {
+        PduIdIndexService index = mock(PduIdIndexService.class);
+        for (PduType type : PduType.values()) {
+            when(index.idRange(type, 100L, 200L)).thenReturn(new PduIdIndexService.IdRange(type.ordinal(), 50L, 90L));
+        }
+
+        Object[] args = PduSql.perTableIdRangeArgs(index, 100L, 200L, 7L, 8L);
+
+        assertEquals(PduType.values().length * 5, args.length);
+        int fire = PduType.FIRE_EVENT.ordinal() * 5;
+        assertArrayEquals(new Object[] {(long) PduType.FIRE_EVENT.ordinal(), 50L, 90L, 7L, 8L},
+                Arrays.copyOfRange(args, fire, fire + 5));
+    }
+
+    @Test
+    void perTableIdRangeArgs_withoutIndex_matchesEveryRow() {
+        Object[] args = PduSql.perTableIdRangeArgs(null, 100L, 200L, 7L);
+
+        assertArrayEquals(new Object[] {1L, 0L, 0L, 7L}, Arrays.copyOfRange(args, 0, 4));
+    }
+}
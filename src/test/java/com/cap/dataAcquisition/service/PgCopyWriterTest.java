@@ -0,0 +1,74 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dis.DisPduLayout;
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgCopyWriterTest {
+
+    private record Copy(String sql, byte[] data) {
+    }
+
+    private final List<Copy> copies = new ArrayList<>();
+    private final PgCopyWriter writer = new PgCopyWriter(2, (sql, data, length) -> copies.add(new Copy(sql, Arrays.copyOf(data, length))));
+
+    private static ByteBuffer entityState(int entity, double x) {
+        ByteBuffer pdu = ByteBuffer.allocate(144);
+        pdu.putShort(12, (short) 1).putShort(14, (short) 3).putShort(16, (short) entity);
+        pdu.putDouble(48, x).putDouble(56, 2.0).putDouble(64, 3.0);
+        return pdu;
+    }
+
+    @Test
+    void copySql_listsTheMappedColumns() {
+        assertEquals("COPY fire_event_record (firing_site, firing_application, firing_entity, target_site, target_application, "
+                        + "target_entity, munition_site, munition_application, munition_entity, timestamp) FROM STDIN (FORMAT binary)",
+                PgCopyWriter.copySql(PduType.FIRE_EVENT, DisPduLayout.fields(PduType.FIRE_EVENT)));
+    }
+
+    @Test
+    void add_writesBinaryTuplesAndCopiesFullBatches() {
+        writer.add(PduType.ENTITY_STATE, entityState(40000, 1.5), 0, 1000L);
+        assertTrue(copies.isEmpty());
+        writer.add(PduType.ENTITY_STATE, entityState(7, -1.0), 0, 1001L);
+
+        assertEquals(1, copies.size());
+        assertTrue(copies.get(0).sql().startsWith("COPY entity_state_record (site, application, entity, locationx, "));
+        ByteBuffer data = ByteBuffer.wrap(copies.get(0).data());
+        data.position(19); // PGCOPY signature, flags, header extension
+        assertEquals(7, data.getShort());
+        assertEquals(4, data.getInt());
+        assertEquals(1, data.getInt());
+        data.getInt();
+        assertEquals(3, data.getInt());
+        data.getInt();
+        assertEquals(40000, data.getInt()); // unsigned on the wire
+        assertEquals(8, data.getInt());
+        assertEquals(1.5, data.getDouble());
+        data.position(data.position() + 2 * 12);
+        assertEquals(8, data.getInt());
+        assertEquals(MetricsService.toDisAbsoluteTimestamp(1000L), data.getLong());
+        data.position(data.position() + PgCopyWriter.rowBytes(DisPduLayout.fields(PduType.ENTITY_STATE).toArray(new DisPduLayout.Field[0])));
+        assertEquals(-1, data.getShort());
+        assertFalse(data.hasRemaining());
+        assertEquals(2, writer.getCopied(PduType.ENTITY_STATE));
+    }
+
+    @Test
+    void flush_copiesPartialBatchesOnly() {
+        writer.add(PduType.ENTITY_STATE, entityState(1, 0.0), 0, 1000L);
+        writer.flush();
+        writer.flush();
+
+        assertEquals(1, copies.size());
+        assertEquals(1, writer.getCopied(PduType.ENTITY_STATE));
+        assertEquals(0, writer.getCopied(PduType.FIRE_EVENT));
+    }
+}
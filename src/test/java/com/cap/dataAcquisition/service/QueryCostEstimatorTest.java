@@ -0,0 +1,87 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCostEstimatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PduIdIndexService pduIdIndexService;
+
+    private QueryCostEstimator estimator(PduIdIndexService index) {
+        QueryCostEstimator estimator = new QueryCostEstimator(jdbcTemplate, index);
+        ReflectionTestUtils.setField(estimator, "rateWindowSeconds", 100L);
+        ReflectionTestUtils.setField(estimator, "rateSampleRows", 1000);
+        return estimator;
+    }
+
+    private void givenNewest(long id, long epochSeconds) {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn(id);
+            when(rs.getLong("newest")).thenReturn(epochSeconds);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(eq(QueryCostEstimator.newestSql(PduType.ENTITY_STATE)), any(RowCallbackHandler.class));
+    }
+
+    private void givenSample(long rows, long span) {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("row_count")).thenReturn(rows);
+            lenient().when(rs.getLong("span")).thenReturn(span);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(eq(QueryCostEstimator.sampleSql(PduType.ENTITY_STATE)), any(RowCallbackHandler.class),
+                eq(1000), eq(100L));
+    }
+
+    @Test
+    void measureRate_countsTheIdSpanOfTheNewestWindow() {
+        givenNewest(5_000, 10_000);
+        when(pduIdIndexService.idRange(PduType.ENTITY_STATE, 9_901, 10_000))
+                .thenReturn(new PduIdIndexService.IdRange(4_001, 4_990, 4_990));
+
+        assertEquals(10.0, estimator(pduIdIndexService).measureRate(PduType.ENTITY_STATE), 1e-9);
+        verify(jdbcTemplate, never()).query(eq(QueryCostEstimator.sampleSql(PduType.ENTITY_STATE)),
+                any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void measureRate_samplesNewestRowsWhileTheWindowIsNotIndexed() {
+        givenNewest(5_000, 10_000);
+        when(pduIdIndexService.idRange(PduType.ENTITY_STATE, 9_901, 10_000)).thenReturn(new PduIdIndexService.IdRange(1, 0, 0));
+        givenSample(300, 99);
+
+        assertEquals(3.0, estimator(pduIdIndexService).measureRate(PduType.ENTITY_STATE), 1e-9);
+    }
+
+    @Test
+    void measureRate_withoutIndex_ratesAFullSampleOverItsOwnSpan() {
+        givenSample(1000, 20);
+
+        assertEquals(50.0, estimator(null).measureRate(PduType.ENTITY_STATE), 1e-9);
+    }
+}
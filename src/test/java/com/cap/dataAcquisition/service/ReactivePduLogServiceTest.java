@@ -0,0 +1,114 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.FireEventRecord;
+import com.cap.dataAcquisition.model.PduType;
+import io.r2dbc.spi.Readable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePduLogServiceTest {
+
+    @Mock
+    private DatabaseClient databaseClient;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ReactivePduLogService newService() {
+        ReactivePduLogService service = new ReactivePduLogService(databaseClient, metricsService,
+                RecordColumnsTest.hibernateMapping(), null);
+        ReflectionTestUtils.setField(service, "maxStreams", 1);
+        ReflectionTestUtils.setField(service, "idleTimeoutMillis", 30_000L);
+        return service;
+    }
+
+    @Test
+    void logSql_filtersByOriginatingEntityWhenGiven() {
+        assertEquals("SELECT * FROM fire_event_record WHERE (id BETWEEN :fromId AND :toId OR id > :tailAfterId) "
+                        + "AND timestamp BETWEEN :startTime AND :endTime ORDER BY timestamp, id",
+                ReactivePduLogService.logSql(PduType.FIRE_EVENT, null));
+        assertEquals("SELECT * FROM fire_event_record WHERE firing_site = :site AND firing_application = :application "
+                        + "AND firing_entity = :entity AND timestamp BETWEEN :startTime AND :endTime ORDER BY timestamp, id",
+                ReactivePduLogService.logSql(PduType.FIRE_EVENT, new DisEntityId(1, 2, 3)));
+    }
+
+    @Test
+    void toRecord_fillsTheRecordFromItsColumns() {
+        Map<String, Object> values = Map.of("id", 7L, "firing_site", 1, "firing_application", 2, "firing_entity", 3,
+                "timestamp", 123L);
+        Readable row = mock(Readable.class);
+        when(row.get(anyString())).thenAnswer(invocation -> values.getOrDefault(invocation.<String>getArgument(0), 0));
+
+        ReactivePduLogService service = newService();
+
+        FireEventRecord record = (FireEventRecord) service.toRecord(PduType.FIRE_EVENT, row);
+
+        assertEquals(7L, record.getId());
+        assertEquals(1, record.getFiringSite());
+        assertEquals(2, record.getFiringApplication());
+        assertEquals(3, record.getFiringEntity());
+        assertEquals(123L, record.getTimestamp());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamLogs_readsTablesInOrderAndSkipsTypesWithoutTheEntity() {
+        List<String> queries = new ArrayList<>();
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        RowsFetchSpec<Object> rows = mock(RowsFetchSpec.class);
+        when(databaseClient.sql(anyString())).thenAnswer(invocation -> {
+            queries.add(invocation.getArgument(0));
+            return spec;
+        });
+        when(spec.bind(anyString(), any())).thenReturn(spec);
+        when(spec.filter(any(Function.class))).thenReturn(spec);
+        when(spec.map(any(Function.class))).thenReturn(rows);
+        when(rows.all()).thenReturn(Flux.just(new FireEventRecord()));
+        PduLogResponse.PduLogEntry entry = new PduLogResponse.PduLogEntry();
+        when(metricsService.toLogEntry(any())).thenReturn(entry);
+
+        ReactivePduLogService service = newService();
+
+        StepVerifier.create(service.streamLogs(1L, 2L, EnumSet.of(PduType.START_RESUME, PduType.FIRE_EVENT,
+                        PduType.ENTITY_STATE), new DisEntityId(1, 2, 3)))
+                .expectNext(entry, entry)
+                .verifyComplete();
+        assertEquals(2, queries.size());
+        assertTrue(queries.get(0).startsWith("SELECT * FROM entity_state_record WHERE site = :site"));
+        assertTrue(queries.get(1).startsWith("SELECT * FROM fire_event_record WHERE firing_site = :site"));
+    }
+
+    @Test
+    void streamLogs_refusesStreamsOverTheLimitUntilOneEnds() {
+        ReactivePduLogService service = newService();
+
+        Flux<PduLogResponse.PduLogEntry> first = service.streamLogs(1L, 2L, EnumSet.noneOf(PduType.class), null);
+        assertThrows(IllegalStateException.class,
+                () -> service.streamLogs(1L, 2L, EnumSet.noneOf(PduType.class), null));
+        StepVerifier.create(first).verifyComplete();
+
+        StepVerifier.create(service.streamLogs(1L, 2L, EnumSet.noneOf(PduType.class), null)).verifyComplete();
+    }
+}
@@ -7,9 +7,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -91,4 +98,43 @@ class RealTimeMetricsServiceTest {
         assertEquals(0L, actualMetrics.getDetonationPdusInLastSixtySeconds());
         // The fallback message is logged, not part of the returned DTO usually
     }
-}
\ No newline at end of file
+
+    // --- Non-blocking variant: upstream answers come from a stubbed exchange function ---
+    private RealTimeMetricsService reactiveService(Mono<ClientResponse> upstream) {
+        RealTimeMetricsService service = new RealTimeMetricsService(restTemplate,
+                WebClient.builder().exchangeFunction(request -> {
+                    assertEquals(fullMetricsUrl, request.url().toString());
+                    return upstream;
+                }));
+        ReflectionTestUtils.setField(service, "dataIngestionServiceUrl", testServiceUrl);
+        ReflectionTestUtils.setField(service, "upstreamTimeoutMillis", 2000L);
+        return service;
+    }
+
+    @Test
+    void getLatestMetricsReactive_success() {
+        ClientResponse response = ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"lastPduReceivedTimestampMs\":12345,\"pdusInLastSixtySeconds\":100}")
+                .build();
+
+        StepVerifier.create(reactiveService(Mono.just(response)).getLatestMetricsReactive())
+                .assertNext(metrics -> {
+                    assertEquals(12345L, metrics.getLastPduReceivedTimestampMs());
+                    assertEquals(100L, metrics.getPdusInLastSixtySeconds());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getLatestMetricsReactive_upstreamErrorFallsBack() {
+        ClientResponse response = ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build();
+
+        StepVerifier.create(reactiveService(Mono.just(response)).getLatestMetricsReactive())
+                .assertNext(metrics -> {
+                    assertEquals(0L, metrics.getLastPduReceivedTimestampMs());
+                    assertEquals(0L, metrics.getPdusInLastSixtySeconds());
+                })
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,49 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordColumnsTest {
+
+    private static RecordColumns hibernateMapping;
+
+    /**
+     * The mapping of the record entities as the application builds it (Spring Boot's physical naming strategy), from a
+     * session factory bootstrapped without a database.
+     */
+    static synchronized RecordColumns hibernateMapping() {
+        if (hibernateMapping == null) {
+            MetadataSources sources = new MetadataSources(new StandardServiceRegistryBuilder()
+                    .applySetting("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                    .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                    .applySetting("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName())
+                    .build());
+            for (PduType type : PduType.values()) {
+                sources.addAnnotatedClass(type.getRecordClass());
+            }
+            SessionFactory sessionFactory = sources.buildMetadata().buildSessionFactory();
+            hibernateMapping = new RecordColumns(sessionFactory);
+        }
+        return hibernateMapping;
+    }
+
+    @Test
+    void of_mapsEveryPropertyToItsHibernateColumn() {
+        Map<String, String> entityState = hibernateMapping().of(PduType.ENTITY_STATE);
+        Map<String, String> fireEvent = hibernateMapping().of(PduType.FIRE_EVENT);
+
+        assertEquals("id", entityState.keySet().iterator().next());
+        assertEquals("locationx", entityState.get("locationX"));
+        assertEquals("firing_site", fireEvent.get("firingSite"));
+        assertEquals("timestamp", fireEvent.get("timestamp"));
+        assertEquals(11, fireEvent.size()); // id, three entity triples, timestamp
+    }
+}
@@ -0,0 +1,104 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordRangeCacheTest {
+
+    private record Row(long id, long timestamp) {
+    }
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RecordRangeCache cache;
+    private final List<Row> table = new ArrayList<>();
+    private final List<long[]> rangeReads = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecordRangeCache(jdbcTemplate);
+        ReflectionTestUtils.setField(cache, "maxRows", 100L);
+        ReflectionTestUtils.setField(cache, "idOverlap", 2L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> table.stream().mapToLong(Row::id).max().orElse(0L));
+    }
+
+    private void insert(long id, long timestamp) {
+        table.add(new Row(id, timestamp));
+    }
+
+    private List<Row> find(PduType type, long start, long end) {
+        BiFunction<Long, Long, List<Row>> byTimestamp = (from, to) -> {
+            rangeReads.add(new long[]{from, to});
+            return table.stream().filter(row -> row.timestamp() >= from && row.timestamp() <= to).toList();
+        };
+        return cache.find(type, start, end, Row::id, Row::timestamp, byTimestamp, (afterId, from, to) ->
+                table.stream().filter(row -> row.id() > afterId && row.timestamp() >= from && row.timestamp() <= to).toList());
+    }
+
+    @Test
+    void growingEnd_readsOnlyPastTheWatermark() {
+        insert(1, 100);
+        insert(2, 150);
+        assertEquals(2, find(PduType.ENTITY_STATE, 100, 200).size());
+
+        insert(3, 250);
+        List<Row> rows = find(PduType.ENTITY_STATE, 100, 300);
+
+        assertEquals(List.of(1L, 2L, 3L), rows.stream().map(Row::id).toList());
+        assertArrayEquals(new long[]{100, 200}, rangeReads.get(0));
+        assertArrayEquals(new long[]{201, 300}, rangeReads.get(1));
+
+        // A later start inside the segment is served from memory
+        assertEquals(List.of(2L), find(PduType.ENTITY_STATE, 120, 200).stream().map(Row::id).toList());
+        assertEquals(2, rangeReads.size());
+    }
+
+    @Test
+    void lateRowsBelowTheWatermark_areAppendedOnce() {
+        insert(1, 100);
+        insert(2, 150);
+        find(PduType.FIRE_EVENT, 100, 200);
+
+        insert(3, 120); // arrives after the range was cached
+        assertEquals(3, find(PduType.FIRE_EVENT, 100, 200).size());
+        // Ids 2 and 3 are re-read inside the overlap on the next call and must not be duplicated
+        List<Row> rows = find(PduType.FIRE_EVENT, 100, 200);
+
+        assertEquals(List.of(1L, 2L, 3L), rows.stream().map(Row::id).toList());
+        assertEquals(3, cache.getCachedRows());
+    }
+
+    @Test
+    void segmentsAreEvictedLeastRecentlyUsedBeyondMaxRows() {
+        ReflectionTestUtils.setField(cache, "maxRows", 3L);
+        insert(1, 100);
+        insert(2, 110);
+        find(PduType.ENTITY_STATE, 100, 110);
+        find(PduType.COLLISION, 100, 110);
+        assertEquals(2, cache.getCachedRows()); // 4 rows is over the limit: the ENTITY_STATE segment was dropped
+
+        rangeReads.clear();
+        find(PduType.COLLISION, 100, 110);
+        assertTrue(rangeReads.isEmpty());
+        find(PduType.ENTITY_STATE, 100, 110);
+        assertEquals(1, rangeReads.size());
+    }
+}
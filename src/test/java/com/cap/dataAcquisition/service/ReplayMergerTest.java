@@ -0,0 +1,90 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayMergerTest {
+
+    /** In-memory tables honouring the (timestamp, id) keyset contract of the real page query. */
+    private final Map<PduType, List<ReplayMerger.Row>> tables = new EnumMap<>(PduType.class);
+
+    private final ReplayMerger.PageLoader loader = (type, afterEpochSeconds, afterId, limit) ->
+            tables.getOrDefault(type, List.of()).stream()
+                    .filter(row -> row.epochSeconds() > afterEpochSeconds
+                            || (row.epochSeconds() == afterEpochSeconds && row.id() > afterId))
+                    .limit(limit)
+                    .toList();
+
+    private void add(PduType type, long id, long epochSeconds) {
+        tables.computeIfAbsent(type, t -> new ArrayList<>()).add(new ReplayMerger.Row(type, id, epochSeconds, null));
+    }
+
+    private List<String> drain(ReplayMerger merger) {
+        List<String> rows = new ArrayList<>();
+        for (ReplayMerger.Row row = merger.next(); row != null; row = merger.next()) {
+            rows.add(row.epochSeconds() + ":" + row.type().getLogName() + ":" + row.id());
+        }
+        return rows;
+    }
+
+    @Test
+    void merge_ordersByTimeThenTypeThenId() {
+        add(PduType.ENTITY_STATE, 1, 100);
+        add(PduType.ENTITY_STATE, 2, 100);
+        add(PduType.ENTITY_STATE, 3, 102);
+        add(PduType.FIRE_EVENT, 7, 100);
+        add(PduType.FIRE_EVENT, 8, 101);
+        add(PduType.DETONATION, 4, 101);
+
+        ReplayMerger merger = new ReplayMerger(loader, 2, 100);
+
+        assertEquals(100L, merger.peekEpochSeconds());
+        assertEquals(List.of("100:EntityState:1", "100:EntityState:2", "100:FireEvent:7",
+                "101:FireEvent:8", "101:Detonation:4", "102:EntityState:3"), drain(merger));
+        assertNull(merger.peekEpochSeconds());
+    }
+
+    @Test
+    void merge_buffersAtMostOnePagePerTable() {
+        for (int i = 1; i <= 1000; i++) {
+            add(PduType.ENTITY_STATE, i, 100 + i / 10);
+            add(PduType.COLLISION, i, 100 + i / 7);
+        }
+        ReplayMerger merger = new ReplayMerger(loader, 50, 0);
+
+        int maxBuffered = 0;
+        int rows = 0;
+        while (merger.next() != null) {
+            rows++;
+            maxBuffered = Math.max(maxBuffered, merger.buffered());
+        }
+
+        assertEquals(2000, rows);
+        assertTrue(maxBuffered <= 2 * 50, "buffered " + maxBuffered);
+    }
+
+    @Test
+    void seek_restartsEveryCursorAtTheRequestedTime() {
+        add(PduType.ENTITY_STATE, 1, 100);
+        add(PduType.ENTITY_STATE, 2, 105);
+        add(PduType.ENTITY_STATE, 3, 110);
+        add(PduType.START_RESUME, 9, 105);
+        ReplayMerger merger = new ReplayMerger(loader, 10, 100);
+        merger.next();
+        merger.next();
+
+        merger.seek(105);
+        assertEquals(List.of("105:EntityState:2", "105:StartResume:9", "110:EntityState:3"), drain(merger));
+
+        merger.seek(100);
+        assertEquals(100L, merger.peekEpochSeconds());
+        assertEquals(4, drain(merger).size());
+    }
+}
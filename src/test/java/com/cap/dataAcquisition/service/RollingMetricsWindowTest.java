@@ -0,0 +1,82 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class RollingMetricsWindowTest {
+
+    private static final long NOW = 1_714_525_230L; // 2024-05-01T01:00:30Z
+    private static final int ENTITY_STATE = PduType.ENTITY_STATE.ordinal();
+    private static final int FIRE_EVENT = PduType.FIRE_EVENT.ordinal();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RollingMetricsWindow window;
+
+    @BeforeEach
+    void setUp() {
+        window = new RollingMetricsWindow(jdbcTemplate, null);
+        ReflectionTestUtils.setField(window, "windowMinutes", 60);
+        ReflectionTestUtils.setField(window, "batchSize", 100);
+        ReflectionTestUtils.setField(window, "idOverlap", 10L);
+        // Empty tables: the rows of each test are applied directly
+        lenient().when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(null);
+        lenient().when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), any(), any())).thenReturn(0);
+        window.refresh(NOW);
+    }
+
+    private static long dis(long epochSeconds) {
+        return MetricsService.toDisAbsoluteTimestamp(epochSeconds);
+    }
+
+    @Test
+    void countPerSecond_bucketsRowsAndCountsReReadIdsOnce() {
+        window.apply(ENTITY_STATE, 1, dis(NOW - 5), NOW);
+        window.apply(ENTITY_STATE, 2, dis(NOW - 5), NOW);
+        window.apply(ENTITY_STATE, 2, dis(NOW - 5), NOW); // re-read inside the id overlap
+        window.apply(FIRE_EVENT, 1, dis(NOW - 3600), NOW);
+
+        int[][] perSecond = window.countPerSecond(NOW - 3600, NOW);
+
+        assertEquals(3601, perSecond[ENTITY_STATE].length);
+        assertEquals(2, perSecond[ENTITY_STATE][3595]);
+        assertEquals(1, perSecond[FIRE_EVENT][0]);
+    }
+
+    @Test
+    void minutesLeavingTheWindowAreExpired() {
+        window.apply(ENTITY_STATE, 1, dis(NOW - 3610), NOW); // minute 00:00, the oldest one kept
+        window.apply(ENTITY_STATE, 2, dis(NOW - 3700), NOW); // already outside the window
+
+        long later = NOW + 120; // two minutes on, minute 00:00 has left the window and its slot is reused
+        window.apply(ENTITY_STATE, 3, dis(later - 10), later);
+        int[][] perSecond = window.countPerSecond(later - 3600, later);
+
+        assertEquals(1, Arrays.stream(perSecond[ENTITY_STATE]).sum());
+        assertEquals(1, perSecond[ENTITY_STATE][3590]);
+    }
+
+    @Test
+    void covers_onlyTheRetainedMinutes() {
+        assertTrue(window.covers(NOW - 3600, NOW));
+        assertFalse(window.covers(NOW - 3700, NOW));
+        assertThrows(IllegalArgumentException.class, () -> window.countPerSecond(NOW - 86_400, NOW));
+    }
+}
@@ -0,0 +1,57 @@
+package com.cap.dataAcquisition.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowPeakTest {
+
+    @Test
+    void find_catchesBurstStraddlingAMinuteBoundary() {
+        int[] perSecond = new int[180]; // epoch seconds 600..779
+        for (int second = 115; second < 125; second++) {
+            perSecond[second] = 50; // 715..724, across the 720 minute boundary
+        }
+
+        SlidingWindowPeak.Peak minutes = SlidingWindowPeak.find(perSecond, 600, 60, 60);
+        SlidingWindowPeak.Peak sliding = SlidingWindowPeak.find(perSecond, 600, 10, 1);
+
+        assertEquals(250, minutes.count()); // the burst is split over two minute buckets
+        assertEquals(new SlidingWindowPeak.Peak(715, 725, 500), sliding);
+    }
+
+    @Test
+    void find_clipsWindowsToTheArrayAndPrefersTheEarliestPeak() {
+        int[] perSecond = new int[30]; // epoch seconds 1005..1034
+        perSecond[0] = 3;
+        perSecond[29] = 3;
+
+        assertEquals(new SlidingWindowPeak.Peak(1005, 1010, 3), SlidingWindowPeak.find(perSecond, 1005, 10, 10));
+        assertNull(SlidingWindowPeak.find(new int[10], 0, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> SlidingWindowPeak.find(perSecond, 0, 0, 1));
+    }
+
+    @Test
+    void accumulator_matchesFindWhenCountsArriveInPieces() {
+        Random random = new Random(42);
+        int[] perSecond = new int[1000]; // epoch seconds 1003..2002
+        for (int i = 0; i < perSecond.length; i++) {
+            perSecond[i] = random.nextInt(10) < 8 ? 0 : random.nextInt(50);
+        }
+        int[][] shapes = {{10, 1}, {60, 60}, {7, 3}, {1, 1}};
+        for (int[] shape : shapes) {
+            SlidingWindowPeak.Accumulator accumulator = new SlidingWindowPeak.Accumulator(1003, shape[0], shape[1]);
+            int from = 0;
+            for (int piece : new int[]{1, 59, 3, 300, 637}) {
+                accumulator.add(Arrays.copyOfRange(perSecond, from, from + piece), 1003 + from);
+                from += piece;
+            }
+            assertEquals(SlidingWindowPeak.find(perSecond, 1003, shape[0], shape[1]), accumulator.peak());
+        }
+        SlidingWindowPeak.Accumulator accumulator = new SlidingWindowPeak.Accumulator(0, 10, 1);
+        assertThrows(IllegalStateException.class, () -> accumulator.add(new int[5], 1));
+    }
+}
@@ -0,0 +1,144 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduLogResponse;
+import com.cap.dataAcquisition.model.DisEntityId;
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SparseFieldServiceTest {
+
+    private static final long DIS_START = MetricsService.toDisAbsoluteTimestamp(1_700_000_000L);
+    private static final long DIS_END = MetricsService.toDisAbsoluteTimestamp(1_700_000_059L);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private SparseFieldService service;
+    private final List<String> queries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new SparseFieldService(jdbcTemplate, metricsService, RecordColumnsTest.hibernateMapping(), null);
+    }
+
+    // Maps one row per query through the RowMapper; every column reads as id 7, the window start, or 1.5
+    private void answerOneRow() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        lenient().when(rs.getObject(anyString())).thenAnswer(invocation -> "id".equals(invocation.getArgument(0)) ? (Object) 7L : 1.5);
+        lenient().when(rs.getLong(anyString())).thenAnswer(invocation -> "id".equals(invocation.getArgument(0)) ? 7L : DIS_START);
+        doAnswer(invocation -> {
+            queries.add(invocation.getArgument(0));
+            RowMapper<?> mapper = invocation.getArgument(1);
+            return List.of(mapper.mapRow(rs, 0));
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    void recordFields_rejectsUnknownAndEmptyLists() {
+        assertEquals(List.of("id", "locationX"), List.copyOf(service.recordFields(PduType.ENTITY_STATE, "id, locationX")));
+        assertThrows(IllegalArgumentException.class, () -> service.recordFields(PduType.ENTITY_STATE, "id,firingSite"));
+        assertThrows(IllegalArgumentException.class, () -> service.recordFields(PduType.ENTITY_STATE, " , "));
+        assertThrows(IllegalArgumentException.class, () -> service.logFields("PDUType,bogus"));
+    }
+
+    @Test
+    void findRecords_selectsOnlyTheRequestedColumns() throws Exception {
+        answerOneRow();
+
+        List<Map<String, Object>> rows = service.findRecords(PduType.ENTITY_STATE,
+                service.recordFields(PduType.ENTITY_STATE, "id,locationX"), DIS_START, DIS_END);
+
+        assertEquals("SELECT id, locationx FROM entity_state_record WHERE timestamp BETWEEN ? AND ?", queries.get(0));
+        assertEquals(List.of(Map.of("id", 7L, "locationX", 1.5)), rows);
+    }
+
+    @Test
+    void logTypes_skipsTypesWithoutAnySelectedField() {
+        assertEquals(EnumSet.of(PduType.ENTITY_STATE, PduType.DETONATION), service.logTypes(Set.of("locationX")));
+        assertEquals(EnumSet.allOf(PduType.class), service.logTypes(Set.of("PDUType")));
+        assertFalse(service.logTypes(Set.of("timestampEpoch")).contains(PduType.DETONATION));
+    }
+
+    @Test
+    void getPduLogs_readsOnlyTheTimestampForATimestampView() throws Exception {
+        answerOneRow();
+
+        PduLogResponse response = service.getPduLogs(DIS_START, DIS_END, service.logFields("PDUType,timestampEpoch"),
+                EnumSet.allOf(PduType.class), null);
+
+        // Detonation and ActionRequest entries have no timestampEpoch, so only their id is read for PDUType
+        assertEquals(8, queries.stream().filter(sql -> sql.startsWith("SELECT timestamp FROM ")).count());
+        assertTrue(queries.contains("SELECT id FROM detonation_record WHERE timestamp BETWEEN ? AND ?"));
+        PduLogResponse.PduLogEntry first = response.getPduMessages().get(0);
+        assertNull(first.getId());
+        assertNull(first.getLength());
+        assertEquals("EntityState", first.getPduType());
+        assertEquals(Map.of("timestampEpoch", 1_700_000_000L), first.getRecordDetails());
+        verifyNoInteractions(metricsService);
+    }
+
+    @Test
+    void project_keepsOnlyTheSelectedFields() {
+        PduLogResponse.PduLogEntry entry = new PduLogResponse.PduLogEntry(3L, "FireEvent", 96,
+                Map.of("firingSite", 1, "timestamp", DIS_START));
+
+        PduLogResponse.PduLogEntry projected = SparseFieldService.project(entry, Set.of("Id", "firingSite"));
+
+        assertEquals(3L, projected.getId());
+        assertNull(projected.getPduType());
+        assertEquals(Map.of("firingSite", 1), projected.getRecordDetails());
+    }
+
+    @Test
+    void getPduLogs_withConsolidatedStorage_trimsTheFullLogs() {
+        ReflectionTestUtils.setField(service, "consolidatedStorage", true);
+        when(metricsService.getPduLogs(DIS_START, DIS_END, EnumSet.of(PduType.ENTITY_STATE, PduType.DETONATION), null))
+                .thenReturn(new PduLogResponse(List.of(
+                new PduLogResponse.PduLogEntry(1L, "EntityState", 144, Map.of("locationX", 2.0, "site", 1)))));
+
+        PduLogResponse response = service.getPduLogs(DIS_START, DIS_END, Set.of("locationX"),
+                EnumSet.allOf(PduType.class), null);
+
+        assertEquals(1, response.getPduMessages().size());
+        assertEquals(Map.of("locationX", 2.0), response.getPduMessages().get(0).getRecordDetails());
+    }
+
+    @Test
+    void getPduLogs_entityFilter_becomesAnIndexedPredicate() throws Exception {
+        answerOneRow();
+
+        service.getPduLogs(DIS_START, DIS_END, service.logFields("Id"), EnumSet.of(PduType.FIRE_EVENT, PduType.START_RESUME),
+                new DisEntityId(1, 2, 3));
+
+        // StartResume has no originating entity and is skipped
+        assertEquals(List.of("SELECT id FROM fire_event_record WHERE firing_site = ? AND firing_application = ? " +
+                "AND firing_entity = ? AND timestamp BETWEEN ? AND ?"), queries);
+    }
+}
@@ -0,0 +1,85 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.SpatialQueryResponse;
+import com.cap.dataAcquisition.model.DetonationRecord;
+import com.cap.dataAcquisition.model.EntityStateRecord;
+import com.cap.dataAcquisition.repository.DetonationRepository;
+import com.cap.dataAcquisition.repository.EntityStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SpatialQueryServiceTest {
+
+    @Mock
+    private EntityStateRepository entityStateRepository;
+
+    @Mock
+    private DetonationRepository detonationRepository;
+
+    @InjectMocks
+    private SpatialQueryService spatialQueryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(spatialQueryService, "maxResults", 2);
+    }
+
+    @Test
+    void findEntityStates_box_convertsWindowAndOpensMissingZBounds() {
+        // No time-to-id index: the id range matches every row
+        when(entityStateRepository.findWithinBox(0.0, 0.0, -Double.MAX_VALUE, 10.0, 10.0, Double.MAX_VALUE, 1L, 0L, 0L,
+                MetricsService.toDisAbsoluteTimestamp(100L), MetricsService.toDisAbsoluteTimestamp(200L), 3))
+                .thenReturn(List.of(new EntityStateRecord()));
+
+        SpatialQueryResponse<EntityStateRecord> response = spatialQueryService.findEntityStates(
+                new SpatialQueryService.Box(0, 0, null, 10, 10, null), 100L, 200L);
+
+        assertEquals("box", response.getShape());
+        assertEquals(1, response.getCount());
+        assertFalse(response.isTruncated());
+        verifyNoInteractions(detonationRepository);
+    }
+
+    @Test
+    void findDetonations_sphere_truncatesAtMaxResults() {
+        when(detonationRepository.findWithinSphere(eq(1.0), eq(2.0), eq(3.0), eq(50.0), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyInt()))
+                .thenReturn(Collections.nCopies(3, new DetonationRecord()));
+
+        SpatialQueryResponse<DetonationRecord> response = spatialQueryService.findDetonations(
+                new SpatialQueryService.Sphere(1, 2, 3, 50), 100L, 200L);
+
+        assertEquals("sphere", response.getShape());
+        assertEquals(2, response.getCount());
+        assertEquals(2, response.getRecords().size());
+        assertTrue(response.isTruncated());
+        verify(detonationRepository).findWithinSphere(eq(1.0), eq(2.0), eq(3.0), eq(50.0), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), eq(3));
+    }
+
+    @Test
+    void invalidShapesAndWindowsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SpatialQueryService.Box(5, 0, null, 1, 10, null));
+        assertThrows(IllegalArgumentException.class, () -> new SpatialQueryService.Sphere(0, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> spatialQueryService.findEntityStates(
+                new SpatialQueryService.Box(0, 0, null, 1, 1, null), 200L, 100L));
+        verifyNoInteractions(entityStateRepository);
+    }
+}
@@ -0,0 +1,122 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.dto.PduRateSeries;
+import com.cap.dataAcquisition.model.PduType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimeSeriesServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PduCountRollupService rollupService;
+
+    private TimeSeriesService service(PduCountRollupService rollup) {
+        TimeSeriesService service = new TimeSeriesService(jdbcTemplate, rollup, null);
+        ReflectionTestUtils.setField(service, "maxPointsLimit", 5000);
+        return service;
+    }
+
+    // Feeds (pduType, bucket, count) rows to the RowCallbackHandler of every query
+    private void answerRows(long[]... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (long[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getShort("pdu_type")).thenReturn((short) row[0]);
+                when(rs.getLong("bucket")).thenReturn(row[1]);
+                when(rs.getLong("count")).thenReturn(row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void pickBucketSeconds_staysUnderMaxPoints() {
+        assertEquals(1, TimeSeriesService.pickBucketSeconds(0, 599, 1000));
+        assertEquals(60, TimeSeriesService.pickBucketSeconds(0, 3600 * 12 - 1, 1000));
+        assertEquals(3600, TimeSeriesService.pickBucketSeconds(0, 30L * 86400 - 1, 1000));
+        assertEquals(86400, TimeSeriesService.pickBucketSeconds(0, 3650L * 86400, 10));
+    }
+
+    @Test
+    void getSeries_withoutRollup_usesOneGroupByAndZeroFills() throws SQLException {
+        answerRows(new long[]{PduType.ENTITY_STATE.getDisCode(), 120, 7}, new long[]{PduType.FIRE_EVENT.getDisCode(), 120, 2});
+
+        PduRateSeries series = service(null).getSeries(0, 599, 10);
+
+        assertEquals(60, series.getBucketSeconds());
+        assertEquals("raw", series.getSource());
+        assertEquals(10, series.getBuckets().size());
+        PduRateSeries.Bucket bucket = series.getBuckets().get(2);
+        assertEquals(120, bucket.getBucketStart());
+        assertEquals(9, bucket.getTotal());
+        assertEquals(7L, bucket.getCounts().get("EntityState"));
+        assertEquals(0, series.getBuckets().get(0).getTotal());
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).query(contains("UNION ALL"), any(RowCallbackHandler.class), args.capture());
+        // Bucket size, then the (unbounded) id range and the DIS window of each table
+        assertEquals(List.of(60L, 60L, 1L, 0L, 0L, MetricsService.toDisAbsoluteTimestamp(0), MetricsService.toDisAbsoluteTimestamp(599)),
+                List.of(args.getValue()).subList(0, 7));
+        assertEquals(7 * PduType.values().length, args.getValue().length);
+    }
+
+    @Test
+    void getSeries_readsCoveredMinutesFromRollupAndTailFromTables() throws SQLException {
+        when(rollupService.getCoveredUntil()).thenReturn(3600L);
+        answerRows(new long[]{PduType.COLLISION.getDisCode(), 0, 1});
+
+        PduRateSeries series = service(rollupService).getSeries(0, 7199, 120);
+
+        assertEquals(60, series.getBucketSeconds());
+        assertEquals("rollup+raw", series.getSource());
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(contains("pdu_count_rollup"), any(RowCallbackHandler.class), args.capture());
+        assertEquals(List.of(60L, 60L, 0L, 3600L), List.of(args.getValue()));
+        verify(jdbcTemplate).query(contains("UNION ALL"), any(RowCallbackHandler.class), any(Object[].class));
+        // Both queries fed the same row into bucket 0
+        assertEquals(2L, series.getBuckets().get(0).getCounts().get("Collision"));
+    }
+
+    @Test
+    void getSeries_subMinuteBucketsNeverUseRollup() {
+        PduRateSeries series = service(rollupService).getSeries(0, 59, 100);
+
+        assertEquals(1, series.getBucketSeconds());
+        assertEquals("raw", series.getSource());
+        verify(jdbcTemplate, never()).query(contains("pdu_count_rollup"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void getSeries_rejectsInvalidArguments() {
+        TimeSeriesService service = service(null);
+        assertThrows(IllegalArgumentException.class, () -> service.getSeries(10, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> service.getSeries(0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.getSeries(0, 10, 5001));
+    }
+}
@@ -0,0 +1,54 @@
+package com.cap.dataAcquisition.service;
+
+import com.cap.dataAcquisition.model.TopEntityRole;
+import com.cap.dataAcquisition.sketch.SpaceSaving;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TopEntitiesStreamServiceTest {
+
+    private final TopEntitiesStreamService service = new TopEntitiesStreamService(mock(JdbcTemplate.class), null);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "windowMinutes", 60);
+        ReflectionTestUtils.setField(service, "capacity", 16);
+    }
+
+    @Test
+    void summarize_mergesOnlyTheRequestedMinutes() {
+        long now = Instant.now().getEpochSecond();
+        long minute = Math.floorDiv(now, 60);
+        service.apply(TopEntityRole.FIRING, minute, 1, 1, 5);
+        service.apply(TopEntityRole.FIRING, minute - 1, 1, 1, 5);
+        service.apply(TopEntityRole.FIRING, minute - 1, 1, 1, 6);
+        service.apply(TopEntityRole.FIRING, minute - 30, 1, 1, 6);
+        service.apply(TopEntityRole.FIRING, minute - 30, 1, 1, 6);
+
+        List<SpaceSaving.Entry> lastTwo = service.summarize(TopEntityRole.FIRING, 2, now).top(10);
+        List<SpaceSaving.Entry> lastHour = service.summarize(TopEntityRole.FIRING, 60, now).top(10);
+
+        assertEquals(LatestEntityStateService.packKey(1, 1, 5), lastTwo.get(0).key());
+        assertEquals(2, lastTwo.get(0).count());
+        assertEquals(LatestEntityStateService.packKey(1, 1, 6), lastHour.get(0).key());
+        assertEquals(3, lastHour.get(0).count());
+    }
+
+    @Test
+    void apply_skipsUnknownTargetsAndEventsOutsideTheWindow() {
+        long now = Instant.now().getEpochSecond();
+        long minute = Math.floorDiv(now, 60);
+        service.apply(TopEntityRole.TARGETED, minute, 0, 0, 0);
+        service.apply(TopEntityRole.TARGETED, minute - 90, 1, 1, 1);
+
+        assertTrue(service.summarize(TopEntityRole.TARGETED, 60, now).isEmpty());
+    }
+}
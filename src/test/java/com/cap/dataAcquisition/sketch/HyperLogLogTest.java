@@ -0,0 +1,72 @@
+package com.cap.dataAcquisition.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_isWithinThreeStandardErrors() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 0;
+        for (int site = 1; site <= 10; site++) {
+            for (int entity = 0; entity < 10_000; entity++) {
+                sketch.addEntity(site, 3, entity);
+                sketch.addEntity(site, 3, entity); // duplicates must not count
+                distinct++;
+            }
+        }
+        double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+        assertTrue(error < 3 * sketch.relativeStandardError(), "relative error " + error);
+    }
+
+    @Test
+    void estimate_smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0, sketch.estimate());
+        for (int entity = 0; entity < 50; entity++) {
+            sketch.addEntity(1, 1, entity);
+        }
+        assertEquals(50, sketch.estimate(), 1);
+    }
+
+    @Test
+    void merge_equalsSketchOfTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int entity = 0; entity < 3000; entity++) {
+            (entity < 2000 ? first : second).addEntity(1, 1, entity);
+            union.addEntity(1, 1, entity);
+        }
+        for (int entity = 1000; entity < 2000; entity++) {
+            second.addEntity(1, 1, entity); // overlap
+        }
+        first.merge(second);
+        assertEquals(union.estimate(), first.estimate());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void toBytes_roundTripsSparseAndDense() {
+        HyperLogLog sparse = new HyperLogLog();
+        for (int entity = 0; entity < 20; entity++) {
+            sparse.addEntity(1, 1, entity);
+        }
+        byte[] sparseBytes = sparse.toBytes();
+        assertEquals(2 + 20 * 3, sparseBytes.length, 6); // a couple of collisions at most
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparseBytes).estimate());
+
+        HyperLogLog dense = new HyperLogLog();
+        for (int entity = 0; entity < 60_000; entity++) {
+            dense.addEntity(2, 1, entity);
+        }
+        byte[] denseBytes = dense.toBytes();
+        assertEquals(2 + 4096, denseBytes.length);
+        HyperLogLog restored = HyperLogLog.fromBytes(denseBytes);
+        assertEquals(dense.estimate(), restored.estimate());
+        assertFalse(restored.isEmpty());
+        assertTrue(new HyperLogLog().isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package com.cap.dataAcquisition.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateHistogramTest {
+
+    @Test
+    void percentile_isExactForSmallValues() {
+        RateHistogram histogram = new RateHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(50, histogram.percentile(50));
+        assertEquals(95, histogram.percentile(95));
+        assertEquals(99, histogram.percentile(99));
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    void percentile_staysWithinBucketErrorForLargeValues() {
+        RateHistogram histogram = new RateHistogram();
+        Random random = new Random(7);
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + random.nextInt(1_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double pct : new double[]{50, 95, 99}) {
+            long exact = values[(int) Math.ceil(pct / 100 * values.length) - 1];
+            long reported = histogram.percentile(pct);
+            assertTrue(reported >= exact, pct + ": " + reported + " < " + exact);
+            assertTrue(reported <= exact * (1 + 1.0 / 64), pct + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void indexOf_andHighestValueOf_agreeOnBucketBoundaries() {
+        for (long value : new long[]{0, 127, 128, 129, 255, 256, 1_000, 65_535, 1L << 40}) {
+            int index = RateHistogram.indexOf(value);
+            assertTrue(RateHistogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || RateHistogram.highestValueOf(index - 1) < value);
+        }
+    }
+
+    @Test
+    void merge_matchesRecordingEverythingIntoOneHistogram() {
+        RateHistogram first = new RateHistogram();
+        RateHistogram second = new RateHistogram();
+        RateHistogram combined = new RateHistogram();
+        first.record(0, 3000);
+        combined.record(0, 3000);
+        for (int value = 1; value <= 600; value++) {
+            second.record(value * 10L);
+            combined.record(value * 10L);
+        }
+
+        first.merge(second);
+
+        assertEquals(combined.getTotalCount(), first.getTotalCount());
+        assertEquals(combined.getMax(), first.getMax());
+        assertEquals(combined.getMean(), first.getMean(), 1e-9);
+        for (double pct : new double[]{50, 90, 95, 99, 100}) {
+            assertEquals(combined.percentile(pct), first.percentile(pct));
+        }
+    }
+
+    @Test
+    void toBytes_roundTrips() {
+        RateHistogram histogram = new RateHistogram();
+        histogram.record(0, 3500);
+        histogram.record(42, 90);
+        histogram.record(12_345, 10);
+
+        RateHistogram copy = RateHistogram.fromBytes(histogram.toBytes());
+
+        assertEquals(3600, copy.getTotalCount());
+        assertEquals(12_345, copy.getMax());
+        assertEquals(histogram.getMean(), copy.getMean(), 1e-9);
+        assertEquals(0, copy.percentile(50));
+        assertEquals(42, copy.percentile(99));
+        assertEquals(12_345, copy.percentile(100));
+    }
+
+    @Test
+    void percentile_ofEmptyHistogramIsZero() {
+        assertEquals(0, new RateHistogram().percentile(99));
+    }
+}
@@ -0,0 +1,63 @@
+package com.cap.dataAcquisition.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void top_isExactWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (int i = 0; i < 5; i++) {
+            summary.offer(7L);
+        }
+        summary.offer(3L, 2);
+        summary.offer(9L);
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+
+        assertEquals(List.of(new SpaceSaving.Entry(7L, 5, 0), new SpaceSaving.Entry(3L, 2, 0)), top);
+        assertEquals(8, summary.getTotal());
+        assertEquals(0, summary.minCount());
+    }
+
+    @Test
+    void offer_findsHeavyHittersInBoundedMemory() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Random random = new Random(42);
+        long[] heavy = {101L, 202L, 303L};
+        for (int i = 0; i < 100_000; i++) {
+            summary.offer(i % 10 < 3 ? heavy[i % 10] : 1_000 + random.nextInt(20_000));
+        }
+
+        List<SpaceSaving.Entry> top = summary.top(3);
+
+        assertEquals(3, top.size());
+        for (SpaceSaving.Entry entry : top) {
+            assertTrue(entry.key() == 101L || entry.key() == 202L || entry.key() == 303L);
+            assertTrue(entry.count() - entry.error() <= 10_000 && entry.count() >= 10_000);
+        }
+    }
+
+    @Test
+    void merge_combinesCountsAndBoundsErrors() {
+        SpaceSaving first = new SpaceSaving(2);
+        SpaceSaving second = new SpaceSaving(2);
+        first.offer(1L, 10);
+        first.offer(2L, 3);
+        second.offer(1L, 4);
+        second.offer(3L, 5);
+
+        first.merge(second);
+
+        List<SpaceSaving.Entry> top = first.top(2);
+        assertEquals(new SpaceSaving.Entry(1L, 14, 0), top.get(0));
+        // key 3 was never seen by the first summary, which was full with a smallest count of 3
+        assertEquals(new SpaceSaving.Entry(3L, 8, 3), top.get(1));
+        assertEquals(22, first.getTotal());
+    }
+}